@@ -1,19 +1,29 @@
 package nl.han.dea.markkiepe.spotitube.datasource;
 
+import nl.han.dea.markkiepe.spotitube.datasource.credentials.CredentialsCache;
+import nl.han.dea.markkiepe.spotitube.datasource.credentials.UsernameFilter;
 import nl.han.dea.markkiepe.spotitube.datasource.dao.credentials.CredentialsDao;
 import nl.han.dea.markkiepe.spotitube.datasource.exceptions.credentials.AccountDoesNotExistException;
 import nl.han.dea.markkiepe.spotitube.datasource.exceptions.DatabaseErrorException;
+import nl.han.dea.markkiepe.spotitube.datasource.rowmapping.RowMapper;
 import nl.han.dea.markkiepe.spotitube.datasource.util.DatabaseProperties;
 import nl.han.dea.markkiepe.spotitube.datasource.util.SqlProperties;
 
-import java.sql.*;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Credentials Mapper<br>
  * This class is responsible for getting credential data from the database and converting it
  * to {@link CredentialsDao} Data Access Objects so it can be used by other classes.
+ * <br><br>
+ * Usernames that certainly do not exist are refused by the {@link UsernameFilter} without a query,
+ * and the credentials of recently looked up accounts are kept in the {@link CredentialsCache}.
  *
  * @see Mapper
+ * @see UsernameFilter
+ * @see CredentialsCache
  * @see DatabaseProperties
  * @see SqlProperties
  * @see CredentialsDao
@@ -26,6 +36,44 @@ import java.sql.*;
 public class CredentialsMapper extends Mapper {
 
     private static final String GET_PASSWORD_SCRIPT_NAME = "getAccountHashedPassword";
+    private static final String UPDATE_PASSWORD_SCRIPT_NAME = "updateAccountPassword";
+    private static final String GET_USERNAMES_SCRIPT_NAME = "getAllUsernames";
+
+    private static final RowMapper<String> USERNAME_ROW = new RowMapper<>(
+            (resultSet, columns) -> resultSet.getString(columns[0]),
+            "username"
+    );
+
+    private static final RowMapper<CredentialsDao> CREDENTIALS_ROW = new RowMapper<>(
+            (resultSet, columns) -> new CredentialsDao(
+                    resultSet.getInt(columns[0]),
+                    resultSet.getString(columns[1])
+            ),
+            "userId", "password"
+    );
+
+    private static UsernameFilter usernameFilter;
+    private static CredentialsCache credentialsCache;
+
+    /**
+     * Setter for the {@link UsernameFilter} that refuses usernames that do not exist.
+     * @param usernameFilter {@link UsernameFilter}
+     * @since 1.1
+     */
+    @Inject
+    public void setUsernameFilter(UsernameFilter usernameFilter) {
+        this.usernameFilter = usernameFilter;
+    }
+
+    /**
+     * Setter for the {@link CredentialsCache} that keeps recently looked up credentials.
+     * @param credentialsCache {@link CredentialsCache}
+     * @since 1.1
+     */
+    @Inject
+    public void setCredentialsCache(CredentialsCache credentialsCache) {
+        this.credentialsCache = credentialsCache;
+    }
 
     /**
      * This method gets the requested user info from the database.<br>
@@ -34,6 +82,9 @@ public class CredentialsMapper extends Mapper {
      * If the method manages to successfully retrieve data from the database a {@link CredentialsDao} object is created and returned.
      * <br><br>
      * If for whatever reason this method crashes while trying to execute the script an {@link DatabaseErrorException} exception is thrown.
+     * <br><br>
+     * A username that is refused by the {@link UsernameFilter} throws the {@link AccountDoesNotExistException}
+     * without a query. Credentials that are in the {@link CredentialsCache} are returned without a query as well.
      *
      * @see Mapper
      * @see CredentialsDao
@@ -52,31 +103,61 @@ public class CredentialsMapper extends Mapper {
     public CredentialsDao getUserInfo(String username)
             throws AccountDoesNotExistException, DatabaseErrorException
     {
-        try (ResultSet result = queryDatabase(GET_PASSWORD_SCRIPT_NAME, true, username);)
-        {
-            if (isDatabaseResultEmpty(result) == false) {
-
-                int userId = 0;
-                String hashedPassword = null;
-                //
-                while (result.next()) {
-                    userId = result.getInt("userId");
-                    hashedPassword = result.getString("password");
-                }
-
-                if (userId != 0 && hashedPassword != null) {
-                    CredentialsDao credentials = new CredentialsDao(
-                            userId,
-                            hashedPassword
-                    );
-                    return credentials;
-                }
-
+        long now = System.currentTimeMillis();
+        if (usernameFilter != null && usernameFilter.mightExist(username) == false) {
+            throw new AccountDoesNotExistException();
+        }
+        if (credentialsCache != null) {
+            CredentialsDao cached = credentialsCache.get(username, now);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        //
+        CredentialsDao credentials = mapFirstRow(GET_PASSWORD_SCRIPT_NAME, CREDENTIALS_ROW, username);
+        //
+        if (credentials != null && credentials.getUserId() != 0 && credentials.getPassword() != null) {
+            if (credentialsCache != null) {
+                credentialsCache.put(username, credentials, now);
             }
-        } catch(Exception e) {
-            e.printStackTrace();
-            throw new DatabaseErrorException();
+            return credentials;
         }
         throw new AccountDoesNotExistException();
     }
+
+    /**
+     * Replaces the hashed password of a user, for example because it was hashed in an outdated format.<br>
+     * The password is only replaced when the stored hash is still the given old hash, so a password that was
+     * changed in the meantime is never overwritten.
+     *
+     * @param userId {@link Integer} UserId of the account.
+     * @param oldPassword {@link String} hashed password that is replaced.
+     * @param newPassword {@link String} new hashed password.
+     * @return {@link Boolean} whether the password was replaced.
+     * @throws DatabaseErrorException When the script could not be executed.
+     * @since 1.1
+     */
+    public boolean updatePassword(int userId, String oldPassword, String newPassword) throws DatabaseErrorException {
+        try {
+            return updateDatabase(UPDATE_PASSWORD_SCRIPT_NAME, newPassword, userId, oldPassword) == 1;
+        } finally {
+            if (credentialsCache != null) {
+                credentialsCache.invalidate(userId);
+            }
+        }
+    }
+
+    /**
+     * Gets the usernames of all accounts, which the {@link UsernameFilter} is loaded with.
+     * The rows are streamed, so the result set is never kept in memory next to the list.
+     *
+     * @return {@link List} of {@link String} usernames.
+     * @throws DatabaseErrorException When the script could not be executed.
+     * @since 1.1
+     */
+    public List<String> getAllUsernames() throws DatabaseErrorException {
+        List<String> usernames = new ArrayList<>();
+        streamRows(GET_USERNAMES_SCRIPT_NAME, USERNAME_ROW, usernames::add);
+        return usernames;
+    }
 }
@@ -1,13 +1,31 @@
 package nl.han.dea.markkiepe.spotitube.datasource;
 
+import nl.han.dea.markkiepe.spotitube.datasource.binding.BindingPlan;
+import nl.han.dea.markkiepe.spotitube.datasource.binding.BindingPlanCache;
+import nl.han.dea.markkiepe.spotitube.datasource.binding.ParameterBinders;
+import nl.han.dea.markkiepe.spotitube.datasource.context.QueryDeadline;
 import nl.han.dea.markkiepe.spotitube.datasource.exceptions.DatabaseErrorException;
+import nl.han.dea.markkiepe.spotitube.datasource.exceptions.DatabaseUnavailableException;
+import nl.han.dea.markkiepe.spotitube.datasource.exceptions.QueryTimeoutException;
 import nl.han.dea.markkiepe.spotitube.datasource.exceptions.SqlScriptDoesntExistException;
 import nl.han.dea.markkiepe.spotitube.datasource.exceptions.WrongPreparedStatementType;
+import nl.han.dea.markkiepe.spotitube.datasource.execution.ResultSetHandler;
+import nl.han.dea.markkiepe.spotitube.datasource.execution.RowCallback;
+import nl.han.dea.markkiepe.spotitube.datasource.execution.Transaction;
+import nl.han.dea.markkiepe.spotitube.datasource.execution.UnitOfWork;
+import nl.han.dea.markkiepe.spotitube.datasource.pool.ConnectionPool;
+import nl.han.dea.markkiepe.spotitube.datasource.pool.ConnectionRouter;
+import nl.han.dea.markkiepe.spotitube.datasource.pool.PooledConnection;
+import nl.han.dea.markkiepe.spotitube.datasource.rowmapping.RowMapper;
 import nl.han.dea.markkiepe.spotitube.datasource.util.DatabaseProperties;
 import nl.han.dea.markkiepe.spotitube.datasource.util.SqlProperties;
 
 import javax.inject.Inject;
 import java.sql.*;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * This class contains the general data that every mapper requires.
@@ -16,8 +34,11 @@ import java.sql.*;
  */
 public class Mapper {
 
+    private static final BindingPlanCache BINDING_PLANS = new BindingPlanCache();
+
     protected static DatabaseProperties databaseProperties;
     protected static SqlProperties sqlProperties;
+    protected static ConnectionRouter connectionRouter;
 
     /**
      * Setter for the database properties.
@@ -40,130 +61,271 @@ public class Mapper {
     }
 
     /**
-     * This method checks if the ResultSet from the database returned an empty set or not.
-     *
-     * @implNote
-     * When calling this method a {@code Try Catch} should surround this method.
-     *
-     * @param result {@link ResultSet}
-     * @return {@link Boolean}
-     * @throws SQLException When checking if the ResultSet is empty a SQLException can occur.
-     * @since 1.0
+     * Setter for the {@link ConnectionRouter} that hands out the database connections.
+     * @param connectionRouter {@link ConnectionRouter}
+     * @since 1.1
      */
-    protected boolean isDatabaseResultEmpty(ResultSet result) throws SQLException {
-        if (result != null && result.isBeforeFirst()) {
-            return false;
-        }
-        return true;
+    @Inject
+    protected void setConnectionRouter(ConnectionRouter connectionRouter) {
+        this.connectionRouter = connectionRouter;
     }
 
     /**
-     * This method creates a connection with the database.<br>
-     * The database that is being connected to is received from the {@link DatabaseProperties#getConnectionString()}.<br>
-     * The method uses a {@link PreparedStatement} when executing the SQL Script for additional security.
+     * Executes a query and hands its {@link ResultSet} to the given {@link ResultSetHandler}.<br>
+     * The connection is borrowed through the {@link ConnectionRouter} and the script is executed as a {@link PreparedStatement}
+     * for additional security.
      * <br><br>
-     * If for whatever reason this method crashes while trying to execute the script an {@link DatabaseErrorException} exception is thrown.
-     * This method always closes the connection if this exception is thrown. However, if everything goes correctly
-     * the returned {@link ResultSet} does not get closed automatically. This has to be closed manually or this method has
-     * to be called in a {@code Try-With-Resources}.
+     * The {@link ResultSet}, the {@link PreparedStatement} and the connection are always released before this method
+     * returns, whether the query succeeds or not. If for whatever reason the query fails an {@link DatabaseErrorException}
+     * exception is thrown.
+     *
+     * @see ResultSetHandler
+     * @see Mapper#createPreparedStatement(PooledConnection, String, Object...)
      *
-     * @implNote
-     * {@link ResultSet} Must be closed after use {@code ResultSet.close();}.<br>
-     * Or this method has to be called in a {@code Try-With-Resources}
+     * @param sqlScriptName Name of the script you wish to execute in {@link String} format.
+     * @param resultSetHandler {@link ResultSetHandler} that converts the retrieved rows into the result.
+     * @param scriptParameters All parameters you wish to use in the SQL Script.
+     * @param <T> Type of the result
+     * @return The result created by the {@link ResultSetHandler}.
+     * @throws DatabaseErrorException When an unexpected exception is thrown this exception is returned.
+     * @since 1.1
+     */
+    protected <T> T queryDatabase(String sqlScriptName, ResultSetHandler<T> resultSetHandler, Object ... scriptParameters)
+            throws DatabaseErrorException
+    {
+        return executeStatement(sqlScriptName, preparedStatement -> {
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSetHandler.handle(resultSet);
+            }
+        }, scriptParameters);
+    }
+
+    /**
+     * Executes a query and calls the given {@link RowCallback} for every row that is returned.
      *
-     * @see DatabaseProperties
-     * @see Mapper#createPreparedStatement(Connection, String, Object...)
-     * @see PreparedStatement
-     * @see ResultSet
+     * @see RowCallback
+     * @see Mapper#queryDatabase(String, ResultSetHandler, Object...)
      *
      * @param sqlScriptName Name of the script you wish to execute in {@link String} format.
-     * @param expectsResults {@link Boolean} that says whether you want a ResultSet as response.
+     * @param rowCallback {@link RowCallback} that processes each row.
      * @param scriptParameters All parameters you wish to use in the SQL Script.
+     * @throws DatabaseErrorException When an unexpected exception is thrown this exception is returned.
+     * @since 1.1
+     */
+    protected void forEachRow(String sqlScriptName, RowCallback rowCallback, Object ... scriptParameters)
+            throws DatabaseErrorException
+    {
+        queryDatabase(sqlScriptName, resultSet -> {
+            while (resultSet.next()) {
+                rowCallback.processRow(resultSet);
+            }
+            return null;
+        }, scriptParameters);
+    }
+
+    /**
+     * Executes a query, maps every returned row with the given {@link RowMapper} and hands it to the consumer.
      *
-     * @return When a successful request is done a {@link ResultSet} with the retrieved data is returned.
+     * @see RowMapper
+     * @see Mapper#queryDatabase(String, ResultSetHandler, Object...)
      *
-     * @throws DatabaseErrorException When an unexpected exception is thrown this exception is returned. Access to the
-     * system is not given.
+     * @param sqlScriptName Name of the script you wish to execute in {@link String} format.
+     * @param rowMapper {@link RowMapper} that maps each row.
+     * @param consumer {@link Consumer} that receives each mapped row.
+     * @param scriptParameters All parameters you wish to use in the SQL Script.
+     * @param <T> Type of the mapped rows
+     * @throws DatabaseErrorException When an unexpected exception is thrown this exception is returned.
+     * @since 1.1
+     */
+    protected <T> void mapRows(String sqlScriptName, RowMapper<T> rowMapper, Consumer<? super T> consumer, Object ... scriptParameters)
+            throws DatabaseErrorException
+    {
+        queryDatabase(sqlScriptName, resultSet -> {
+            rowMapper.mapRows(sqlScriptName, resultSet, consumer);
+            return null;
+        }, scriptParameters);
+    }
+
+    /**
+     * Executes a query and streams every returned row through the given {@link RowMapper} to the consumer.<br>
+     * Unlike {@link Mapper#mapRows(String, RowMapper, Consumer, Object...)} this is meant for results that are too
+     * large to collect. The driver fetches the rows in chunks of the configured stream fetch size while the consumer
+     * handles them, so only a single chunk is held in memory. The connection stays borrowed until the consumer has
+     * handled the last row.
      *
-     * @since 1.0
+     * @see DatabaseProperties#getStreamFetchSize()
+     * @see RowMapper
+     *
+     * @param sqlScriptName Name of the script you wish to execute in {@link String} format.
+     * @param rowMapper {@link RowMapper} that maps each row.
+     * @param consumer {@link Consumer} that receives each mapped row.
+     * @param scriptParameters All parameters you wish to use in the SQL Script.
+     * @param <T> Type of the mapped rows
+     * @throws DatabaseErrorException When an unexpected exception is thrown this exception is returned.
+     * @since 1.1
      */
-    protected ResultSet queryDatabase(String sqlScriptName, boolean expectsResults, Object ... scriptParameters)
+    protected <T> void streamRows(String sqlScriptName, RowMapper<T> rowMapper, Consumer<? super T> consumer, Object ... scriptParameters)
             throws DatabaseErrorException
     {
-        Connection connection = null;
-        PreparedStatement preparedStatement = null;
-        ResultSet result = null;
-        //
-        try {
-            connection = DriverManager.getConnection(databaseProperties.getConnectionString());
-            preparedStatement = createPreparedStatement(connection, sqlScriptName, scriptParameters);
-            if (expectsResults == true) {
-                result = preparedStatement.executeQuery();
-            } else {
-                preparedStatement.executeUpdate();
+        int fetchSize = Math.max(0, databaseProperties.getStreamFetchSize());
+        executeStatement(sqlScriptName, preparedStatement -> {
+            preparedStatement.setFetchSize(fetchSize);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                rowMapper.mapRows(sqlScriptName, resultSet, consumer);
             }
+            return null;
+        }, scriptParameters);
+    }
+
+    /**
+     * Executes a query and maps the first returned row with the given {@link RowMapper}.
+     *
+     * @see RowMapper
+     * @see Mapper#queryDatabase(String, ResultSetHandler, Object...)
+     *
+     * @param sqlScriptName Name of the script you wish to execute in {@link String} format.
+     * @param rowMapper {@link RowMapper} that maps the row.
+     * @param scriptParameters All parameters you wish to use in the SQL Script.
+     * @param <T> Type of the mapped row
+     * @return Mapped row or {@code null} when the query returned no rows.
+     * @throws DatabaseErrorException When an unexpected exception is thrown this exception is returned.
+     * @since 1.1
+     */
+    protected <T> T mapFirstRow(String sqlScriptName, RowMapper<T> rowMapper, Object ... scriptParameters)
+            throws DatabaseErrorException
+    {
+        return queryDatabase(
+                sqlScriptName,
+                resultSet -> rowMapper.mapFirstRow(sqlScriptName, resultSet),
+                scriptParameters
+        );
+    }
+
+    /**
+     * Executes a script that modifies the database, like an {@code INSERT}, {@code UPDATE} or {@code DELETE}.
+     *
+     * @see Mapper#queryDatabase(String, ResultSetHandler, Object...)
+     *
+     * @param sqlScriptName Name of the script you wish to execute in {@link String} format.
+     * @param scriptParameters All parameters you wish to use in the SQL Script.
+     * @return {@link Integer} amount of rows that were affected by the script.
+     * @throws DatabaseErrorException When an unexpected exception is thrown this exception is returned.
+     * @since 1.1
+     */
+    protected int updateDatabase(String sqlScriptName, Object ... scriptParameters) throws DatabaseErrorException {
+        return executeStatement(sqlScriptName, PreparedStatement::executeUpdate, scriptParameters);
+    }
+
+    /**
+     * Executes a script once for every set of parameters as a JDBC batch.<br>
+     * The parameter sets are added to the batch of the cached statement and sent to the database in chunks of
+     * the configured batch size, so executing many updates only costs a round trip per chunk.
+     * All chunks are executed in a single transaction. When one of them fails nothing is written.
+     *
+     * @see DatabaseProperties#getBatchSize()
+     * @see Mapper#executeInTransaction(UnitOfWork)
+     * @see Mapper#createPreparedStatement(PooledConnection, String, Object...)
+     *
+     * @param sqlScriptName Name of the script you wish to execute in {@link String} format.
+     * @param parameterSets The parameters of every execution of the SQL Script.
+     * @return {@link Integer} amount of affected rows, where executions without a known count count as one.
+     * @throws DatabaseErrorException When an unexpected exception is thrown this exception is returned.
+     * @since 1.1
+     */
+    protected int batchUpdateDatabase(String sqlScriptName, List<Object[]> parameterSets) throws DatabaseErrorException {
+        if (parameterSets.isEmpty()) {
+            return 0;
         }
-        catch(Exception e) {
-            // Something went wrong while querying database
-            // Closing items
-            if (preparedStatement != null) {
-                try {
-                    preparedStatement.close();
-                } catch (SQLException ex) {
-                    ex.printStackTrace();
+        return executeInTransaction(transaction -> transaction.batchUpdate(sqlScriptName, parameterSets));
+    }
+
+    /**
+     * Executes a {@link UnitOfWork} in a single database transaction.<br>
+     * All scripts of the work are executed on one connection to the primary database. When the work returns the
+     * transaction is committed once, when it throws the transaction is rolled back and nothing is written.
+     * <br><br>
+     * The work should report expected outcomes, like a row that does not exist, through its result. Any exception
+     * it throws rolls back the transaction and is turned into a {@link DatabaseErrorException}.
+     *
+     * @see UnitOfWork
+     * @see Transaction
+     * @see ConnectionRouter#getPrimaryConnection(long)
+     *
+     * @param unitOfWork {@link UnitOfWork} with the scripts that have to succeed or fail together.
+     * @param <T> Type of the result
+     * @return The result of the work
+     * @throws DatabaseErrorException When an unexpected exception is thrown this exception is returned.
+     * @since 1.1
+     */
+    protected <T> T executeInTransaction(UnitOfWork<T> unitOfWork) throws DatabaseErrorException {
+        try (PooledConnection pooledConnection = borrowPrimaryConnection()) {
+            Connection connection = pooledConnection.getConnection();
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            ConnectionTransaction transaction = new ConnectionTransaction(pooledConnection);
+            try {
+                T result = unitOfWork.execute(transaction);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                transaction.discardStatements();
+                if (e instanceof SQLException && isConnectionFailure((SQLException) e)) {
+                    pooledConnection.markBroken();
                 }
-            }
-            if (connection != null) {
-                try {
-                    connection.close();
-                } catch (SQLException ex) {
-                    ex.printStackTrace();
+                rollback(pooledConnection);
+                throw e;
+            } finally {
+                if (pooledConnection.isBroken() == false) {
+                    connection.setAutoCommit(autoCommit);
                 }
             }
-            // Handling error
+        } catch (DatabaseErrorException e) {
+            throw e;
+        } catch (SQLException | RuntimeException e) {
+            // Something went wrong while querying database
             e.printStackTrace();
-            throw new DatabaseErrorException();
+            throw translateException(e);
         }
-        return result;
     }
 
 
     /**
      * This method is responsible for creating prepared statements for all mappers.<br>
-     * When calling this method you are required to have a {@link Connection} with an existing database and
+     * When calling this method you are required to have a {@link PooledConnection} with an existing database and
      * to have a valid {@code Script Name} for the script you wish to execute.<br>
+     * The statement is taken from the statement cache of the connection, so a script is only prepared once
+     * per connection.<br>
      * After providing these parameters you can add all the values you need to have replaced in your {@code SQL Script}.
      * These values will be set in the script in the same order as provided. When you provide a variable that is not allowed
-     * an {@link WrongPreparedStatementType} will be thrown.
+     * an {@link WrongPreparedStatementType} will be thrown.<br>
+     * The datatypes of the values are resolved once per script into a {@link BindingPlan}, which is reused for as long
+     * as the same datatypes are provided.<br>
+     * The query timeout of the statement is set to the time that is left before the {@link QueryDeadline} of the
+     * current request.
      * <br><br>
      * If everything is set correctly a {@link PreparedStatement} will be returned that can be executed.
+     * The returned statement is owned by the statement cache and must not be closed.
      *
      * @implSpec
      * This method requires the following:
      * <ol>
      *     <li>
-     *         {@link Connection} to the database
+     *         {@link PooledConnection} to the database
      *     </li>
      *     <li>
      *         {@link String} with the name of the script you want to execute
      *     </li>
      *     <li>
      *         The same amount of properties with the same datatype as requested by the script.<br>
-     *         The following datatypes are allowed:
-     *         <ul>
-     *             <li>
-     *                 {@link String}
-     *             </li>
-     *             <li>
-     *                 {@link Integer}
-     *             </li>
-     *         </ul>
+     *         For the allowed datatypes please see {@link ParameterBinders}.
      *     </li>
      * </ol>
      *
      * @see SqlProperties
+     * @see BindingPlan
+     * @see PooledConnection#prepareStatement(String, String)
      *
-     * @param connection {@link Connection} with an active database.
+     * @param connection {@link PooledConnection} with an active database.
      * @param scriptName {@link String} with the name of the script you wish to execute.
      * @param properties Properties that you wish to replace in the script.
      * @return {@link PreparedStatement}
@@ -172,39 +334,325 @@ public class Mapper {
      * @throws SqlScriptDoesntExistException When the script name provided does not exist.
      * @throws ClassCastException When something goes wrong while casting {@link Object} to the required class.
      * @throws WrongPreparedStatementType When an incorrect datatype is provided in properties.
+     * @throws QueryTimeoutException When the deadline of the current request has already passed.
      *
      * @since 1.0
      */
-    protected PreparedStatement createPreparedStatement(Connection connection, String scriptName, Object ... properties)
+    protected PreparedStatement createPreparedStatement(PooledConnection connection, String scriptName, Object ... properties)
             throws SQLException, SqlScriptDoesntExistException, ClassCastException, WrongPreparedStatementType
     {
         // Getting requested script from SQL Properties File.
         String script = sqlProperties.getSqlScript(scriptName);
 
-        // Creating prepared statement
-        PreparedStatement preparedStatement = connection.prepareStatement(script);
+        // Getting the binding plan for these properties
+        BindingPlan bindingPlan = BINDING_PLANS.getPlan(scriptName, properties);
+
+        // Getting prepared statement from the statement cache
+        PreparedStatement preparedStatement = connection.prepareStatement(
+                bindingPlan.getStatementKey(scriptName, properties),
+                bindingPlan.expandScript(script, properties)
+        );
 
         // Setting prepared statement properties
-        for (int propertyIndex = 0; propertyIndex < properties.length; propertyIndex++) {
-            Object property = properties[propertyIndex];
-            int parameterIndex = propertyIndex + 1;
-            //
-            if (property.getClass() == String.class) {
-                String value = (String) property;
-                preparedStatement.setString(parameterIndex, value);
-
-            } else if (property.getClass() == Integer.class) {
-                int value = (int) property;
-                preparedStatement.setInt(parameterIndex, value);
-
-            } else {
-                throw new WrongPreparedStatementType();
-            }
-        }
+        bindingPlan.bind(preparedStatement, properties);
+
+        // Setting the query timeout from the deadline of the request
+        preparedStatement.setQueryTimeout(getQueryTimeout());
 
         // Returning prepared statement
         return preparedStatement;
     }
 
+    /**
+     * Checks if a {@link SQLException} was caused by a broken connection instead of by the executed script.
+     * Connections that failed this way should not be handed back to the {@link ConnectionPool}.
+     * @param e {@link SQLException}
+     * @return {@link Boolean}
+     * @since 1.1
+     */
+    protected boolean isConnectionFailure(SQLException e) {
+        String sqlState = e.getSQLState();
+        return e instanceof SQLNonTransientConnectionException
+                || e instanceof SQLTransientConnectionException
+                || (sqlState != null && sqlState.startsWith("08"));
+    }
+
+    /**
+     * Checks if a {@link SQLException} was caused by a query that took longer than its query timeout.
+     * @param e {@link SQLException}
+     * @return {@link Boolean}
+     * @since 1.1
+     */
+    protected boolean isQueryTimeout(SQLException e) {
+        return e instanceof SQLTimeoutException || "HY008".equals(e.getSQLState());
+    }
+
+    // Private Functions
+
+    /**
+     * Borrows a connection for a script from the {@link ConnectionRouter}, waiting no longer than the
+     * {@link QueryDeadline} allows.
+     * @param sqlScriptName Name of the script that will be executed in {@link String} format.
+     * @return {@link PooledConnection}
+     * @throws QueryTimeoutException When the deadline of the current request has already passed.
+     * @throws DatabaseUnavailableException When no connection became available in time.
+     * @throws SQLException When a new connection could not be opened.
+     * @since 1.1
+     */
+    private PooledConnection borrowConnection(String sqlScriptName) throws SQLException {
+        long remaining = getRemainingWait();
+        try {
+            return connectionRouter.getConnection(sqlScriptName, remaining);
+        } catch (SQLTimeoutException e) {
+            throw new DatabaseUnavailableException();
+        }
+    }
+
+    /**
+     * Borrows a connection to the primary database from the {@link ConnectionRouter}, waiting no longer than the
+     * {@link QueryDeadline} allows.
+     * @return {@link PooledConnection}
+     * @throws QueryTimeoutException When the deadline of the current request has already passed.
+     * @throws DatabaseUnavailableException When no connection became available in time.
+     * @throws SQLException When a new connection could not be opened.
+     * @since 1.1
+     */
+    private PooledConnection borrowPrimaryConnection() throws SQLException {
+        long remaining = getRemainingWait();
+        try {
+            return connectionRouter.getPrimaryConnection(remaining);
+        } catch (SQLTimeoutException e) {
+            throw new DatabaseUnavailableException();
+        }
+    }
+
+    /**
+     * Gets the amount of milliseconds that can be spent waiting for a connection.
+     * @return {@link Long}
+     * @throws QueryTimeoutException When the deadline of the current request has already passed.
+     * @since 1.1
+     */
+    private long getRemainingWait() {
+        long remaining = QueryDeadline.getRemainingMillis();
+        if (remaining <= 0) {
+            throw new QueryTimeoutException();
+        }
+        return remaining;
+    }
+
+    /**
+     * Gets the query timeout for a statement that is executed now.
+     * Without a {@link QueryDeadline} the default query timeout is used.
+     * @return {@link Integer} query timeout in seconds, at least one.
+     * @throws QueryTimeoutException When the deadline of the current request has already passed.
+     * @since 1.1
+     */
+    private int getQueryTimeout() {
+        if (QueryDeadline.isSet() == false) {
+            return Math.max(0, databaseProperties.getQueryTimeout());
+        }
+        long remaining = QueryDeadline.getRemainingMillis();
+        if (remaining <= 0) {
+            throw new QueryTimeoutException();
+        }
+        return (int) Math.min(Integer.MAX_VALUE, (remaining + 999) / 1000);
+    }
+
+    /**
+     * Converts an exception that was thrown while executing a statement into a {@link DatabaseErrorException}.
+     * @param e {@link Exception}
+     * @return {@link QueryTimeoutException} when the query timed out, otherwise a {@link DatabaseErrorException}.
+     * @since 1.1
+     */
+    private DatabaseErrorException translateException(Exception e) {
+        if (e instanceof SQLException && isQueryTimeout((SQLException) e)) {
+            return new QueryTimeoutException();
+        }
+        return new DatabaseErrorException();
+    }
+
+    /**
+     * Work that is executed on a {@link PreparedStatement}.
+     * @param <T> Type of the result
+     * @since 1.1
+     */
+    @FunctionalInterface
+    private interface StatementWork<T> {
+        T execute(PreparedStatement preparedStatement) throws SQLException;
+    }
+
+    /**
+     * Borrows a connection, prepares the requested script and executes the given work on it.
+     * The connection is always released, also when the work fails. The statement stays in the statement cache
+     * of the connection unless it failed.
+     *
+     * @param sqlScriptName Name of the script you wish to execute in {@link String} format.
+     * @param statementWork {@link StatementWork} that executes the statement.
+     * @param scriptParameters All parameters you wish to use in the SQL Script.
+     * @param <T> Type of the result
+     * @return The result of the work
+     * @throws DatabaseErrorException When an unexpected exception is thrown this exception is returned.
+     * @since 1.1
+     */
+    private <T> T executeStatement(String sqlScriptName, StatementWork<T> statementWork, Object ... scriptParameters)
+            throws DatabaseErrorException
+    {
+        try (PooledConnection pooledConnection = borrowConnection(sqlScriptName)) {
+            try {
+                PreparedStatement preparedStatement = createPreparedStatement(pooledConnection, sqlScriptName, scriptParameters);
+                return statementWork.execute(preparedStatement);
+            } catch (SQLException e) {
+                discardStatement(pooledConnection, sqlScriptName, scriptParameters);
+                if (isConnectionFailure(e)) {
+                    pooledConnection.markBroken();
+                }
+                throw e;
+            } catch (RuntimeException e) {
+                discardStatement(pooledConnection, sqlScriptName, scriptParameters);
+                throw e;
+            }
+        } catch (DatabaseErrorException e) {
+            throw e;
+        } catch (SQLException | RuntimeException e) {
+            // Something went wrong while querying database
+            e.printStackTrace();
+            throw translateException(e);
+        }
+    }
+
+    /**
+     * Rolls back the current transaction of a connection. When that fails the connection is marked as broken,
+     * so it is not handed out again with a transaction that is still open.
+     * @param pooledConnection {@link PooledConnection}
+     * @since 1.1
+     */
+    private void rollback(PooledConnection pooledConnection) {
+        if (pooledConnection.isBroken()) {
+            return;
+        }
+        try {
+            pooledConnection.getConnection().rollback();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            pooledConnection.markBroken();
+        }
+    }
+
+    /**
+     * Adds up the update counts of an executed batch.
+     * @param updateCounts Update counts returned by {@link PreparedStatement#executeBatch()}.
+     * @return {@link Integer} amount of affected rows
+     * @since 1.1
+     */
+    private int countAffectedRows(int[] updateCounts) {
+        int affectedRows = 0;
+        for (int updateCount : updateCounts) {
+            if (updateCount > 0) {
+                affectedRows += updateCount;
+            } else if (updateCount == Statement.SUCCESS_NO_INFO) {
+                affectedRows++;
+            }
+        }
+        return affectedRows;
+    }
+
+    /**
+     * Removes the statement that was used for a script from the statement cache of the connection.
+     * @param pooledConnection {@link PooledConnection}
+     * @param sqlScriptName Name of the script in {@link String} format.
+     * @param scriptParameters Parameters the statement was used with.
+     * @since 1.1
+     */
+    private void discardStatement(PooledConnection pooledConnection, String sqlScriptName, Object ... scriptParameters) {
+        try {
+            BindingPlan bindingPlan = BINDING_PLANS.getPlan(sqlScriptName, scriptParameters);
+            pooledConnection.discardStatement(bindingPlan.getStatementKey(sqlScriptName, scriptParameters));
+        } catch (WrongPreparedStatementType e) {
+            // Statement was never prepared
+        }
+    }
+
+    /**
+     * {@link Transaction} that executes its scripts on a single borrowed connection.
+     * The statements it used are remembered, so they can be removed from the statement cache when the
+     * transaction fails.
+     * @since 1.1
+     */
+    private class ConnectionTransaction implements Transaction {
+
+        private final PooledConnection pooledConnection;
+        private final Set<String> usedStatementKeys = new HashSet<>();
+
+        private ConnectionTransaction(PooledConnection pooledConnection) {
+            this.pooledConnection = pooledConnection;
+        }
+
+        @Override
+        public <T> T query(String sqlScriptName, ResultSetHandler<T> resultSetHandler, Object ... scriptParameters)
+                throws SQLException
+        {
+            PreparedStatement preparedStatement = prepareStatement(sqlScriptName, scriptParameters);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSetHandler.handle(resultSet);
+            }
+        }
+
+        @Override
+        public int update(String sqlScriptName, Object ... scriptParameters) throws SQLException {
+            return prepareStatement(sqlScriptName, scriptParameters).executeUpdate();
+        }
+
+        @Override
+        public int batchUpdate(String sqlScriptName, List<Object[]> parameterSets) throws SQLException {
+            int batchSize = Math.max(1, databaseProperties.getBatchSize());
+            int affectedRows = 0;
+            int batchedStatements = 0;
+            PreparedStatement batch = null;
+            for (Object[] scriptParameters : parameterSets) {
+                PreparedStatement preparedStatement = prepareStatement(sqlScriptName, scriptParameters);
+                if (batch != null && (batch != preparedStatement || batchedStatements == batchSize)) {
+                    // Parameters need another statement or the chunk is full
+                    affectedRows += countAffectedRows(batch.executeBatch());
+                    batchedStatements = 0;
+                }
+                preparedStatement.addBatch();
+                batch = preparedStatement;
+                batchedStatements++;
+            }
+            if (batch != null) {
+                affectedRows += countAffectedRows(batch.executeBatch());
+            }
+            return affectedRows;
+        }
+
+        /**
+         * Removes every statement this transaction used from the statement cache of the connection.
+         * @since 1.1
+         */
+        private void discardStatements() {
+            for (String statementKey : usedStatementKeys) {
+                pooledConnection.discardStatement(statementKey);
+            }
+        }
+
+        /**
+         * Prepares a script on the connection of this transaction and remembers the statement it used.
+         * @param sqlScriptName Name of the script in {@link String} format.
+         * @param scriptParameters Parameters the statement is used with.
+         * @return {@link PreparedStatement}
+         * @throws SQLException When the statement could not be prepared.
+         * @since 1.1
+         */
+        private PreparedStatement prepareStatement(String sqlScriptName, Object ... scriptParameters) throws SQLException {
+            try {
+                BindingPlan bindingPlan = BINDING_PLANS.getPlan(sqlScriptName, scriptParameters);
+                usedStatementKeys.add(bindingPlan.getStatementKey(sqlScriptName, scriptParameters));
+            } catch (WrongPreparedStatementType e) {
+                // Thrown again by createPreparedStatement before anything is prepared
+            }
+            return createPreparedStatement(pooledConnection, sqlScriptName, scriptParameters);
+        }
+
+    }
 
 }
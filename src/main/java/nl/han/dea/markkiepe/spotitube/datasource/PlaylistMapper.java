@@ -4,14 +4,21 @@ import nl.han.dea.markkiepe.spotitube.datasource.dao.playlists.PlaylistDao;
 import nl.han.dea.markkiepe.spotitube.datasource.dao.playlists.PlaylistsDao;
 import nl.han.dea.markkiepe.spotitube.datasource.exceptions.DatabaseErrorException;
 import nl.han.dea.markkiepe.spotitube.datasource.exceptions.playlists.PlaylistDoesNotExistException;
+import nl.han.dea.markkiepe.spotitube.datasource.execution.Transaction;
+import nl.han.dea.markkiepe.spotitube.datasource.execution.UnitOfWork;
+import nl.han.dea.markkiepe.spotitube.datasource.pool.PooledConnection;
+import nl.han.dea.markkiepe.spotitube.datasource.rowmapping.RowMapper;
 
-import java.sql.Connection;
-import java.sql.ResultSet;
+import java.sql.SQLException;
 
 /**
  * Playlist Mapper<br>
  * This class is responsible for retrieving all database information related to playlists.
  * Received playlists get put into a {@link PlaylistsDao} which may contain {@link PlaylistDao}('s).
+ * <br><br>
+ * The track count and total duration of a playlist are stored in the {@code trackCount} and {@code totalDuration}
+ * columns of {@code UserPlaylist}. The {@link TracksMapper} keeps them up to date when tracks are added or removed,
+ * so the playlists of a user are read without joining their tracks.
  *
  * @see Mapper
  * @see PlaylistsDao
@@ -24,9 +31,23 @@ public class PlaylistMapper extends Mapper {
 
     private static final String GET_PLAYLIST_OWNER_ID = "getPlaylistOwnerId";
     private static final String GET_PLAYLISTS_SCRIPT_NAME = "getPlaylistsOwnedByUserId";
+    private static final String GET_PLAYLISTS_PAGE_SCRIPT_NAME = "getPlaylistsOwnedByUserIdPage";
+    private static final String GET_PLAYLISTS_LENGTH_SCRIPT_NAME = "getPlaylistsLengthOfUserId";
     private static final String CREATE_PLAYLIST_SCRIPT_NAME = "createNewPlaylist";
     private static final String DELETE_PLAYLIST_SCRIPT_NAME = "deletePlaylist";
+    private static final String DELETE_PLAYLIST_TRACKS_SCRIPT_NAME = "deletePlaylistTracks";
+    private static final String LOCK_PLAYLIST_OWNER_ID_SCRIPT_NAME = "lockPlaylistOwnerId";
     private static final String MODIFY_PLAYLIST_SCRIPT_NAME = "modifyPlaylist";
+    private static final String RECONCILE_PLAYLIST_TOTALS_SCRIPT_NAME = "reconcilePlaylistTotals";
+
+    private static final RowMapper<PlaylistDao> PLAYLIST_ROW = new RowMapper<>(
+            (resultSet, columns) -> new PlaylistDao(
+                    resultSet.getInt(columns[0]),
+                    resultSet.getString(columns[1]),
+                    resultSet.getInt(columns[2])
+            ),
+            "id", "name", "playlistDuration"
+    );
 
     // AUTHENTICATION FUNCTIONS
 
@@ -40,20 +61,15 @@ public class PlaylistMapper extends Mapper {
      * @since 1.0
      */
     public int getPlaylistOwnerId(int playlistId) throws DatabaseErrorException, PlaylistDoesNotExistException {
-        try(ResultSet resultSet = queryDatabase(GET_PLAYLIST_OWNER_ID, true, playlistId)) {
-            if (isDatabaseResultEmpty(resultSet) == false) {
-                while (resultSet.next()) {
-                    int ownerId = resultSet.getInt(1);
-                    if (ownerId > 0) {
-                        return ownerId;
-                    }
-                }
-            }
-            throw new PlaylistDoesNotExistException();
-        } catch (Exception e) {
-            e.printStackTrace();
+        int ownerId = queryDatabase(
+                GET_PLAYLIST_OWNER_ID,
+                resultSet -> resultSet.next() ? resultSet.getInt(1) : 0,
+                playlistId
+        );
+        if (ownerId > 0) {
+            return ownerId;
         }
-        throw new DatabaseErrorException();
+        throw new PlaylistDoesNotExistException();
     }
 
     // PLAYLIST GETTERS
@@ -73,85 +89,131 @@ public class PlaylistMapper extends Mapper {
         return createPlaylistsResponseFromQuery(GET_PLAYLISTS_SCRIPT_NAME, userId);
     }
 
+    /**
+     * Creates a {@link PlaylistsDao} containing a page of the playlists of a user, ordered by their playlistId.<br>
+     * The page starts after the given playlistId (keyset pagination), so the next page can be requested with the
+     * playlistId of the last playlist on this page without the database having to skip all previous rows.
+     * The length of the {@link PlaylistsDao} is only the length of the playlists on the page.
+     *
+     * @see PlaylistMapper#getPlaylistsLength(int)
+     *
+     * @param userId {@link Integer} UserId
+     * @param afterPlaylistId {@link Integer} PlaylistId after which the page starts, {@code 0} for the first page.
+     * @param limit {@link Integer} maximum amount of playlists on the page.
+     * @return {@link PlaylistsDao} containing retrieved data.
+     * @throws DatabaseErrorException When something goes wrong while querying the database this exception is thrown.
+     * @since 1.1
+     */
+    public PlaylistsDao getPlaylistsFromUserId(int userId, int afterPlaylistId, int limit) throws DatabaseErrorException {
+        return createPlaylistsResponseFromQuery(GET_PLAYLISTS_PAGE_SCRIPT_NAME, limit, userId, afterPlaylistId);
+    }
+
+    /**
+     * Gets the total duration of all playlists of a user, summed by the database from the stored totals of
+     * the playlists, so the playlists themselves are not read.
+     * @param userId {@link Integer} UserId
+     * @return {@link Integer} total duration, {@code 0} when the user has no playlists.
+     * @throws DatabaseErrorException When something goes wrong while querying the database this exception is thrown.
+     * @since 1.1
+     */
+    public int getPlaylistsLength(int userId) throws DatabaseErrorException {
+        return queryDatabase(
+                GET_PLAYLISTS_LENGTH_SCRIPT_NAME,
+                resultSet -> resultSet.next() ? resultSet.getInt(1) : 0,
+                userId
+        );
+    }
+
     // MANIPULATE PLAYLISTS
 
     /**
      * Creates a new playlist in the database for the given user with the given playlist name.
      * @param userId The UserId of the user that will own the new playlist in {@link Integer} format.
      * @param playlistName The name this new playlist will get in {@link String} format.
-     * @return {@link Boolean} that says if the method was successfully executed.
+     * @return {@link Integer} PlaylistId of the new playlist, returned by the insert itself.
      * @throws DatabaseErrorException When an exception occurs when querying the database this exception is thrown.
      * @since 1.0
      */
-    public boolean createPlaylist(int userId, String playlistName) throws DatabaseErrorException {
-        try (ResultSet resultSet = queryDatabase(CREATE_PLAYLIST_SCRIPT_NAME, false, userId, playlistName)) {
-            return true;
-        } catch(Exception e) {
-            e.printStackTrace();
-        }
-        throw new DatabaseErrorException();
+    public int createPlaylist(int userId, String playlistName) throws DatabaseErrorException {
+        return queryDatabase(
+                CREATE_PLAYLIST_SCRIPT_NAME,
+                resultSet -> resultSet.next() ? resultSet.getInt(1) : 0,
+                userId, playlistName
+        );
     }
 
     /**
-     * Deletes an existing playlist from the database.
+     * Deletes an existing playlist and its tracks from the database.<br>
+     * The ownership check and both deletes are executed in a single transaction, so a playlist is never left
+     * without its tracks deleted or the other way around.
+     *
+     * @see Mapper#executeInTransaction(UnitOfWork)
+     *
+     * @param ownerId The UserId of the user that owns the playlist in {@link Integer} format.
      * @param playlistId The playlist you want to remove from the database in {@link Integer} format.
-     * @return {@link Boolean} that says if the method was successfully executed.
+     * @return {@link Boolean} that says if the method was successfully executed, false when the playlist is not owned by the owner.
      * @throws DatabaseErrorException When an exception occurs while querying the database this exception is thrown.
      * @since 1.0
      */
-    public boolean deletePlaylist(int playlistId) throws DatabaseErrorException {
-        try (ResultSet resultSet = queryDatabase(DELETE_PLAYLIST_SCRIPT_NAME, false, playlistId, playlistId)) {
+    public boolean deletePlaylist(int ownerId, int playlistId) throws DatabaseErrorException {
+        return executeInTransaction(transaction -> {
+            if (isPlaylistOwner(transaction, ownerId, playlistId) == false) {
+                return false;
+            }
+            transaction.update(DELETE_PLAYLIST_TRACKS_SCRIPT_NAME, playlistId);
+            transaction.update(DELETE_PLAYLIST_SCRIPT_NAME, playlistId);
             return true;
-        } catch(Exception e) {
-            e.printStackTrace();
-        }
-        throw new DatabaseErrorException();
+        });
     }
 
     /**
      * Modifies an existing playlist and sets the new data.
      * @param playlistId The playlistId of the playlist you want to modify in {@link Integer} format.
      * @param newPlaylistName The new name you want to give this playlist in {@link String} format.
-     * @return {@link Boolean} that says if the method was successfully executed.
+     * @return {@link Boolean} that says if the method was successfully executed, false when the playlist does not exist.
      * @throws DatabaseErrorException When an exception occurs while querying the database this exception is thrown.
      * @since 1.0
      */
     public boolean modifyPlaylist(int playlistId, String newPlaylistName) throws DatabaseErrorException {
-        try (ResultSet resultSet = queryDatabase(MODIFY_PLAYLIST_SCRIPT_NAME, false, newPlaylistName, playlistId)) {
-            return true;
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        throw new DatabaseErrorException();
+        return updateDatabase(MODIFY_PLAYLIST_SCRIPT_NAME, newPlaylistName, playlistId) > 0;
+    }
+
+    /**
+     * Counts the tracks and duration of every playlist again and repairs the stored totals that drifted,
+     * for example because tracks were changed outside of the application.
+     * @return {@link Integer} amount of playlists whose totals were repaired.
+     * @throws DatabaseErrorException When an exception occurs while querying the database this exception is thrown.
+     * @since 1.1
+     */
+    public int reconcilePlaylistTotals() throws DatabaseErrorException {
+        return updateDatabase(RECONCILE_PLAYLIST_TOTALS_SCRIPT_NAME);
     }
 
     // PRIVATE FUNCTIONS
 
     /**
-     * Creates a new {@link PlaylistDao}
-     *
-     * @see PlaylistDao
-     *
-     * @param playlistId {@link Integer}
-     * @param playlistName {@link String}
-     * @param playlistLength {@link Integer}
-     * @return {@link PlaylistDao}
-     *
-     * @since 1.0
+     * Checks the owner of a playlist inside a transaction. The playlist row stays locked until the transaction ends.
+     * @param transaction {@link Transaction}
+     * @param ownerId {@link Integer} OwnerId
+     * @param playlistId {@link Integer} PlaylistId
+     * @return {@link Boolean} false when the playlist does not exist or has another owner.
+     * @throws SQLException When executing the script fails.
+     * @since 1.1
      */
-    private PlaylistDao createPlaylistDao(int playlistId, String playlistName, int playlistLength) {
-        return new PlaylistDao(
-                playlistId,
-                playlistName,
-                playlistLength
+    private boolean isPlaylistOwner(Transaction transaction, int ownerId, int playlistId) throws SQLException {
+        int playlistOwnerId = transaction.query(
+                LOCK_PLAYLIST_OWNER_ID_SCRIPT_NAME,
+                resultSet -> resultSet.next() ? resultSet.getInt(1) : 0,
+                playlistId
         );
+        return playlistOwnerId > 0 && playlistOwnerId == ownerId;
     }
 
     /**
      * Queries the database with a given script name and creates a new {@link PlaylistsDao} from the retrieved data.
      *
-     * @see Mapper#queryDatabase(String, boolean, Object...)
-     * @see Mapper#createPreparedStatement(Connection, String, Object...)
+     * @see Mapper#mapRows(String, RowMapper, java.util.function.Consumer, Object...)
+     * @see Mapper#createPreparedStatement(PooledConnection, String, Object...)
      *
      * @param scriptName The name of the script you wish to execute in {@link String} format.
      * @param properties The properties you need for executing the query ({@link Object}).
@@ -164,24 +226,7 @@ public class PlaylistMapper extends Mapper {
     {
         PlaylistsDao result = new PlaylistsDao();
         //
-        try(ResultSet resultSet = queryDatabase(scriptName, true, properties)) {
-            if (isDatabaseResultEmpty(resultSet) == false) {
-
-                while (resultSet.next()) {
-                    PlaylistDao playlistDao = createPlaylistDao(
-                            resultSet.getInt(1),
-                            resultSet.getString(2),
-                            resultSet.getInt(3)
-                    );
-                    result.addPlaylistDao(playlistDao);
-                }
-
-            }
-        } catch(Exception e) {
-            // Something went wrong in database
-            e.printStackTrace();
-            throw new DatabaseErrorException();
-        }
+        mapRows(scriptName, PLAYLIST_ROW, result::addPlaylistDao, properties);
         //
         return result;
     }
@@ -3,10 +3,14 @@ package nl.han.dea.markkiepe.spotitube.datasource;
 import nl.han.dea.markkiepe.spotitube.datasource.dao.tracks.TrackDao;
 import nl.han.dea.markkiepe.spotitube.datasource.dao.tracks.TracksDao;
 import nl.han.dea.markkiepe.spotitube.datasource.exceptions.DatabaseErrorException;
+import nl.han.dea.markkiepe.spotitube.datasource.execution.Transaction;
+import nl.han.dea.markkiepe.spotitube.datasource.pool.PooledConnection;
+import nl.han.dea.markkiepe.spotitube.datasource.rowmapping.RowMapper;
 
-import java.sql.Connection;
-import java.sql.ResultSet;
-import java.util.Date;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Tracks Mapper<br>
@@ -23,9 +27,32 @@ import java.util.Date;
 public class TracksMapper extends Mapper {
 
     private static final String GET_TRACKS_IN_PLAYLIST_SCRIPT_NAME = "getTracksInPlaylist";
-    private static final String GET_TRACKS_NOT_IN_PLAYLIST_SCRIPT_NAME = "getTracksNotInPlaylist";
+    private static final String GET_TRACKS_IN_PLAYLIST_PAGE_SCRIPT_NAME = "getTracksInPlaylistPage";
+    private static final String GET_TRACKS_NOT_IN_PLAYLIST_SCRIPT_NAME = "getTracksNotInPlaylistPage";
+    private static final String STREAM_TRACKS_NOT_IN_PLAYLIST_SCRIPT_NAME = "streamTracksNotInPlaylist";
+    private static final int FIRST_PAGE_SIZE = 10;
     private static final String ADD_TRACK_TO_PLAYLIST_SCRIPT_NAME = "addTrackToPlaylist";
+    private static final String ADD_TRACKS_TO_PLAYLIST_SCRIPT_NAME = "addTracksToPlaylist";
     private static final String DELETE_TRACK_IN_PLAYLIST_SCRIPT_NAME = "deleteTrackInPlaylist";
+    private static final String LOCK_PLAYLIST_OWNER_ID_SCRIPT_NAME = "lockPlaylistOwnerId";
+    private static final String INCREASE_PLAYLIST_TOTALS_SCRIPT_NAME = "increasePlaylistTotals";
+    private static final String DECREASE_PLAYLIST_TOTALS_SCRIPT_NAME = "decreasePlaylistTotals";
+    private static final String REFRESH_PLAYLIST_TOTALS_SCRIPT_NAME = "refreshPlaylistTotals";
+
+    private static final RowMapper<TrackDao> TRACK_ROW = new RowMapper<>(
+            (resultSet, columns) -> new TrackDao(
+                    resultSet.getInt(columns[0]),
+                    resultSet.getString(columns[1]),
+                    resultSet.getString(columns[2]),
+                    resultSet.getInt(columns[3]),
+                    resultSet.getString(columns[4]),
+                    resultSet.getInt(columns[5]),
+                    RowMapper.getDate(resultSet, columns[6]),
+                    resultSet.getString(columns[7]),
+                    resultSet.getBoolean(columns[8])
+            ),
+            "id", "title", "performer", "duration", "album", "playcount", "publicationDate", "description", "offlineAvailable"
+    );
 
     // TRACK GETTERS
 
@@ -44,132 +71,206 @@ public class TracksMapper extends Mapper {
     }
 
     /**
-     * This method gets all Tracks that are not in the specified playlist.
+     * This method gets a page of Tracks in the specified playlist, ordered by their trackId.<br>
+     * The page starts after the given trackId (keyset pagination), so the next page can be requested with the
+     * trackId of the last track on this page without the database having to skip all previous rows.
      *
      * @see TracksMapper#getPlaylistTracks(String, Object...)
      *
      * @param playlistId {@link Integer} PlaylistId
+     * @param afterTrackId {@link Integer} TrackId after which the page starts, {@code 0} for the first page.
+     * @param limit {@link Integer} maximum amount of tracks on the page.
+     * @return {@link TracksDao}
+     * @throws DatabaseErrorException This exception is thrown when an unexpected error occurs while querying the database.
+     * @since 1.1
+     */
+    public TracksDao getTracksInPlaylist(int playlistId, int afterTrackId, int limit) throws DatabaseErrorException {
+        return getPlaylistTracks(GET_TRACKS_IN_PLAYLIST_PAGE_SCRIPT_NAME, limit, playlistId, afterTrackId);
+    }
+
+    /**
+     * This method gets the first 10 Tracks that are not in the specified playlist.
+     *
+     * @see TracksMapper#getTracksNotInPlaylist(int, int, int)
+     *
+     * @param playlistId {@link Integer} PlaylistId
      * @return {@link TracksDao}
      * @throws DatabaseErrorException This exception is thrown when an unexpected error occurs while querying the database.
      * @since 1.0
      */
     public TracksDao getTracksNotInPlaylist(int playlistId) throws DatabaseErrorException {
-        return getPlaylistTracks(GET_TRACKS_NOT_IN_PLAYLIST_SCRIPT_NAME, playlistId);
+        return getTracksNotInPlaylist(playlistId, 0, FIRST_PAGE_SIZE);
+    }
+
+    /**
+     * This method gets a page of Tracks that are not in the specified playlist, ordered by their trackId.<br>
+     * The page starts after the given trackId (keyset pagination), so the next page can be requested with the
+     * trackId of the last track on this page without the database having to skip all previous rows.
+     *
+     * @see TracksMapper#getPlaylistTracks(String, Object...)
+     *
+     * @param playlistId {@link Integer} PlaylistId
+     * @param afterTrackId {@link Integer} TrackId after which the page starts, {@code 0} for the first page.
+     * @param limit {@link Integer} maximum amount of tracks on the page.
+     * @return {@link TracksDao}
+     * @throws DatabaseErrorException This exception is thrown when an unexpected error occurs while querying the database.
+     * @since 1.1
+     */
+    public TracksDao getTracksNotInPlaylist(int playlistId, int afterTrackId, int limit) throws DatabaseErrorException {
+        return getPlaylistTracks(GET_TRACKS_NOT_IN_PLAYLIST_SCRIPT_NAME, limit, afterTrackId, playlistId);
+    }
+
+    /**
+     * This method streams all Tracks that are not in the specified playlist, ordered by their trackId, to the consumer.
+     * The tracks are not collected, so the memory that is used does not grow with the size of the catalog.
+     *
+     * @see Mapper#streamRows(String, RowMapper, Consumer, Object...)
+     *
+     * @param playlistId {@link Integer} PlaylistId
+     * @param afterTrackId {@link Integer} TrackId after which the stream starts, {@code 0} for all tracks.
+     * @param consumer {@link Consumer} that receives every {@link TrackDao}.
+     * @throws DatabaseErrorException This exception is thrown when an unexpected error occurs while querying the database.
+     * @since 1.1
+     */
+    public void streamTracksNotInPlaylist(int playlistId, int afterTrackId, Consumer<TrackDao> consumer) throws DatabaseErrorException {
+        streamRows(STREAM_TRACKS_NOT_IN_PLAYLIST_SCRIPT_NAME, TRACK_ROW, consumer, afterTrackId, playlistId);
     }
 
     // Track Manipulation
 
     /**
-     * This method adds a new track into a specified playlist.
+     * This method adds a new track into a specified playlist.<br>
+     * The ownership of the playlist is checked, the track is added and the stored track count and duration of the
+     * playlist are increased in a single transaction, so the playlist cannot be deleted in between. The script that
+     * adds the track also returns it, so the caller does not have to read the playlist again.
      *
-     * @see Mapper
+     * @see Mapper#executeInTransaction(nl.han.dea.markkiepe.spotitube.datasource.execution.UnitOfWork)
      *
      * @param ownerId {@link Integer} OwnerId
      * @param playlistId {@link Integer} PlaylistId
      * @param trackId {@link Integer} TrackId
-     * @return {@link Boolean} that says if the request was successful.
+     * @return {@link TracksDao} with the added track, {@code null} when the playlist is not owned by the owner.
      * @throws DatabaseErrorException This exception is thrown when an unexpected error occurs while querying the database.
      * @since 1.0
      */
-    public boolean addTrackToPlaylist(int ownerId, int playlistId, int trackId) throws DatabaseErrorException {
-        try (ResultSet resultSet = queryDatabase(ADD_TRACK_TO_PLAYLIST_SCRIPT_NAME, false, ownerId, playlistId, playlistId, trackId)) {
-            return true;
-        } catch (Exception e) {
-            e.printStackTrace();
+    public TracksDao addTrackToPlaylist(int ownerId, int playlistId, int trackId) throws DatabaseErrorException {
+        return executeInTransaction(transaction -> {
+            if (isPlaylistOwner(transaction, ownerId, playlistId) == false) {
+                return null;
+            }
+            TracksDao addedTracks = new TracksDao();
+            transaction.query(
+                    ADD_TRACK_TO_PLAYLIST_SCRIPT_NAME,
+                    resultSet -> {
+                        TRACK_ROW.mapRows(ADD_TRACK_TO_PLAYLIST_SCRIPT_NAME, resultSet, addedTracks::addTrack);
+                        return addedTracks;
+                    },
+                    playlistId, trackId, trackId
+            );
+            transaction.update(INCREASE_PLAYLIST_TOTALS_SCRIPT_NAME, trackId, playlistId);
+            return addedTracks;
+        });
+    }
+
+    /**
+     * Adds multiple tracks to a specified playlist in a single batch.<br>
+     * Tracks that are already in the playlist are skipped. The ownership of the playlist is checked once, in the same
+     * transaction as the batch. Because it is not known which tracks were skipped, the stored track count and
+     * duration of the playlist are counted again once after the batch.
+     *
+     * @see Transaction#batchUpdate(String, List)
+     *
+     * @param ownerId {@link Integer} OwnerId
+     * @param playlistId {@link Integer} PlaylistId
+     * @param trackIds TrackIds of the tracks you want to add.
+     * @return {@link Integer} amount of tracks that have been added, {@code 0} when the playlist is not owned by the owner.
+     * @throws DatabaseErrorException This exception is thrown when an unexpected error occurs while querying the database.
+     * @since 1.1
+     */
+    public int addTracksToPlaylist(int ownerId, int playlistId, int[] trackIds) throws DatabaseErrorException {
+        List<Object[]> parameterSets = new ArrayList<>(trackIds.length);
+        for (int trackId : trackIds) {
+            parameterSets.add(new Object[] { playlistId, trackId, playlistId, trackId });
         }
-        throw new DatabaseErrorException();
+        return executeInTransaction(transaction -> {
+            if (isPlaylistOwner(transaction, ownerId, playlistId) == false) {
+                return 0;
+            }
+            int addedTracks = transaction.batchUpdate(ADD_TRACKS_TO_PLAYLIST_SCRIPT_NAME, parameterSets);
+            if (addedTracks > 0) {
+                transaction.update(REFRESH_PLAYLIST_TOTALS_SCRIPT_NAME, playlistId, playlistId, playlistId);
+            }
+            return addedTracks;
+        });
     }
 
     /**
-     * Deletes a track from a specified playlist.
+     * Deletes a track from a specified playlist.<br>
+     * The ownership of the playlist is checked in the same transaction as the delete. The stored track count and
+     * duration of the playlist are only decreased when the track was actually in the playlist.
      *
-     * @see Mapper
+     * @see Mapper#executeInTransaction(nl.han.dea.markkiepe.spotitube.datasource.execution.UnitOfWork)
      *
+     * @param ownerId {@link Integer} OwnerId
      * @param playlistId {@link Integer} PlaylistId
      * @param trackId {@link Integer} TrackId
-     * @return {@link Boolean} that says if the request was successful.
+     * @return {@link Boolean} that says if the request was successful, false when the playlist is not owned by the owner.
      * @throws DatabaseErrorException This exception is thrown when an unexpected error occurs while querying the database.
      * @since 1.0
      */
-    public boolean deleteTrackFromPlaylist(int playlistId, int trackId) throws DatabaseErrorException {
-        try (ResultSet resultSet = queryDatabase(DELETE_TRACK_IN_PLAYLIST_SCRIPT_NAME, false, playlistId, trackId)) {
+    public boolean deleteTrackFromPlaylist(int ownerId, int playlistId, int trackId) throws DatabaseErrorException {
+        return executeInTransaction(transaction -> {
+            if (isPlaylistOwner(transaction, ownerId, playlistId) == false) {
+                return false;
+            }
+            if (transaction.update(DELETE_TRACK_IN_PLAYLIST_SCRIPT_NAME, playlistId, trackId) > 0) {
+                transaction.update(DECREASE_PLAYLIST_TOTALS_SCRIPT_NAME, trackId, playlistId);
+            }
             return true;
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        throw new DatabaseErrorException();
+        });
     }
 
     // Private Functions
 
     /**
-     * Creates a {@link TrackDao} containing all track information
-     * @param id {@link Integer}
-     * @param title {@link String}
-     * @param performer {@link String}
-     * @param duration {@link Integer}
-     * @param album {@link String}
-     * @param playcount {@link Integer}
-     * @param publicationDate {@link Date} ignored
-     * @param description {@link String}
-     * @param offlineAvailable {@link Boolean}
-     * @return {@link TrackDao}
-     * @since 1.0
+     * Checks the owner of a playlist inside a transaction. The playlist row stays locked until the transaction ends,
+     * so it cannot be deleted or modified before the changes of the transaction are committed.
+     * @param transaction {@link Transaction}
+     * @param ownerId {@link Integer} OwnerId
+     * @param playlistId {@link Integer} PlaylistId
+     * @return {@link Boolean} false when the playlist does not exist or has another owner.
+     * @throws SQLException When executing the script fails.
+     * @since 1.1
      */
-    private TrackDao createTrackDao(int id, String title, String performer, int duration, String album, int playcount, Date publicationDate, String description, boolean offlineAvailable) {
-        TrackDao trackDao = new TrackDao(
-                id,
-                title,
-                performer,
-                duration,
-                album,
-                playcount,
-                publicationDate,
-                description,
-                offlineAvailable
+    private boolean isPlaylistOwner(Transaction transaction, int ownerId, int playlistId) throws SQLException {
+        int playlistOwnerId = transaction.query(
+                LOCK_PLAYLIST_OWNER_ID_SCRIPT_NAME,
+                resultSet -> resultSet.next() ? resultSet.getInt(1) : 0,
+                playlistId
         );
-        return trackDao;
+        return playlistOwnerId > 0 && playlistOwnerId == ownerId;
     }
 
     /**
      * Creates a {@link TracksDao} containing created {@link TrackDao} if the database manages to retrieve tracks.
      *
      * @see Mapper
-     * @see Mapper#createPreparedStatement(Connection, String, Object...)
+     * @see Mapper#mapRows(String, RowMapper, java.util.function.Consumer, Object...)
+     * @see Mapper#createPreparedStatement(PooledConnection, String, Object...)
      *
      * @param scriptName {@link String} script name that you wish to execute on the database.
      * @param properties {@link Object} properties that are required to create a prepared statement.
-     *                                 Please see ({@link Mapper#createPreparedStatement(Connection, String, Object...) })
+     *                                 Please see ({@link Mapper#createPreparedStatement(PooledConnection, String, Object...) })
      * @return {@link TracksDao}
      * @throws DatabaseErrorException This exception is thrown when an unexpected error occurs while querying the database.
      * @since 1.0
      */
     private TracksDao getPlaylistTracks(String scriptName, Object ... properties) throws DatabaseErrorException {
-        try (ResultSet resultSet = queryDatabase(scriptName, true, properties)) {
-            TracksDao result = new TracksDao();
-            //
-            if (isDatabaseResultEmpty(resultSet) == false) {
-                while (resultSet.next()) {
-                    TrackDao trackDao = createTrackDao(
-                            resultSet.getInt(1),
-                            resultSet.getString(2),
-                            resultSet.getString(3),
-                            resultSet.getInt(4),
-                            resultSet.getString(5),
-                            resultSet.getInt(6),
-                            null,
-                            resultSet.getString(8),
-                            resultSet.getBoolean(9)
-                    );
-                    result.addTrack(trackDao);
-                }
-            }
-            //
-            return result;
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        throw new DatabaseErrorException();
+        TracksDao result = new TracksDao();
+        //
+        mapRows(scriptName, TRACK_ROW, result::addTrack, properties);
+        //
+        return result;
     }
 
 }
@@ -0,0 +1,177 @@
+package nl.han.dea.markkiepe.spotitube.datasource.binding;
+
+import nl.han.dea.markkiepe.spotitube.datasource.exceptions.WrongPreparedStatementType;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Binding Plan<br>
+ * Contains the resolved {@link ParameterBinder} for every parameter position of a script.
+ * The plan is created once from the datatypes of the first parameters it is used for and is reused
+ * for as long as the datatypes stay the same.
+ * <br><br>
+ * When a plan contains {@code int[]} parameters the script has to be expanded with
+ * {@link BindingPlan#expandScript(String, Object[])} so every element gets its own placeholder.
+ *
+ * @see BindingPlanCache
+ * @see ParameterBinders
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public class BindingPlan {
+
+    private final Class<?>[] parameterTypes;
+    private final ParameterBinder[] binders;
+    private final boolean expandsArrays;
+
+    /**
+     * Creates a binding plan for parameters of the given datatypes.
+     * @param parameterTypes {@link Class} of every parameter, {@code null} for {@code null} values.
+     * @throws WrongPreparedStatementType When one of the datatypes is not supported.
+     * @since 1.1
+     */
+    private BindingPlan(Class<?>[] parameterTypes) throws WrongPreparedStatementType {
+        this.parameterTypes = parameterTypes;
+        this.binders = new ParameterBinder[parameterTypes.length];
+        boolean arrays = false;
+        for (int index = 0; index < parameterTypes.length; index++) {
+            binders[index] = ParameterBinders.forType(parameterTypes[index]);
+            arrays |= binders[index] == ParameterBinders.INT_ARRAY;
+        }
+        this.expandsArrays = arrays;
+    }
+
+    /**
+     * Resolves a new binding plan for the given parameters.
+     * @param parameters Parameters the plan is created for.
+     * @return {@link BindingPlan}
+     * @throws WrongPreparedStatementType When one of the datatypes is not supported.
+     * @since 1.1
+     */
+    public static BindingPlan resolve(Object[] parameters) throws WrongPreparedStatementType {
+        Class<?>[] parameterTypes = new Class<?>[parameters.length];
+        for (int index = 0; index < parameters.length; index++) {
+            parameterTypes[index] = parameters[index] == null ? null : parameters[index].getClass();
+        }
+        return new BindingPlan(parameterTypes);
+    }
+
+    /**
+     * Checks if this plan can bind the given parameters.
+     * {@code null} values can always be bound, other values need the same datatype as the plan was created for.
+     * @param parameters Parameters you want to bind.
+     * @return {@link Boolean}
+     * @since 1.1
+     */
+    public boolean matches(Object[] parameters) {
+        if (parameters.length != parameterTypes.length) {
+            return false;
+        }
+        for (int index = 0; index < parameters.length; index++) {
+            Object parameter = parameters[index];
+            if (parameter != null && parameter.getClass() != parameterTypes[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sets all parameters on the statement.
+     * @param preparedStatement {@link PreparedStatement}
+     * @param parameters Parameters that match this plan.
+     * @throws SQLException When a parameter could not be set.
+     * @since 1.1
+     */
+    public void bind(PreparedStatement preparedStatement, Object[] parameters) throws SQLException {
+        int parameterIndex = 1;
+        for (int index = 0; index < parameters.length; index++) {
+            Object parameter = parameters[index];
+            ParameterBinder binder = binders[index];
+            if (parameter == null) {
+                if (binder == ParameterBinders.INT_ARRAY) {
+                    // Expanded to NULL, there is no placeholder to bind
+                    continue;
+                }
+                binder = ParameterBinders.NULL;
+            }
+            parameterIndex += binder.bind(preparedStatement, parameterIndex, parameter);
+        }
+    }
+
+    /**
+     * Gets the key the prepared statement for this script and these parameters is cached under.
+     * Scripts with expanded {@code int[]} parameters get a different statement for every list length.
+     * @param scriptName {@link String}
+     * @param parameters Parameters that match this plan.
+     * @return {@link String}
+     * @since 1.1
+     */
+    public String getStatementKey(String scriptName, Object[] parameters) {
+        if (expandsArrays == false) {
+            return scriptName;
+        }
+        StringBuilder key = new StringBuilder(scriptName).append('[');
+        for (int index = 0; index < parameters.length; index++) {
+            if (binders[index] == ParameterBinders.INT_ARRAY) {
+                key.append(arrayLength(parameters[index])).append(',');
+            }
+        }
+        return key.append(']').toString();
+    }
+
+    /**
+     * Expands the placeholders of {@code int[]} parameters so every element gets its own placeholder.
+     * An empty array is replaced by {@code NULL} so an {@code IN} list matches nothing.
+     * @param script {@link String} SQL script
+     * @param parameters Parameters that match this plan.
+     * @return {@link String} expanded SQL script
+     * @since 1.1
+     */
+    public String expandScript(String script, Object[] parameters) {
+        if (expandsArrays == false) {
+            return script;
+        }
+        StringBuilder expanded = new StringBuilder(script.length() + 16);
+        int placeholder = 0;
+        boolean inLiteral = false;
+        for (int position = 0; position < script.length(); position++) {
+            char character = script.charAt(position);
+            if (character == '\'') {
+                inLiteral = !inLiteral;
+            }
+            if (character != '?' || inLiteral || placeholder >= parameters.length) {
+                expanded.append(character);
+                continue;
+            }
+            if (binders[placeholder] == ParameterBinders.INT_ARRAY) {
+                int length = arrayLength(parameters[placeholder]);
+                if (length == 0) {
+                    expanded.append("NULL");
+                }
+                for (int element = 0; element < length; element++) {
+                    expanded.append(element == 0 ? "?" : ", ?");
+                }
+            } else {
+                expanded.append(character);
+            }
+            placeholder++;
+        }
+        return expanded.toString();
+    }
+
+    // Private Functions
+
+    /**
+     * Gets the length of an {@code int[]} parameter, where {@code null} counts as empty.
+     * @param parameter {@link Object}
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    private int arrayLength(Object parameter) {
+        return parameter == null ? 0 : ((int[]) parameter).length;
+    }
+
+}
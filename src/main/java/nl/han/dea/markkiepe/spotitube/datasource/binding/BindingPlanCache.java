@@ -0,0 +1,39 @@
+package nl.han.dea.markkiepe.spotitube.datasource.binding;
+
+import nl.han.dea.markkiepe.spotitube.datasource.exceptions.WrongPreparedStatementType;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Binding Plan Cache<br>
+ * Keeps the {@link BindingPlan} of every script, keyed by the name of the script,
+ * so the datatypes of the parameters only have to be resolved once.
+ *
+ * @see BindingPlan
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public class BindingPlanCache {
+
+    private final ConcurrentHashMap<String, BindingPlan> plans = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the binding plan of a script. When the script has no plan yet, or when the datatypes of the
+     * parameters changed, a new plan is resolved and cached.
+     * @param scriptName {@link String} name of the script
+     * @param parameters Parameters you want to bind.
+     * @return {@link BindingPlan}
+     * @throws WrongPreparedStatementType When one of the datatypes is not supported.
+     * @since 1.1
+     */
+    public BindingPlan getPlan(String scriptName, Object[] parameters) throws WrongPreparedStatementType {
+        BindingPlan plan = plans.get(scriptName);
+        if (plan == null || plan.matches(parameters) == false) {
+            plan = BindingPlan.resolve(parameters);
+            plans.put(scriptName, plan);
+        }
+        return plan;
+    }
+
+}
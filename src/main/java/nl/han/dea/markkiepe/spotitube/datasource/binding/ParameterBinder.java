@@ -0,0 +1,31 @@
+package nl.han.dea.markkiepe.spotitube.datasource.binding;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Parameter Binder<br>
+ * Sets a single value of a known type on a {@link PreparedStatement}.
+ * A binder is resolved once per script and parameter position and stored in a {@link BindingPlan}.
+ *
+ * @see BindingPlan
+ * @see ParameterBinders
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@FunctionalInterface
+public interface ParameterBinder {
+
+    /**
+     * Sets the value on the statement.
+     * @param preparedStatement {@link PreparedStatement}
+     * @param parameterIndex {@link Integer} index of the first placeholder that belongs to this value.
+     * @param value {@link Object} value of the type this binder was resolved for.
+     * @return {@link Integer} amount of placeholders that were used by this value.
+     * @throws SQLException When the value could not be set.
+     * @since 1.1
+     */
+    int bind(PreparedStatement preparedStatement, int parameterIndex, Object value) throws SQLException;
+
+}
@@ -0,0 +1,111 @@
+package nl.han.dea.markkiepe.spotitube.datasource.binding;
+
+import nl.han.dea.markkiepe.spotitube.datasource.exceptions.WrongPreparedStatementType;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Parameter Binders<br>
+ * Contains the {@link ParameterBinder} for every datatype that can be used as a script parameter.
+ * <br><br>
+ * The following datatypes are supported:
+ * <ul>
+ *     <li>{@link String}</li>
+ *     <li>{@link Integer}</li>
+ *     <li>{@link Long}</li>
+ *     <li>{@link Boolean}</li>
+ *     <li>{@link Timestamp}</li>
+ *     <li>{@link LocalDate}</li>
+ *     <li>{@link LocalDateTime}</li>
+ *     <li>{@code int[]}, which is expanded into one placeholder per element (for {@code IN} lists)</li>
+ *     <li>{@code null}</li>
+ * </ul>
+ *
+ * @see ParameterBinder
+ * @see BindingPlan
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public final class ParameterBinders {
+
+    /**
+     * Binder for {@code null} values.
+     * @since 1.1
+     */
+    public static final ParameterBinder NULL = (preparedStatement, parameterIndex, value) -> {
+        preparedStatement.setNull(parameterIndex, Types.NULL);
+        return 1;
+    };
+
+    /**
+     * Binder for {@code int[]} values. Every element gets its own placeholder.
+     * @since 1.1
+     */
+    public static final ParameterBinder INT_ARRAY = (preparedStatement, parameterIndex, value) -> {
+        int[] values = (int[]) value;
+        for (int index = 0; index < values.length; index++) {
+            preparedStatement.setInt(parameterIndex + index, values[index]);
+        }
+        return values.length;
+    };
+
+    private static final Map<Class<?>, ParameterBinder> BINDERS = Map.of(
+            String.class, (preparedStatement, parameterIndex, value) -> {
+                preparedStatement.setString(parameterIndex, (String) value);
+                return 1;
+            },
+            Integer.class, (preparedStatement, parameterIndex, value) -> {
+                preparedStatement.setInt(parameterIndex, (Integer) value);
+                return 1;
+            },
+            Long.class, (preparedStatement, parameterIndex, value) -> {
+                preparedStatement.setLong(parameterIndex, (Long) value);
+                return 1;
+            },
+            Boolean.class, (preparedStatement, parameterIndex, value) -> {
+                preparedStatement.setBoolean(parameterIndex, (Boolean) value);
+                return 1;
+            },
+            Timestamp.class, (preparedStatement, parameterIndex, value) -> {
+                preparedStatement.setTimestamp(parameterIndex, (Timestamp) value);
+                return 1;
+            },
+            LocalDate.class, (preparedStatement, parameterIndex, value) -> {
+                preparedStatement.setDate(parameterIndex, Date.valueOf((LocalDate) value));
+                return 1;
+            },
+            LocalDateTime.class, (preparedStatement, parameterIndex, value) -> {
+                preparedStatement.setTimestamp(parameterIndex, Timestamp.valueOf((LocalDateTime) value));
+                return 1;
+            },
+            int[].class, INT_ARRAY
+    );
+
+    private ParameterBinders() {
+    }
+
+    /**
+     * Gets the binder for the given datatype.
+     * @param type {@link Class} of the value, or {@code null} for a {@code null} value.
+     * @return {@link ParameterBinder}
+     * @throws WrongPreparedStatementType When the datatype is not supported.
+     * @since 1.1
+     */
+    public static ParameterBinder forType(Class<?> type) throws WrongPreparedStatementType {
+        if (type == null) {
+            return NULL;
+        }
+        ParameterBinder binder = BINDERS.get(type);
+        if (binder != null) {
+            return binder;
+        }
+        throw new WrongPreparedStatementType();
+    }
+
+}
@@ -0,0 +1,66 @@
+package nl.han.dea.markkiepe.spotitube.datasource.context;
+
+/**
+ * Query Deadline<br>
+ * Holds the moment the request that is handled by the current thread has to be finished.
+ * All queries that are executed for the request share this deadline: every statement only gets the time that is
+ * left as its query timeout, so a request can never wait on the database for longer than its budget.
+ * <br><br>
+ * The deadline is started and cleared by a filter around every request. Threads without a deadline execute
+ * statements with the default query timeout.
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public final class QueryDeadline {
+
+    private static final ThreadLocal<long[]> DEADLINE = new ThreadLocal<>();
+
+    /**
+     * This class only contains static functions.
+     * @since 1.1
+     */
+    private QueryDeadline() {
+    }
+
+    /**
+     * Starts a new deadline for the current thread, replacing any previous one.
+     * @param budgetMillis {@link Long} milliseconds the current request is allowed to take.
+     * @since 1.1
+     */
+    public static void start(long budgetMillis) {
+        DEADLINE.set(new long[] { System.currentTimeMillis() + budgetMillis });
+    }
+
+    /**
+     * Removes the deadline of the current thread.
+     * @since 1.1
+     */
+    public static void clear() {
+        DEADLINE.remove();
+    }
+
+    /**
+     * Says whether the current thread has a deadline.
+     * @return {@link Boolean}
+     * @since 1.1
+     */
+    public static boolean isSet() {
+        return DEADLINE.get() != null;
+    }
+
+    /**
+     * Gets the milliseconds that are left before the deadline of the current thread.
+     * @return {@link Long} remaining milliseconds, which is zero or less when the deadline has passed and
+     * {@link Long#MAX_VALUE} when there is no deadline.
+     * @since 1.1
+     */
+    public static long getRemainingMillis() {
+        long[] deadline = DEADLINE.get();
+        if (deadline == null) {
+            return Long.MAX_VALUE;
+        }
+        return deadline[0] - System.currentTimeMillis();
+    }
+
+}
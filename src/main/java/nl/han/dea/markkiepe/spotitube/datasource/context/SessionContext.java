@@ -0,0 +1,55 @@
+package nl.han.dea.markkiepe.spotitube.datasource.context;
+
+/**
+ * Session Context<br>
+ * Holds the key of the client session the current thread is handling a request for, so the database layer
+ * can recognise requests of the same session. It is used to execute the reads of a session on the primary
+ * database for a while after the session wrote data.
+ * <br><br>
+ * The session is set and cleared by a filter around every request.
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public final class SessionContext {
+
+    private static final ThreadLocal<String> SESSION = new ThreadLocal<>();
+
+    /**
+     * This class only contains static functions.
+     * @since 1.1
+     */
+    private SessionContext() {
+    }
+
+    /**
+     * Sets the session of the current thread, replacing any previous one.
+     * @param sessionKey {@link String} key of the session, {@code null} when the request has no session.
+     * @since 1.1
+     */
+    public static void set(String sessionKey) {
+        if (sessionKey == null) {
+            SESSION.remove();
+        } else {
+            SESSION.set(sessionKey);
+        }
+    }
+
+    /**
+     * Removes the session of the current thread.
+     * @since 1.1
+     */
+    public static void clear() {
+        SESSION.remove();
+    }
+
+    /**
+     * Gets the session of the current thread.
+     * @return {@link String} or {@code null} when there is no session.
+     * @since 1.1
+     */
+    public static String get() {
+        return SESSION.get();
+    }
+
+}
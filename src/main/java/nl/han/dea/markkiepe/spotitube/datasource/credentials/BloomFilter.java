@@ -0,0 +1,112 @@
+package nl.han.dea.markkiepe.spotitube.datasource.credentials;
+
+import org.apache.commons.codec.digest.MurmurHash3;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom Filter<br>
+ * Remembers a set of texts in a fixed amount of bits. It can say for certain that a text was never added,
+ * but may answer that a text was added when it was not (a false positive).
+ * <br><br>
+ * Every text sets a few bits that are chosen by hashing it. A text whose bits are not all set was never added.
+ * With ten bits per text and seven hashes about one in a hundred texts that were never added is a false positive.
+ *
+ * @implNote
+ * The bits are kept in an {@link AtomicLongArray}, so texts can be added and checked by several threads at the
+ * same time without locking. Texts cannot be removed.
+ *
+ * @see UsernameFilter
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Creates an empty filter for the given amount of texts.
+     * @param expectedTexts {@link Long} amount of texts the filter is sized for.
+     * @param bitsPerText {@link Integer} bits that are reserved for every text, more bits give fewer false positives.
+     * @since 1.1
+     */
+    public BloomFilter(long expectedTexts, int bitsPerText) {
+        long words = Math.max(1, (Math.max(1, expectedTexts) * Math.max(1, bitsPerText) + Long.SIZE - 1) / Long.SIZE);
+        this.bits = new AtomicLongArray((int) Math.min(Integer.MAX_VALUE, words));
+        this.bitCount = (long) bits.length() * Long.SIZE;
+        this.hashCount = (int) Math.max(1, Math.round(Math.max(1, bitsPerText) * Math.log(2)));
+    }
+
+    /**
+     * Adds a text to the filter.
+     * @param text {@link String}
+     * @since 1.1
+     */
+    public void add(String text) {
+        long[] hash = hash(text);
+        for (int index = 0; index < hashCount; index++) {
+            long bit = getBit(hash, index);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && bits.compareAndSet(word, current, current | mask) == false);
+        }
+    }
+
+    /**
+     * Checks if a text might have been added to the filter.
+     * @param text {@link String}
+     * @return {@link Boolean} false when the text was certainly never added.
+     * @since 1.1
+     */
+    public boolean mightContain(String text) {
+        long[] hash = hash(text);
+        for (int index = 0; index < hashCount; index++) {
+            long bit = getBit(hash, index);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Getter for the amount of bits of this filter.
+     * @return {@link Long}
+     * @since 1.1
+     */
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    // Private Functions
+
+    /**
+     * Hashes a text into two 64 bit hashes.
+     * @param text {@link String}
+     * @return Two hashes
+     * @since 1.1
+     */
+    private long[] hash(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return MurmurHash3.hash128x64(bytes, 0, bytes.length, 0);
+    }
+
+    /**
+     * Gets the bit of the hash with the given index, combining the two hashes of a text.
+     * @param hash Two hashes of the text.
+     * @param index {@link Integer} index of the hash.
+     * @return {@link Long} index of the bit.
+     * @since 1.1
+     */
+    private long getBit(long[] hash, int index) {
+        return Math.floorMod(hash[0] + index * hash[1], bitCount);
+    }
+
+}
@@ -0,0 +1,125 @@
+package nl.han.dea.markkiepe.spotitube.datasource.credentials;
+
+import nl.han.dea.markkiepe.spotitube.datasource.CredentialsMapper;
+import nl.han.dea.markkiepe.spotitube.datasource.dao.credentials.CredentialsDao;
+import nl.han.dea.markkiepe.spotitube.datasource.util.DatabaseProperties;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Credentials Cache<br>
+ * Keeps the credentials of recently looked up accounts, keyed by username, so a user that logs in several times
+ * in a row, or many clients of the same account, only cause a single query.
+ * <br><br>
+ * The cache is configured in the {@code database.properties} file:
+ * <ul>
+ *     <li>{@code credentialsCacheSize} accounts that are kept, {@code 0} to disable the cache.</li>
+ *     <li>{@code credentialsCacheTimeToLive} milliseconds the credentials of an account are kept.</li>
+ * </ul>
+ * When the cache is full the least recently used account is dropped.
+ *
+ * @implNote
+ * A password that is changed outside of the application is picked up after the time to live.
+ * Passwords that are changed through the {@link CredentialsMapper} are removed from the cache right away.
+ *
+ * @see CredentialsMapper
+ * @see DatabaseProperties
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Singleton
+public class CredentialsCache {
+
+    private final int maximumSize;
+    private final long timeToLive;
+    private final LinkedHashMap<String, CachedCredentials> credentials;
+
+    /**
+     * Creates a new empty credentials cache.
+     * @param databaseProperties {@link DatabaseProperties}
+     * @since 1.1
+     */
+    @Inject
+    public CredentialsCache(DatabaseProperties databaseProperties) {
+        this.maximumSize = Math.max(0, databaseProperties.getCredentialsCacheSize());
+        this.timeToLive = Math.max(0, databaseProperties.getCredentialsCacheTimeToLive());
+        this.credentials = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedCredentials> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Gets the cached credentials of a username.
+     * @param username {@link String}
+     * @param now {@link Long} current time in milliseconds.
+     * @return {@link CredentialsDao} or {@code null} when the credentials are not cached or expired.
+     * @since 1.1
+     */
+    public synchronized CredentialsDao get(String username, long now) {
+        CachedCredentials cached = credentials.get(username);
+        if (cached == null) {
+            return null;
+        }
+        if (now - cached.cachedAt >= timeToLive) {
+            credentials.remove(username);
+            return null;
+        }
+        return cached.credentials;
+    }
+
+    /**
+     * Caches the credentials of a username.
+     * @param username {@link String}
+     * @param credentialsDao {@link CredentialsDao}
+     * @param now {@link Long} current time in milliseconds.
+     * @since 1.1
+     */
+    public synchronized void put(String username, CredentialsDao credentialsDao, long now) {
+        if (maximumSize == 0 || timeToLive == 0) {
+            return;
+        }
+        credentials.put(username, new CachedCredentials(credentialsDao, now));
+    }
+
+    /**
+     * Removes the cached credentials of a user, for example because the password was changed.
+     * @param userId {@link Integer} UserId
+     * @since 1.1
+     */
+    public synchronized void invalidate(int userId) {
+        credentials.values().removeIf(cached -> cached.credentials.getUserId() == userId);
+    }
+
+    /**
+     * Gets the amount of accounts that are cached.
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    public synchronized int size() {
+        return credentials.size();
+    }
+
+    /**
+     * Credentials together with the moment they were cached.
+     * @since 1.1
+     */
+    private static class CachedCredentials {
+
+        private final CredentialsDao credentials;
+        private final long cachedAt;
+
+        private CachedCredentials(CredentialsDao credentials, long cachedAt) {
+            this.credentials = credentials;
+            this.cachedAt = cachedAt;
+        }
+
+    }
+
+}
@@ -0,0 +1,165 @@
+package nl.han.dea.markkiepe.spotitube.datasource.credentials;
+
+import nl.han.dea.markkiepe.spotitube.datasource.CredentialsMapper;
+import nl.han.dea.markkiepe.spotitube.datasource.util.DatabaseProperties;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Username Filter<br>
+ * Keeps a {@link BloomFilter} of all usernames in the database, so a log-in with a username that does not exist
+ * can be refused without a query. This keeps the database free from credential stuffing, where large lists of
+ * usernames that mostly do not exist are tried.
+ * <br><br>
+ * The filter is loaded from the database by the {@link UsernameFilterRefresher} in the background, right away when
+ * the application starts and again after every refresh interval, so accounts that are created outside of the
+ * application are picked up. Log-ins only read the current filter and never wait for the usernames to be loaded.
+ * Accounts that are created by the application are added right away with {@link UsernameFilter#add(String)}.
+ * <br><br>
+ * The filter is configured in the {@code database.properties} file:
+ * <ul>
+ *     <li>{@code usernameFilterRefreshInterval} milliseconds after which the usernames are loaded again,
+ *     {@code 0} to disable the filter.</li>
+ *     <li>{@code usernameFilterBitsPerUsername} bits per username, ten gives about one percent false positives.</li>
+ * </ul>
+ *
+ * @implNote
+ * SQL Server compares usernames without regard to case and trailing spaces, so usernames are normalized before they
+ * are added or checked. Otherwise a username that the database would find could be refused.
+ *
+ * @see BloomFilter
+ * @see UsernameFilterRefresher
+ * @see CredentialsMapper
+ * @see DatabaseProperties
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Singleton
+public class UsernameFilter {
+
+    private static final int MINIMUM_EXPECTED_USERNAMES = 1024;
+
+    private final long refreshInterval;
+    private final int bitsPerUsername;
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private final Queue<String> addedWhileLoading = new ConcurrentLinkedQueue<>();
+    private volatile BloomFilter filter;
+
+    /**
+     * Creates a new username filter that is not loaded yet.
+     * @param databaseProperties {@link DatabaseProperties}
+     * @since 1.1
+     */
+    @Inject
+    public UsernameFilter(DatabaseProperties databaseProperties) {
+        this.refreshInterval = Math.max(0, databaseProperties.getUsernameFilterRefreshInterval());
+        this.bitsPerUsername = Math.max(1, databaseProperties.getUsernameFilterBitsPerUsername());
+    }
+
+    /**
+     * Checks if a username might exist. Until the filter is loaded every username might exist.
+     * @param username {@link String}
+     * @return {@link Boolean} false when the username certainly does not exist.
+     * @since 1.1
+     */
+    public boolean mightExist(String username) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(normalize(username));
+    }
+
+    /**
+     * Adds the username of an account that was just created.
+     * @param username {@link String}
+     * @since 1.1
+     */
+    public void add(String username) {
+        String normalized = normalize(username);
+        if (loading.get()) {
+            // The new filter may be loaded before the account was created
+            addedWhileLoading.add(normalized);
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.add(normalized);
+        }
+    }
+
+    /**
+     * Claims loading the usernames. Only one caller gets the claim, which then has to call
+     * {@link UsernameFilter#load(Collection)} or {@link UsernameFilter#loadFailed()}.
+     * @return {@link Boolean} true when the caller has to load the usernames, false when the filter is disabled or
+     * already being loaded.
+     * @since 1.1
+     */
+    public boolean startLoading() {
+        return isEnabled() && loading.compareAndSet(false, true);
+    }
+
+    /**
+     * Replaces the filter by a new filter with the given usernames.
+     * @param usernames {@link Collection} of all usernames in the database.
+     * @since 1.1
+     */
+    public void load(Collection<String> usernames) {
+        // Leaves room for new accounts until the next load
+        BloomFilter loaded = new BloomFilter(Math.max(MINIMUM_EXPECTED_USERNAMES, usernames.size() * 2L), bitsPerUsername);
+        for (String username : usernames) {
+            loaded.add(normalize(username));
+        }
+        filter = loaded;
+        drainAddedWhileLoading(loaded);
+        loading.set(false);
+        drainAddedWhileLoading(loaded);
+    }
+
+    /**
+     * Gives up the claim of {@link UsernameFilter#startLoading()} after the usernames could not be loaded.
+     * The current filter, if any, is kept.
+     * @since 1.1
+     */
+    public void loadFailed() {
+        loading.set(false);
+        addedWhileLoading.clear();
+    }
+
+    /**
+     * Says whether the filter is enabled in the {@link DatabaseProperties}.
+     * @return {@link Boolean}
+     * @since 1.1
+     */
+    public boolean isEnabled() {
+        return refreshInterval > 0;
+    }
+
+    // Private Functions
+
+    /**
+     * Adds the usernames that were added while the filter was loading to the loaded filter.
+     * @param loaded {@link BloomFilter}
+     * @since 1.1
+     */
+    private void drainAddedWhileLoading(BloomFilter loaded) {
+        String username;
+        while ((username = addedWhileLoading.poll()) != null) {
+            loaded.add(username);
+        }
+    }
+
+    /**
+     * Normalizes a username the way the database compares it: without trailing spaces and without regard to case.
+     * @param username {@link String}
+     * @return {@link String}
+     * @since 1.1
+     */
+    private String normalize(String username) {
+        return username.stripTrailing().toLowerCase(Locale.ROOT);
+    }
+
+}
@@ -0,0 +1,90 @@
+package nl.han.dea.markkiepe.spotitube.datasource.credentials;
+
+import nl.han.dea.markkiepe.spotitube.datasource.CredentialsMapper;
+import nl.han.dea.markkiepe.spotitube.datasource.util.DatabaseProperties;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Username Filter Refresher<br>
+ * Loads all usernames into the {@link UsernameFilter} in the background. The first load runs right away when the
+ * refresher is created, after which the usernames are loaded again every refresh interval. Loading scans the whole
+ * {@code Users} table, so it is never done by a log-in.
+ * <br><br>
+ * The refresher is configured in the {@code database.properties} file:
+ * <ul>
+ *     <li>{@code usernameFilterRefreshInterval} milliseconds between two loads, {@code 0} to disable the filter.</li>
+ * </ul>
+ *
+ * @see UsernameFilter
+ * @see CredentialsMapper#getAllUsernames()
+ * @see DatabaseProperties
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Singleton
+public class UsernameFilterRefresher {
+
+    private final UsernameFilter usernameFilter;
+    private final CredentialsMapper credentialsMapper;
+    private final ScheduledExecutorService refresher;
+
+    /**
+     * Creates a new refresher and starts loading the usernames in the background.
+     * @param usernameFilter {@link UsernameFilter} that is loaded.
+     * @param credentialsMapper {@link CredentialsMapper} that gets the usernames.
+     * @param databaseProperties {@link DatabaseProperties}
+     * @since 1.1
+     */
+    @Inject
+    public UsernameFilterRefresher(UsernameFilter usernameFilter, CredentialsMapper credentialsMapper, DatabaseProperties databaseProperties) {
+        this.usernameFilter = usernameFilter;
+        this.credentialsMapper = credentialsMapper;
+        long interval = Math.max(0, databaseProperties.getUsernameFilterRefreshInterval());
+        //
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "spotitube-username-filter-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (interval > 0) {
+            refresher.scheduleWithFixedDelay(this::refresh, 0, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Loads all usernames into the filter. When they cannot be loaded the current filter is kept.
+     * @return {@link Boolean} whether the filter was loaded.
+     * @since 1.1
+     */
+    public boolean refresh() {
+        if (usernameFilter.startLoading() == false) {
+            return false;
+        }
+        try {
+            usernameFilter.load(credentialsMapper.getAllUsernames());
+            return true;
+        } catch (RuntimeException e) {
+            // Keeps the refresher running, the next refresh is tried again
+            e.printStackTrace();
+            usernameFilter.loadFailed();
+            return false;
+        }
+    }
+
+    /**
+     * Stops the background refresh.
+     * @since 1.1
+     */
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+}
@@ -15,13 +15,13 @@ public class PlaylistsDao {
     private int length = 0;
 
     /**
-     * Inserts a new {@link PlaylistDao} into the {@link ArrayList}.
+     * Inserts a new {@link PlaylistDao} into the {@link ArrayList} and adds its length to the total length.
      * @param playlistDao {@link PlaylistDao}
      * @since 1.0
      */
     public void addPlaylistDao(PlaylistDao playlistDao) {
         this.playlists.add(playlistDao);
-        updateLength();
+        this.length += playlistDao.getLength();
     }
 
     /**
@@ -41,18 +41,4 @@ public class PlaylistsDao {
     public int getLength() {
         return length;
     }
-
-    // Private Functions
-
-    /**
-     * Updates the total length duration of this playlist.
-     * @since 1.0
-     */
-    private void updateLength() {
-        int newLength = 0;
-        for (PlaylistDao playlistDao : playlists) {
-            newLength += playlistDao.getLength();
-        }
-        length = newLength;
-    }
 }
@@ -14,15 +14,17 @@ import java.util.ArrayList;
 public class TracksDao {
 
     private ArrayList<TrackDao> tracks = new ArrayList<>();
+    private int tracksLength = 0;
 
     /**
-     * Adds a new {@link TracksDao} to the {@link ArrayList}.
+     * Adds a new {@link TracksDao} to the {@link ArrayList} and adds its duration to the total length.
      * @see TracksDao
      * @param track {@link TrackDao}
      * @since 1.0
      */
     public void addTrack(TrackDao track) {
         tracks.add(track);
+        tracksLength += track.getDuration();
     }
 
     /**
@@ -41,11 +43,7 @@ public class TracksDao {
      * @since 1.0
      */
     public int getTracksLength() {
-        int total = 0;
-        for (TrackDao track : tracks) {
-            total += track.getDuration();
-        }
-        return total;
+        return tracksLength;
     }
 
 }
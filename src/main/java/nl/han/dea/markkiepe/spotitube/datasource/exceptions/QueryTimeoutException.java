@@ -0,0 +1,4 @@
+package nl.han.dea.markkiepe.spotitube.datasource.exceptions;
+
+public class QueryTimeoutException extends DatabaseErrorException {
+}
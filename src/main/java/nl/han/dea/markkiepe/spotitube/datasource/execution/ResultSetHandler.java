@@ -0,0 +1,35 @@
+package nl.han.dea.markkiepe.spotitube.datasource.execution;
+
+import nl.han.dea.markkiepe.spotitube.datasource.Mapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Result Set Handler<br>
+ * Converts the complete {@link ResultSet} of a query into a single result, for example a Data Access Object
+ * that collects all retrieved rows.
+ *
+ * @implNote
+ * The {@link ResultSet} is only valid while this handler is running. It is closed by the {@link Mapper} afterwards
+ * and must not be stored.
+ *
+ * @see Mapper
+ *
+ * @param <T> Type of the result
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@FunctionalInterface
+public interface ResultSetHandler<T> {
+
+    /**
+     * Handles the {@link ResultSet} of an executed query.
+     * @param resultSet {@link ResultSet} positioned before the first row.
+     * @return Result of the query
+     * @throws SQLException When reading the {@link ResultSet} fails.
+     * @since 1.1
+     */
+    T handle(ResultSet resultSet) throws SQLException;
+
+}
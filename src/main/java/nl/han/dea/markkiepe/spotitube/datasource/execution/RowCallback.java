@@ -0,0 +1,32 @@
+package nl.han.dea.markkiepe.spotitube.datasource.execution;
+
+import nl.han.dea.markkiepe.spotitube.datasource.Mapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Row Callback<br>
+ * Gets called once for every row a query returns.
+ *
+ * @implNote
+ * The {@link ResultSet} is already positioned on the current row and must not be moved by the callback.
+ * It is closed by the {@link Mapper} afterwards and must not be stored.
+ *
+ * @see Mapper
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@FunctionalInterface
+public interface RowCallback {
+
+    /**
+     * Processes the current row of the {@link ResultSet}.
+     * @param resultSet {@link ResultSet} positioned on the current row.
+     * @throws SQLException When reading the row fails.
+     * @since 1.1
+     */
+    void processRow(ResultSet resultSet) throws SQLException;
+
+}
@@ -0,0 +1,56 @@
+package nl.han.dea.markkiepe.spotitube.datasource.execution;
+
+import nl.han.dea.markkiepe.spotitube.datasource.Mapper;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Transaction<br>
+ * Executes scripts inside a {@link UnitOfWork}. Every script runs on the same connection in the same database
+ * transaction, so the changes are committed together or not at all.
+ *
+ * @implNote
+ * A transaction is only valid while its {@link UnitOfWork} is running and must not be stored or shared between threads.
+ *
+ * @see UnitOfWork
+ * @see Mapper
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public interface Transaction {
+
+    /**
+     * Executes a query in this transaction and hands its result to the given {@link ResultSetHandler}.
+     * @param sqlScriptName Name of the script you wish to execute in {@link String} format.
+     * @param resultSetHandler {@link ResultSetHandler} that converts the retrieved rows into the result.
+     * @param scriptParameters All parameters you wish to use in the SQL Script.
+     * @param <T> Type of the result
+     * @return The result created by the {@link ResultSetHandler}.
+     * @throws SQLException When executing the script fails.
+     * @since 1.1
+     */
+    <T> T query(String sqlScriptName, ResultSetHandler<T> resultSetHandler, Object ... scriptParameters) throws SQLException;
+
+    /**
+     * Executes a script that modifies the database in this transaction.
+     * @param sqlScriptName Name of the script you wish to execute in {@link String} format.
+     * @param scriptParameters All parameters you wish to use in the SQL Script.
+     * @return {@link Integer} amount of rows that were affected by the script.
+     * @throws SQLException When executing the script fails.
+     * @since 1.1
+     */
+    int update(String sqlScriptName, Object ... scriptParameters) throws SQLException;
+
+    /**
+     * Executes a script once for every set of parameters as a JDBC batch in this transaction.
+     * @param sqlScriptName Name of the script you wish to execute in {@link String} format.
+     * @param parameterSets The parameters of every execution of the SQL Script.
+     * @return {@link Integer} amount of affected rows, where executions without a known count count as one.
+     * @throws SQLException When executing the script fails.
+     * @since 1.1
+     */
+    int batchUpdate(String sqlScriptName, List<Object[]> parameterSets) throws SQLException;
+
+}
@@ -0,0 +1,35 @@
+package nl.han.dea.markkiepe.spotitube.datasource.execution;
+
+import nl.han.dea.markkiepe.spotitube.datasource.Mapper;
+
+import java.sql.SQLException;
+
+/**
+ * Unit Of Work<br>
+ * Groups several scripts that have to succeed or fail together. The work is executed by the {@link Mapper}
+ * in a single {@link Transaction}, which is committed once the work returns and rolled back when it throws.
+ *
+ * @implNote
+ * The work can be rolled back after it ran, so it should not have side effects outside of the database.
+ *
+ * @see Transaction
+ * @see Mapper
+ *
+ * @param <T> Type of the result
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@FunctionalInterface
+public interface UnitOfWork<T> {
+
+    /**
+     * Executes the scripts of this unit of work.
+     * @param transaction {@link Transaction} the scripts are executed in.
+     * @return The result of the work
+     * @throws SQLException When executing one of the scripts fails.
+     * @since 1.1
+     */
+    T execute(Transaction transaction) throws SQLException;
+
+}
@@ -0,0 +1,320 @@
+package nl.han.dea.markkiepe.spotitube.datasource.pool;
+
+import nl.han.dea.markkiepe.spotitube.datasource.util.DatabaseProperties;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connection Pool<br>
+ * Keeps physical database connections open so queries do not have to open a new connection
+ * (and pay for the network handshake and login) every time they are executed.
+ * <br><br>
+ * The pool is configured in the {@code database.properties} file:
+ * <ul>
+ *     <li>{@code poolMinimumSize} idle connections that are never evicted.</li>
+ *     <li>{@code poolMaximumSize} connections that can be open at the same time.</li>
+ *     <li>{@code poolAcquireTimeout} milliseconds a caller waits for a free connection.</li>
+ *     <li>{@code poolIdleTimeout} milliseconds an unused connection stays open.</li>
+ *     <li>{@code poolValidationInterval} milliseconds of idle time after which a connection is validated on borrow.</li>
+ *     <li>{@code poolValidationTimeout} seconds the database gets to answer a validation.</li>
+ *     <li>{@code statementCacheSize} prepared statements that are kept open per connection.</li>
+ * </ul>
+ *
+ * @see PooledConnection
+ * @see StatementCache
+ * @see DatabaseProperties
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Singleton
+public class ConnectionPool {
+
+    private static final long MINIMUM_EVICTION_INTERVAL = 1000;
+
+    private final String connectionString;
+    private final LinkedBlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final ScheduledExecutorService evictor;
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private volatile long lastFailureAt;
+
+    private final int minimumSize;
+    private final int maximumSize;
+    private final long acquireTimeout;
+    private final long idleTimeout;
+    private final long validationInterval;
+    private final int validationTimeout;
+    private final int statementCacheSize;
+
+    /**
+     * Creates a new connection pool for the primary database in the {@link DatabaseProperties}.
+     * @implNote No connections are opened until the first connection is requested.
+     * @param databaseProperties {@link DatabaseProperties}
+     * @since 1.1
+     */
+    @Inject
+    public ConnectionPool(DatabaseProperties databaseProperties) {
+        this(databaseProperties, databaseProperties.getConnectionString());
+    }
+
+    /**
+     * Creates a new connection pool for the database with the given connection string, for example a replica.
+     * The pool settings are taken from the {@link DatabaseProperties}.
+     * @implNote No connections are opened until the first connection is requested.
+     * @param databaseProperties {@link DatabaseProperties}
+     * @param connectionString {@link String} connection string of the database.
+     * @since 1.1
+     */
+    public ConnectionPool(DatabaseProperties databaseProperties, String connectionString) {
+        this.connectionString = connectionString;
+        this.maximumSize = Math.max(1, databaseProperties.getPoolMaximumSize());
+        this.minimumSize = Math.min(Math.max(0, databaseProperties.getPoolMinimumSize()), maximumSize);
+        this.acquireTimeout = Math.max(0, databaseProperties.getPoolAcquireTimeout());
+        this.idleTimeout = Math.max(MINIMUM_EVICTION_INTERVAL, databaseProperties.getPoolIdleTimeout());
+        this.validationInterval = Math.max(0, databaseProperties.getPoolValidationInterval());
+        this.validationTimeout = Math.max(0, databaseProperties.getPoolValidationTimeout());
+        this.statementCacheSize = Math.max(1, databaseProperties.getStatementCacheSize());
+        this.permits = new Semaphore(maximumSize, true);
+        //
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "spotitube-connection-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long evictionInterval = Math.max(MINIMUM_EVICTION_INTERVAL, idleTimeout / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdleConnections, evictionInterval, evictionInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool. If there is no idle connection available a new one is opened, as long as
+     * the maximum pool size has not been reached. Otherwise the caller waits until a connection is returned.
+     *
+     * @implNote
+     * The returned {@link PooledConnection} has to be closed after use, which returns it to the pool.
+     * This method should be called in a {@code Try-With-Resources}.
+     *
+     * @return {@link PooledConnection}
+     * @throws SQLTimeoutException When no connection became available within the acquire timeout.
+     * @throws SQLException When a new connection could not be opened.
+     * @since 1.1
+     */
+    public PooledConnection getConnection() throws SQLException {
+        return getConnection(acquireTimeout);
+    }
+
+    /**
+     * Borrows a connection from the pool like {@link ConnectionPool#getConnection()}, but waits at most the given
+     * amount of milliseconds when that is shorter than the acquire timeout.
+     * @param maximumWait {@link Long} maximum amount of milliseconds to wait for a free connection.
+     * @return {@link PooledConnection}
+     * @throws SQLTimeoutException When no connection became available in time.
+     * @throws SQLException When a new connection could not be opened.
+     * @since 1.1
+     */
+    public PooledConnection getConnection(long maximumWait) throws SQLException {
+        long wait = Math.max(0, Math.min(acquireTimeout, maximumWait));
+        try {
+            if (permits.tryAcquire(wait, TimeUnit.MILLISECONDS) == false) {
+                throw new SQLTimeoutException("No database connection became available within " + wait + "ms.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+        //
+        try {
+            PooledConnection pooledConnection;
+            while ((pooledConnection = idleConnections.pollFirst()) != null) {
+                if (isUsable(pooledConnection)) {
+                    pooledConnection.markBorrowed();
+                    return pooledConnection;
+                }
+                closePhysicalConnection(pooledConnection);
+            }
+            Connection connection;
+            try {
+                connection = createPhysicalConnection();
+            } catch (SQLException e) {
+                lastFailureAt = System.currentTimeMillis();
+                throw e;
+            }
+            lastFailureAt = 0;
+            pooledConnection = new PooledConnection(
+                    this,
+                    connection,
+                    new StatementCache(connection, statementCacheSize, statementCacheHits, statementCacheMisses)
+            );
+            pooledConnection.markBorrowed();
+            return pooledConnection;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Hands a borrowed connection back to the pool. Broken or closed connections are closed instead.
+     * @param pooledConnection {@link PooledConnection}
+     * @since 1.1
+     */
+    public void releaseConnection(PooledConnection pooledConnection) {
+        if (pooledConnection.markReturned() == false) {
+            // Connection was already returned
+            return;
+        }
+        try {
+            if (pooledConnection.isBroken() || pooledConnection.getConnection().isClosed()) {
+                lastFailureAt = System.currentTimeMillis();
+                closePhysicalConnection(pooledConnection);
+            } else {
+                idleConnections.offerFirst(pooledConnection);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            closePhysicalConnection(pooledConnection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Gets the amount of connections that are currently idle in the pool.
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    public int getIdleConnectionCount() {
+        return idleConnections.size();
+    }
+
+    /**
+     * Gets the amount of connections that are currently borrowed from the pool.
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    public int getActiveConnectionCount() {
+        return maximumSize - permits.availablePermits();
+    }
+
+    /**
+     * Gets the amount of times a prepared statement was reused from a {@link StatementCache}.
+     * @return {@link Long}
+     * @since 1.1
+     */
+    public long getStatementCacheHits() {
+        return statementCacheHits.sum();
+    }
+
+    /**
+     * Gets the amount of times a statement had to be prepared because it was not in a {@link StatementCache}.
+     * @return {@link Long}
+     * @since 1.1
+     */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.sum();
+    }
+
+    /**
+     * Gets the moment a connection of this pool last failed, either because it could not be opened or because it
+     * broke while it was used.
+     * @return {@link Long} epoch milliseconds, {@code 0} when no connection failed since the last successful connect.
+     * @since 1.1
+     */
+    public long getLastFailureAt() {
+        return lastFailureAt;
+    }
+
+    /**
+     * Closes all idle connections and stops the idle connection evictor.
+     * @since 1.1
+     */
+    @PreDestroy
+    public void shutdown() {
+        evictor.shutdownNow();
+        PooledConnection pooledConnection;
+        while ((pooledConnection = idleConnections.pollFirst()) != null) {
+            closePhysicalConnection(pooledConnection);
+        }
+    }
+
+    // Protected Functions
+
+    /**
+     * Opens a new physical connection with the database.
+     * @return {@link Connection}
+     * @throws SQLException When the connection could not be opened.
+     * @since 1.1
+     */
+    protected Connection createPhysicalConnection() throws SQLException {
+        return DriverManager.getConnection(connectionString);
+    }
+
+    // Private Functions
+
+    /**
+     * Checks if an idle connection can be handed out. Connections that have been idle for too long are
+     * discarded and connections that have been idle longer than the validation interval are validated.
+     * @param pooledConnection {@link PooledConnection}
+     * @return {@link Boolean}
+     * @since 1.1
+     */
+    private boolean isUsable(PooledConnection pooledConnection) {
+        long idleTime = System.currentTimeMillis() - pooledConnection.getLastUsedAt();
+        if (idleTime >= idleTimeout) {
+            return false;
+        }
+        try {
+            Connection connection = pooledConnection.getConnection();
+            if (idleTime >= validationInterval) {
+                return connection.isValid(validationTimeout);
+            }
+            return connection.isClosed() == false;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Closes idle connections that have not been used within the idle timeout,
+     * while keeping at least the minimum amount of idle connections open.
+     * @since 1.1
+     */
+    private void evictIdleConnections() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledConnection> oldestFirst = idleConnections.descendingIterator();
+        while (oldestFirst.hasNext() && idleConnections.size() > minimumSize) {
+            PooledConnection pooledConnection = oldestFirst.next();
+            if (now - pooledConnection.getLastUsedAt() >= idleTimeout
+                    && idleConnections.removeLastOccurrence(pooledConnection)) {
+                closePhysicalConnection(pooledConnection);
+            }
+        }
+    }
+
+    /**
+     * Closes the cached statements and the physical connection of a pooled connection.
+     * @param pooledConnection {@link PooledConnection}
+     * @since 1.1
+     */
+    private void closePhysicalConnection(PooledConnection pooledConnection) {
+        try {
+            pooledConnection.closePhysicalConnection();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
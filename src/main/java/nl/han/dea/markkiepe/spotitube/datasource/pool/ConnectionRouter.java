@@ -0,0 +1,219 @@
+package nl.han.dea.markkiepe.spotitube.datasource.pool;
+
+import nl.han.dea.markkiepe.spotitube.datasource.context.SessionContext;
+import nl.han.dea.markkiepe.spotitube.datasource.util.DatabaseProperties;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connection Router<br>
+ * Decides which database a script is executed on. Scripts that only read data are spread over the read replicas
+ * with round-robin, all other scripts are executed on the primary database.
+ * <br><br>
+ * The routing is configured in the {@code database.properties} file:
+ * <ul>
+ *     <li>{@code replicaConnectionStrings} connection strings of the replicas, separated by {@code |}.</li>
+ *     <li>{@code readOnlyScripts} names of the scripts that may be executed on a replica, separated by {@code |}.</li>
+ *     <li>{@code stickyPrimaryWindow} milliseconds after a write in which reads of the same session stay on the primary.</li>
+ *     <li>{@code replicaRetryInterval} milliseconds a failing replica is skipped.</li>
+ * </ul>
+ * Without replicas everything is executed on the primary database.
+ *
+ * @implNote
+ * A replica is skipped while its {@link ConnectionPool} had a failure within the retry interval. When no replica is
+ * healthy, reads fall back to the primary database.
+ *
+ * @see ConnectionPool
+ * @see SessionContext
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Singleton
+public class ConnectionRouter {
+
+    private static final int STICKY_SESSION_CLEANUP_SIZE = 10000;
+
+    private final ConnectionPool primaryPool;
+    private final List<ConnectionPool> replicaPools;
+    private final Set<String> readOnlyScripts;
+    private final long stickyPrimaryWindow;
+    private final long replicaRetryInterval;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ConcurrentHashMap<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new connection router with a {@link ConnectionPool} for every replica in the {@link DatabaseProperties}.
+     * @param databaseProperties {@link DatabaseProperties}
+     * @param primaryPool {@link ConnectionPool} of the primary database.
+     * @since 1.1
+     */
+    @Inject
+    public ConnectionRouter(DatabaseProperties databaseProperties, ConnectionPool primaryPool) {
+        this(databaseProperties, primaryPool, createReplicaPools(databaseProperties));
+    }
+
+    /**
+     * Creates a new connection router for the given pools.
+     * @param databaseProperties {@link DatabaseProperties}
+     * @param primaryPool {@link ConnectionPool} of the primary database.
+     * @param replicaPools {@link ConnectionPool}s of the replicas.
+     * @since 1.1
+     */
+    ConnectionRouter(DatabaseProperties databaseProperties, ConnectionPool primaryPool, List<ConnectionPool> replicaPools) {
+        this.primaryPool = primaryPool;
+        this.replicaPools = replicaPools;
+        this.readOnlyScripts = databaseProperties.getReadOnlyScripts();
+        this.stickyPrimaryWindow = Math.max(0, databaseProperties.getStickyPrimaryWindow());
+        this.replicaRetryInterval = Math.max(0, databaseProperties.getReplicaRetryInterval());
+    }
+
+    /**
+     * Borrows a connection to the database the given script has to be executed on.<br>
+     * A write is remembered for the session of the current thread, so the reads of that session are executed on the
+     * primary database until the sticky primary window has passed.
+     *
+     * @implNote
+     * The returned {@link PooledConnection} has to be closed after use, which returns it to its pool.
+     *
+     * @see ConnectionPool#getConnection(long)
+     *
+     * @param scriptName {@link String} name of the script that will be executed.
+     * @param maximumWait {@link Long} maximum amount of milliseconds to wait for a free connection.
+     * @return {@link PooledConnection}
+     * @throws SQLTimeoutException When no connection became available in time.
+     * @throws SQLException When a new connection could not be opened.
+     * @since 1.1
+     */
+    public PooledConnection getConnection(String scriptName, long maximumWait) throws SQLException {
+        String session = SessionContext.get();
+        if (readOnlyScripts.contains(scriptName) == false) {
+            rememberWrite(session);
+            return primaryPool.getConnection(maximumWait);
+        }
+        if (replicaPools.isEmpty() || readsFromPrimary(session)) {
+            return primaryPool.getConnection(maximumWait);
+        }
+        return getReplicaConnection(maximumWait);
+    }
+
+    /**
+     * Borrows a connection to the primary database for work that writes, like a transaction.
+     * The write is remembered for the session of the current thread.
+     *
+     * @implNote
+     * The returned {@link PooledConnection} has to be closed after use, which returns it to its pool.
+     *
+     * @param maximumWait {@link Long} maximum amount of milliseconds to wait for a free connection.
+     * @return {@link PooledConnection}
+     * @throws SQLTimeoutException When no connection became available in time.
+     * @throws SQLException When a new connection could not be opened.
+     * @since 1.1
+     */
+    public PooledConnection getPrimaryConnection(long maximumWait) throws SQLException {
+        rememberWrite(SessionContext.get());
+        return primaryPool.getConnection(maximumWait);
+    }
+
+    /**
+     * Closes the pools of the replicas. The primary pool is closed by its own owner.
+     * @since 1.1
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (ConnectionPool replicaPool : replicaPools) {
+            replicaPool.shutdown();
+        }
+    }
+
+    // Private Functions
+
+    /**
+     * Creates a {@link ConnectionPool} for every replica connection string.
+     * @param databaseProperties {@link DatabaseProperties}
+     * @return {@link List} of {@link ConnectionPool}s
+     * @since 1.1
+     */
+    private static List<ConnectionPool> createReplicaPools(DatabaseProperties databaseProperties) {
+        List<ConnectionPool> replicaPools = new ArrayList<>();
+        for (String connectionString : databaseProperties.getReplicaConnectionStrings()) {
+            replicaPools.add(new ConnectionPool(databaseProperties, connectionString));
+        }
+        return replicaPools;
+    }
+
+    /**
+     * Borrows a connection from the next healthy replica. Replicas that fail to hand out a connection are skipped,
+     * when none of them succeeds the primary database is used.
+     * @param maximumWait {@link Long} maximum amount of milliseconds to wait for a free connection.
+     * @return {@link PooledConnection}
+     * @throws SQLException When no connection could be borrowed from the primary database either.
+     * @since 1.1
+     */
+    private PooledConnection getReplicaConnection(long maximumWait) throws SQLException {
+        long now = System.currentTimeMillis();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicaPools.size());
+        for (int attempt = 0; attempt < replicaPools.size(); attempt++) {
+            ConnectionPool replicaPool = replicaPools.get((start + attempt) % replicaPools.size());
+            long lastFailureAt = replicaPool.getLastFailureAt();
+            if (lastFailureAt > 0 && now - lastFailureAt < replicaRetryInterval) {
+                continue;
+            }
+            try {
+                return replicaPool.getConnection(maximumWait);
+            } catch (SQLTimeoutException e) {
+                // Replica is busy, trying the next one
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+        return primaryPool.getConnection(maximumWait);
+    }
+
+    /**
+     * Checks if the reads of a session have to be executed on the primary database because it wrote data recently.
+     * @param session {@link String} key of the session, may be {@code null}.
+     * @return {@link Boolean}
+     * @since 1.1
+     */
+    private boolean readsFromPrimary(String session) {
+        if (session == null) {
+            return false;
+        }
+        Long lastWrite = lastWrites.get(session);
+        if (lastWrite == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - lastWrite < stickyPrimaryWindow) {
+            return true;
+        }
+        lastWrites.remove(session, lastWrite);
+        return false;
+    }
+
+    /**
+     * Remembers that a session wrote data. Expired writes are removed when too many sessions are remembered.
+     * @param session {@link String} key of the session, may be {@code null}.
+     * @since 1.1
+     */
+    private void rememberWrite(String session) {
+        if (session == null || stickyPrimaryWindow == 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        lastWrites.put(session, now);
+        if (lastWrites.size() > STICKY_SESSION_CLEANUP_SIZE) {
+            lastWrites.values().removeIf(lastWrite -> now - lastWrite >= stickyPrimaryWindow);
+        }
+    }
+
+}
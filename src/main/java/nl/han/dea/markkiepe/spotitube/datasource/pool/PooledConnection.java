@@ -0,0 +1,146 @@
+package nl.han.dea.markkiepe.spotitube.datasource.pool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Pooled Connection<br>
+ * Wraps a physical {@link Connection} that is owned by a {@link ConnectionPool}.
+ * Closing this object does not close the physical connection but hands it back to the pool,
+ * so it can be used in a {@code Try-With-Resources}.
+ *
+ * @see ConnectionPool
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public class PooledConnection implements AutoCloseable {
+
+    private final ConnectionPool connectionPool;
+    private final Connection connection;
+    private final StatementCache statementCache;
+    private volatile long lastUsedAt;
+    private volatile boolean borrowed;
+    private volatile boolean broken;
+
+    /**
+     * Creates a new pooled connection.
+     * @param connectionPool {@link ConnectionPool} that owns the connection
+     * @param connection {@link Connection} physical database connection
+     * @param statementCache {@link StatementCache} for the statements prepared on this connection
+     * @since 1.1
+     */
+    PooledConnection(ConnectionPool connectionPool, Connection connection, StatementCache statementCache) {
+        this.connectionPool = connectionPool;
+        this.connection = connection;
+        this.statementCache = statementCache;
+        this.lastUsedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Getter for the physical database connection.
+     * @return {@link Connection}
+     * @since 1.1
+     */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Gets a prepared statement for a script from the {@link StatementCache} of this connection.
+     * If the script has not been prepared on this connection yet, it is prepared and cached.
+     *
+     * @implNote
+     * The returned statement is owned by the cache and must not be closed by the caller.
+     * Use {@link PooledConnection#discardStatement(String)} if the statement failed.
+     *
+     * @param scriptName {@link String} name the statement is cached under.
+     * @param script {@link String} SQL script
+     * @return {@link PreparedStatement}
+     * @throws SQLException When the statement could not be prepared.
+     * @since 1.1
+     */
+    public PreparedStatement prepareStatement(String scriptName, String script) throws SQLException {
+        return statementCache.prepareStatement(scriptName, script);
+    }
+
+    /**
+     * Closes and removes a cached statement, for example because executing it failed.
+     * @param scriptName {@link String} name the statement is cached under.
+     * @since 1.1
+     */
+    public void discardStatement(String scriptName) {
+        statementCache.discard(scriptName);
+    }
+
+    /**
+     * Marks this connection as broken. A broken connection is closed instead of being returned to the pool.
+     * @since 1.1
+     */
+    public void markBroken() {
+        this.broken = true;
+    }
+
+    /**
+     * Says whether this connection has been marked as broken.
+     * @return {@link Boolean}
+     * @since 1.1
+     */
+    public boolean isBroken() {
+        return broken;
+    }
+
+    /**
+     * Returns the connection to the {@link ConnectionPool} it belongs to.
+     * @since 1.1
+     */
+    @Override
+    public void close() {
+        connectionPool.releaseConnection(this);
+    }
+
+    // Pool Functions
+
+    /**
+     * Getter for the moment this connection was last handed back to the pool.
+     * @return {@link Long} epoch milliseconds
+     * @since 1.1
+     */
+    long getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    /**
+     * Closes all cached statements and the physical connection.
+     * @throws SQLException When closing the connection fails.
+     * @since 1.1
+     */
+    void closePhysicalConnection() throws SQLException {
+        statementCache.closeAll();
+        connection.close();
+    }
+
+    /**
+     * Marks this connection as borrowed by a caller.
+     * @since 1.1
+     */
+    void markBorrowed() {
+        this.borrowed = true;
+    }
+
+    /**
+     * Marks this connection as returned to the pool.
+     * @return {@link Boolean} false when the connection was already returned before.
+     * @since 1.1
+     */
+    synchronized boolean markReturned() {
+        if (borrowed == false) {
+            return false;
+        }
+        this.borrowed = false;
+        this.lastUsedAt = System.currentTimeMillis();
+        return true;
+    }
+
+}
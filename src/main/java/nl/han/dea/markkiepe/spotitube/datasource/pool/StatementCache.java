@@ -0,0 +1,127 @@
+package nl.han.dea.markkiepe.spotitube.datasource.pool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statement Cache<br>
+ * Keeps the {@link PreparedStatement}s of a single {@link PooledConnection} open, keyed by the name of the script,
+ * so the database does not have to parse and prepare the same script every time it is executed.
+ * <br><br>
+ * The cache holds at most the configured amount of statements. When it is full the least recently used
+ * statement is closed.
+ *
+ * @implNote
+ * This class is not thread safe. A {@link PooledConnection} is only used by one thread at a time,
+ * which also goes for its cache.
+ *
+ * @see PooledConnection
+ * @see ConnectionPool
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public class StatementCache {
+
+    private final Connection connection;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+
+    /**
+     * Creates a new statement cache for a connection.
+     * @param connection {@link Connection} the statements are prepared on.
+     * @param maximumSize {@link Integer} maximum amount of cached statements, at least one.
+     * @param hits {@link LongAdder} that counts the cache hits.
+     * @param misses {@link LongAdder} that counts the cache misses.
+     * @since 1.1
+     */
+    StatementCache(Connection connection, int maximumSize, LongAdder hits, LongAdder misses) {
+        this.connection = connection;
+        this.hits = hits;
+        this.misses = misses;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > Math.max(1, maximumSize)) {
+                    closeStatement(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets the cached statement for the given key or prepares a new one.
+     * @param key {@link String} name the statement is cached under.
+     * @param sql {@link String} script that is prepared when the statement is not cached yet.
+     * @return {@link PreparedStatement}
+     * @throws SQLException When the statement could not be prepared.
+     * @since 1.1
+     */
+    public PreparedStatement prepareStatement(String key, String sql) throws SQLException {
+        PreparedStatement preparedStatement = statements.get(key);
+        if (preparedStatement != null) {
+            hits.increment();
+            return preparedStatement;
+        }
+        misses.increment();
+        preparedStatement = connection.prepareStatement(sql);
+        statements.put(key, preparedStatement);
+        return preparedStatement;
+    }
+
+    /**
+     * Closes and removes the statement that is cached under the given key.
+     * This is used when a statement failed and might not be usable anymore.
+     * @param key {@link String}
+     * @since 1.1
+     */
+    public void discard(String key) {
+        PreparedStatement preparedStatement = statements.remove(key);
+        if (preparedStatement != null) {
+            closeStatement(preparedStatement);
+        }
+    }
+
+    /**
+     * Gets the amount of statements that are currently cached.
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    public int size() {
+        return statements.size();
+    }
+
+    /**
+     * Closes all cached statements.
+     * @since 1.1
+     */
+    public void closeAll() {
+        for (PreparedStatement preparedStatement : statements.values()) {
+            closeStatement(preparedStatement);
+        }
+        statements.clear();
+    }
+
+    // Private Functions
+
+    /**
+     * Closes a statement, ignoring errors because the statement is thrown away anyway.
+     * @param preparedStatement {@link PreparedStatement}
+     * @since 1.1
+     */
+    private void closeStatement(PreparedStatement preparedStatement) {
+        try {
+            preparedStatement.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+package nl.han.dea.markkiepe.spotitube.datasource.rowmapping;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Row Factory<br>
+ * Creates an object from the current row of a {@link ResultSet}. The columns are read by the positions
+ * a {@link RowMapper} resolved for the script, in the same order as the column labels of that mapper.
+ *
+ * @see RowMapper
+ *
+ * @param <T> Type of the created object
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@FunctionalInterface
+public interface RowFactory<T> {
+
+    /**
+     * Creates an object from the current row.
+     * @param resultSet {@link ResultSet} positioned on the row that has to be mapped.
+     * @param columns Positions of the columns in the {@link ResultSet}, in the order of the column labels.
+     * @return Mapped row
+     * @throws SQLException When reading the row fails.
+     * @since 1.1
+     */
+    T createRow(ResultSet resultSet, int[] columns) throws SQLException;
+
+}
@@ -0,0 +1,138 @@
+package nl.han.dea.markkiepe.spotitube.datasource.rowmapping;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Row Mapper<br>
+ * Maps the rows of a {@link ResultSet} into objects with a {@link RowFactory}. The mapper declares the labels of the
+ * columns it needs, which are resolved to column positions once per script with the {@link ResultSetMetaData}.
+ * The resolved positions are cached, so mapping a row does not have to look up any column by its name.
+ * <br><br>
+ * Example:
+ * <pre>{@code
+ * RowMapper<PlaylistDao> PLAYLIST_ROW = new RowMapper<>(
+ *         (resultSet, columns) -> new PlaylistDao(
+ *                 resultSet.getInt(columns[0]),
+ *                 resultSet.getString(columns[1]),
+ *                 resultSet.getInt(columns[2])
+ *         ),
+ *         "id", "name", "playlistDuration"
+ * );
+ * }</pre>
+ *
+ * @see RowFactory
+ *
+ * @param <T> Type of the mapped rows
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public class RowMapper<T> {
+
+    private final RowFactory<T> rowFactory;
+    private final String[] columnLabels;
+    private final ConcurrentHashMap<String, int[]> columnPositions = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new row mapper.
+     * @param rowFactory {@link RowFactory} that creates the object of a single row.
+     * @param columnLabels Labels of the columns the {@link RowFactory} reads, not case sensitive.
+     * @since 1.1
+     */
+    public RowMapper(RowFactory<T> rowFactory, String ... columnLabels) {
+        this.rowFactory = rowFactory;
+        this.columnLabels = columnLabels.clone();
+    }
+
+    /**
+     * Maps every row of the {@link ResultSet} and hands it to the consumer.
+     * @param scriptName {@link String} name of the script the {@link ResultSet} was created by.
+     * @param resultSet {@link ResultSet} positioned before the first row.
+     * @param consumer {@link Consumer} that receives every mapped row.
+     * @throws SQLException When reading the {@link ResultSet} fails or a column does not exist.
+     * @since 1.1
+     */
+    public void mapRows(String scriptName, ResultSet resultSet, Consumer<? super T> consumer) throws SQLException {
+        int[] columns = getColumnPositions(scriptName, resultSet);
+        while (resultSet.next()) {
+            consumer.accept(rowFactory.createRow(resultSet, columns));
+        }
+    }
+
+    /**
+     * Maps the first row of the {@link ResultSet}.
+     * @param scriptName {@link String} name of the script the {@link ResultSet} was created by.
+     * @param resultSet {@link ResultSet} positioned before the first row.
+     * @return Mapped row or {@code null} when the {@link ResultSet} is empty.
+     * @throws SQLException When reading the {@link ResultSet} fails or a column does not exist.
+     * @since 1.1
+     */
+    public T mapFirstRow(String scriptName, ResultSet resultSet) throws SQLException {
+        if (resultSet.next() == false) {
+            return null;
+        }
+        return rowFactory.createRow(resultSet, getColumnPositions(scriptName, resultSet));
+    }
+
+    /**
+     * Reads a date column as a {@link Date}.
+     * The {@link java.sql.Date} of the driver is converted, because it can not be converted into an instant
+     * when it is serialized.
+     * @param resultSet {@link ResultSet}
+     * @param column Position of the column.
+     * @return {@link Date} or {@code null} when the column is {@code NULL}.
+     * @throws SQLException When reading the column fails.
+     * @since 1.1
+     */
+    public static Date getDate(ResultSet resultSet, int column) throws SQLException {
+        java.sql.Date date = resultSet.getDate(column);
+        return date == null ? null : new Date(date.getTime());
+    }
+
+    // Private Functions
+
+    /**
+     * Gets the cached column positions of a script or resolves them from the {@link ResultSetMetaData}.
+     * @param scriptName {@link String}
+     * @param resultSet {@link ResultSet}
+     * @return Positions of the columns in the order of the column labels.
+     * @throws SQLException When a column does not exist in the {@link ResultSet}.
+     * @since 1.1
+     */
+    private int[] getColumnPositions(String scriptName, ResultSet resultSet) throws SQLException {
+        int[] columns = columnPositions.get(scriptName);
+        if (columns == null) {
+            columns = resolveColumnPositions(resultSet.getMetaData());
+            columnPositions.put(scriptName, columns);
+        }
+        return columns;
+    }
+
+    /**
+     * Looks up the position of every column label in the {@link ResultSetMetaData}.
+     * @param metaData {@link ResultSetMetaData}
+     * @return Positions of the columns in the order of the column labels.
+     * @throws SQLException When a column does not exist in the {@link ResultSet}.
+     * @since 1.1
+     */
+    private int[] resolveColumnPositions(ResultSetMetaData metaData) throws SQLException {
+        int[] columns = new int[columnLabels.length];
+        int columnCount = metaData.getColumnCount();
+        for (int index = 0; index < columnLabels.length; index++) {
+            for (int column = 1; column <= columnCount && columns[index] == 0; column++) {
+                if (columnLabels[index].equalsIgnoreCase(metaData.getColumnLabel(column))) {
+                    columns[index] = column;
+                }
+            }
+            if (columns[index] == 0) {
+                throw new SQLException("Column '" + columnLabels[index] + "' does not exist in the result.");
+            }
+        }
+        return columns;
+    }
+
+}
@@ -2,7 +2,11 @@ package nl.han.dea.markkiepe.spotitube.datasource.util;
 
 import javax.inject.Inject;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 /**
  * This class is responsible for getting the database properties that are used to make
@@ -17,6 +21,58 @@ public class DatabaseProperties extends PropertyManager {
 
     private static final String DB_CONNECTION_STRING = "connectionString";
     private static final String DATABASE_PROPERTIES_FILENAME = "database.properties";
+    private static final String POOL_MINIMUM_SIZE = "poolMinimumSize";
+    private static final String POOL_MAXIMUM_SIZE = "poolMaximumSize";
+    private static final String POOL_ACQUIRE_TIMEOUT = "poolAcquireTimeout";
+    private static final String POOL_IDLE_TIMEOUT = "poolIdleTimeout";
+    private static final String POOL_VALIDATION_INTERVAL = "poolValidationInterval";
+    private static final String POOL_VALIDATION_TIMEOUT = "poolValidationTimeout";
+    private static final String STATEMENT_CACHE_SIZE = "statementCacheSize";
+    private static final String BATCH_SIZE = "batchSize";
+    private static final String STREAM_FETCH_SIZE = "streamFetchSize";
+    private static final String REQUEST_DEADLINE = "requestDeadline";
+    private static final String QUERY_TIMEOUT = "queryTimeout";
+    private static final String REPLICA_CONNECTION_STRINGS = "replicaConnectionStrings";
+    private static final String READ_ONLY_SCRIPTS = "readOnlyScripts";
+    private static final String STICKY_PRIMARY_WINDOW = "stickyPrimaryWindow";
+    private static final String REPLICA_RETRY_INTERVAL = "replicaRetryInterval";
+    private static final String USERNAME_FILTER_REFRESH_INTERVAL = "usernameFilterRefreshInterval";
+    private static final String USERNAME_FILTER_BITS_PER_USERNAME = "usernameFilterBitsPerUsername";
+    private static final String CREDENTIALS_CACHE_SIZE = "credentialsCacheSize";
+    private static final String CREDENTIALS_CACHE_TIME_TO_LIVE = "credentialsCacheTimeToLive";
+    private static final String PLAYLIST_OVERVIEW_CACHE_SIZE = "playlistOverviewCacheSize";
+    private static final String PLAYLIST_OVERVIEW_CACHE_TIME_TO_LIVE = "playlistOverviewCacheTimeToLive";
+    private static final String PLAYLIST_TOTALS_RECONCILIATION_INTERVAL = "playlistTotalsReconciliationInterval";
+    private static final String PLAYLIST_TRACKS_CACHE_SIZE = "playlistTracksCacheSize";
+    private static final String PLAYLIST_TRACKS_CACHE_TIME_TO_LIVE = "playlistTracksCacheTimeToLive";
+    private static final String RESOURCE_VERSION_SLOTS = "resourceVersionSlots";
+    private static final String RESOURCE_VERSION_TIME_TO_LIVE = "resourceVersionTimeToLive";
+    private static final String LIST_SEPARATOR = "\\|";
+
+    private static final int DEFAULT_POOL_MINIMUM_SIZE = 2;
+    private static final int DEFAULT_POOL_MAXIMUM_SIZE = 10;
+    private static final long DEFAULT_POOL_ACQUIRE_TIMEOUT = 5000;
+    private static final long DEFAULT_POOL_IDLE_TIMEOUT = 300000;
+    private static final long DEFAULT_POOL_VALIDATION_INTERVAL = 30000;
+    private static final int DEFAULT_POOL_VALIDATION_TIMEOUT = 2;
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 20;
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final int DEFAULT_STREAM_FETCH_SIZE = 100;
+    private static final long DEFAULT_REQUEST_DEADLINE = 10000;
+    private static final int DEFAULT_QUERY_TIMEOUT = 30;
+    private static final long DEFAULT_STICKY_PRIMARY_WINDOW = 5000;
+    private static final long DEFAULT_REPLICA_RETRY_INTERVAL = 30000;
+    private static final long DEFAULT_USERNAME_FILTER_REFRESH_INTERVAL = 300000;
+    private static final int DEFAULT_USERNAME_FILTER_BITS_PER_USERNAME = 10;
+    private static final int DEFAULT_CREDENTIALS_CACHE_SIZE = 1024;
+    private static final long DEFAULT_CREDENTIALS_CACHE_TIME_TO_LIVE = 60000;
+    private static final int DEFAULT_PLAYLIST_OVERVIEW_CACHE_SIZE = 1024;
+    private static final long DEFAULT_PLAYLIST_OVERVIEW_CACHE_TIME_TO_LIVE = 30000;
+    private static final long DEFAULT_PLAYLIST_TOTALS_RECONCILIATION_INTERVAL = 3600000;
+    private static final int DEFAULT_PLAYLIST_TRACKS_CACHE_SIZE = 1024;
+    private static final long DEFAULT_PLAYLIST_TRACKS_CACHE_TIME_TO_LIVE = 30000;
+    private static final int DEFAULT_RESOURCE_VERSION_SLOTS = 65536;
+    private static final long DEFAULT_RESOURCE_VERSION_TIME_TO_LIVE = 30000;
 
     /**
      * Constructor that creates the Database Properties class.<br>
@@ -47,4 +103,260 @@ public class DatabaseProperties extends PropertyManager {
         return properties.getProperty(DB_CONNECTION_STRING);
     }
 
+    /**
+     * Gets the amount of idle connections the connection pool keeps open when evicting idle connections.
+     * @return {@link Integer} minimum pool size
+     * @since 1.1
+     */
+    public int getPoolMinimumSize() {
+        return getIntegerProperty(POOL_MINIMUM_SIZE, DEFAULT_POOL_MINIMUM_SIZE);
+    }
+
+    /**
+     * Gets the maximum amount of connections the connection pool may have open at the same time.
+     * @return {@link Integer} maximum pool size
+     * @since 1.1
+     */
+    public int getPoolMaximumSize() {
+        return getIntegerProperty(POOL_MAXIMUM_SIZE, DEFAULT_POOL_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Gets the amount of milliseconds a query waits for a free connection before giving up.
+     * @return {@link Long} acquire timeout in milliseconds
+     * @since 1.1
+     */
+    public long getPoolAcquireTimeout() {
+        return getLongProperty(POOL_ACQUIRE_TIMEOUT, DEFAULT_POOL_ACQUIRE_TIMEOUT);
+    }
+
+    /**
+     * Gets the amount of milliseconds a connection may stay unused in the pool before it gets closed.
+     * @return {@link Long} idle timeout in milliseconds
+     * @since 1.1
+     */
+    public long getPoolIdleTimeout() {
+        return getLongProperty(POOL_IDLE_TIMEOUT, DEFAULT_POOL_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Gets the amount of milliseconds a connection may be idle before it is validated again when it is borrowed.
+     * @return {@link Long} validation interval in milliseconds
+     * @since 1.1
+     */
+    public long getPoolValidationInterval() {
+        return getLongProperty(POOL_VALIDATION_INTERVAL, DEFAULT_POOL_VALIDATION_INTERVAL);
+    }
+
+    /**
+     * Gets the amount of seconds the database gets to answer a connection validation.
+     * @return {@link Integer} validation timeout in seconds
+     * @since 1.1
+     */
+    public int getPoolValidationTimeout() {
+        return getIntegerProperty(POOL_VALIDATION_TIMEOUT, DEFAULT_POOL_VALIDATION_TIMEOUT);
+    }
+
+    /**
+     * Gets the maximum amount of prepared statements that are kept open per pooled connection.
+     * @return {@link Integer} statement cache size
+     * @since 1.1
+     */
+    public int getStatementCacheSize() {
+        return getIntegerProperty(STATEMENT_CACHE_SIZE, DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    /**
+     * Gets the maximum amount of statements that are sent to the database in a single batch.
+     * @return {@link Integer} batch size
+     * @since 1.1
+     */
+    public int getBatchSize() {
+        return getIntegerProperty(BATCH_SIZE, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Gets the amount of rows the driver fetches at once while a query result is streamed.
+     * @return {@link Integer} fetch size
+     * @since 1.1
+     */
+    public int getStreamFetchSize() {
+        return getIntegerProperty(STREAM_FETCH_SIZE, DEFAULT_STREAM_FETCH_SIZE);
+    }
+
+    /**
+     * Gets the amount of milliseconds all queries of a single request may take together.
+     * @return {@link Long} request deadline in milliseconds
+     * @since 1.1
+     */
+    public long getRequestDeadline() {
+        return getLongProperty(REQUEST_DEADLINE, DEFAULT_REQUEST_DEADLINE);
+    }
+
+    /**
+     * Gets the amount of seconds a query may take when it is not executed for a request with a deadline.
+     * @return {@link Integer} query timeout in seconds
+     * @since 1.1
+     */
+    public int getQueryTimeout() {
+        return getIntegerProperty(QUERY_TIMEOUT, DEFAULT_QUERY_TIMEOUT);
+    }
+
+    /**
+     * Gets the connection strings of the read replicas, separated by {@code |} in the property file.
+     * @return {@link List} of connection strings, empty when there are no replicas.
+     * @since 1.1
+     */
+    public List<String> getReplicaConnectionStrings() {
+        return getListProperty(REPLICA_CONNECTION_STRINGS);
+    }
+
+    /**
+     * Gets the names of the scripts that only read data and may be executed on a read replica.
+     * @return {@link Set} of script names
+     * @since 1.1
+     */
+    public Set<String> getReadOnlyScripts() {
+        return new HashSet<>(getListProperty(READ_ONLY_SCRIPTS));
+    }
+
+    /**
+     * Gets the amount of milliseconds after a write in which reads of the same session are executed on the primary
+     * database, so the session reads its own writes while the replicas catch up.
+     * @return {@link Long} sticky primary window in milliseconds
+     * @since 1.1
+     */
+    public long getStickyPrimaryWindow() {
+        return getLongProperty(STICKY_PRIMARY_WINDOW, DEFAULT_STICKY_PRIMARY_WINDOW);
+    }
+
+    /**
+     * Gets the amount of milliseconds a failing replica is skipped before it is tried again.
+     * @return {@link Long} replica retry interval in milliseconds
+     * @since 1.1
+     */
+    public long getReplicaRetryInterval() {
+        return getLongProperty(REPLICA_RETRY_INTERVAL, DEFAULT_REPLICA_RETRY_INTERVAL);
+    }
+
+    /**
+     * Gets the amount of milliseconds after which the usernames of the username filter are loaded again.
+     * @return {@link Long} refresh interval in milliseconds, {@code 0} when the filter is disabled.
+     * @since 1.1
+     */
+    public long getUsernameFilterRefreshInterval() {
+        return getLongProperty(USERNAME_FILTER_REFRESH_INTERVAL, DEFAULT_USERNAME_FILTER_REFRESH_INTERVAL);
+    }
+
+    /**
+     * Gets the amount of bits the username filter reserves for every username.
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    public int getUsernameFilterBitsPerUsername() {
+        return getIntegerProperty(USERNAME_FILTER_BITS_PER_USERNAME, DEFAULT_USERNAME_FILTER_BITS_PER_USERNAME);
+    }
+
+    /**
+     * Gets the maximum amount of accounts whose credentials are cached.
+     * @return {@link Integer} cache size, {@code 0} when the cache is disabled.
+     * @since 1.1
+     */
+    public int getCredentialsCacheSize() {
+        return getIntegerProperty(CREDENTIALS_CACHE_SIZE, DEFAULT_CREDENTIALS_CACHE_SIZE);
+    }
+
+    /**
+     * Gets the amount of milliseconds the credentials of an account stay cached.
+     * @return {@link Long} time to live in milliseconds
+     * @since 1.1
+     */
+    public long getCredentialsCacheTimeToLive() {
+        return getLongProperty(CREDENTIALS_CACHE_TIME_TO_LIVE, DEFAULT_CREDENTIALS_CACHE_TIME_TO_LIVE);
+    }
+
+    /**
+     * Gets the maximum amount of users whose playlist overview is cached.
+     * @return {@link Integer} cache size, {@code 0} when the cache is disabled.
+     * @since 1.1
+     */
+    public int getPlaylistOverviewCacheSize() {
+        return getIntegerProperty(PLAYLIST_OVERVIEW_CACHE_SIZE, DEFAULT_PLAYLIST_OVERVIEW_CACHE_SIZE);
+    }
+
+    /**
+     * Gets the amount of milliseconds the playlist overview of a user stays cached.
+     * @return {@link Long} time to live in milliseconds
+     * @since 1.1
+     */
+    public long getPlaylistOverviewCacheTimeToLive() {
+        return getLongProperty(PLAYLIST_OVERVIEW_CACHE_TIME_TO_LIVE, DEFAULT_PLAYLIST_OVERVIEW_CACHE_TIME_TO_LIVE);
+    }
+
+    /**
+     * Gets the amount of milliseconds between two reconciliations of the stored playlist totals.
+     * @return {@link Long} reconciliation interval in milliseconds, {@code 0} when the reconciliation is disabled.
+     * @since 1.1
+     */
+    public long getPlaylistTotalsReconciliationInterval() {
+        return getLongProperty(PLAYLIST_TOTALS_RECONCILIATION_INTERVAL, DEFAULT_PLAYLIST_TOTALS_RECONCILIATION_INTERVAL);
+    }
+
+    /**
+     * Gets the maximum amount of playlists whose tracks are cached.
+     * @return {@link Integer} cache size, {@code 0} when the cache is disabled.
+     * @since 1.1
+     */
+    public int getPlaylistTracksCacheSize() {
+        return getIntegerProperty(PLAYLIST_TRACKS_CACHE_SIZE, DEFAULT_PLAYLIST_TRACKS_CACHE_SIZE);
+    }
+
+    /**
+     * Gets the amount of milliseconds the tracks of a playlist stay cached.
+     * @return {@link Long} time to live in milliseconds
+     * @since 1.1
+     */
+    public long getPlaylistTracksCacheTimeToLive() {
+        return getLongProperty(PLAYLIST_TRACKS_CACHE_TIME_TO_LIVE, DEFAULT_PLAYLIST_TRACKS_CACHE_TIME_TO_LIVE);
+    }
+
+    /**
+     * Gets the amount of version counters that are kept for users and for playlists.
+     * @return {@link Integer} amount of counters per kind of resource.
+     * @since 1.1
+     */
+    public int getResourceVersionSlots() {
+        return getIntegerProperty(RESOURCE_VERSION_SLOTS, DEFAULT_RESOURCE_VERSION_SLOTS);
+    }
+
+    /**
+     * Gets the amount of milliseconds after which every resource version changes, even without a change.
+     * @return {@link Long} time to live in milliseconds, {@code 0} when versions only change with a change.
+     * @since 1.1
+     */
+    public long getResourceVersionTimeToLive() {
+        return getLongProperty(RESOURCE_VERSION_TIME_TO_LIVE, DEFAULT_RESOURCE_VERSION_TIME_TO_LIVE);
+    }
+
+    // Private Functions
+
+    /**
+     * Gets a property that contains a list of values separated by {@code |}. Empty values are skipped.
+     * @param key {@link String} name of the property
+     * @return {@link List} of values
+     * @since 1.1
+     */
+    private List<String> getListProperty(String key) {
+        List<String> values = new ArrayList<>();
+        String property = properties == null ? null : properties.getProperty(key);
+        if (property != null) {
+            for (String value : property.split(LIST_SEPARATOR)) {
+                if (value.isBlank() == false) {
+                    values.add(value.trim());
+                }
+            }
+        }
+        return values;
+    }
+
 }
@@ -29,4 +29,38 @@ public class PropertyManager {
         return properties;
     }
 
+    /**
+     * Gets a numeric property from the property file.
+     * @implNote If the property is missing or is not a valid number the default value is returned.
+     * @param key {@link String} name of the property
+     * @param defaultValue {@link Long} value that is returned when the property cannot be used
+     * @return {@link Long}
+     * @since 1.1
+     */
+    protected long getLongProperty(String key, long defaultValue) {
+        if (properties != null) {
+            String value = properties.getProperty(key);
+            if (value != null) {
+                try {
+                    return Long.parseLong(value.trim());
+                } catch (NumberFormatException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Gets a numeric property from the property file.
+     * @implNote If the property is missing or is not a valid number the default value is returned.
+     * @param key {@link String} name of the property
+     * @param defaultValue {@link Integer} value that is returned when the property cannot be used
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    protected int getIntegerProperty(String key, int defaultValue) {
+        return (int) getLongProperty(key, defaultValue);
+    }
+
 }
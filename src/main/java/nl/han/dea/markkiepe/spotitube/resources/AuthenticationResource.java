@@ -3,6 +3,7 @@ package nl.han.dea.markkiepe.spotitube.resources;
 import nl.han.dea.markkiepe.spotitube.resources.dto.authentication.AuthenticationDTO;
 import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticationService;
 import nl.han.dea.markkiepe.spotitube.resources.exceptionMappers.IncorrectCredentialsExceptionMapper;
+import nl.han.dea.markkiepe.spotitube.resources.filters.LoginRateLimited;
 
 import javax.inject.Inject;
 import javax.ws.rs.*;
@@ -44,6 +45,7 @@ public class AuthenticationResource {
      * @see AuthenticationService
      * @see AuthenticationDTO
      * @see IncorrectCredentialsExceptionMapper
+     * @see LoginRateLimited
      *
      * @implNote
      * Listening to the path {@code "/login"} to the {@code "POST"} requests.
@@ -56,6 +58,7 @@ public class AuthenticationResource {
      * @since 1.0
      */
     @POST
+    @LoginRateLimited
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     public Response login(AuthenticationDTO userDto) {
@@ -64,4 +67,23 @@ public class AuthenticationResource {
                 .entity(authenticationService.loginRequest(userDto))
                 .build();
     }
+
+    /**
+     * This method is listening to the {@code DELETE} request on the url {@code "/login"}<br>
+     * Logs out the user of the given token, after which the token cannot be used anymore.
+     * {@code HTTP NO CONTENT} is returned, also when the token was already invalid.
+     *
+     * @see AuthenticationService#logout(String)
+     *
+     * @param token {@link String} as Authentication Token
+     * @return {@link Response}
+     * @since 1.1
+     */
+    @DELETE
+    public Response logout(@QueryParam("token") String token) {
+        authenticationService.logout(token);
+        return Response
+                .status(Response.Status.NO_CONTENT)
+                .build();
+    }
 }
\ No newline at end of file
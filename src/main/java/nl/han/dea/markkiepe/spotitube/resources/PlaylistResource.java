@@ -1,26 +1,44 @@
 package nl.han.dea.markkiepe.spotitube.resources;
 
 import nl.han.dea.markkiepe.spotitube.resources.dto.playlists.PlaylistDTO;
+import nl.han.dea.markkiepe.spotitube.resources.dto.tracks.TrackIdsDTO;
+import nl.han.dea.markkiepe.spotitube.resources.filters.Authenticated;
+import nl.han.dea.markkiepe.spotitube.resources.filters.AuthenticationFilter;
+import nl.han.dea.markkiepe.spotitube.services.authentication.UserPrincipal;
 import nl.han.dea.markkiepe.spotitube.services.playlists.PlaylistService;
 import nl.han.dea.markkiepe.spotitube.services.tracks.Track;
 import nl.han.dea.markkiepe.spotitube.services.tracks.TrackService;
 
 import javax.inject.Inject;
 import javax.ws.rs.*;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.SecurityContext;
+import java.util.function.Supplier;
 
 /**
  * Playlist Resource<br>
  * Resource that is listening to the path {@code "/playlists"}.
  * This resource is responsible for receiving all requests that involve anything with playlists.
+ * <br><br>
+ * The playlists and the tracks of a playlist are sent with an {@code ETag}. A client that sends it back in an
+ * {@code If-None-Match} header gets {@code 304 Not Modified} while nothing changed, without the data being read.
+ * <br><br>
+ * Both can also be requested in pages by passing a {@code limit}. A full page contains a {@code nextCursor}, which
+ * is passed as {@code after} to get the next page. Without a {@code limit} everything is returned at once.
  *
  * @see PlaylistService
  * @see TrackService
+ * @see AuthenticationFilter
  *
  * @since 1.0
  * @author Mark Kiepe
  */
+@Authenticated
 @Path("/playlists")
 public class PlaylistResource {
     private PlaylistService playlistService;
@@ -48,29 +66,44 @@ public class PlaylistResource {
 
     /**
      * Getter for all the playlists that are linked to the received Authentication Token.
+     * When a {@code limit} is given only a page of the playlists is returned.
      *
-     * @see PlaylistService#getPlaylists(String)
+     * @see PlaylistService#getPlaylists(UserPrincipal)
+     * @see PlaylistService#getPlaylists(UserPrincipal, int, int)
+     * @see PlaylistService#getPlaylistsVersion(UserPrincipal)
      *
-     * @param token {@link String} Authentication Token
-     * @return {@link Response} in JSON
+     * @param securityContext {@link SecurityContext} of the authenticated user.
+     * @param request {@link Request} that may contain an {@code If-None-Match} header.
+     * @param afterPlaylistId {@link Integer} PlaylistId after which the page starts.
+     * @param limit {@link Integer} maximum amount of playlists on a page, {@code 0} for all playlists.
+     * @return {@link Response} in JSON, or {@code 304 Not Modified} when the playlists did not change.
      * @since 1.0
      */
     @GET
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getPlaylists(@QueryParam("token") String token) {
-        return Response
-                .status(Response.Status.OK)
-                .entity(playlistService.getPlaylists(token))
-                .build();
+    public Response getPlaylists(
+            @Context SecurityContext securityContext,
+            @Context Request request,
+            @QueryParam("after") int afterPlaylistId,
+            @QueryParam("limit") int limit)
+    {
+        UserPrincipal user = getUser(securityContext);
+        return getIfChanged(
+                request,
+                playlistService.getPlaylistsVersion(user),
+                () -> limit > 0
+                        ? playlistService.getPlaylists(user, afterPlaylistId, limit)
+                        : playlistService.getPlaylists(user)
+        );
     }
 
     /**
      * Creates a new playlist for the given username.
      *
-     * @see PlaylistService#createPlaylist(String, PlaylistDTO)
+     * @see PlaylistService#createPlaylist(UserPrincipal, PlaylistDTO)
      *
-     * @param token {@link String} Authentication Token that will create the playlist.
+     * @param securityContext {@link SecurityContext} of the user that will create the playlist.
      * @param playlistDTO {@link PlaylistDTO} containing all data that is used to create the playlist.
      * @return {@link Response}
      * @since 1.0
@@ -78,19 +111,19 @@ public class PlaylistResource {
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response createPlaylist(@QueryParam("token") String token, PlaylistDTO playlistDTO) {
+    public Response createPlaylist(@Context SecurityContext securityContext, PlaylistDTO playlistDTO) {
         return Response
                 .status(Response.Status.OK)
-                .entity(playlistService.createPlaylist(token, playlistDTO))
+                .entity(playlistService.createPlaylist(getUser(securityContext), playlistDTO))
                 .build();
     }
 
     /**
      * Deletes a specified playlist.
      *
-     * @see PlaylistService#deletePlaylist(String, int)
+     * @see PlaylistService#deletePlaylist(UserPrincipal, int)
      *
-     * @param token {@link String} Authentication Token
+     * @param securityContext {@link SecurityContext} of the authenticated user.
      * @param playlistId {@link Integer} PlaylistId that you want to remove.
      * @return {@link Response}
      * @since 1.0
@@ -99,19 +132,19 @@ public class PlaylistResource {
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @Path("/{playlistId}")
-    public Response deletePlaylist(@QueryParam("token") String token, @PathParam("playlistId") int playlistId) {
+    public Response deletePlaylist(@Context SecurityContext securityContext, @PathParam("playlistId") int playlistId) {
         return Response
                 .status(Response.Status.OK)
-                .entity(playlistService.deletePlaylist(token, playlistId))
+                .entity(playlistService.deletePlaylist(getUser(securityContext), playlistId))
                 .build();
     }
 
     /**
      * Updates a specified playlist
      *
-     * @see PlaylistService#editPlaylist(String, int, PlaylistDTO)
+     * @see PlaylistService#editPlaylist(UserPrincipal, int, PlaylistDTO)
      *
-     * @param token {@link String} Authentication Token
+     * @param securityContext {@link SecurityContext} of the authenticated user.
      * @param playlistId {@link Integer} playlist that you want to update.
      * @param playlistDTO {@link PlaylistDTO} that contains the new information for the playlist.
      * @return {@link Response}
@@ -121,40 +154,56 @@ public class PlaylistResource {
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @Path("/{playlistId}")
-    public Response updatePlaylist(@QueryParam("token") String token, @PathParam("playlistId") int playlistId, PlaylistDTO playlistDTO) {
+    public Response updatePlaylist(@Context SecurityContext securityContext, @PathParam("playlistId") int playlistId, PlaylistDTO playlistDTO) {
         return Response
                 .status(Response.Status.OK)
-                .entity(playlistService.editPlaylist(token, playlistId, playlistDTO))
+                .entity(playlistService.editPlaylist(getUser(securityContext), playlistId, playlistDTO))
                 .build();
     }
 
     /**
      * Gets all the tracks in a specified playlist.
+     * When a {@code limit} is given only a page of the tracks is returned.
      *
-     * @see TrackService#getTracksInPlaylist(String, int)
+     * @see TrackService#getTracksInPlaylist(UserPrincipal, int)
+     * @see TrackService#getTracksInPlaylist(UserPrincipal, int, int, int)
+     * @see TrackService#getTracksInPlaylistVersion(UserPrincipal, int)
      *
-     * @param token {@link String} Authentication Token
+     * @param securityContext {@link SecurityContext} of the authenticated user.
+     * @param request {@link Request} that may contain an {@code If-None-Match} header.
      * @param playlistId {@link Integer} playlistId you want all tracks from
-     * @return {@link Response}
+     * @param afterTrackId {@link Integer} TrackId after which the page starts.
+     * @param limit {@link Integer} maximum amount of tracks on a page, {@code 0} for all tracks.
+     * @return {@link Response}, or {@code 304 Not Modified} when the tracks did not change.
      * @since 1.0
      */
     @GET
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @Path("/{playlistId}/tracks")
-    public Response getTracksInPlaylist(@QueryParam("token") String token, @PathParam("playlistId") int playlistId) {
-        return Response
-                .status(Response.Status.OK)
-                .entity(trackService.getTracksInPlaylist(token, playlistId))
-                .build();
+    public Response getTracksInPlaylist(
+            @Context SecurityContext securityContext,
+            @Context Request request,
+            @PathParam("playlistId") int playlistId,
+            @QueryParam("after") int afterTrackId,
+            @QueryParam("limit") int limit)
+    {
+        UserPrincipal user = getUser(securityContext);
+        return getIfChanged(
+                request,
+                trackService.getTracksInPlaylistVersion(user, playlistId),
+                () -> limit > 0
+                        ? trackService.getTracksInPlaylist(user, playlistId, afterTrackId, limit)
+                        : trackService.getTracksInPlaylist(user, playlistId)
+        );
     }
 
     /**
      * Adds a new track to a specified playlist.
      *
-     * @see TrackService#addTrackInPlaylist(String, int, Track)
+     * @see TrackService#addTrackInPlaylist(UserPrincipal, int, Track)
      *
-     * @param token {@link String} Authentication Token
+     * @param securityContext {@link SecurityContext} of the authenticated user.
      * @param playlistId {@link Integer} PlaylistId you want to add the track to
      * @param track {@link Track} containing track data.
      * @return {@link Response}
@@ -164,19 +213,41 @@ public class PlaylistResource {
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @Path("/{playlistId}/tracks")
-    public Response addTrackToPlaylist(@QueryParam("token") String token, @PathParam("playlistId") int playlistId, Track track) {
+    public Response addTrackToPlaylist(@Context SecurityContext securityContext, @PathParam("playlistId") int playlistId, Track track) {
         return Response
                 .status(Response.Status.OK)
-                .entity(trackService.addTrackInPlaylist(token, playlistId, track))
+                .entity(trackService.addTrackInPlaylist(getUser(securityContext), playlistId, track))
+                .build();
+    }
+
+    /**
+     * Adds multiple tracks to a specified playlist in a single request.
+     *
+     * @see TrackService#addTracksInPlaylist(UserPrincipal, int, java.util.List)
+     *
+     * @param securityContext {@link SecurityContext} of the authenticated user.
+     * @param playlistId {@link Integer} PlaylistId you want to add the tracks to
+     * @param trackIdsDTO {@link TrackIdsDTO} containing the trackIds of the tracks.
+     * @return {@link Response}
+     * @since 1.1
+     */
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/{playlistId}/tracks/bulk")
+    public Response addTracksToPlaylist(@Context SecurityContext securityContext, @PathParam("playlistId") int playlistId, TrackIdsDTO trackIdsDTO) {
+        return Response
+                .status(Response.Status.OK)
+                .entity(trackService.addTracksInPlaylist(getUser(securityContext), playlistId, trackIdsDTO == null ? null : trackIdsDTO.getTrackIds()))
                 .build();
     }
 
     /**
      * Removes a track from a specified playlist.
      *
-     * @see TrackService#deleteTrackInPlaylist(String, int, int)
+     * @see TrackService#deleteTrackInPlaylist(UserPrincipal, int, int)
      *
-     * @param token {@link String} Authentication Token.
+     * @param securityContext {@link SecurityContext} of the authenticated user.
      * @param playlistId {@link Integer} PlaylistId that you want to remove the track from.
      * @param trackId {@link Integer} TrackId that you want to remove from playlist.
      * @return {@link Response}
@@ -187,13 +258,59 @@ public class PlaylistResource {
     @Produces(MediaType.APPLICATION_JSON)
     @Path("/{playlistId}/tracks/{trackId}")
     public Response deleteTrackFromPlaylist(
-            @QueryParam("token") String token,
+            @Context SecurityContext securityContext,
             @PathParam("playlistId") int playlistId,
             @PathParam("trackId") int trackId)
     {
         return Response
                 .status(Response.Status.OK)
-                .entity(trackService.deleteTrackInPlaylist(token, playlistId, trackId))
+                .entity(trackService.deleteTrackInPlaylist(getUser(securityContext), playlistId, trackId))
+                .build();
+    }
+
+    // Private Functions
+
+    /**
+     * Gets the user that was authenticated by the {@link AuthenticationFilter}.
+     * @param securityContext {@link SecurityContext} of the request.
+     * @return {@link UserPrincipal}
+     * @since 1.1
+     */
+    private UserPrincipal getUser(SecurityContext securityContext) {
+        return (UserPrincipal) securityContext.getUserPrincipal();
+    }
+
+    /**
+     * Creates the response of a resource that has a version. When the client already has this version,
+     * {@code 304 Not Modified} is returned without getting the entity.
+     * @param request {@link Request} that may contain an {@code If-None-Match} header.
+     * @param version {@link String} current version of the resource, {@code null} when it has no version.
+     * @param entity {@link Supplier} that gets the resource.
+     * @return {@link Response}
+     * @since 1.1
+     */
+    private Response getIfChanged(Request request, String version, Supplier<Object> entity) {
+        if (version == null) {
+            return Response
+                    .status(Response.Status.OK)
+                    .entity(entity.get())
+                    .build();
+        }
+        EntityTag entityTag = new EntityTag(version);
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        cacheControl.setNoCache(true);
+        //
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(entityTag);
+        if (notModified != null) {
+            return notModified.cacheControl(cacheControl).build();
+        }
+        return Response
+                .status(Response.Status.OK)
+                .entity(entity.get())
+                .tag(entityTag)
+                .cacheControl(cacheControl)
                 .build();
     }
+
 }
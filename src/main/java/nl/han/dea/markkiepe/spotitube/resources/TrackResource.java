@@ -1,11 +1,17 @@
 package nl.han.dea.markkiepe.spotitube.resources;
 
+import nl.han.dea.markkiepe.spotitube.resources.streaming.TracksStreamingOutput;
+import nl.han.dea.markkiepe.spotitube.resources.filters.Authenticated;
+import nl.han.dea.markkiepe.spotitube.resources.filters.AuthenticationFilter;
+import nl.han.dea.markkiepe.spotitube.services.authentication.UserPrincipal;
 import nl.han.dea.markkiepe.spotitube.services.tracks.TrackService;
 
 import javax.inject.Inject;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.SecurityContext;
 
 /**
  * Track Resource<br>
@@ -13,10 +19,12 @@ import javax.ws.rs.core.Response;
  * This resource is responsible for receiving all requests that involve anything with tracks that are not related to any playlists.
  *
  * @see TrackService
+ * @see AuthenticationFilter
  *
  * @since 1.0
  * @author Mark Kiepe
  */
+@Authenticated
 @Path("/tracks")
 public class TrackResource {
     private TrackService trackService;
@@ -32,20 +40,53 @@ public class TrackResource {
     }
 
     /**
-     * Gets all Tracks that are not in the specified playlist.
-     * @param token {@link String} Authentication Token
+     * Gets the Tracks that are not in the specified playlist.<br>
+     * By default a page of tracks is returned together with a {@code nextCursor}, which can be passed as {@code after}
+     * to get the next page. When {@code stream} is set all tracks after the cursor are streamed in a single response.
+     *
+     * @see TrackService#getTracksNotInPlaylist(UserPrincipal, int, int, int)
+     * @see TrackService#streamTracksNotInPlaylist(UserPrincipal, int, int)
+     *
+     * @param securityContext {@link SecurityContext} of the authenticated user.
      * @param playlistId {@link Integer} PlaylistId.
+     * @param afterTrackId {@link Integer} TrackId after which the tracks start.
+     * @param limit {@link Integer} maximum amount of tracks on a page.
+     * @param stream {@link Boolean} whether all tracks should be streamed instead of a single page.
      * @return {@link Response}
      * @since 1.0
      */
     @GET
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getTracksNotInPlaylist(@QueryParam("token") String token, @QueryParam("forPlaylist") int playlistId) {
+    public Response getTracksNotInPlaylist(
+            @Context SecurityContext securityContext,
+            @QueryParam("forPlaylist") int playlistId,
+            @QueryParam("after") int afterTrackId,
+            @QueryParam("limit") @DefaultValue("10") int limit,
+            @QueryParam("stream") boolean stream)
+    {
+        if (stream) {
+            return Response
+                    .status(Response.Status.OK)
+                    .entity(new TracksStreamingOutput(trackService.streamTracksNotInPlaylist(getUser(securityContext), playlistId, afterTrackId)))
+                    .build();
+        }
         return Response
                 .status(Response.Status.OK)
-                .entity(trackService.getTracksNotInPlaylist(token, playlistId))
+                .entity(trackService.getTracksNotInPlaylist(getUser(securityContext), playlistId, afterTrackId, limit))
                 .build();
     }
 
+    // Private Functions
+
+    /**
+     * Gets the user that was authenticated by the {@link AuthenticationFilter}.
+     * @param securityContext {@link SecurityContext} of the request.
+     * @return {@link UserPrincipal}
+     * @since 1.1
+     */
+    private UserPrincipal getUser(SecurityContext securityContext) {
+        return (UserPrincipal) securityContext.getUserPrincipal();
+    }
+
 }
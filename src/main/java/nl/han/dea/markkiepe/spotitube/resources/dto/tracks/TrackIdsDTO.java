@@ -0,0 +1,24 @@
+package nl.han.dea.markkiepe.spotitube.resources.dto.tracks;
+
+import java.util.ArrayList;
+
+public class TrackIdsDTO {
+
+    private ArrayList<Integer> trackIds;
+
+    @Deprecated
+    public TrackIdsDTO() {
+    }
+
+    public TrackIdsDTO(ArrayList<Integer> trackIds) {
+        this.trackIds = trackIds;
+    }
+
+    public ArrayList<Integer> getTrackIds() {
+        return trackIds;
+    }
+
+    public void setTrackIds(ArrayList<Integer> trackIds) {
+        this.trackIds = trackIds;
+    }
+}
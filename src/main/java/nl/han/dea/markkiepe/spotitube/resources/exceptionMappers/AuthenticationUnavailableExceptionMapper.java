@@ -0,0 +1,35 @@
+package nl.han.dea.markkiepe.spotitube.resources.exceptionMappers;
+
+import nl.han.dea.markkiepe.spotitube.services.exceptions.AuthenticationUnavailableException;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ExceptionMapper;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Exception Mapper for an Unavailable Authentication
+ * @see AuthenticationUnavailableException
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Provider
+public class AuthenticationUnavailableExceptionMapper implements ExceptionMapper<AuthenticationUnavailableException> {
+
+    private static final int RETRY_AFTER_SECONDS = 1;
+
+    /**
+     * Creates a {@link Response} with the error code {@code SERVICE_UNAVAILABLE} to inform the client that
+     * too many passwords are being checked at the same time, together with the seconds after which it can try again.
+     * @param e {@link AuthenticationUnavailableException}
+     * @return {@link Response}
+     * @since 1.1
+     */
+    @Override
+    public Response toResponse(AuthenticationUnavailableException e) {
+        return Response
+                .status(Response.Status.SERVICE_UNAVAILABLE)
+                .header("Retry-After", RETRY_AFTER_SECONDS)
+                .build();
+    }
+
+}
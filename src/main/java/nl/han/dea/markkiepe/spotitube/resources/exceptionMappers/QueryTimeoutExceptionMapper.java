@@ -0,0 +1,32 @@
+package nl.han.dea.markkiepe.spotitube.resources.exceptionMappers;
+
+import nl.han.dea.markkiepe.spotitube.datasource.exceptions.QueryTimeoutException;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ExceptionMapper;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Exception Mapper for Query Timeouts
+ * @see QueryTimeoutException
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Provider
+public class QueryTimeoutExceptionMapper implements ExceptionMapper<QueryTimeoutException> {
+
+    /**
+     * Creates a {@link Response} with the error code {@code GATEWAY_TIMEOUT} to inform the client that
+     * the database did not answer before the deadline of the request.
+     * @param e {@link QueryTimeoutException}
+     * @return {@link Response}
+     * @since 1.1
+     */
+    @Override
+    public Response toResponse(QueryTimeoutException e) {
+        return Response
+                .status(Response.Status.GATEWAY_TIMEOUT)
+                .build();
+    }
+
+}
@@ -0,0 +1,33 @@
+package nl.han.dea.markkiepe.spotitube.resources.exceptionMappers;
+
+import nl.han.dea.markkiepe.spotitube.services.exceptions.TooManyRequestsException;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ExceptionMapper;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Exception Mapper for Too Many Requests
+ * @see TooManyRequestsException
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Provider
+public class TooManyRequestsExceptionMapper implements ExceptionMapper<TooManyRequestsException> {
+
+    /**
+     * Creates a {@link Response} with the error code {@code TOO_MANY_REQUESTS} to inform the client that it made too
+     * many attempts, together with the seconds after which it can try again.
+     * @param e {@link TooManyRequestsException}
+     * @return {@link Response}
+     * @since 1.1
+     */
+    @Override
+    public Response toResponse(TooManyRequestsException e) {
+        return Response
+                .status(Response.Status.TOO_MANY_REQUESTS)
+                .header("Retry-After", e.getRetryAfterSeconds())
+                .build();
+    }
+
+}
@@ -0,0 +1,22 @@
+package nl.han.dea.markkiepe.spotitube.resources.filters;
+
+import javax.ws.rs.NameBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the resources and resource methods that require an Authentication Token, so the
+ * {@link AuthenticationFilter} authenticates their requests.
+ *
+ * @see AuthenticationFilter
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Authenticated {
+}
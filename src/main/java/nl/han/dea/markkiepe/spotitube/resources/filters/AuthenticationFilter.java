@@ -0,0 +1,65 @@
+package nl.han.dea.markkiepe.spotitube.resources.filters;
+
+import nl.han.dea.markkiepe.spotitube.services.AuthenticationManager;
+import nl.han.dea.markkiepe.spotitube.services.authentication.UserPrincipal;
+
+import javax.annotation.Priority;
+import javax.inject.Inject;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Authentication Filter<br>
+ * Resolves the Authentication Token of a request once, before the request reaches a resource. The resulting
+ * {@link UserPrincipal} is set on the {@link javax.ws.rs.core.SecurityContext} of the request, where the resources
+ * take it from.
+ * <br><br>
+ * A request without a valid token is aborted with {@code HTTP NOT FOUND}, the same response an unknown token always
+ * got, without ever reaching the resource.
+ *
+ * @see Authenticated
+ * @see UserPrincipal
+ * @see UserSecurityContext
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Provider
+@Authenticated
+@Priority(Priorities.AUTHENTICATION)
+public class AuthenticationFilter implements ContainerRequestFilter {
+
+    private static final String TOKEN_PARAMETER = "token";
+
+    private AuthenticationManager authenticationManager;
+
+    /**
+     * Setter for the {@link AuthenticationManager} that resolves the Authentication Tokens.
+     * @param authenticationManager {@link AuthenticationManager}
+     * @since 1.1
+     */
+    @Inject
+    public void setAuthenticationManager(AuthenticationManager authenticationManager) {
+        this.authenticationManager = authenticationManager;
+    }
+
+    /**
+     * Authenticates the request, or aborts it when its token is invalid.
+     * @param request {@link ContainerRequestContext}
+     * @since 1.1
+     */
+    @Override
+    public void filter(ContainerRequestContext request) {
+        String token = request.getUriInfo().getQueryParameters().getFirst(TOKEN_PARAMETER);
+        UserPrincipal userPrincipal = authenticationManager.authenticate(token);
+        if (userPrincipal == null) {
+            request.abortWith(Response.status(Response.Status.NOT_FOUND).build());
+            return;
+        }
+        request.setSecurityContext(new UserSecurityContext(userPrincipal, request.getSecurityContext()));
+    }
+
+}
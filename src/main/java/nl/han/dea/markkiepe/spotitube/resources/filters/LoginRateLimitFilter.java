@@ -0,0 +1,97 @@
+package nl.han.dea.markkiepe.spotitube.resources.filters;
+
+import nl.han.dea.markkiepe.spotitube.resources.dto.authentication.AuthenticationDTO;
+import nl.han.dea.markkiepe.spotitube.services.exceptions.TooManyRequestsException;
+import nl.han.dea.markkiepe.spotitube.services.ratelimiting.LoginRateLimiter;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import java.io.IOException;
+
+/**
+ * Login Rate Limit Filter<br>
+ * Counts every log-in attempt against the limit of the client address and against the limit of the username,
+ * before the credentials are checked. A request over one of the limits is refused with a {@link TooManyRequestsException}.
+ * <br><br>
+ * The client address is limited before the body of the request is read. The username is only known once the body
+ * has been read, so it is limited while the body is read, which is still before the resource method is invoked.
+ *
+ * @see LoginRateLimited
+ * @see LoginRateLimiter
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Provider
+@LoginRateLimited
+public class LoginRateLimitFilter implements ContainerRequestFilter, ReaderInterceptor {
+
+    private LoginRateLimiter loginRateLimiter;
+
+    @Context
+    private HttpServletRequest httpServletRequest;
+
+    /**
+     * Setter for the {@link LoginRateLimiter} that keeps track of the log-in attempts.
+     * @param loginRateLimiter {@link LoginRateLimiter}
+     * @since 1.1
+     */
+    @Inject
+    public void setLoginRateLimiter(LoginRateLimiter loginRateLimiter) {
+        this.loginRateLimiter = loginRateLimiter;
+    }
+
+    /**
+     * Setter for the {@link HttpServletRequest} the client address is taken from.
+     * @param httpServletRequest {@link HttpServletRequest}
+     * @since 1.1
+     */
+    public void setHttpServletRequest(HttpServletRequest httpServletRequest) {
+        this.httpServletRequest = httpServletRequest;
+    }
+
+    /**
+     * Counts the attempt against the limit of the client address. Requests without a known address are only
+     * limited by their username.
+     * @param request {@link ContainerRequestContext}
+     * @throws TooManyRequestsException When the client made too many attempts.
+     * @since 1.1
+     */
+    @Override
+    public void filter(ContainerRequestContext request) {
+        if (httpServletRequest == null) {
+            return;
+        }
+        String address = httpServletRequest.getRemoteAddr();
+        if (address != null) {
+            loginRateLimiter.acquireForAddress(address);
+        }
+    }
+
+    /**
+     * Reads the body of the request and counts the attempt against the limit of its username.
+     * @param context {@link ReaderInterceptorContext}
+     * @return {@link Object} the body of the request.
+     * @throws IOException When the body could not be read.
+     * @throws TooManyRequestsException When too many attempts were made for the username.
+     * @since 1.1
+     */
+    @Override
+    public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException {
+        Object entity = context.proceed();
+        if (entity instanceof AuthenticationDTO) {
+            String username = ((AuthenticationDTO) entity).getUser();
+            if (username != null) {
+                loginRateLimiter.acquireForUsername(username);
+            }
+        }
+        return entity;
+    }
+
+}
@@ -0,0 +1,21 @@
+package nl.han.dea.markkiepe.spotitube.resources.filters;
+
+import javax.ws.rs.NameBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the resource methods that accept log-in attempts, so the {@link LoginRateLimitFilter} only limits those.
+ *
+ * @see LoginRateLimitFilter
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface LoginRateLimited {
+}
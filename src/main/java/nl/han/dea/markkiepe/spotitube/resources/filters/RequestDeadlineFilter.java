@@ -0,0 +1,61 @@
+package nl.han.dea.markkiepe.spotitube.resources.filters;
+
+import nl.han.dea.markkiepe.spotitube.datasource.context.QueryDeadline;
+import nl.han.dea.markkiepe.spotitube.datasource.util.DatabaseProperties;
+
+import javax.inject.Inject;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Request Deadline Filter<br>
+ * Starts a {@link QueryDeadline} for every request that is handled by the resources, so all queries of a request
+ * share a single time budget. The deadline is cleared again when the response is created.
+ *
+ * @see QueryDeadline
+ * @see DatabaseProperties#getRequestDeadline()
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Provider
+public class RequestDeadlineFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private DatabaseProperties databaseProperties;
+
+    /**
+     * Setter for the {@link DatabaseProperties} that contain the request deadline.
+     * @param databaseProperties {@link DatabaseProperties}
+     * @since 1.1
+     */
+    @Inject
+    public void setDatabaseProperties(DatabaseProperties databaseProperties) {
+        this.databaseProperties = databaseProperties;
+    }
+
+    /**
+     * Starts the deadline of the request. This replaces a deadline that was left behind on the thread
+     * by an earlier request.
+     * @param request {@link ContainerRequestContext}
+     * @since 1.1
+     */
+    @Override
+    public void filter(ContainerRequestContext request) {
+        QueryDeadline.start(databaseProperties.getRequestDeadline());
+    }
+
+    /**
+     * Clears the deadline of the request.
+     * @param request {@link ContainerRequestContext}
+     * @param response {@link ContainerResponseContext}
+     * @since 1.1
+     */
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        QueryDeadline.clear();
+    }
+
+}
@@ -0,0 +1,48 @@
+package nl.han.dea.markkiepe.spotitube.resources.filters;
+
+import nl.han.dea.markkiepe.spotitube.datasource.context.SessionContext;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Session Context Filter<br>
+ * Sets the {@link SessionContext} of every request to the Authentication Token of the request, so the database layer
+ * can keep the reads of a session on the primary database after it wrote data. The session is cleared again when
+ * the response is created.
+ *
+ * @see SessionContext
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Provider
+public class SessionContextFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final String TOKEN_PARAMETER = "token";
+
+    /**
+     * Sets the session of the request. Requests without an Authentication Token have no session.
+     * @param request {@link ContainerRequestContext}
+     * @since 1.1
+     */
+    @Override
+    public void filter(ContainerRequestContext request) {
+        SessionContext.set(request.getUriInfo().getQueryParameters().getFirst(TOKEN_PARAMETER));
+    }
+
+    /**
+     * Clears the session of the request.
+     * @param request {@link ContainerRequestContext}
+     * @param response {@link ContainerResponseContext}
+     * @since 1.1
+     */
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        SessionContext.clear();
+    }
+
+}
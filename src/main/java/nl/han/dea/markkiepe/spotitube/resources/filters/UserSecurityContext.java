@@ -0,0 +1,75 @@
+package nl.han.dea.markkiepe.spotitube.resources.filters;
+
+import nl.han.dea.markkiepe.spotitube.services.authentication.UserPrincipal;
+
+import javax.ws.rs.core.SecurityContext;
+
+/**
+ * User Security Context<br>
+ * The {@link SecurityContext} of a request that was authenticated by the {@link AuthenticationFilter}.
+ *
+ * @see AuthenticationFilter
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public class UserSecurityContext implements SecurityContext {
+
+    private static final String AUTHENTICATION_SCHEME = "Token";
+
+    private final UserPrincipal userPrincipal;
+    private final boolean secure;
+
+    /**
+     * Creates the security context of an authenticated request.
+     * @param userPrincipal {@link UserPrincipal} of the authenticated user.
+     * @param original {@link SecurityContext} the request had before, used to know if the request was secure.
+     * @since 1.1
+     */
+    public UserSecurityContext(UserPrincipal userPrincipal, SecurityContext original) {
+        this.userPrincipal = userPrincipal;
+        this.secure = original != null && original.isSecure();
+    }
+
+    /**
+     * Getter for the authenticated user.
+     * @return {@link UserPrincipal}
+     * @since 1.1
+     */
+    @Override
+    public UserPrincipal getUserPrincipal() {
+        return userPrincipal;
+    }
+
+    /**
+     * Spotitube has no roles, so a user is never in a role.
+     * @param role {@link String}
+     * @return {@link Boolean} always false
+     * @since 1.1
+     */
+    @Override
+    public boolean isUserInRole(String role) {
+        return false;
+    }
+
+    /**
+     * Says whether the request was made over a secure channel.
+     * @return {@link Boolean}
+     * @since 1.1
+     */
+    @Override
+    public boolean isSecure() {
+        return secure;
+    }
+
+    /**
+     * Getter for the scheme the request was authenticated with.
+     * @return {@link String}
+     * @since 1.1
+     */
+    @Override
+    public String getAuthenticationScheme() {
+        return AUTHENTICATION_SCHEME;
+    }
+
+}
@@ -0,0 +1,85 @@
+package nl.han.dea.markkiepe.spotitube.resources.streaming;
+
+import nl.han.dea.markkiepe.spotitube.services.tracks.Track;
+import nl.han.dea.markkiepe.spotitube.services.tracks.TrackStream;
+import nl.han.dea.markkiepe.spotitube.services.tracks.Tracks;
+
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tracks Streaming Output<br>
+ * Writes the tracks of a {@link TrackStream} straight to the HTTP response while they are read from the database.
+ * The response has the same format as a serialized {@link Tracks} object, but the tracks are never collected,
+ * so the memory that is used does not grow with the amount of tracks.
+ *
+ * @see TrackStream
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public class TracksStreamingOutput implements StreamingOutput {
+
+    private static final Jsonb JSONB = JsonbBuilder.create();
+
+    private final TrackStream trackStream;
+
+    /**
+     * Creates a new streaming output for the given tracks.
+     * @param trackStream {@link TrackStream}
+     * @since 1.1
+     */
+    public TracksStreamingOutput(TrackStream trackStream) {
+        this.trackStream = trackStream;
+    }
+
+    /**
+     * Writes all tracks to the response as {@code {"tracks":[...]}}.
+     * @param outputStream {@link OutputStream} of the response.
+     * @throws IOException When writing to the response fails.
+     * @since 1.1
+     */
+    @Override
+    public void write(OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write("{\"tracks\":[");
+        boolean[] first = { true };
+        try {
+            trackStream.forEach(track -> writeTrack(writer, track, first));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.write("]}");
+        writer.flush();
+    }
+
+    // Private Functions
+
+    /**
+     * Writes a single track to the response.
+     * @param writer {@link Writer}
+     * @param track {@link Track}
+     * @param first Says whether this is the first track, which is not preceded by a comma.
+     * @since 1.1
+     */
+    private void writeTrack(Writer writer, Track track, boolean[] first) {
+        try {
+            if (first[0] == false) {
+                writer.write(',');
+            }
+            first[0] = false;
+            writer.write(JSONB.toJson(track));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
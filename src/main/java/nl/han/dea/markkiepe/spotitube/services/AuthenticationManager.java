@@ -1,7 +1,10 @@
 package nl.han.dea.markkiepe.spotitube.services;
 
 import nl.han.dea.markkiepe.spotitube.datasource.PlaylistMapper;
+import nl.han.dea.markkiepe.spotitube.datasource.exceptions.playlists.PlaylistDoesNotExistException;
 import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticationService;
+import nl.han.dea.markkiepe.spotitube.services.authentication.UserPrincipal;
+import nl.han.dea.markkiepe.spotitube.services.ownership.PlaylistOwnerCache;
 
 import javax.inject.Inject;
 
@@ -12,6 +15,7 @@ import javax.inject.Inject;
  * items.
  *
  * @see AuthenticationService
+ * @see PlaylistOwnerCache
  *
  * @since 1.0
  * @author Mark Kiepe
@@ -20,6 +24,7 @@ public class AuthenticationManager {
 
     private static PlaylistMapper playlistMapper;
     private static AuthenticationService authenticationService;
+    private static PlaylistOwnerCache playlistOwnerCache;
 
     /**
      * Constructor for this class
@@ -42,6 +47,17 @@ public class AuthenticationManager {
         this.authenticationService = authenticationService;
     }
 
+    /**
+     * Setter for the {@link PlaylistOwnerCache} that remembers the owners of playlists.
+     * Without a cache the owner is queried for every ownership check.
+     * @param playlistOwnerCache {@link PlaylistOwnerCache}
+     * @since 1.1
+     */
+    @Inject
+    public void setPlaylistOwnerCache(PlaylistOwnerCache playlistOwnerCache) {
+        this.playlistOwnerCache = playlistOwnerCache;
+    }
+
     //
 
     /**
@@ -62,6 +78,24 @@ public class AuthenticationManager {
         return false;
     }
 
+    /**
+     * Authenticates an Authentication Token and creates the {@link UserPrincipal} of its user.
+     * The ownership checks of the principal are done by this manager.
+     *
+     * @see AuthenticationService#findUserIdByToken(String)
+     *
+     * @param authenticationToken {@link String} Authentication Token
+     * @return {@link UserPrincipal}, {@code null} when the token is invalid.
+     * @since 1.1
+     */
+    public UserPrincipal authenticate(String authenticationToken) {
+        int userId = authenticationService.findUserIdByToken(authenticationToken);
+        if (userId > 0) {
+            return new UserPrincipal(userId, playlistId -> userHasPlaylistOwnership(userId, playlistId));
+        }
+        return null;
+    }
+
     /**
      * Converts an Authentication Token into an UserId.
      *
@@ -89,12 +123,36 @@ public class AuthenticationManager {
         return 0;
     }
 
+    /**
+     * Remembers the owner of a playlist that was just created, so its first ownership check does not query it.
+     * @param playlistId {@link Integer} PlaylistId
+     * @param ownerId {@link Integer} UserId of the owner
+     * @since 1.1
+     */
+    public void playlistCreated(int playlistId, int ownerId) {
+        if (playlistOwnerCache != null) {
+            playlistOwnerCache.put(playlistId, ownerId);
+        }
+    }
+
+    /**
+     * Forgets the owner of a playlist that was deleted.
+     * @param playlistId {@link Integer} PlaylistId
+     * @since 1.1
+     */
+    public void playlistDeleted(int playlistId) {
+        if (playlistOwnerCache != null) {
+            playlistOwnerCache.invalidate(playlistId);
+        }
+    }
+
     //
 
     /**
-     * Gets the Owner id of a given Playlist.
+     * Gets the Owner id of a given Playlist, from the {@link PlaylistOwnerCache} when it knows the playlist.
      *
      * @see PlaylistMapper
+     * @see PlaylistOwnerCache#getOwnerId(int, java.util.function.IntUnaryOperator)
      *
      * @implNote
      * This method returns 0 if an exception occurs or if the playlist does
@@ -107,7 +165,9 @@ public class AuthenticationManager {
      */
     private int getPlaylistOwnerId(int playlistId) {
         try {
-            int ownerId = playlistMapper.getPlaylistOwnerId(playlistId);
+            int ownerId = playlistOwnerCache != null
+                    ? playlistOwnerCache.getOwnerId(playlistId, this::loadPlaylistOwnerId)
+                    : loadPlaylistOwnerId(playlistId);
             if (ownerId >= 0) {
                 return ownerId;
             }
@@ -116,4 +176,23 @@ public class AuthenticationManager {
         }
         return 0;
     }
+
+    /**
+     * Loads the Owner id of a given Playlist from the database.
+     * A playlist that does not exist is a normal answer to an ownership check, so it returns 0 instead of
+     * throwing an exception.
+     *
+     * @see PlaylistMapper#getPlaylistOwnerId(int)
+     *
+     * @param playlistId {@link Integer} playlistId you want the ownerId of
+     * @return {@link Integer} OwnerId, {@code 0} when the playlist does not exist.
+     * @since 1.1
+     */
+    private int loadPlaylistOwnerId(int playlistId) {
+        try {
+            return playlistMapper.getPlaylistOwnerId(playlistId);
+        } catch (PlaylistDoesNotExistException e) {
+            return 0;
+        }
+    }
 }
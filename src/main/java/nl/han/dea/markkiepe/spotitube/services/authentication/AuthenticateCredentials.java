@@ -2,23 +2,28 @@ package nl.han.dea.markkiepe.spotitube.services.authentication;
 
 import nl.han.dea.markkiepe.spotitube.services.exceptions.IncorrectCredentialsException;
 import nl.han.dea.markkiepe.spotitube.datasource.CredentialsMapper;
+import nl.han.dea.markkiepe.spotitube.datasource.credentials.UsernameFilterRefresher;
 import nl.han.dea.markkiepe.spotitube.datasource.dao.credentials.CredentialsDao;
 import nl.han.dea.markkiepe.spotitube.datasource.exceptions.credentials.AccountDoesNotExistException;
 import nl.han.dea.markkiepe.spotitube.datasource.exceptions.DatabaseErrorException;
+import nl.han.dea.markkiepe.spotitube.services.authentication.passwords.PasswordHashingEngine;
+import nl.han.dea.markkiepe.spotitube.services.authentication.passwords.PasswordVerification;
 
 import javax.inject.Inject;
-import org.apache.commons.codec.digest.DigestUtils;
 
 /**
  * This class is responsible for confirming whether given credentials are correct.
  * The class uses both {@link String} checking to see if the length is valid, and the {@link CredentialsMapper}
  * to check if the requested user actually exists in the database.
  * <br>
- * This class also has hashing functionality to ensure there are no plain-text passwords in the database.
+ * Passwords are checked with the {@link PasswordHashingEngine}, so there are no plain-text passwords in the database.
+ * When a correct password was stored in an outdated format it is replaced by a new hash.
+ * When the account does not exist the password is still hashed, so both cases take as long.
  *
  * @see CredentialsMapper
  * @see CredentialsDao
- * @see DigestUtils#sha3_512Hex(String toHash)
+ * @see PasswordHashingEngine
+ * @see UsernameFilterRefresher
  *
  * @author Mark Kiepe
  * @since 1.0
@@ -31,6 +36,8 @@ public class AuthenticateCredentials {
     private static final int MAX_PASSWORD_LENGTH = 128;
 
     private CredentialsMapper credentialsMapper;
+    private PasswordHashingEngine passwordHashingEngine;
+    private UsernameFilterRefresher usernameFilterRefresher;
 
     /**
      * Setter for the {@link CredentialsMapper} that is being used in this class.
@@ -42,6 +49,27 @@ public class AuthenticateCredentials {
         this.credentialsMapper = credentialsMapper;
     }
 
+    /**
+     * Setter for the {@link PasswordHashingEngine} that checks the entered passwords.
+     * @param passwordHashingEngine {@link PasswordHashingEngine}
+     * @since 1.1
+     */
+    @Inject
+    public void setPasswordHashingEngine(PasswordHashingEngine passwordHashingEngine) {
+        this.passwordHashingEngine = passwordHashingEngine;
+    }
+
+    /**
+     * Setter for the {@link UsernameFilterRefresher} that loads the usernames of the username filter in the
+     * background. Injecting it is what starts the loading.
+     * @param usernameFilterRefresher {@link UsernameFilterRefresher}
+     * @since 1.1
+     */
+    @Inject
+    public void setUsernameFilterRefresher(UsernameFilterRefresher usernameFilterRefresher) {
+        this.usernameFilterRefresher = usernameFilterRefresher;
+    }
+
     /**
      * This method will determine whether the user has entered the correct log-in details.
      * If the user has entered the correct details an {@link Integer} resembling the user's UserId will be returned.
@@ -75,7 +103,8 @@ public class AuthenticateCredentials {
                 userCredentials = credentialsMapper.getUserInfo(username);
             }
             catch(AccountDoesNotExistException e) {
-                // Incorrect Credentials
+                // Incorrect Credentials, which takes as long as an incorrect password
+                passwordHashingEngine.verifyWithoutAccount(enteredPassword);
                 throw new IncorrectCredentialsException("Username or password is incorrect.");
             }
             catch(DatabaseErrorException e) {
@@ -84,9 +113,11 @@ public class AuthenticateCredentials {
             }
             //
             if (userCredentials != null) {
-                if (isPasswordCorrect(enteredPassword, userCredentials.getPassword())) {
+                if (isPasswordCorrect(userCredentials, enteredPassword)) {
                     return userCredentials.getUserId();
                 }
+            } else {
+                passwordHashingEngine.verifyWithoutAccount(enteredPassword);
             }
         }
         throw new IncorrectCredentialsException("Username or password is incorrect.");
@@ -98,10 +129,10 @@ public class AuthenticateCredentials {
      * This method checks if the input credentials from the client meet the set criteria.
      * The method only checks the {@link String}s their length not whether they are correct.
      * If you wish to know whether the {@link String}s are correct please see
-     * {@link AuthenticateCredentials#isPasswordCorrect(String, String)}
+     * {@link AuthenticateCredentials#isPasswordCorrect(CredentialsDao, String)}
      *
      * @see String
-     * @see AuthenticateCredentials#isPasswordCorrect(String, String)
+     * @see AuthenticateCredentials#isPasswordCorrect(CredentialsDao, String)
      *
      * @param username {@link String} username
      * @param enteredPassword {@link String} entered password
@@ -121,49 +152,36 @@ public class AuthenticateCredentials {
     }
 
     /**
-     * Checks if the input of the plain-text {@link String} entered password is equal to the
-     * hashed {@link String} database password.
+     * Checks if the plain-text {@link String} entered password belongs to the hashed database password
+     * of the user.
      * <br><br>
-     * This method hashes the plain-text entered password to confirm they are equal.
-     * To see how they are converted please see {@link AuthenticateCredentials#hashPassword(String)}.
+     * The password is checked by the {@link PasswordHashingEngine}, which compares the hashes in constant time.
+     * When the database password is in an outdated format it is replaced by the new hash the engine made.
+     * Replacing it is not required for the log-in, so a failure is only logged.
      *
-     * @see AuthenticateCredentials#hashPassword(String)
+     * @see PasswordHashingEngine#verify(String, String)
      *
-     * @implSpec
-     * This method requires the hashed {@link String} database password.
-     * The database password has to be hashed. If the database password is not hashed false will always be returned.
-     * <br>
-     * However, the {@link String} entered password has to be plain-text.
-     * <br>
+     * @param userCredentials {@link CredentialsDao} with the hashed database password.
      * @param enteredPassword {@link String} entered password in plain-text.
-     * @param databasePassword {@link String} hashed database password
      * @return {@link Boolean} whether the passwords match
      * @since 1.0
      */
-    private boolean isPasswordCorrect(String enteredPassword, String databasePassword) {
-        String hashedEnteredPassword = hashPassword(enteredPassword);
-        if (hashedEnteredPassword != null) {
-            if (hashedEnteredPassword.matches(databasePassword)) {
-                return true;
+    private boolean isPasswordCorrect(CredentialsDao userCredentials, String enteredPassword) {
+        PasswordVerification verification = passwordHashingEngine.verify(enteredPassword, userCredentials.getPassword());
+        if (verification.isCorrect() == false) {
+            return false;
+        }
+        if (verification.getRehash() != null) {
+            try {
+                credentialsMapper.updatePassword(
+                        userCredentials.getUserId(),
+                        userCredentials.getPassword(),
+                        verification.getRehash()
+                );
+            } catch (DatabaseErrorException e) {
+                e.printStackTrace();
             }
         }
-        return false;
-    }
-
-    /**
-     * Hashes a plain-text {@link String} password to the {@code SHA3-512} hash.<br>
-     *
-     * @implSpec
-     * The entered password has to be unhashed in plain-text.
-     *
-     * @see DigestUtils#sha3_512Hex(String)
-     *
-     * @param enteredPassword {@link String} plain-text password.
-     * @return hashed {@link String} password.
-     * @since 1.0
-     */
-    private String hashPassword(String enteredPassword) {
-        String hash = DigestUtils.sha3_512Hex(enteredPassword);
-        return hash;
+        return true;
     }
 }
@@ -1,5 +1,7 @@
 package nl.han.dea.markkiepe.spotitube.services.authentication;
 
+import javax.json.bind.annotation.JsonbTransient;
+
 /**
  * This class houses a few variables for each individual authenticated user of the program.
  *
@@ -11,9 +13,11 @@ public class AuthenticatedUser {
     private String token;
     private String user;
     private int userId;
+    private long createdAt;
+    private volatile long lastUsedAt;
 
     /**
-     * Creates a new Authenticated User.
+     * Creates a new Authenticated User that logged in just now.
      *
      * @implNote
      * Token must be a unique token. If multiple authenticated users have the same token they would get access to
@@ -25,9 +29,28 @@ public class AuthenticatedUser {
      * @since 1.0
      */
     public AuthenticatedUser(int userId, String user, String token) {
+        this(userId, user, token, System.currentTimeMillis());
+    }
+
+    /**
+     * Creates a new Authenticated User that logged in at the given moment.
+     *
+     * @implNote
+     * Token must be a unique token. If multiple authenticated users have the same token they would get access to
+     * other users their account.
+     *
+     * @param userId The unique userId that is used in the database to identify individual users.
+     * @param user The username of the user.
+     * @param token The unique token the client uses to authenticate who they are.
+     * @param createdAt The moment the user logged in as epoch milliseconds.
+     * @since 1.1
+     */
+    public AuthenticatedUser(int userId, String user, String token, long createdAt) {
         this.token = token;
         this.user = user;
         this.userId = userId;
+        this.createdAt = createdAt;
+        this.lastUsedAt = createdAt;
     }
 
     /**
@@ -58,4 +81,35 @@ public class AuthenticatedUser {
         return user;
     }
 
+    /**
+     * Returns the moment the user logged in and this session was created.
+     * @implNote This value is not part of the login response.
+     * @return {@link Long} epoch milliseconds
+     * @since 1.1
+     */
+    @JsonbTransient
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Returns the moment this session was last used to authenticate a request.
+     * @implNote This value is not part of the login response.
+     * @return {@link Long} epoch milliseconds
+     * @since 1.1
+     */
+    @JsonbTransient
+    public long getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    /**
+     * Sets the moment this session was last used to authenticate a request.
+     * @param lastUsedAt {@link Long} epoch milliseconds
+     * @since 1.1
+     */
+    public void setLastUsedAt(long lastUsedAt) {
+        this.lastUsedAt = lastUsedAt;
+    }
+
 }
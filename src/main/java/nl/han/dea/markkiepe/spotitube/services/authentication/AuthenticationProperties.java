@@ -0,0 +1,378 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication;
+
+import nl.han.dea.markkiepe.spotitube.datasource.util.PropertyManager;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * This class is responsible for getting the properties that configure how users are authenticated
+ * and how long their sessions stay valid.
+ *
+ * @see PropertyManager
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public class AuthenticationProperties extends PropertyManager {
+
+    private static final String AUTHENTICATION_PROPERTIES_FILENAME = "authentication.properties";
+    private static final String SESSION_TIME_TO_LIVE = "sessionTimeToLive";
+    private static final String SESSION_IDLE_TIMEOUT = "sessionIdleTimeout";
+    private static final String SESSION_SWEEP_INTERVAL = "sessionSweepInterval";
+    private static final String MAXIMUM_SESSIONS_PER_USER = "maximumSessionsPerUser";
+    private static final String TOKEN_MODE = "tokenMode";
+    private static final String TOKEN_SIGNING_KEYS = "tokenSigningKeys";
+    private static final String SESSION_STORE = "sessionStore";
+    private static final String SESSION_STORE_HOST = "sessionStoreHost";
+    private static final String SESSION_STORE_PORT = "sessionStorePort";
+    private static final String SESSION_STORE_TIMEOUT = "sessionStoreTimeout";
+    private static final String SESSION_STORE_SECRET = "sessionStoreSecret";
+    private static final String SESSION_STORE_BIND_ADDRESS = "sessionStoreBindAddress";
+    private static final String SESSION_NEAR_CACHE_SIZE = "sessionNearCacheSize";
+    private static final String SESSION_SNAPSHOT_FILE = "sessionSnapshotFile";
+    private static final String SESSION_SNAPSHOT_INTERVAL = "sessionSnapshotInterval";
+    private static final String PASSWORD_HASH_ALGORITHM = "passwordHashAlgorithm";
+    private static final String PASSWORD_HASH_ITERATIONS = "passwordHashIterations";
+    private static final String PASSWORD_HASH_TARGET_TIME = "passwordHashTargetTime";
+    private static final String PASSWORD_HASH_MINIMUM_ITERATIONS = "passwordHashMinimumIterations";
+    private static final String PASSWORD_HASH_THREADS = "passwordHashThreads";
+    private static final String PASSWORD_HASH_QUEUE_SIZE = "passwordHashQueueSize";
+    private static final String PASSWORD_HASH_TIMEOUT = "passwordHashTimeout";
+    private static final String LOGIN_ADDRESS_BURST = "loginAddressBurst";
+    private static final String LOGIN_ADDRESS_REFILL_INTERVAL = "loginAddressRefillInterval";
+    private static final String LOGIN_USERNAME_BURST = "loginUsernameBurst";
+    private static final String LOGIN_USERNAME_REFILL_INTERVAL = "loginUsernameRefillInterval";
+    private static final String LOGIN_RATE_LIMIT_MAXIMUM_KEYS = "loginRateLimitMaximumKeys";
+    private static final String PLAYLIST_OWNER_CACHE_SIZE = "playlistOwnerCacheSize";
+    private static final String PLAYLIST_OWNER_CACHE_TIME_TO_LIVE = "playlistOwnerCacheTimeToLive";
+    private static final String SIGNED_TOKEN_MODE = "signed";
+    private static final String SHARED_SESSION_STORE = "shared";
+    private static final String LIST_SEPARATOR = "\\|";
+
+    private static final long DEFAULT_SESSION_TIME_TO_LIVE = 86400000;
+    private static final long DEFAULT_SESSION_IDLE_TIMEOUT = 1800000;
+    private static final long DEFAULT_SESSION_SWEEP_INTERVAL = 1000;
+    private static final int DEFAULT_MAXIMUM_SESSIONS_PER_USER = 0;
+    private static final long DEFAULT_SESSION_SNAPSHOT_INTERVAL = 60000;
+    private static final String DEFAULT_PASSWORD_HASH_ALGORITHM = "pbkdf2-sha256";
+    private static final long DEFAULT_PASSWORD_HASH_TARGET_TIME = 250;
+    private static final int DEFAULT_PASSWORD_HASH_MINIMUM_ITERATIONS = 100000;
+    private static final int DEFAULT_PASSWORD_HASH_QUEUE_SIZE = 64;
+    private static final long DEFAULT_PASSWORD_HASH_TIMEOUT = 5000;
+    private static final int DEFAULT_LOGIN_ADDRESS_BURST = 20;
+    private static final long DEFAULT_LOGIN_ADDRESS_REFILL_INTERVAL = 3000;
+    private static final int DEFAULT_LOGIN_USERNAME_BURST = 5;
+    private static final long DEFAULT_LOGIN_USERNAME_REFILL_INTERVAL = 12000;
+    private static final int DEFAULT_LOGIN_RATE_LIMIT_MAXIMUM_KEYS = 100000;
+    private static final int DEFAULT_PLAYLIST_OWNER_CACHE_SIZE = 4096;
+    private static final long DEFAULT_PLAYLIST_OWNER_CACHE_TIME_TO_LIVE = 300000;
+    private static final String DEFAULT_SESSION_STORE_HOST = "localhost";
+    private static final int DEFAULT_SESSION_STORE_PORT = 7480;
+    private static final int DEFAULT_SESSION_STORE_TIMEOUT = 1000;
+    private static final int DEFAULT_SESSION_NEAR_CACHE_SIZE = 10000;
+
+    /**
+     * Constructor that creates the Authentication Properties class.
+     * @implNote When the properties file cannot be found the default values are used.
+     * @since 1.1
+     */
+    @Inject
+    public AuthenticationProperties() {
+        Properties properties = new Properties();
+        try (InputStream inputStream = getClass()
+                .getClassLoader()
+                .getResourceAsStream(AUTHENTICATION_PROPERTIES_FILENAME)
+        ) {
+            if (inputStream != null) {
+                properties.load(inputStream);
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+        super.setPropertyFile(properties);
+    }
+
+    /**
+     * Gets the amount of milliseconds a session stays valid after the user logged in, however often it is used.
+     * @return {@link Long} time to live in milliseconds
+     * @since 1.1
+     */
+    public long getSessionTimeToLive() {
+        return getLongProperty(SESSION_TIME_TO_LIVE, DEFAULT_SESSION_TIME_TO_LIVE);
+    }
+
+    /**
+     * Gets the amount of milliseconds a session stays valid after it was last used.
+     * @return {@link Long} idle timeout in milliseconds
+     * @since 1.1
+     */
+    public long getSessionIdleTimeout() {
+        return getLongProperty(SESSION_IDLE_TIMEOUT, DEFAULT_SESSION_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Gets the amount of milliseconds between two runs of the session sweeper.
+     * This is also the precision with which sessions are removed after they expired.
+     * @return {@link Long} sweep interval in milliseconds
+     * @since 1.1
+     */
+    public long getSessionSweepInterval() {
+        return getLongProperty(SESSION_SWEEP_INTERVAL, DEFAULT_SESSION_SWEEP_INTERVAL);
+    }
+
+    /**
+     * Gets the maximum amount of sessions a single user can have. When a user logs in once more the oldest
+     * session is removed.
+     * @return {@link Integer} maximum sessions per user, {@code 0} when there is no maximum.
+     * @since 1.1
+     */
+    public int getMaximumSessionsPerUser() {
+        return getIntegerProperty(MAXIMUM_SESSIONS_PER_USER, DEFAULT_MAXIMUM_SESSIONS_PER_USER);
+    }
+
+    /**
+     * Gets the file the sessions are written to, so they survive a restart.
+     * @return {@link String} path of the snapshot file, {@code null} when no snapshot is written.
+     * @since 1.1
+     */
+    public String getSessionSnapshotFile() {
+        String value = properties.getProperty(SESSION_SNAPSHOT_FILE, "").trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Gets the amount of milliseconds between two snapshots of the sessions.
+     * @return {@link Long} snapshot interval in milliseconds
+     * @since 1.1
+     */
+    public long getSessionSnapshotInterval() {
+        return getLongProperty(SESSION_SNAPSHOT_INTERVAL, DEFAULT_SESSION_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * Says whether the sessions are kept in a session store that is shared by all nodes,
+     * instead of in the memory of this node.
+     * @return {@link Boolean} true when {@code sessionStore} is {@code shared}.
+     * @since 1.1
+     */
+    public boolean isSharedSessionStore() {
+        return SHARED_SESSION_STORE.equalsIgnoreCase(properties.getProperty(SESSION_STORE, "").trim());
+    }
+
+    /**
+     * Gets the host name of the shared session store.
+     * @return {@link String}
+     * @since 1.1
+     */
+    public String getSessionStoreHost() {
+        return properties.getProperty(SESSION_STORE_HOST, DEFAULT_SESSION_STORE_HOST).trim();
+    }
+
+    /**
+     * Gets the port of the shared session store.
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    public int getSessionStorePort() {
+        return getIntegerProperty(SESSION_STORE_PORT, DEFAULT_SESSION_STORE_PORT);
+    }
+
+    /**
+     * Gets the amount of milliseconds to wait for a connection with, or a response of, the shared session store.
+     * @return {@link Integer} timeout in milliseconds
+     * @since 1.1
+     */
+    public int getSessionStoreTimeout() {
+        return getIntegerProperty(SESSION_STORE_TIMEOUT, DEFAULT_SESSION_STORE_TIMEOUT);
+    }
+
+    /**
+     * Gets the secret every node has to send to the shared session store before it accepts any request.
+     * @return {@link String} secret, {@code null} when no secret is configured.
+     * @since 1.1
+     */
+    public String getSessionStoreSecret() {
+        String value = properties.getProperty(SESSION_STORE_SECRET, "").trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Gets the address the shared session store server listens on.
+     * @return {@link String} host name or address, {@code null} to only listen on the loopback address.
+     * @since 1.1
+     */
+    public String getSessionStoreBindAddress() {
+        String value = properties.getProperty(SESSION_STORE_BIND_ADDRESS, "").trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Gets the maximum amount of sessions of the shared session store that are kept on this node.
+     * @return {@link Integer} near-cache size, {@code 0} for no near-cache.
+     * @since 1.1
+     */
+    public int getSessionNearCacheSize() {
+        return getIntegerProperty(SESSION_NEAR_CACHE_SIZE, DEFAULT_SESSION_NEAR_CACHE_SIZE);
+    }
+
+    /**
+     * Gets the algorithm new password hashes are made with.
+     * @return {@link String} {@code pbkdf2-sha256} or {@code sha3-512}
+     * @since 1.1
+     */
+    public String getPasswordHashAlgorithm() {
+        return properties.getProperty(PASSWORD_HASH_ALGORITHM, DEFAULT_PASSWORD_HASH_ALGORITHM).trim();
+    }
+
+    /**
+     * Gets the amount of iterations new password hashes are made with.
+     * @return {@link Integer} iterations, {@code 0} when they are calibrated on startup.
+     * @since 1.1
+     */
+    public int getPasswordHashIterations() {
+        return getIntegerProperty(PASSWORD_HASH_ITERATIONS, 0);
+    }
+
+    /**
+     * Gets the amount of milliseconds checking a password should take when the iterations are calibrated.
+     * @return {@link Long} target time in milliseconds
+     * @since 1.1
+     */
+    public long getPasswordHashTargetTime() {
+        return getLongProperty(PASSWORD_HASH_TARGET_TIME, DEFAULT_PASSWORD_HASH_TARGET_TIME);
+    }
+
+    /**
+     * Gets the amount of iterations that are used at least when the iterations are calibrated.
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    public int getPasswordHashMinimumIterations() {
+        return getIntegerProperty(PASSWORD_HASH_MINIMUM_ITERATIONS, DEFAULT_PASSWORD_HASH_MINIMUM_ITERATIONS);
+    }
+
+    /**
+     * Gets the amount of threads that hash passwords.
+     * @return {@link Integer} threads, {@code 0} for half of the processors.
+     * @since 1.1
+     */
+    public int getPasswordHashThreads() {
+        return getIntegerProperty(PASSWORD_HASH_THREADS, 0);
+    }
+
+    /**
+     * Gets the amount of passwords that can wait for a hashing thread before logins are refused.
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    public int getPasswordHashQueueSize() {
+        return getIntegerProperty(PASSWORD_HASH_QUEUE_SIZE, DEFAULT_PASSWORD_HASH_QUEUE_SIZE);
+    }
+
+    /**
+     * Gets the amount of milliseconds a login waits for its password to be checked.
+     * @return {@link Long} timeout in milliseconds
+     * @since 1.1
+     */
+    public long getPasswordHashTimeout() {
+        return getLongProperty(PASSWORD_HASH_TIMEOUT, DEFAULT_PASSWORD_HASH_TIMEOUT);
+    }
+
+    /**
+     * Gets the amount of log-in attempts a client address can make at once.
+     * @return {@link Integer} {@code 0} when client addresses are not limited.
+     * @since 1.1
+     */
+    public int getLoginAddressBurst() {
+        return getIntegerProperty(LOGIN_ADDRESS_BURST, DEFAULT_LOGIN_ADDRESS_BURST);
+    }
+
+    /**
+     * Gets the amount of milliseconds after which a client address can make one more log-in attempt.
+     * @return {@link Long} interval in milliseconds
+     * @since 1.1
+     */
+    public long getLoginAddressRefillInterval() {
+        return getLongProperty(LOGIN_ADDRESS_REFILL_INTERVAL, DEFAULT_LOGIN_ADDRESS_REFILL_INTERVAL);
+    }
+
+    /**
+     * Gets the amount of log-in attempts that can be made for a single username at once.
+     * @return {@link Integer} {@code 0} when usernames are not limited.
+     * @since 1.1
+     */
+    public int getLoginUsernameBurst() {
+        return getIntegerProperty(LOGIN_USERNAME_BURST, DEFAULT_LOGIN_USERNAME_BURST);
+    }
+
+    /**
+     * Gets the amount of milliseconds after which one more log-in attempt can be made for a username.
+     * @return {@link Long} interval in milliseconds
+     * @since 1.1
+     */
+    public long getLoginUsernameRefillInterval() {
+        return getLongProperty(LOGIN_USERNAME_REFILL_INTERVAL, DEFAULT_LOGIN_USERNAME_REFILL_INTERVAL);
+    }
+
+    /**
+     * Gets the maximum amount of client addresses, and of usernames, the log-in rate limits remember.
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    public int getLoginRateLimitMaximumKeys() {
+        return getIntegerProperty(LOGIN_RATE_LIMIT_MAXIMUM_KEYS, DEFAULT_LOGIN_RATE_LIMIT_MAXIMUM_KEYS);
+    }
+
+    /**
+     * Gets the amount of playlist owners that are remembered at most.
+     * @return {@link Integer} {@code 0} when owners are not cached.
+     * @since 1.1
+     */
+    public int getPlaylistOwnerCacheSize() {
+        return getIntegerProperty(PLAYLIST_OWNER_CACHE_SIZE, DEFAULT_PLAYLIST_OWNER_CACHE_SIZE);
+    }
+
+    /**
+     * Gets the amount of milliseconds the owner of a playlist is remembered.
+     * @return {@link Long} time to live in milliseconds
+     * @since 1.1
+     */
+    public long getPlaylistOwnerCacheTimeToLive() {
+        return getLongProperty(PLAYLIST_OWNER_CACHE_TIME_TO_LIVE, DEFAULT_PLAYLIST_OWNER_CACHE_TIME_TO_LIVE);
+    }
+
+    /**
+     * Says whether users get signed tokens that can be verified without a session, instead of opaque tokens
+     * that are looked up in the session store.
+     * @return {@link Boolean} true when {@code tokenMode} is {@code signed}.
+     * @since 1.1
+     */
+    public boolean isSignedTokenMode() {
+        return SIGNED_TOKEN_MODE.equalsIgnoreCase(properties.getProperty(TOKEN_MODE, "").trim());
+    }
+
+    /**
+     * Gets the keys signed tokens are signed and verified with, separated by a {@code |} in the properties file.
+     * Every key has the format {@code keyId:base64Secret}. The first key signs new tokens, all keys verify them.
+     * @return {@link List} of {@link String}, empty when no keys are configured.
+     * @since 1.1
+     */
+    public List<String> getTokenSigningKeys() {
+        List<String> result = new ArrayList<>();
+        String value = properties.getProperty(TOKEN_SIGNING_KEYS);
+        if (value != null) {
+            for (String key : value.split(LIST_SEPARATOR)) {
+                if (key.isBlank() == false) {
+                    result.add(key.trim());
+                }
+            }
+        }
+        return result;
+    }
+
+}
@@ -1,35 +1,65 @@
 package nl.han.dea.markkiepe.spotitube.services.authentication;
 
 import nl.han.dea.markkiepe.spotitube.resources.dto.authentication.AuthenticationDTO;
+import nl.han.dea.markkiepe.spotitube.services.authentication.sessions.InMemorySessionStore;
+import nl.han.dea.markkiepe.spotitube.services.authentication.sessions.SessionStore;
+import nl.han.dea.markkiepe.spotitube.services.authentication.sessions.SessionSweeper;
+import nl.han.dea.markkiepe.spotitube.services.authentication.tokens.SignedTokenService;
+import nl.han.dea.markkiepe.spotitube.services.authentication.tokens.TokenClaims;
 import nl.han.dea.markkiepe.spotitube.services.exceptions.IncorrectCredentialsException;
 import nl.han.dea.markkiepe.spotitube.services.exceptions.UserNotFoundException;
 
 import javax.inject.Inject;
-import java.util.ArrayList;
 
 /**
  * This class manages all the Authenticated Users.
  *
  * @see TokenGenerator
  * @see AuthenticatedUser
+ * @see SessionStore
+ * @see SessionSweeper
+ * @see SignedTokenService
  * @author Mark Kiepe
  * @since 1.0
  */
 public class AuthenticationService {
 
-    private static ArrayList<AuthenticatedUser> users = new ArrayList<>();
+    private static SessionStore sessionStore = new InMemorySessionStore();
+    private static SessionSweeper sessionSweeper;
+    private static SignedTokenService signedTokenService;
     private static TokenGenerator generator;
     private static AuthenticateCredentials authenticateCredentials;
 
     /**
-     * Sets the {@link ArrayList} of {@link AuthenticatedUser}.
+     * Sets the {@link SessionStore} that keeps the {@link AuthenticatedUser}s.
      * These users are authenticated and can use the program
      *
-     * @param users {@link ArrayList} of {@link AuthenticatedUser}.
-     * @since 1.0
+     * @param sessionStore {@link SessionStore}
+     * @since 1.1
+     */
+    @Inject
+    public void setSessionStore(SessionStore sessionStore) {
+        this.sessionStore = sessionStore;
+    }
+
+    /**
+     * Sets the {@link SessionSweeper} that renews sessions when they are used and removes them once they expired.
+     * @param sessionSweeper {@link SessionSweeper}
+     * @since 1.1
+     */
+    @Inject
+    public void setSessionSweeper(SessionSweeper sessionSweeper) {
+        this.sessionSweeper = sessionSweeper;
+    }
+
+    /**
+     * Sets the {@link SignedTokenService} that issues and verifies signed tokens when they are enabled.
+     * @param signedTokenService {@link SignedTokenService}
+     * @since 1.1
      */
-    public void setUsers(ArrayList<AuthenticatedUser> users) {
-        this.users = users;
+    @Inject
+    public void setSignedTokenService(SignedTokenService signedTokenService) {
+        this.signedTokenService = signedTokenService;
     }
 
     /**
@@ -103,6 +133,25 @@ public class AuthenticationService {
         throw new UserNotFoundException();
     }
 
+    /**
+     * Finds the UserId that belongs to the given Token, without throwing an exception when the token is invalid.
+     * This is used to authenticate every request, where an invalid token is common and not exceptional.
+     *
+     * @param token The token the user has to authenticate with.
+     * @return The UserId as an {@link Integer}, {@code 0} when the token is invalid.
+     * @since 1.1
+     */
+    public int findUserIdByToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return 0;
+        }
+        AuthenticatedUser user = getUserFromToken(token);
+        if (user != null) {
+            return user.getUserId();
+        }
+        return 0;
+    }
+
     /**
      * This method is used to verify if a certain user has this userid that it pretends to have.
      * @param token {@link String} as Authentication Token
@@ -120,12 +169,28 @@ public class AuthenticationService {
         return false;
     }
 
+    /**
+     * Logs out the user of a token, after which the token cannot be used anymore.
+     * An opaque token is removed from the {@link SessionStore}, a signed token is revoked until it expires.
+     * @param token {@link String} as Authentication Token
+     * @return {@link Boolean} false when the token was not valid.
+     * @since 1.1
+     */
+    public boolean logout(String token) {
+        if (signedTokenService.isEnabled()) {
+            return signedTokenService.revoke(token, System.currentTimeMillis());
+        }
+        return sessionStore.remove(token) != null;
+    }
+
 
     // PRIVATE FUNCTIONS
 
     /**
-     * Creates a new Authenticated User and stores it in a private {@link ArrayList}.
+     * Creates a new Authenticated User and stores it in the {@link SessionStore}.
      * If the Authenticated User is successfully created a token will be returned where the user can be identified with.
+     * When the generated token turns out to be in use already, another token is generated.<br>
+     * When signed tokens are enabled the user gets a signed token instead, and nothing is stored.
      *
      * @see TokenGenerator
      *
@@ -135,20 +200,31 @@ public class AuthenticationService {
      * @since 1.0
      */
     private AuthenticatedUser addUser(int userId, String username) {
-        AuthenticatedUser user = new AuthenticatedUser(
-                userId,
-                username,
-                generateUniqueToken()
-        );
-        users.add(user);
-        return user;
+        if (signedTokenService.isEnabled()) {
+            long now = System.currentTimeMillis();
+            return new AuthenticatedUser(userId, username, signedTokenService.issue(userId, now), now);
+        }
+        while (true) {
+            AuthenticatedUser user = new AuthenticatedUser(
+                    userId,
+                    username,
+                    generateUniqueToken()
+            );
+            if (sessionStore.add(user)) {
+                sessionSweeper.track(user);
+                return user;
+            }
+        }
     }
 
     /**
      * Creates a unique token for a user.
      * This method uses the {@link TokenGenerator#generateNewToken()} method from the {@link TokenGenerator} and makes sure the token\
      * is not already in use by another user. If the token is already in use another one will be generated -> the method
-     * calling this function does not have to worry about that.
+     * calling this function does not have to worry about that.<br>
+     * Checking the token is a single lookup in the {@link SessionStore}. Because another login can claim the same
+     * token right after this check, {@link AuthenticationService#addUser(int, String)} only keeps the token when
+     * the store accepts it.
      *
      * @see TokenGenerator
      *
@@ -185,8 +261,11 @@ public class AuthenticationService {
 
     /**
      * Returns a reference to an AuthenticatedUser object of which the token belongs to.
-     * If the token is invalid (because it is not in use) NULL will be returned.
-     * The method calling this has to check if no NULL was returned.
+     * If the token is invalid (because it is not in use or its session expired) NULL will be returned.
+     * The method calling this has to check if no NULL was returned.<br>
+     * Finding a session renews its idle timeout through the {@link SessionSweeper}.
+     * When signed tokens are enabled the token is verified by the {@link SignedTokenService} instead, without a lookup.
+     * The returned user then has no username.
      *
      * @implSpec
      * This method can return NULL. The method calling this has to check if no NULL was returned.
@@ -200,11 +279,17 @@ public class AuthenticationService {
      * @return {@link AuthenticatedUser} object of which the token belongs to
      * @since 1.0
      */
-     private AuthenticatedUser getUserFromToken(String token) {
-        for (AuthenticatedUser user : users) {
-            if (token.matches(user.getToken())) {
-                return user;
+    private AuthenticatedUser getUserFromToken(String token) {
+        if (signedTokenService.isEnabled()) {
+            TokenClaims claims = signedTokenService.verify(token, System.currentTimeMillis());
+            if (claims != null) {
+                return new AuthenticatedUser(claims.getUserId(), null, token, claims.getIssuedAt());
             }
+            return null;
+        }
+        AuthenticatedUser user = sessionStore.get(token);
+        if (user != null && sessionSweeper.renew(user)) {
+            return user;
         }
         return null;
     }
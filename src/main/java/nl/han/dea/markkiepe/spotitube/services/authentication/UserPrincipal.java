@@ -0,0 +1,77 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication;
+
+import java.security.Principal;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+/**
+ * User Principal<br>
+ * The authenticated user of a single request. The token of the request is resolved once, before the request reaches
+ * a resource, after which the services get this principal instead of the token.
+ * <br><br>
+ * The principal remembers which playlists the user owns, so checking the same playlist twice within a request
+ * does not check it again.
+ *
+ * @implNote
+ * A principal belongs to a single request and is not thread safe.
+ *
+ * @see nl.han.dea.markkiepe.spotitube.services.AuthenticationManager#authenticate(String)
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public class UserPrincipal implements Principal {
+
+    private final int userId;
+    private final IntPredicate ownershipCheck;
+    private final Set<Integer> ownedPlaylists = new HashSet<>();
+
+    /**
+     * Creates a new principal.
+     * @param userId {@link Integer} UserId of the authenticated user.
+     * @param ownershipCheck {@link IntPredicate} that checks whether the user owns a playlist.
+     * @since 1.1
+     */
+    public UserPrincipal(int userId, IntPredicate ownershipCheck) {
+        this.userId = userId;
+        this.ownershipCheck = ownershipCheck;
+    }
+
+    /**
+     * Getter for the UserId of the authenticated user.
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    public int getUserId() {
+        return userId;
+    }
+
+    /**
+     * Checks if the user owns a playlist.
+     * @param playlistId {@link Integer} PlaylistId
+     * @return {@link Boolean}
+     * @since 1.1
+     */
+    public boolean ownsPlaylist(int playlistId) {
+        if (ownedPlaylists.contains(playlistId)) {
+            return true;
+        }
+        if (ownershipCheck.test(playlistId)) {
+            ownedPlaylists.add(playlistId);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the name of the principal, which is the UserId of the user.
+     * @return {@link String}
+     * @since 1.1
+     */
+    @Override
+    public String getName() {
+        return String.valueOf(userId);
+    }
+
+}
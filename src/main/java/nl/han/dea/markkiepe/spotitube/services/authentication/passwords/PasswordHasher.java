@@ -0,0 +1,55 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.passwords;
+
+/**
+ * Password Hasher<br>
+ * Hashes passwords into a self describing format and verifies passwords against hashes in that format.
+ *
+ * @implSpec
+ * Every format starts with something that identifies it, so the {@link PasswordHashingEngine} can find the hasher
+ * that belongs to a stored hash. Hashes have to be compared in constant time, so the time a verification takes
+ * does not tell how much of a guessed password was right.
+ *
+ * @see PasswordHashingEngine
+ * @see Pbkdf2PasswordHasher
+ * @see Sha3PasswordHasher
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public interface PasswordHasher {
+
+    /**
+     * Hashes a password with a new random salt and the current cost of this hasher.
+     * @param password {@link String} plain-text password
+     * @return {@link String} hash in the format of this hasher.
+     * @since 1.1
+     */
+    String hash(String password);
+
+    /**
+     * Checks if a password belongs to a hash.
+     * @param password {@link String} plain-text password
+     * @param encodedHash {@link String} hash in the format of this hasher.
+     * @return {@link Boolean} false when the password is wrong or the hash is not valid.
+     * @since 1.1
+     */
+    boolean verify(String password, String encodedHash);
+
+    /**
+     * Says whether a stored hash is in the format of this hasher.
+     * @param encodedHash {@link String}
+     * @return {@link Boolean}
+     * @since 1.1
+     */
+    boolean supports(String encodedHash);
+
+    /**
+     * Says whether a hash in the format of this hasher was made with a lower cost than the current one,
+     * in which case the password should be hashed again.
+     * @param encodedHash {@link String}
+     * @return {@link Boolean}
+     * @since 1.1
+     */
+    boolean needsRehash(String encodedHash);
+
+}
@@ -0,0 +1,270 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.passwords;
+
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticationProperties;
+import nl.han.dea.markkiepe.spotitube.services.exceptions.AuthenticationUnavailableException;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Password Hashing Engine<br>
+ * Hashes and verifies passwords with the configured {@link PasswordHasher}, while still accepting hashes in
+ * older formats. When a correct password was stored in an older format or with a lower cost, it is hashed again
+ * so the caller can replace the stored hash.
+ * <br><br>
+ * Hashing a password is made slow on purpose, which makes it a target for overloading the server. Hashes are
+ * therefore computed on a small pool of threads with a bounded queue, so a burst of logins can only use that part
+ * of the processors and never slows down the other requests.
+ * <br><br>
+ * Log-ins of accounts that do not exist are checked against a dummy hash in the current format, so they take as
+ * long as log-ins of existing accounts and the time a log-in takes does not reveal which usernames exist.
+ * <br><br>
+ * The engine is configured in the {@code authentication.properties} file:
+ * <ul>
+ *     <li>{@code passwordHashAlgorithm} {@code pbkdf2-sha256} or the legacy {@code sha3-512}.</li>
+ *     <li>{@code passwordHashIterations} iterations of new hashes, {@code 0} to calibrate them on startup.</li>
+ *     <li>{@code passwordHashTargetTime} milliseconds a verification should take after calibrating.</li>
+ *     <li>{@code passwordHashMinimumIterations} iterations that are used at least after calibrating.</li>
+ *     <li>{@code passwordHashThreads} threads that hash passwords, {@code 0} for half of the processors.</li>
+ *     <li>{@code passwordHashQueueSize} passwords that can wait for a thread.</li>
+ *     <li>{@code passwordHashTimeout} milliseconds a caller waits for its password to be checked.</li>
+ * </ul>
+ *
+ * @see PasswordHasher
+ * @see AuthenticationProperties
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Singleton
+public class PasswordHashingEngine {
+
+    private final PasswordHasher currentHasher;
+    private final List<PasswordHasher> knownHashers;
+    private volatile String dummyHash;
+    private final ThreadPoolExecutor executor;
+    private final long timeout;
+
+    /**
+     * Creates the engine that is configured in the {@link AuthenticationProperties}.
+     * @implNote When the iterations are not configured they are calibrated here, which takes a few milliseconds.
+     * @param authenticationProperties {@link AuthenticationProperties}
+     * @since 1.1
+     */
+    @Inject
+    public PasswordHashingEngine(AuthenticationProperties authenticationProperties) {
+        this(
+                createHasher(authenticationProperties),
+                authenticationProperties.getPasswordHashThreads(),
+                authenticationProperties.getPasswordHashQueueSize(),
+                authenticationProperties.getPasswordHashTimeout()
+        );
+    }
+
+    /**
+     * Creates a new engine that hashes new passwords with the given hasher.
+     * @param currentHasher {@link PasswordHasher} for new hashes.
+     * @param threads {@link Integer} threads that hash passwords, {@code 0} for half of the processors.
+     * @param queueSize {@link Integer} passwords that can wait for a thread.
+     * @param timeout {@link Long} milliseconds a caller waits for its password to be checked.
+     * @since 1.1
+     */
+    public PasswordHashingEngine(PasswordHasher currentHasher, int threads, int queueSize, long timeout) {
+        this.currentHasher = currentHasher;
+        this.knownHashers = List.of(currentHasher, new Pbkdf2PasswordHasher(1), new Sha3PasswordHasher());
+        this.timeout = Math.max(1, timeout);
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "spotitube-password-hashing");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+    }
+
+    /**
+     * Checks a password against a stored hash. When the password is correct but the stored hash is outdated,
+     * the password is hashed again with the current hasher.
+     * @param password {@link String} plain-text password
+     * @param encodedHash {@link String} stored hash
+     * @return {@link PasswordVerification}
+     * @throws AuthenticationUnavailableException When too many passwords are being checked at the same time.
+     * @since 1.1
+     */
+    public PasswordVerification verify(String password, String encodedHash) {
+        return execute(() -> {
+            PasswordHasher hasher = getHasher(encodedHash);
+            if (hasher == null || hasher.verify(password, encodedHash) == false) {
+                return new PasswordVerification(false, null);
+            }
+            if (needsRehash(encodedHash)) {
+                return new PasswordVerification(true, currentHasher.hash(password));
+            }
+            return new PasswordVerification(true, null);
+        });
+    }
+
+    /**
+     * Checks a password for an account that does not exist. The password is checked against a dummy hash of the
+     * current hasher, so it costs the same as checking the password of an existing account. The result is ignored.
+     * @param password {@link String} plain-text password
+     * @throws AuthenticationUnavailableException When too many passwords are being checked at the same time.
+     * @since 1.1
+     */
+    public void verifyWithoutAccount(String password) {
+        execute(() -> currentHasher.verify(password, getDummyHash()));
+    }
+
+    /**
+     * Hashes a new password with the current hasher.
+     * @param password {@link String} plain-text password
+     * @return {@link String} hash
+     * @throws AuthenticationUnavailableException When too many passwords are being hashed at the same time.
+     * @since 1.1
+     */
+    public String hash(String password) {
+        return execute(() -> currentHasher.hash(password));
+    }
+
+    /**
+     * Says whether a stored hash should be replaced by a hash of the current hasher.
+     * @param encodedHash {@link String}
+     * @return {@link Boolean}
+     * @since 1.1
+     */
+    public boolean needsRehash(String encodedHash) {
+        return currentHasher.supports(encodedHash) == false || currentHasher.needsRehash(encodedHash);
+    }
+
+    /**
+     * Getter for the hasher new passwords are hashed with.
+     * @return {@link PasswordHasher}
+     * @since 1.1
+     */
+    public PasswordHasher getCurrentHasher() {
+        return currentHasher;
+    }
+
+    /**
+     * Gets the amount of passwords that are waiting for a hashing thread.
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    public int getQueuedPasswords() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Stops the threads that hash passwords.
+     * @since 1.1
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Private Functions
+
+    /**
+     * Creates the hasher that is configured in the {@link AuthenticationProperties}.
+     * @param authenticationProperties {@link AuthenticationProperties}
+     * @return {@link PasswordHasher}
+     * @since 1.1
+     */
+    private static PasswordHasher createHasher(AuthenticationProperties authenticationProperties) {
+        if (Pbkdf2PasswordHasher.ID.equalsIgnoreCase(authenticationProperties.getPasswordHashAlgorithm()) == false) {
+            return new Sha3PasswordHasher();
+        }
+        int iterations = authenticationProperties.getPasswordHashIterations();
+        if (iterations > 0) {
+            return new Pbkdf2PasswordHasher(iterations);
+        }
+        return Pbkdf2PasswordHasher.calibrate(
+                authenticationProperties.getPasswordHashTargetTime(),
+                authenticationProperties.getPasswordHashMinimumIterations()
+        );
+    }
+
+    /**
+     * Gets the dummy hash, which is the hash of a random password that therefore matches no entered password.
+     * It is made the first time it is needed, on a hashing thread.
+     * @return {@link String} hash of the current hasher.
+     * @since 1.1
+     */
+    private String getDummyHash() {
+        String hash = dummyHash;
+        if (hash == null) {
+            byte[] password = new byte[32];
+            new SecureRandom().nextBytes(password);
+            hash = currentHasher.hash(Base64.getEncoder().encodeToString(password));
+            dummyHash = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * Finds the hasher that belongs to the format of a stored hash.
+     * @param encodedHash {@link String}
+     * @return {@link PasswordHasher} or {@code null} when the format is unknown.
+     * @since 1.1
+     */
+    private PasswordHasher getHasher(String encodedHash) {
+        for (PasswordHasher hasher : knownHashers) {
+            if (hasher.supports(encodedHash)) {
+                return hasher;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Runs a task on the hashing threads and waits for its result.
+     * @param task {@link Callable}
+     * @param <T> Result of the task.
+     * @return Result of the task.
+     * @throws AuthenticationUnavailableException When the queue is full or the task did not finish in time.
+     * @since 1.1
+     */
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new AuthenticationUnavailableException();
+        }
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new AuthenticationUnavailableException();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AuthenticationUnavailableException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+}
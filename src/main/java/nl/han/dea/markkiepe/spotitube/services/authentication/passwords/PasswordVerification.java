@@ -0,0 +1,46 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.passwords;
+
+/**
+ * Password Verification<br>
+ * Result of checking a password with the {@link PasswordHashingEngine}.
+ *
+ * @see PasswordHashingEngine
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public class PasswordVerification {
+
+    private final boolean correct;
+    private final String rehash;
+
+    /**
+     * Creates a new verification result.
+     * @param correct {@link Boolean} whether the password was correct.
+     * @param rehash {@link String} new hash of the password, {@code null} when the stored hash is up to date.
+     * @since 1.1
+     */
+    public PasswordVerification(boolean correct, String rehash) {
+        this.correct = correct;
+        this.rehash = rehash;
+    }
+
+    /**
+     * Says whether the password was correct.
+     * @return {@link Boolean}
+     * @since 1.1
+     */
+    public boolean isCorrect() {
+        return correct;
+    }
+
+    /**
+     * Gets the hash the stored hash should be replaced with. Only correct passwords are rehashed.
+     * @return {@link String} or {@code null} when the stored hash is up to date.
+     * @since 1.1
+     */
+    public String getRehash() {
+        return rehash;
+    }
+
+}
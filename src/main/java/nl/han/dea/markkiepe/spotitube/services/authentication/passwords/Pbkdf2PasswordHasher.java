@@ -0,0 +1,144 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.passwords;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * PBKDF2 Password Hasher<br>
+ * Hashes passwords with {@code PBKDF2WithHmacSHA256} and a random salt per password. The cost is the amount of
+ * iterations, which is stored in the hash so older hashes can still be verified after the cost was raised.
+ * <br><br>
+ * Format: {@code $pbkdf2-sha256$<iterations>$<salt>$<hash>}, with the salt and hash in unpadded base64.
+ *
+ * @see PasswordHashingEngine
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public class Pbkdf2PasswordHasher implements PasswordHasher {
+
+    public static final String ID = "pbkdf2-sha256";
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "$" + ID + "$";
+    private static final String SEPARATOR = "\\$";
+    private static final int SALT_LENGTH = 16;
+    private static final int HASH_LENGTH = 32;
+    private static final int CALIBRATION_ITERATIONS = 10000;
+    private static final int CALIBRATION_RUNS = 3;
+    private static final int ITERATION_ROUNDING = 1000;
+
+    private final int iterations;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    /**
+     * Creates a new hasher that hashes new passwords with the given amount of iterations.
+     * @param iterations {@link Integer} at least {@code 1}.
+     * @since 1.1
+     */
+    public Pbkdf2PasswordHasher(int iterations) {
+        this.iterations = Math.max(1, iterations);
+    }
+
+    /**
+     * Creates a new hasher whose amount of iterations is calibrated on this machine, so verifying a password takes
+     * about the given time.
+     * @param targetTime {@link Long} milliseconds a verification should take.
+     * @param minimumIterations {@link Integer} iterations that are used at least, however fast this machine is.
+     * @return {@link Pbkdf2PasswordHasher}
+     * @since 1.1
+     */
+    public static Pbkdf2PasswordHasher calibrate(long targetTime, int minimumIterations) {
+        byte[] salt = new byte[SALT_LENGTH];
+        long fastest = Long.MAX_VALUE;
+        for (int run = 0; run < CALIBRATION_RUNS; run++) {
+            // The first runs also warm up the JIT compiler, so only the fastest run counts
+            long start = System.nanoTime();
+            derive("calibration", salt, CALIBRATION_ITERATIONS, HASH_LENGTH);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        long iterations = Math.max(1, targetTime) * 1000000L * CALIBRATION_ITERATIONS / Math.max(1, fastest);
+        iterations = iterations / ITERATION_ROUNDING * ITERATION_ROUNDING;
+        return new Pbkdf2PasswordHasher((int) Math.min(Integer.MAX_VALUE, Math.max(minimumIterations, iterations)));
+    }
+
+    /**
+     * Getter for the amount of iterations new passwords are hashed with.
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    @Override
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_LENGTH];
+        secureRandom.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations
+                + "$" + encoder.encodeToString(salt)
+                + "$" + encoder.encodeToString(derive(password, salt, iterations, HASH_LENGTH));
+    }
+
+    @Override
+    public boolean verify(String password, String encodedHash) {
+        if (supports(encodedHash) == false) {
+            return false;
+        }
+        try {
+            String[] parts = encodedHash.split(SEPARATOR);
+            int hashIterations = Integer.parseInt(parts[2]);
+            byte[] salt = Base64.getDecoder().decode(parts[3]);
+            byte[] expected = Base64.getDecoder().decode(parts[4]);
+            if (hashIterations < 1 || expected.length == 0) {
+                return false;
+            }
+            return MessageDigest.isEqual(expected, derive(password, salt, hashIterations, expected.length));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            // Damaged hash
+            return false;
+        }
+    }
+
+    @Override
+    public boolean supports(String encodedHash) {
+        return encodedHash != null && encodedHash.startsWith(PREFIX);
+    }
+
+    @Override
+    public boolean needsRehash(String encodedHash) {
+        try {
+            return Integer.parseInt(encodedHash.split(SEPARATOR)[2]) < iterations;
+        } catch (RuntimeException e) {
+            return true;
+        }
+    }
+
+    // Private Functions
+
+    /**
+     * Derives a hash from a password.
+     * @param password {@link String} plain-text password
+     * @param salt Salt of the hash.
+     * @param iterations {@link Integer} cost of the hash.
+     * @param length {@link Integer} length of the hash in bytes.
+     * @return Hash
+     * @since 1.1
+     */
+    private static byte[] derive(String password, byte[] salt, int iterations, int length) {
+        PBEKeySpec keySpec = new PBEKeySpec(password.toCharArray(), salt, iterations, length * 8);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(keySpec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            keySpec.clearPassword();
+        }
+    }
+
+}
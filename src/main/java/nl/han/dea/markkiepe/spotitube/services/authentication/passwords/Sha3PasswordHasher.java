@@ -0,0 +1,59 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.passwords;
+
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * SHA3 Password Hasher<br>
+ * Verifies the unsalted {@code SHA3-512} hashes that passwords were stored as before the
+ * {@link PasswordHashingEngine} was introduced. These hashes are 128 hexadecimal characters without a prefix.
+ *
+ * @implNote
+ * These hashes are too fast to compute to be safe. They have no cost that could be raised, so a hash of this hasher
+ * never needs a rehash on its own. When another hasher is the current one, the {@link PasswordHashingEngine} rehashes
+ * them because the current hasher does not support them. The hasher can still create them for databases that are
+ * not migrated yet.
+ *
+ * @see PasswordHashingEngine
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public class Sha3PasswordHasher implements PasswordHasher {
+
+    private static final int HASH_LENGTH = 128;
+
+    @Override
+    public String hash(String password) {
+        return DigestUtils.sha3_512Hex(password);
+    }
+
+    @Override
+    public boolean verify(String password, String encodedHash) {
+        if (supports(encodedHash) == false) {
+            return false;
+        }
+        try {
+            byte[] expected = Hex.decodeHex(encodedHash);
+            byte[] actual = DigestUtils.sha3_512(password.getBytes(StandardCharsets.UTF_8));
+            return MessageDigest.isEqual(expected, actual);
+        } catch (DecoderException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean supports(String encodedHash) {
+        return encodedHash != null && encodedHash.length() == HASH_LENGTH && encodedHash.startsWith("$") == false;
+    }
+
+    @Override
+    public boolean needsRehash(String encodedHash) {
+        return false;
+    }
+
+}
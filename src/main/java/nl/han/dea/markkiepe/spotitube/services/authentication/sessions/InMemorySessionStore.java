@@ -0,0 +1,161 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.sessions;
+
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticatedUser;
+
+import javax.enterprise.inject.Vetoed;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In Memory Session Store<br>
+ * {@link SessionStore} that keeps the sessions in two concurrent hash maps: one from token to session and one
+ * from userId to the tokens of that user. Every operation only touches the entries of a single token and user,
+ * so it takes the same time no matter how many sessions are active.
+ *
+ * @implNote
+ * Tokens are looked up with {@link String#equals(Object)}, which compares them character by character.
+ * The store is created by the {@link SessionStoreProducer}.
+ *
+ * @see SessionStore
+ * @see SessionStoreProducer
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Vetoed
+public class InMemorySessionStore implements SessionStore {
+
+    private final ConcurrentHashMap<String, AuthenticatedUser> sessionsByToken = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Set<String>> tokensByUserId = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> removalListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Adds a listener that receives the token of every session that is removed from this store.
+     * @param removalListener {@link Consumer} of the removed token.
+     * @since 1.1
+     */
+    public void addRemovalListener(Consumer<String> removalListener) {
+        removalListeners.add(removalListener);
+    }
+
+    @Override
+    public boolean add(AuthenticatedUser user) {
+        boolean[] added = new boolean[1];
+        tokensByUserId.compute(user.getUserId(), (userId, tokens) -> {
+            // Both maps are changed while the entry of the user is locked
+            added[0] = sessionsByToken.putIfAbsent(user.getToken(), user) == null;
+            if (added[0] == false) {
+                return tokens;
+            }
+            Set<String> result = tokens == null ? ConcurrentHashMap.newKeySet() : tokens;
+            result.add(user.getToken());
+            return result;
+        });
+        return added[0];
+    }
+
+    @Override
+    public AuthenticatedUser get(String token) {
+        if (token == null) {
+            return null;
+        }
+        return sessionsByToken.get(token);
+    }
+
+    @Override
+    public Collection<AuthenticatedUser> getSessionsOfUser(int userId) {
+        Set<String> tokens = tokensByUserId.get(userId);
+        if (tokens == null) {
+            return Collections.emptyList();
+        }
+        List<AuthenticatedUser> result = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            AuthenticatedUser user = sessionsByToken.get(token);
+            if (user != null) {
+                result.add(user);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets all sessions in this store, for example to write them to a {@link SessionSnapshot}.
+     * @return {@link Collection} of {@link AuthenticatedUser} that reflects later changes to the store.
+     * @since 1.1
+     */
+    public Collection<AuthenticatedUser> getSessions() {
+        return Collections.unmodifiableCollection(sessionsByToken.values());
+    }
+
+    @Override
+    public AuthenticatedUser remove(String token) {
+        if (token == null) {
+            return null;
+        }
+        AuthenticatedUser user = sessionsByToken.get(token);
+        if (user == null) {
+            return null;
+        }
+        return removeSession(user, Long.MAX_VALUE) ? user : null;
+    }
+
+    @Override
+    public void touch(String token, long lastUsedAt) {
+        AuthenticatedUser user = get(token);
+        if (user != null && user.getLastUsedAt() < lastUsedAt) {
+            user.setLastUsedAt(lastUsedAt);
+        }
+    }
+
+    @Override
+    public boolean removeIfNotUsedSince(String token, long lastUsedAt) {
+        AuthenticatedUser user = get(token);
+        if (user == null) {
+            return false;
+        }
+        return removeSession(user, lastUsedAt);
+    }
+
+    @Override
+    public int size() {
+        return sessionsByToken.size();
+    }
+
+    // Private Functions
+
+    /**
+     * Removes a session from both maps while the entry of its user is locked, when it was not used after the
+     * given moment. The removal listeners are told about the removed token.
+     * @param user {@link AuthenticatedUser}
+     * @param lastUsedAt {@link Long} epoch milliseconds after which the session may not have been used.
+     * @return {@link Boolean} whether the session was removed.
+     * @since 1.1
+     */
+    private boolean removeSession(AuthenticatedUser user, long lastUsedAt) {
+        String token = user.getToken();
+        boolean[] removed = new boolean[1];
+        tokensByUserId.computeIfPresent(user.getUserId(), (userId, tokens) -> {
+            if (user.getLastUsedAt() > lastUsedAt) {
+                return tokens;
+            }
+            removed[0] = sessionsByToken.remove(token, user);
+            if (removed[0]) {
+                tokens.remove(token);
+            }
+            return tokens.isEmpty() ? null : tokens;
+        });
+        if (removed[0]) {
+            for (Consumer<String> removalListener : removalListeners) {
+                removalListener.accept(token);
+            }
+        }
+        return removed[0];
+    }
+
+}
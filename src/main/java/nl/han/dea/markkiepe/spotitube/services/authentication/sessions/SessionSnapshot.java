@@ -0,0 +1,235 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.sessions;
+
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticatedUser;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Session Snapshot<br>
+ * Writes the sessions of an {@link InMemorySessionStore} to a compact binary file and reads them back, so users
+ * stay logged in when the application restarts instead of all logging in again at the same time.
+ * <br><br>
+ * The file is written through a memory mapped buffer and has the following layout:
+ * <ul>
+ *     <li>header: magic number, format version and amount of sessions.</li>
+ *     <li>per session: userId, createdAt, lastUsedAt, the length and UTF-8 bytes of the token, and the length
+ *     and UTF-8 bytes of the username ({@code -1} when there is none).</li>
+ *     <li>a CRC32 checksum of everything before it.</li>
+ * </ul>
+ *
+ * @implNote
+ * A snapshot is written to a temporary file first, which then replaces the previous snapshot in one move, so a
+ * crash while writing never leaves a half written snapshot behind. Because the file contains valid tokens it is
+ * only readable by its owner on file systems that support this.
+ *
+ * @see SessionSweeper
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public class SessionSnapshot {
+
+    private static final int MAGIC = 0x53505354;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES * 3;
+    private static final int SESSION_SIZE = Integer.BYTES + Long.BYTES * 2 + Short.BYTES * 2;
+    private static final int CHECKSUM_SIZE = Long.BYTES;
+
+    private final Path path;
+
+    /**
+     * Creates a snapshot that is written to and read from the given file.
+     * @param path {@link Path} of the snapshot file.
+     * @since 1.1
+     */
+    public SessionSnapshot(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Getter for the file of the snapshot.
+     * @return {@link Path}
+     * @since 1.1
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Writes the given sessions to the snapshot file, replacing the previous snapshot.
+     * @param sessions {@link Collection} of {@link AuthenticatedUser}
+     * @throws IOException When the snapshot could not be written.
+     * @since 1.1
+     */
+    public void write(Collection<AuthenticatedUser> sessions) throws IOException {
+        // The sessions can change while they are written
+        sessions = new ArrayList<>(sessions);
+        List<byte[]> tokens = new ArrayList<>(sessions.size());
+        List<byte[]> usernames = new ArrayList<>(sessions.size());
+        long size = HEADER_SIZE + CHECKSUM_SIZE;
+        for (AuthenticatedUser session : sessions) {
+            byte[] token = toBytes(session.getToken());
+            byte[] username = toBytes(session.getUser());
+            tokens.add(token);
+            usernames.add(username);
+            size += SESSION_SIZE + token.length + (username == null ? 0 : username.length);
+        }
+        //
+        Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.deleteIfExists(temporaryPath);
+        createOwnerOnlyFile(temporaryPath);
+        try (FileChannel channel = FileChannel.open(
+                temporaryPath,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING
+        )) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(tokens.size());
+            int index = 0;
+            for (AuthenticatedUser session : sessions) {
+                buffer.putInt(session.getUserId())
+                        .putLong(session.getCreatedAt())
+                        .putLong(session.getLastUsedAt());
+                putBytes(buffer, tokens.get(index));
+                putBytes(buffer, usernames.get(index));
+                index++;
+            }
+            buffer.putLong(checksum(buffer, buffer.position()));
+            buffer.force();
+        }
+        Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the sessions from the snapshot file.
+     * @return {@link List} of {@link AuthenticatedUser}, empty when there is no snapshot.
+     * @throws IOException When the snapshot could not be read or is damaged.
+     * @since 1.1
+     */
+    public List<AuthenticatedUser> read() throws IOException {
+        List<AuthenticatedUser> result = new ArrayList<>();
+        if (Files.exists(path) == false) {
+            return result;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + CHECKSUM_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Session snapshot has an invalid size.");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int checksumPosition = (int) size - CHECKSUM_SIZE;
+            if (buffer.getLong(checksumPosition) != checksum(buffer, checksumPosition)) {
+                throw new IOException("Session snapshot is damaged.");
+            }
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Session snapshot has an unknown format.");
+            }
+            int amount = buffer.getInt();
+            for (int index = 0; index < amount; index++) {
+                int userId = buffer.getInt();
+                long createdAt = buffer.getLong();
+                long lastUsedAt = buffer.getLong();
+                String token = getString(buffer);
+                String username = getString(buffer);
+                AuthenticatedUser user = new AuthenticatedUser(userId, username, token, createdAt);
+                user.setLastUsedAt(lastUsedAt);
+                result.add(user);
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Session snapshot could not be read.", e);
+        }
+        return result;
+    }
+
+    // Private Functions
+
+    /**
+     * Creates an empty file that only its owner can read and write, when the file system supports this.
+     * @param file {@link Path}
+     * @throws IOException When the file could not be created.
+     * @since 1.1
+     */
+    private void createOwnerOnlyFile(Path file) throws IOException {
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            Files.createFile(file);
+        }
+    }
+
+    /**
+     * Calculates the CRC32 checksum of the first bytes of a buffer.
+     * @param buffer {@link MappedByteBuffer}
+     * @param length {@link Integer} amount of bytes
+     * @return {@link Long}
+     * @since 1.1
+     */
+    private long checksum(MappedByteBuffer buffer, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(0).limit(length));
+        return crc.getValue();
+    }
+
+    /**
+     * Converts a text to its UTF-8 bytes.
+     * @param value {@link String} or {@code null}
+     * @return {@link Byte}[] or {@code null}
+     * @since 1.1
+     */
+    private byte[] toBytes(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Text is too long for a session snapshot.");
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes the length and the bytes of a text, or {@code -1} when there is no text.
+     * @param buffer {@link MappedByteBuffer}
+     * @param bytes {@link Byte}[] or {@code null}
+     * @since 1.1
+     */
+    private void putBytes(MappedByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Reads a text that was written with {@link SessionSnapshot#putBytes(MappedByteBuffer, byte[])}.
+     * @param buffer {@link MappedByteBuffer}
+     * @return {@link String} or {@code null}
+     * @since 1.1
+     */
+    private String getString(MappedByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
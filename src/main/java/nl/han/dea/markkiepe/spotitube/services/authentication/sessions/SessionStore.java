@@ -0,0 +1,82 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.sessions;
+
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticatedUser;
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticationService;
+
+import java.util.Collection;
+
+/**
+ * Session Store<br>
+ * Keeps the sessions of all {@link AuthenticatedUser}s, indexed by their token and by their userId.
+ *
+ * @implSpec
+ * Implementations have to be thread safe, because users log in and make requests at the same time.
+ * Looking up, adding and removing a session should not depend on the amount of active sessions.
+ * Tokens are compared exactly, so a token only matches the session it was created for.
+ *
+ * @see AuthenticationService
+ * @see InMemorySessionStore
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public interface SessionStore {
+
+    /**
+     * Adds a new session, unless its token is already in use by another session.
+     * @param user {@link AuthenticatedUser} with the token of the session.
+     * @return {@link Boolean} false when the token is already in use, in which case nothing is added.
+     * @since 1.1
+     */
+    boolean add(AuthenticatedUser user);
+
+    /**
+     * Gets the session that belongs to a token.
+     * @param token {@link String} authentication token
+     * @return {@link AuthenticatedUser} or {@code null} when the token does not belong to a session.
+     * @since 1.1
+     */
+    AuthenticatedUser get(String token);
+
+    /**
+     * Gets all sessions of a user.
+     * @param userId {@link Integer} UserId
+     * @return {@link Collection} of {@link AuthenticatedUser}, empty when the user has no sessions.
+     * @since 1.1
+     */
+    Collection<AuthenticatedUser> getSessionsOfUser(int userId);
+
+    /**
+     * Removes the session that belongs to a token.
+     * @param token {@link String} authentication token
+     * @return {@link AuthenticatedUser} that was removed or {@code null} when the token did not belong to a session.
+     * @since 1.1
+     */
+    AuthenticatedUser remove(String token);
+
+    /**
+     * Records that the session of a token was used at the given moment, which renews its idle timeout.
+     * @param token {@link String} authentication token
+     * @param lastUsedAt {@link Long} epoch milliseconds
+     * @since 1.1
+     */
+    void touch(String token, long lastUsedAt);
+
+    /**
+     * Removes the session of a token, but only when it has not been used after the given moment.
+     * This prevents removing an idle session that was renewed in the meantime, for example on another node.
+     * @param token {@link String} authentication token
+     * @param lastUsedAt {@link Long} epoch milliseconds the session was last used according to the caller.
+     * @return {@link Boolean} false when the session does not exist or was used after the given moment.
+     * @since 1.1
+     */
+    boolean removeIfNotUsedSince(String token, long lastUsedAt);
+
+    /**
+     * Gets the amount of active sessions.
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    int size();
+
+}
@@ -0,0 +1,71 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.sessions;
+
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticationProperties;
+import nl.han.dea.markkiepe.spotitube.services.authentication.sessions.shared.SharedSessionStore;
+import nl.han.dea.markkiepe.spotitube.services.authentication.sessions.shared.SocketSessionStoreBackend;
+
+import javax.enterprise.inject.Disposes;
+import javax.enterprise.inject.Produces;
+import javax.inject.Singleton;
+
+/**
+ * Session Store Producer<br>
+ * Creates the {@link SessionStore} that is injected in the application, based on the
+ * {@code authentication.properties} file:
+ * <ul>
+ *     <li>{@code sessionStore} {@code memory} to keep the sessions on this node, {@code shared} to keep them in
+ *     a session store that is shared by all nodes.</li>
+ *     <li>{@code sessionStoreHost} and {@code sessionStorePort} of the shared session store.</li>
+ *     <li>{@code sessionStoreTimeout} milliseconds to wait for the shared session store.</li>
+ *     <li>{@code sessionStoreSecret} secret the shared session store requires before it accepts any request.</li>
+ *     <li>{@code sessionNearCacheSize} sessions of the shared session store that are kept on this node.</li>
+ * </ul>
+ *
+ * @see InMemorySessionStore
+ * @see SharedSessionStore
+ * @see AuthenticationProperties
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public class SessionStoreProducer {
+
+    /**
+     * Creates the session store that is configured in the {@link AuthenticationProperties}.
+     * @param authenticationProperties {@link AuthenticationProperties}
+     * @return {@link SessionStore}
+     * @since 1.1
+     */
+    @Produces
+    @Singleton
+    public SessionStore produceSessionStore(AuthenticationProperties authenticationProperties) {
+        if (authenticationProperties.isSharedSessionStore() == false) {
+            return new InMemorySessionStore();
+        }
+        return new SharedSessionStore(
+                new SocketSessionStoreBackend(
+                        authenticationProperties.getSessionStoreHost(),
+                        authenticationProperties.getSessionStorePort(),
+                        authenticationProperties.getSessionStoreTimeout(),
+                        authenticationProperties.getSessionStoreSecret()
+                ),
+                authenticationProperties.getSessionNearCacheSize()
+        );
+    }
+
+    /**
+     * Closes the connections of the session store when the application stops.
+     * @param sessionStore {@link SessionStore}
+     * @since 1.1
+     */
+    public void closeSessionStore(@Disposes SessionStore sessionStore) {
+        if (sessionStore instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) sessionStore).close();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,273 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.sessions;
+
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticatedUser;
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticationProperties;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Session Sweeper<br>
+ * Removes sessions from the {@link SessionStore} once they expired, so the store does not keep growing for as long
+ * as the application runs.
+ * <br><br>
+ * A session expires when its time to live has passed since the user logged in, or when it has not been used for
+ * longer than the idle timeout. Using a session renews its idle timeout. Every session is put on a
+ * {@link TimingWheel} once. When its deadline comes up and the session was used in the meantime, it is put back on
+ * the wheel with its new deadline instead of being removed.
+ * <br><br>
+ * The sweeper is configured in the {@code authentication.properties} file:
+ * <ul>
+ *     <li>{@code sessionTimeToLive} milliseconds a session stays valid after the user logged in.</li>
+ *     <li>{@code sessionIdleTimeout} milliseconds a session stays valid after it was last used.</li>
+ *     <li>{@code sessionSweepInterval} milliseconds between two sweeps.</li>
+ *     <li>{@code maximumSessionsPerUser} sessions a user can have before the oldest is removed, {@code 0} for no maximum.</li>
+ *     <li>{@code sessionSnapshotFile} file the sessions are written to, empty for no snapshot.</li>
+ *     <li>{@code sessionSnapshotInterval} milliseconds between two snapshots.</li>
+ * </ul>
+ * When the sessions are kept in an {@link InMemorySessionStore} and a snapshot file is configured, the sessions are
+ * written to a {@link SessionSnapshot} periodically and when the sweeper stops. The sessions that did not expire
+ * yet are restored when the sweeper starts, so a restart does not log out every user.
+ *
+ * @see TimingWheel
+ * @see SessionStore
+ * @see SessionSnapshot
+ * @see AuthenticationProperties
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Singleton
+public class SessionSweeper {
+
+    private static final int WHEEL_SIZE = 512;
+
+    private final SessionStore sessionStore;
+    private final long timeToLive;
+    private final long idleTimeout;
+    private final long sweepInterval;
+    private final int maximumSessionsPerUser;
+    private final TimingWheel<AuthenticatedUser> timingWheel;
+    private final ScheduledExecutorService sweeper;
+    private final SessionSnapshot sessionSnapshot;
+
+    /**
+     * Creates a new session sweeper and starts sweeping the given store in the background.
+     * @param sessionStore {@link SessionStore} the expired sessions are removed from.
+     * @param authenticationProperties {@link AuthenticationProperties}
+     * @since 1.1
+     */
+    @Inject
+    public SessionSweeper(SessionStore sessionStore, AuthenticationProperties authenticationProperties) {
+        this.sessionStore = sessionStore;
+        this.timeToLive = Math.max(1, authenticationProperties.getSessionTimeToLive());
+        this.idleTimeout = Math.max(1, authenticationProperties.getSessionIdleTimeout());
+        this.sweepInterval = Math.max(1, authenticationProperties.getSessionSweepInterval());
+        this.maximumSessionsPerUser = Math.max(0, authenticationProperties.getMaximumSessionsPerUser());
+        this.timingWheel = new TimingWheel<>(sweepInterval, WHEEL_SIZE, this::expire, System.currentTimeMillis());
+        //
+        String snapshotFile = authenticationProperties.getSessionSnapshotFile();
+        if (snapshotFile != null && sessionStore instanceof InMemorySessionStore) {
+            this.sessionSnapshot = new SessionSnapshot(Path.of(snapshotFile));
+            restoreSnapshot(System.currentTimeMillis());
+        } else {
+            this.sessionSnapshot = null;
+        }
+        //
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "spotitube-session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(
+                () -> sweep(System.currentTimeMillis()),
+                sweepInterval,
+                sweepInterval,
+                TimeUnit.MILLISECONDS
+        );
+        if (sessionSnapshot != null) {
+            long snapshotInterval = Math.max(sweepInterval, authenticationProperties.getSessionSnapshotInterval());
+            sweeper.scheduleWithFixedDelay(this::writeSnapshot, snapshotInterval, snapshotInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Starts tracking a session that was just added to the {@link SessionStore}.
+     * When the user now has more sessions than allowed, their oldest sessions are removed.
+     * @param user {@link AuthenticatedUser}
+     * @since 1.1
+     */
+    public void track(AuthenticatedUser user) {
+        timingWheel.schedule(user, getExpiresAt(user));
+        if (maximumSessionsPerUser > 0) {
+            removeOldestSessions(user);
+        }
+    }
+
+    /**
+     * Renews the idle timeout of a session that is used at the given moment.
+     * A session that already expired is removed from the {@link SessionStore} instead.
+     * @param user {@link AuthenticatedUser}
+     * @param now {@link Long} current time in milliseconds.
+     * @return {@link Boolean} false when the session expired.
+     * @since 1.1
+     */
+    public boolean renew(AuthenticatedUser user, long now) {
+        if (removeIfExpired(user, now)) {
+            return false;
+        }
+        if (now - user.getLastUsedAt() >= sweepInterval) {
+            // Renewing more often would not change when the session is swept
+            user.setLastUsedAt(now);
+            sessionStore.touch(user.getToken(), now);
+        }
+        return true;
+    }
+
+    /**
+     * Renews the idle timeout of a session that is used right now.
+     * @see SessionSweeper#renew(AuthenticatedUser, long)
+     * @param user {@link AuthenticatedUser}
+     * @return {@link Boolean} false when the session expired.
+     * @since 1.1
+     */
+    public boolean renew(AuthenticatedUser user) {
+        return renew(user, System.currentTimeMillis());
+    }
+
+    /**
+     * Removes all sessions whose deadline has passed at the given moment.
+     * @param now {@link Long} current time in milliseconds.
+     * @since 1.1
+     */
+    public void sweep(long now) {
+        try {
+            timingWheel.advance(now);
+        } catch (RuntimeException e) {
+            // Keeps the sweeper running
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Writes the sessions to the {@link SessionSnapshot}, when a snapshot is configured.
+     * @since 1.1
+     */
+    public void writeSnapshot() {
+        if (sessionSnapshot == null) {
+            return;
+        }
+        try {
+            sessionSnapshot.write(((InMemorySessionStore) sessionStore).getSessions());
+        } catch (IOException | RuntimeException e) {
+            // Keeps the sweeper running, the next snapshot is tried again
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Stops the background sweeper and writes a last snapshot of the sessions.
+     * @since 1.1
+     */
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+        writeSnapshot();
+    }
+
+    // Private Functions
+
+    /**
+     * Gets the moment a session expires when it is not used anymore.
+     * @param user {@link AuthenticatedUser}
+     * @return {@link Long} epoch milliseconds
+     * @since 1.1
+     */
+    private long getExpiresAt(AuthenticatedUser user) {
+        return Math.min(user.getCreatedAt() + timeToLive, user.getLastUsedAt() + idleTimeout);
+    }
+
+    /**
+     * Handles a session whose deadline came up on the {@link TimingWheel}. Sessions that were renewed in the meantime
+     * are scheduled again, sessions that were already removed are ignored.
+     * @param user {@link AuthenticatedUser}
+     * @param now {@link Long} current time in milliseconds.
+     * @since 1.1
+     */
+    private void expire(AuthenticatedUser user, long now) {
+        AuthenticatedUser current = sessionStore.get(user.getToken());
+        if (current == null || current.getCreatedAt() != user.getCreatedAt()) {
+            return;
+        }
+        if (removeIfExpired(current, now) == false) {
+            // Waits at least one sweep, in case the store had an outdated copy of a renewed session
+            timingWheel.schedule(current, Math.max(getExpiresAt(current), now + sweepInterval));
+        }
+    }
+
+    /**
+     * Removes a session from the {@link SessionStore} when it expired. A session that is only expired because of
+     * its idle timeout is kept when the store knows it was used more recently.
+     * @param user {@link AuthenticatedUser}
+     * @param now {@link Long} current time in milliseconds.
+     * @return {@link Boolean} true when the session is not in the store anymore.
+     * @since 1.1
+     */
+    private boolean removeIfExpired(AuthenticatedUser user, long now) {
+        if (user.getCreatedAt() + timeToLive <= now) {
+            sessionStore.remove(user.getToken());
+            return true;
+        }
+        if (user.getLastUsedAt() + idleTimeout <= now) {
+            return sessionStore.removeIfNotUsedSince(user.getToken(), user.getLastUsedAt())
+                    || sessionStore.get(user.getToken()) == null;
+        }
+        return false;
+    }
+
+    /**
+     * Adds the sessions of the {@link SessionSnapshot} that did not expire yet to the {@link SessionStore}.
+     * A snapshot that cannot be read is ignored, in which case users have to log in again.
+     * @param now {@link Long} current time in milliseconds.
+     * @since 1.1
+     */
+    private void restoreSnapshot(long now) {
+        try {
+            for (AuthenticatedUser user : sessionSnapshot.read()) {
+                if (getExpiresAt(user) > now && sessionStore.add(user)) {
+                    timingWheel.schedule(user, getExpiresAt(user));
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Removes the oldest sessions of a user until the user has no more than the maximum amount of sessions.
+     * The session that was just added is always kept.
+     * @param newestSession {@link AuthenticatedUser} session that was just added.
+     * @since 1.1
+     */
+    private void removeOldestSessions(AuthenticatedUser newestSession) {
+        List<AuthenticatedUser> sessions = new ArrayList<>(sessionStore.getSessionsOfUser(newestSession.getUserId()));
+        if (sessions.size() <= maximumSessionsPerUser) {
+            return;
+        }
+        sessions.removeIf(session -> session.getToken().equals(newestSession.getToken()));
+        sessions.sort(Comparator.comparingLong(AuthenticatedUser::getCreatedAt));
+        for (int index = 0; index < sessions.size() - (maximumSessionsPerUser - 1); index++) {
+            sessionStore.remove(sessions.get(index).getToken());
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.sessions;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Timing Wheel<br>
+ * Hashed timing wheel that calls a handler for every key whose deadline has passed.
+ * <br><br>
+ * The wheel consists of a fixed amount of buckets that each cover one tick. A key is added to the bucket of the
+ * tick its deadline falls in, so scheduling a key is constant time. Every time the wheel is advanced only the
+ * buckets of the ticks that passed are visited. Keys with a deadline more than one revolution away stay in their
+ * bucket until the revolution they are due in.
+ *
+ * @implNote
+ * Keys can be scheduled from any thread. The wheel is advanced by a single thread at a time, which also calls the
+ * handler. There is no way to cancel a key: the handler has to check whether the key is still relevant and can
+ * schedule it again with a later deadline.
+ *
+ * @see SessionSweeper
+ *
+ * @param <K> Type of the scheduled keys
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public class TimingWheel<K> {
+
+    private final long tickDuration;
+    private final int mask;
+    private final ConcurrentLinkedQueue<Entry<K>>[] buckets;
+    private final ObjLongConsumer<K> expiryHandler;
+    private volatile long lastProcessedTick;
+
+    /**
+     * Creates a new timing wheel.
+     * @param tickDuration {@link Long} amount of milliseconds covered by one bucket, at least one.
+     * @param wheelSize {@link Integer} amount of buckets, rounded up to a power of two.
+     * @param expiryHandler Handler that receives every expired key and the current time in milliseconds.
+     * @param now {@link Long} current time in milliseconds.
+     * @since 1.1
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickDuration, int wheelSize, ObjLongConsumer<K> expiryHandler, long now) {
+        this.tickDuration = Math.max(1, tickDuration);
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.mask = size - 1;
+        this.buckets = new ConcurrentLinkedQueue[size];
+        for (int index = 0; index < size; index++) {
+            buckets[index] = new ConcurrentLinkedQueue<>();
+        }
+        this.expiryHandler = expiryHandler;
+        this.lastProcessedTick = now / this.tickDuration;
+    }
+
+    /**
+     * Schedules a key to be handed to the handler once its deadline has passed.
+     * A deadline that has already passed is handled the next time the wheel is advanced.
+     * @param key Key that expires
+     * @param deadline {@link Long} epoch milliseconds at which the key expires.
+     * @since 1.1
+     */
+    public void schedule(K key, long deadline) {
+        long tick = Math.max((deadline + tickDuration - 1) / tickDuration, lastProcessedTick + 1);
+        buckets[(int) (tick & mask)].add(new Entry<>(key, deadline));
+    }
+
+    /**
+     * Advances the wheel to the given time and calls the handler for every key whose deadline has passed.
+     * When the wheel was not advanced for more than a revolution, every bucket is visited once.
+     * @param now {@link Long} current time in milliseconds.
+     * @since 1.1
+     */
+    public void advance(long now) {
+        List<K> expiredKeys = new ArrayList<>();
+        synchronized (this) {
+            long currentTick = now / tickDuration;
+            long firstTick = Math.max(lastProcessedTick + 1, currentTick - mask);
+            for (long tick = firstTick; tick <= currentTick; tick++) {
+                Iterator<Entry<K>> entries = buckets[(int) (tick & mask)].iterator();
+                while (entries.hasNext()) {
+                    Entry<K> entry = entries.next();
+                    if (entry.deadline <= now) {
+                        entries.remove();
+                        expiredKeys.add(entry.key);
+                    }
+                }
+                lastProcessedTick = tick;
+            }
+        }
+        // Handler is called outside of the lock, so it can schedule the key again
+        for (K key : expiredKeys) {
+            expiryHandler.accept(key, now);
+        }
+    }
+
+    /**
+     * Gets the amount of keys that are waiting for their deadline.
+     * @implNote This walks every bucket and is meant for monitoring and tests.
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    public int size() {
+        int size = 0;
+        for (ConcurrentLinkedQueue<Entry<K>> bucket : buckets) {
+            size += bucket.size();
+        }
+        return size;
+    }
+
+    // Private Classes
+
+    /**
+     * Scheduled key with its deadline.
+     * @param <K> Type of the key
+     * @since 1.1
+     */
+    private static class Entry<K> {
+
+        private final K key;
+        private final long deadline;
+
+        private Entry(K key, long deadline) {
+            this.key = key;
+            this.deadline = deadline;
+        }
+
+    }
+
+}
@@ -0,0 +1,30 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.sessions.shared;
+
+/**
+ * Invalidation Listener<br>
+ * Receives the change notifications of a {@link SessionStoreBackend}, so copies of sessions that are kept
+ * locally can be dropped when the shared session changes.
+ *
+ * @see SessionStoreBackend
+ * @see SharedSessionStore
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public interface InvalidationListener {
+
+    /**
+     * Called when the session of a token was removed or changed in the backend.
+     * @param token {@link String} authentication token
+     * @since 1.1
+     */
+    void invalidate(String token);
+
+    /**
+     * Called when notifications may have been missed, for example because the connection with the backend was lost.
+     * All local copies have to be dropped.
+     * @since 1.1
+     */
+    void invalidateAll();
+
+}
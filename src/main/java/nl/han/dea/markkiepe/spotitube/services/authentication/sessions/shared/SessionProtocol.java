@@ -0,0 +1,134 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.sessions.shared;
+
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticatedUser;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Session Protocol<br>
+ * Line based text protocol that is spoken between the {@link SocketSessionStoreBackend} and the
+ * {@link SocketSessionStoreServer}. Every request and every response is a single line of fields that are separated
+ * by a space. Text fields are URL encoded, so they never contain a space or a line break.
+ * <br><br>
+ * Every connection starts with {@code AUTH <secret>}, answered with {@code OK}. When the secret is wrong the
+ * server answers with {@code ERROR} and closes the connection, so no other request is accepted without it.
+ * <br><br>
+ * Requests:
+ * <ul>
+ *     <li>{@code ADD <session>} answered with {@code TRUE} or {@code FALSE}.</li>
+ *     <li>{@code GET <token>} answered with {@code SESSION <session>} or {@code NONE}.</li>
+ *     <li>{@code USER <userId>} answered with {@code SESSIONS <amount> <session>...}.</li>
+ *     <li>{@code REMOVE <token>} answered with {@code SESSION <session>} or {@code NONE}.</li>
+ *     <li>{@code TOUCH <token> <lastUsedAt>} answered with {@code OK}.</li>
+ *     <li>{@code REMOVEIFNOTUSED <token> <lastUsedAt>} answered with {@code TRUE} or {@code FALSE}.</li>
+ *     <li>{@code SIZE} answered with {@code SIZE <amount>}.</li>
+ *     <li>{@code SUBSCRIBE} answered with {@code OK}, after which the server pushes an {@code INVALIDATE <token>}
+ *     line for every session that is removed.</li>
+ * </ul>
+ * A session is written as {@code <userId> <createdAt> <lastUsedAt> <token> <user>}.
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+final class SessionProtocol {
+
+    static final String AUTH = "AUTH";
+    static final String ADD = "ADD";
+    static final String GET = "GET";
+    static final String USER = "USER";
+    static final String REMOVE = "REMOVE";
+    static final String TOUCH = "TOUCH";
+    static final String REMOVE_IF_NOT_USED = "REMOVEIFNOTUSED";
+    static final String SIZE = "SIZE";
+    static final String SUBSCRIBE = "SUBSCRIBE";
+    static final String INVALIDATE = "INVALIDATE";
+
+    static final String OK = "OK";
+    static final String TRUE = "TRUE";
+    static final String FALSE = "FALSE";
+    static final String NONE = "NONE";
+    static final String SESSION = "SESSION";
+    static final String SESSIONS = "SESSIONS";
+    static final String ERROR = "ERROR";
+
+    static final String SEPARATOR = " ";
+    static final int SESSION_FIELDS = 5;
+
+    private SessionProtocol() {
+    }
+
+    /**
+     * Writes a session as its fields.
+     * @param user {@link AuthenticatedUser}
+     * @return {@link String}
+     * @since 1.1
+     */
+    static String encodeSession(AuthenticatedUser user) {
+        return user.getUserId()
+                + SEPARATOR + user.getCreatedAt()
+                + SEPARATOR + user.getLastUsedAt()
+                + SEPARATOR + encode(user.getToken())
+                + SEPARATOR + encode(user.getUser());
+    }
+
+    /**
+     * Reads a session from the fields of a line, starting at the given field.
+     * @param fields {@link String}[] fields of the line.
+     * @param offset {@link Integer} index of the first field of the session.
+     * @return {@link AuthenticatedUser}
+     * @throws IllegalArgumentException When the fields do not contain a session.
+     * @since 1.1
+     */
+    static AuthenticatedUser decodeSession(String[] fields, int offset) {
+        if (fields.length < offset + SESSION_FIELDS) {
+            throw new IllegalArgumentException("Incomplete session.");
+        }
+        AuthenticatedUser user = new AuthenticatedUser(
+                Integer.parseInt(fields[offset]),
+                decode(fields[offset + 4]),
+                decode(fields[offset + 3]),
+                Long.parseLong(fields[offset + 1])
+        );
+        user.setLastUsedAt(Long.parseLong(fields[offset + 2]));
+        return user;
+    }
+
+    /**
+     * Splits a line into its fields. Empty fields are kept.
+     * @param line {@link String}
+     * @return {@link String}[]
+     * @since 1.1
+     */
+    static String[] split(String line) {
+        return line.split(SEPARATOR, -1);
+    }
+
+    /**
+     * URL encodes a text field. {@code null} is written as an empty field.
+     * @param value {@link String}
+     * @return {@link String}
+     * @since 1.1
+     */
+    static String encode(String value) {
+        if (value == null) {
+            return "";
+        }
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * URL decodes a text field. An empty field is read as {@code null}.
+     * @param value {@link String}
+     * @return {@link String}
+     * @since 1.1
+     */
+    static String decode(String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,37 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.sessions.shared;
+
+import nl.han.dea.markkiepe.spotitube.services.authentication.sessions.SessionStore;
+import nl.han.dea.markkiepe.spotitube.services.exceptions.SessionStoreUnavailableException;
+
+/**
+ * Session Store Backend<br>
+ * Service provider interface for an external session store that is shared by all nodes of the application.
+ * Every call may cross the network, which is why the {@link SharedSessionStore} keeps a near-cache in front of it.
+ *
+ * @implSpec
+ * Implementations notify the {@link InvalidationListener} whenever a session is removed by any node,
+ * and throw a {@link SessionStoreUnavailableException} when the backend cannot be reached.
+ *
+ * @see SharedSessionStore
+ * @see SocketSessionStoreBackend
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public interface SessionStoreBackend extends SessionStore, AutoCloseable {
+
+    /**
+     * Sets the listener that receives the change notifications of the backend.
+     * @param invalidationListener {@link InvalidationListener}
+     * @since 1.1
+     */
+    void setInvalidationListener(InvalidationListener invalidationListener);
+
+    /**
+     * Closes the connections with the backend.
+     * @since 1.1
+     */
+    @Override
+    void close();
+
+}
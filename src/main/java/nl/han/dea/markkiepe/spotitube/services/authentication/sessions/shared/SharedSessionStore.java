@@ -0,0 +1,180 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.sessions.shared;
+
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticatedUser;
+import nl.han.dea.markkiepe.spotitube.services.authentication.sessions.SessionStore;
+import nl.han.dea.markkiepe.spotitube.services.authentication.sessions.SessionStoreProducer;
+
+import javax.enterprise.inject.Vetoed;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared Session Store<br>
+ * {@link SessionStore} for deployments with more than one node. The sessions are kept in a
+ * {@link SessionStoreBackend} that all nodes share, so a user that logged in on one node is known on every node.
+ * <br><br>
+ * Because every request checks a token, sessions that were found are kept in a small near-cache on this node.
+ * A token that is checked again is answered from the near-cache without going over the network. The backend tells
+ * this store when a session is removed on any node, after which it is dropped from the near-cache.
+ *
+ * @implNote
+ * A session is only put in the near-cache when no invalidation arrived while it was fetched from the backend,
+ * so an invalidation can never be overwritten by an older copy. When the near-cache is full an arbitrary entry
+ * is dropped. The store is created by the {@link SessionStoreProducer}.
+ *
+ * @see SessionStoreBackend
+ * @see SessionStoreProducer
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Vetoed
+public class SharedSessionStore implements SessionStore, InvalidationListener, AutoCloseable {
+
+    private final SessionStoreBackend backend;
+    private final int nearCacheSize;
+    private final ConcurrentHashMap<String, AuthenticatedUser> nearCache = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Creates a new shared session store and subscribes it to the invalidations of the backend.
+     * @param backend {@link SessionStoreBackend}
+     * @param nearCacheSize {@link Integer} maximum amount of sessions in the near-cache, {@code 0} for no near-cache.
+     * @since 1.1
+     */
+    public SharedSessionStore(SessionStoreBackend backend, int nearCacheSize) {
+        this.backend = backend;
+        this.nearCacheSize = Math.max(0, nearCacheSize);
+        backend.setInvalidationListener(this);
+    }
+
+    @Override
+    public boolean add(AuthenticatedUser user) {
+        if (backend.add(user) == false) {
+            return false;
+        }
+        cache(user.getToken(), user, invalidations.get());
+        return true;
+    }
+
+    @Override
+    public AuthenticatedUser get(String token) {
+        if (token == null) {
+            return null;
+        }
+        AuthenticatedUser user = nearCache.get(token);
+        if (user != null) {
+            return user;
+        }
+        long version = invalidations.get();
+        user = backend.get(token);
+        if (user != null) {
+            cache(token, user, version);
+        }
+        return user;
+    }
+
+    @Override
+    public Collection<AuthenticatedUser> getSessionsOfUser(int userId) {
+        return backend.getSessionsOfUser(userId);
+    }
+
+    @Override
+    public AuthenticatedUser remove(String token) {
+        if (token == null) {
+            return null;
+        }
+        AuthenticatedUser user = backend.remove(token);
+        nearCache.remove(token);
+        return user;
+    }
+
+    @Override
+    public void touch(String token, long lastUsedAt) {
+        if (token == null) {
+            return;
+        }
+        backend.touch(token, lastUsedAt);
+        AuthenticatedUser user = nearCache.get(token);
+        if (user != null && user.getLastUsedAt() < lastUsedAt) {
+            user.setLastUsedAt(lastUsedAt);
+        }
+    }
+
+    @Override
+    public boolean removeIfNotUsedSince(String token, long lastUsedAt) {
+        if (token == null) {
+            return false;
+        }
+        boolean removed = backend.removeIfNotUsedSince(token, lastUsedAt);
+        // When the backend refused, the copy in the near-cache is outdated
+        nearCache.remove(token);
+        return removed;
+    }
+
+    @Override
+    public int size() {
+        return backend.size();
+    }
+
+    @Override
+    public void invalidate(String token) {
+        invalidations.incrementAndGet();
+        nearCache.remove(token);
+    }
+
+    @Override
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        nearCache.clear();
+    }
+
+    /**
+     * Gets the amount of sessions that are currently in the near-cache.
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    public int getNearCacheSize() {
+        return nearCache.size();
+    }
+
+    /**
+     * Closes the backend and clears the near-cache.
+     * @since 1.1
+     */
+    @Override
+    public void close() {
+        backend.close();
+        nearCache.clear();
+    }
+
+    // Private Functions
+
+    /**
+     * Puts a session in the near-cache, unless an invalidation arrived since the given version was read.
+     * @param token {@link String} authentication token
+     * @param user {@link AuthenticatedUser}
+     * @param version {@link Long} amount of invalidations before the session was fetched.
+     * @since 1.1
+     */
+    private void cache(String token, AuthenticatedUser user, long version) {
+        if (nearCacheSize == 0 || invalidations.get() != version) {
+            return;
+        }
+        while (nearCache.size() >= nearCacheSize) {
+            Iterator<String> tokens = nearCache.keySet().iterator();
+            if (tokens.hasNext() == false) {
+                break;
+            }
+            nearCache.remove(tokens.next());
+        }
+        nearCache.put(token, user);
+        if (invalidations.get() != version) {
+            // An invalidation arrived while the session was put in the near-cache
+            nearCache.remove(token, user);
+        }
+    }
+
+}
@@ -0,0 +1,336 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.sessions.shared;
+
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticatedUser;
+import nl.han.dea.markkiepe.spotitube.services.exceptions.SessionStoreUnavailableException;
+
+import javax.enterprise.inject.Vetoed;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Socket Session Store Backend<br>
+ * {@link SessionStoreBackend} that talks to a {@link SocketSessionStoreServer} with the {@link SessionProtocol}.
+ * <br><br>
+ * Every connection is authenticated with the secret of the server first.
+ * Requests are sent over a single connection, one at a time. A second connection is subscribed to the
+ * invalidations of the server. When that connection is lost it is opened again, and because invalidations may have
+ * been missed in the meantime the {@link InvalidationListener} is told to drop everything.
+ *
+ * @implNote
+ * A request that fails because the server cannot be reached throws a {@link SessionStoreUnavailableException}.
+ * The connection is opened again on the next request.
+ *
+ * @see SocketSessionStoreServer
+ * @see SharedSessionStore
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Vetoed
+public class SocketSessionStoreBackend implements SessionStoreBackend {
+
+    private static final long RECONNECT_DELAY = 1000;
+
+    private final String host;
+    private final int port;
+    private final int timeout;
+    private final String secret;
+    private final Object requestLock = new Object();
+    private Socket requestSocket;
+    private BufferedReader requestReader;
+    private Writer requestWriter;
+    private volatile Socket subscriptionSocket;
+    private volatile InvalidationListener invalidationListener;
+    private volatile boolean closed;
+
+    /**
+     * Creates a new backend for the server on the given host and port. No connection is opened yet.
+     * @param host {@link String} host name of the server.
+     * @param port {@link Integer} port of the server.
+     * @param timeout {@link Integer} milliseconds to wait for a connection or a response.
+     * @param secret {@link String} secret the server requires before it accepts any request.
+     * @since 1.1
+     */
+    public SocketSessionStoreBackend(String host, int port, int timeout, String secret) {
+        this.host = host;
+        this.port = port;
+        this.timeout = Math.max(1, timeout);
+        this.secret = secret;
+    }
+
+    /**
+     * Sets the listener for the invalidations of the server and starts the subscription.
+     * @param invalidationListener {@link InvalidationListener}
+     * @since 1.1
+     */
+    @Override
+    public void setInvalidationListener(InvalidationListener invalidationListener) {
+        boolean started = this.invalidationListener != null;
+        this.invalidationListener = invalidationListener;
+        if (started == false) {
+            Thread thread = new Thread(this::subscribe, "spotitube-session-store-subscription");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Override
+    public boolean add(AuthenticatedUser user) {
+        String response = request(SessionProtocol.ADD + SessionProtocol.SEPARATOR + SessionProtocol.encodeSession(user));
+        return SessionProtocol.TRUE.equals(response);
+    }
+
+    @Override
+    public AuthenticatedUser get(String token) {
+        if (token == null) {
+            return null;
+        }
+        return toSession(request(SessionProtocol.GET + SessionProtocol.SEPARATOR + SessionProtocol.encode(token)));
+    }
+
+    @Override
+    public Collection<AuthenticatedUser> getSessionsOfUser(int userId) {
+        String[] fields = SessionProtocol.split(request(SessionProtocol.USER + SessionProtocol.SEPARATOR + userId));
+        expect(SessionProtocol.SESSIONS, fields);
+        int amount = Integer.parseInt(fields[1]);
+        List<AuthenticatedUser> result = new ArrayList<>(amount);
+        for (int index = 0; index < amount; index++) {
+            result.add(SessionProtocol.decodeSession(fields, 2 + index * SessionProtocol.SESSION_FIELDS));
+        }
+        return result;
+    }
+
+    @Override
+    public AuthenticatedUser remove(String token) {
+        if (token == null) {
+            return null;
+        }
+        return toSession(request(SessionProtocol.REMOVE + SessionProtocol.SEPARATOR + SessionProtocol.encode(token)));
+    }
+
+    @Override
+    public void touch(String token, long lastUsedAt) {
+        if (token == null) {
+            return;
+        }
+        request(SessionProtocol.TOUCH
+                + SessionProtocol.SEPARATOR + SessionProtocol.encode(token)
+                + SessionProtocol.SEPARATOR + lastUsedAt);
+    }
+
+    @Override
+    public boolean removeIfNotUsedSince(String token, long lastUsedAt) {
+        if (token == null) {
+            return false;
+        }
+        String response = request(SessionProtocol.REMOVE_IF_NOT_USED
+                + SessionProtocol.SEPARATOR + SessionProtocol.encode(token)
+                + SessionProtocol.SEPARATOR + lastUsedAt);
+        return SessionProtocol.TRUE.equals(response);
+    }
+
+    @Override
+    public int size() {
+        String[] fields = SessionProtocol.split(request(SessionProtocol.SIZE));
+        expect(SessionProtocol.SIZE, fields);
+        return Integer.parseInt(fields[1]);
+    }
+
+    /**
+     * Closes both connections with the server and stops the subscription.
+     * @since 1.1
+     */
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (requestLock) {
+            disconnect();
+        }
+        Socket socket = subscriptionSocket;
+        if (socket != null) {
+            closeQuietly(socket);
+        }
+    }
+
+    // Private Functions
+
+    /**
+     * Sends a request line to the server and reads the response line.
+     * @param line {@link String} request line
+     * @return {@link String} response line
+     * @throws SessionStoreUnavailableException When the server cannot be reached or answers with an error.
+     * @since 1.1
+     */
+    private String request(String line) {
+        synchronized (requestLock) {
+            try {
+                if (requestSocket == null) {
+                    requestSocket = connect();
+                    requestReader = new BufferedReader(new InputStreamReader(requestSocket.getInputStream(), StandardCharsets.UTF_8));
+                    requestWriter = new BufferedWriter(new OutputStreamWriter(requestSocket.getOutputStream(), StandardCharsets.UTF_8));
+                    authenticate(requestReader, requestWriter);
+                }
+                requestWriter.write(line);
+                requestWriter.write('\n');
+                requestWriter.flush();
+                String response = requestReader.readLine();
+                if (response == null) {
+                    throw new IOException("Connection closed by the session store.");
+                }
+                if (SessionProtocol.ERROR.equals(response)) {
+                    throw new SessionStoreUnavailableException();
+                }
+                return response;
+            } catch (IOException e) {
+                e.printStackTrace();
+                disconnect();
+                throw new SessionStoreUnavailableException();
+            }
+        }
+    }
+
+    /**
+     * Reads a session from a {@code SESSION} or {@code NONE} response.
+     * @param response {@link String}
+     * @return {@link AuthenticatedUser} or {@code null}
+     * @since 1.1
+     */
+    private AuthenticatedUser toSession(String response) {
+        if (SessionProtocol.NONE.equals(response)) {
+            return null;
+        }
+        String[] fields = SessionProtocol.split(response);
+        expect(SessionProtocol.SESSION, fields);
+        return SessionProtocol.decodeSession(fields, 1);
+    }
+
+    /**
+     * Checks that a response starts with the expected keyword.
+     * @param keyword {@link String}
+     * @param fields {@link String}[] fields of the response
+     * @throws SessionStoreUnavailableException When the server answered something else.
+     * @since 1.1
+     */
+    private void expect(String keyword, String[] fields) {
+        if (fields.length < 2 || keyword.equals(fields[0]) == false) {
+            throw new SessionStoreUnavailableException();
+        }
+    }
+
+    /**
+     * Keeps a subscription to the invalidations of the server open until the backend is closed.
+     * @since 1.1
+     */
+    private void subscribe() {
+        while (closed == false) {
+            try (Socket socket = connect();
+                 BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))
+            ) {
+                // Invalidations only arrive while the server writes, so there is no read timeout
+                authenticate(reader, writer);
+                socket.setSoTimeout(0);
+                subscriptionSocket = socket;
+                writer.write(SessionProtocol.SUBSCRIBE);
+                writer.write('\n');
+                writer.flush();
+                if (SessionProtocol.OK.equals(reader.readLine()) == false) {
+                    throw new IOException("Subscription refused by the session store.");
+                }
+                // Everything that changed before the subscription was missed
+                invalidationListener.invalidateAll();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = SessionProtocol.split(line);
+                    if (SessionProtocol.INVALIDATE.equals(fields[0]) && fields.length > 1) {
+                        invalidationListener.invalidate(SessionProtocol.decode(fields[1]));
+                    }
+                }
+            } catch (IOException e) {
+                // Connection lost, reconnects below
+            }
+            subscriptionSocket = null;
+            invalidationListener.invalidateAll();
+            if (closed == false) {
+                try {
+                    Thread.sleep(RECONNECT_DELAY);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the secret on a new connection, before any other request.
+     * @param reader {@link BufferedReader} of the connection.
+     * @param writer {@link Writer} of the connection.
+     * @throws IOException When the server refused the secret or cannot be reached.
+     * @since 1.1
+     */
+    private void authenticate(BufferedReader reader, Writer writer) throws IOException {
+        writer.write(SessionProtocol.AUTH + SessionProtocol.SEPARATOR + SessionProtocol.encode(secret));
+        writer.write('\n');
+        writer.flush();
+        if (SessionProtocol.OK.equals(reader.readLine()) == false) {
+            throw new IOException("Secret refused by the session store.");
+        }
+    }
+
+    /**
+     * Opens a new connection with the server.
+     * @return {@link Socket}
+     * @throws IOException When the server cannot be reached.
+     * @since 1.1
+     */
+    private Socket connect() throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), timeout);
+            socket.setSoTimeout(timeout);
+            socket.setTcpNoDelay(true);
+            return socket;
+        } catch (IOException e) {
+            closeQuietly(socket);
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the request connection, so the next request opens a new one.
+     * @since 1.1
+     */
+    private void disconnect() {
+        if (requestSocket != null) {
+            closeQuietly(requestSocket);
+        }
+        requestSocket = null;
+        requestReader = null;
+        requestWriter = null;
+    }
+
+    /**
+     * Closes a socket, ignoring errors because the connection is thrown away anyway.
+     * @param socket {@link Socket}
+     * @since 1.1
+     */
+    private void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+}
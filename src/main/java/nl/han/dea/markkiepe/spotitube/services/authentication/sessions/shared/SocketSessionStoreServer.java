@@ -0,0 +1,335 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.sessions.shared;
+
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticatedUser;
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticationProperties;
+import nl.han.dea.markkiepe.spotitube.services.authentication.sessions.InMemorySessionStore;
+import nl.han.dea.markkiepe.spotitube.services.authentication.sessions.SessionSweeper;
+
+import javax.enterprise.inject.Vetoed;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Socket Session Store Server<br>
+ * Small session store server that keeps the sessions of all nodes in an {@link InMemorySessionStore} and serves
+ * them with the {@link SessionProtocol}. It has its own {@link SessionSweeper}, so sessions of a node that went
+ * down still expire.
+ * <br><br>
+ * Every session that is removed, by a node or by the sweeper, is pushed to all subscribed nodes so they can drop
+ * it from their near-cache.
+ * <br><br>
+ * The sessions hold the tokens users log in with, so the server only listens on the loopback address unless
+ * {@code sessionStoreBindAddress} is set, and a connection has to send the {@code sessionStoreSecret} before any
+ * other request is accepted.
+ *
+ * @implNote
+ * This server is a stand-in for an external key-value store and is meant for development and small deployments.
+ * It can run embedded or on its own with {@link SocketSessionStoreServer#main(String[])}.
+ *
+ * @see SocketSessionStoreBackend
+ * @see SessionProtocol
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Vetoed
+public class SocketSessionStoreServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final byte[] secret;
+    private final InMemorySessionStore sessionStore = new InMemorySessionStore();
+    private final SessionSweeper sessionSweeper;
+    private final List<Writer> subscribers = new CopyOnWriteArrayList<>();
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final ExecutorService connections;
+
+    /**
+     * Creates a new server that listens on the given port and starts accepting connections.
+     * @param port {@link Integer} port to listen on, {@code 0} for any free port.
+     * @param authenticationProperties {@link AuthenticationProperties} that configure the secret, the bind address
+     *                                 and when sessions expire.
+     * @throws IOException When the port cannot be opened.
+     * @throws IllegalStateException When no secret is configured.
+     * @since 1.1
+     */
+    public SocketSessionStoreServer(int port, AuthenticationProperties authenticationProperties) throws IOException {
+        String configuredSecret = authenticationProperties.getSessionStoreSecret();
+        if (configuredSecret == null) {
+            throw new IllegalStateException("The session store server requires a secret in sessionStoreSecret.");
+        }
+        this.secret = configuredSecret.getBytes(StandardCharsets.UTF_8);
+        String bindAddress = authenticationProperties.getSessionStoreBindAddress();
+        this.serverSocket = new ServerSocket(
+                port,
+                0,
+                bindAddress == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(bindAddress)
+        );
+        this.sessionSweeper = new SessionSweeper(sessionStore, authenticationProperties);
+        this.sessionStore.addRemovalListener(this::broadcastInvalidation);
+        this.connections = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "spotitube-session-store-connection");
+            thread.setDaemon(true);
+            return thread;
+        });
+        connections.execute(this::acceptConnections);
+    }
+
+    /**
+     * Gets the port the server listens on.
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Stops accepting connections, closes all open connections and stops the sweeper.
+     * @since 1.1
+     */
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        connections.shutdownNow();
+        sessionSweeper.shutdown();
+        for (Socket socket : sockets) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+    }
+
+    /**
+     * Runs the server on its own, on the port that is given as the first argument.
+     * @param args {@link String}[] port to listen on.
+     * @throws IOException When the port cannot be opened.
+     * @since 1.1
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7480;
+        new SocketSessionStoreServer(port, new AuthenticationProperties());
+        System.out.println("Session store listening on port " + port);
+        try {
+            Thread.currentThread().join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Private Functions
+
+    /**
+     * Accepts new connections until the server is closed. Every connection is handled on its own thread.
+     * @since 1.1
+     */
+    private void acceptConnections() {
+        while (serverSocket.isClosed() == false) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> handleConnection(socket));
+            } catch (SocketException e) {
+                // Server was closed
+                return;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Answers the requests of a single connection until the client closes it.
+     * @param socket {@link Socket}
+     * @since 1.1
+     */
+    private void handleConnection(Socket socket) {
+        Writer subscription = null;
+        sockets.add(socket);
+        try (socket;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))
+        ) {
+            if (isAuthenticated(reader.readLine()) == false) {
+                respond(writer, SessionProtocol.ERROR);
+                return;
+            }
+            respond(writer, SessionProtocol.OK);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (SessionProtocol.SUBSCRIBE.equals(line)) {
+                    // OK has to be written before the first invalidation can be pushed
+                    synchronized (writer) {
+                        respond(writer, SessionProtocol.OK);
+                        subscription = writer;
+                        subscribers.add(subscription);
+                    }
+                    continue;
+                }
+                respond(writer, handleRequest(SessionProtocol.split(line)));
+            }
+        } catch (IOException e) {
+            // Connection was closed by the client
+        } finally {
+            sockets.remove(socket);
+            if (subscription != null) {
+                subscribers.remove(subscription);
+            }
+        }
+    }
+
+    /**
+     * Checks the first line of a connection, which has to be an {@code AUTH} request with the secret of the server.
+     * @param line {@link String} first request line, {@code null} when the connection was closed.
+     * @return {@link Boolean} true when the secret is correct.
+     * @since 1.1
+     */
+    private boolean isAuthenticated(String line) {
+        if (line == null) {
+            return false;
+        }
+        String[] fields = SessionProtocol.split(line);
+        if (fields.length != 2 || SessionProtocol.AUTH.equals(fields[0]) == false || fields[1].isEmpty()) {
+            return false;
+        }
+        try {
+            return MessageDigest.isEqual(secret, SessionProtocol.decode(fields[1]).getBytes(StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            // Malformed secret
+            return false;
+        }
+    }
+
+    /**
+     * Writes a response line.
+     * @param writer {@link Writer} of the connection.
+     * @param response {@link String} response line
+     * @throws IOException When the connection was closed.
+     * @since 1.1
+     */
+    private void respond(Writer writer, String response) throws IOException {
+        synchronized (writer) {
+            writer.write(response);
+            writer.write('\n');
+            writer.flush();
+        }
+    }
+
+    /**
+     * Executes a single request on the session store.
+     * @param fields {@link String}[] fields of the request line.
+     * @return {@link String} response line
+     * @since 1.1
+     */
+    private String handleRequest(String[] fields) {
+        try {
+            switch (fields[0]) {
+                case SessionProtocol.ADD:
+                    AuthenticatedUser user = SessionProtocol.decodeSession(fields, 1);
+                    if (sessionStore.add(user)) {
+                        sessionSweeper.track(user);
+                        return SessionProtocol.TRUE;
+                    }
+                    return SessionProtocol.FALSE;
+                case SessionProtocol.GET:
+                    return toResponse(sessionStore.get(SessionProtocol.decode(fields[1])));
+                case SessionProtocol.USER:
+                    Collection<AuthenticatedUser> sessions = sessionStore.getSessionsOfUser(Integer.parseInt(fields[1]));
+                    StringBuilder response = new StringBuilder(SessionProtocol.SESSIONS)
+                            .append(SessionProtocol.SEPARATOR)
+                            .append(sessions.size());
+                    for (AuthenticatedUser session : sessions) {
+                        response.append(SessionProtocol.SEPARATOR).append(SessionProtocol.encodeSession(session));
+                    }
+                    return response.toString();
+                case SessionProtocol.REMOVE:
+                    return toResponse(sessionStore.remove(SessionProtocol.decode(fields[1])));
+                case SessionProtocol.TOUCH:
+                    sessionStore.touch(SessionProtocol.decode(fields[1]), Long.parseLong(fields[2]));
+                    return SessionProtocol.OK;
+                case SessionProtocol.REMOVE_IF_NOT_USED:
+                    boolean removed = sessionStore.removeIfNotUsedSince(
+                            SessionProtocol.decode(fields[1]),
+                            Long.parseLong(fields[2])
+                    );
+                    return removed ? SessionProtocol.TRUE : SessionProtocol.FALSE;
+                case SessionProtocol.SIZE:
+                    return SessionProtocol.SIZE + SessionProtocol.SEPARATOR + sessionStore.size();
+                default:
+                    return SessionProtocol.ERROR;
+            }
+        } catch (RuntimeException e) {
+            // Malformed request
+            return SessionProtocol.ERROR;
+        }
+    }
+
+    /**
+     * Writes a session that was found or removed as a response line.
+     * @param user {@link AuthenticatedUser} or {@code null}
+     * @return {@link String}
+     * @since 1.1
+     */
+    private String toResponse(AuthenticatedUser user) {
+        if (user == null) {
+            return SessionProtocol.NONE;
+        }
+        return SessionProtocol.SESSION + SessionProtocol.SEPARATOR + SessionProtocol.encodeSession(user);
+    }
+
+    /**
+     * Tells all subscribed nodes that the session of a token was removed.
+     * Subscribers that cannot be reached anymore are closed.
+     * @param token {@link String} authentication token
+     * @since 1.1
+     */
+    private void broadcastInvalidation(String token) {
+        String line = SessionProtocol.INVALIDATE + SessionProtocol.SEPARATOR + SessionProtocol.encode(token) + '\n';
+        for (Writer subscriber : subscribers) {
+            try {
+                synchronized (subscriber) {
+                    subscriber.write(line);
+                    subscriber.flush();
+                }
+            } catch (IOException e) {
+                subscribers.remove(subscriber);
+                closeQuietly(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Closes a writer, ignoring errors because the connection is thrown away anyway.
+     * @param writer {@link Writer}
+     * @since 1.1
+     */
+    private void closeQuietly(Writer writer) {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+}
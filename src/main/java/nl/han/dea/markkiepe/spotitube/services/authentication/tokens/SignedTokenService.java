@@ -0,0 +1,238 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.tokens;
+
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticationProperties;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Signed Token Service<br>
+ * Issues and verifies tokens that contain the userId, issue time and expiry of the user, signed with HMAC-SHA256.
+ * A signed token can be verified by any node that knows the signing keys, without looking up a session.
+ * <br><br>
+ * A token has the format {@code keyId.payload.signature}, where the payload and signature are Base64 (URL safe)
+ * encoded. The payload holds the userId, the issue time, the expiry and a random nonce.
+ * <br><br>
+ * The keys are configured in the {@code authentication.properties} file:
+ * <ul>
+ *     <li>{@code tokenMode} {@code signed} to issue signed tokens, anything else keeps the opaque tokens.</li>
+ *     <li>{@code tokenSigningKeys} keys in the format {@code keyId:base64Secret}, separated by a {@code |}.</li>
+ * </ul>
+ * Keys are rotated by putting a new key in front of the list. New tokens are signed with the first key, while
+ * tokens signed with the older keys stay valid until they expire. After that the old key can be removed.
+ *
+ * @implNote
+ * Revoked tokens are only known by the node that revoked them, see {@link TokenRevocationList}.
+ *
+ * @see SigningKey
+ * @see TokenRevocationList
+ * @see AuthenticationProperties
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Singleton
+public class SignedTokenService {
+
+    private static final int NONCE_LENGTH = 8;
+    private static final int PAYLOAD_LENGTH = Integer.BYTES + Long.BYTES + Long.BYTES + NONCE_LENGTH;
+    private static final char SEPARATOR = '.';
+
+    private final boolean enabled;
+    private final long timeToLive;
+    private final SigningKey activeKey;
+    private final Map<String, SigningKey> keys = new HashMap<>();
+    private final TokenRevocationList revocationList = new TokenRevocationList();
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    private final Base64.Decoder decoder = Base64.getUrlDecoder();
+
+    /**
+     * Creates the signed token service from the {@link AuthenticationProperties}.
+     * @param authenticationProperties {@link AuthenticationProperties}
+     * @throws IllegalStateException When signed tokens are enabled without a valid signing key.
+     * @since 1.1
+     */
+    @Inject
+    public SignedTokenService(AuthenticationProperties authenticationProperties) {
+        this(
+                authenticationProperties.isSignedTokenMode(),
+                authenticationProperties.getSessionTimeToLive(),
+                parseKeys(authenticationProperties.getTokenSigningKeys())
+        );
+    }
+
+    /**
+     * Creates a signed token service with the given keys.
+     * @param enabled {@link Boolean} whether signed tokens are issued.
+     * @param timeToLive {@link Long} amount of milliseconds an issued token stays valid.
+     * @param signingKeys {@link List} of {@link SigningKey}, where the first key signs new tokens.
+     * @throws IllegalStateException When signed tokens are enabled without a signing key.
+     * @since 1.1
+     */
+    public SignedTokenService(boolean enabled, long timeToLive, List<SigningKey> signingKeys) {
+        if (enabled && signingKeys.isEmpty()) {
+            throw new IllegalStateException("Signed tokens require at least one key in tokenSigningKeys.");
+        }
+        this.enabled = enabled;
+        this.timeToLive = Math.max(1, timeToLive);
+        this.activeKey = signingKeys.isEmpty() ? null : signingKeys.get(0);
+        for (SigningKey signingKey : signingKeys) {
+            keys.put(signingKey.getKeyId(), signingKey);
+        }
+    }
+
+    /**
+     * Says whether users get signed tokens.
+     * @return {@link Boolean}
+     * @since 1.1
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Issues a new token for a user, signed with the active key.
+     * @param userId {@link Integer} UserId
+     * @param now {@link Long} current time in milliseconds.
+     * @return {@link String} signed token
+     * @since 1.1
+     */
+    public String issue(int userId, long now) {
+        byte[] nonce = new byte[NONCE_LENGTH];
+        secureRandom.nextBytes(nonce);
+        byte[] payload = ByteBuffer.allocate(PAYLOAD_LENGTH)
+                .putInt(userId)
+                .putLong(now)
+                .putLong(now + timeToLive)
+                .put(nonce)
+                .array();
+        String signedPart = activeKey.getKeyId() + SEPARATOR + encoder.encodeToString(payload);
+        byte[] signature = activeKey.sign(signedPart.getBytes(StandardCharsets.US_ASCII));
+        return signedPart + SEPARATOR + encoder.encodeToString(signature);
+    }
+
+    /**
+     * Verifies a token and returns its claims.
+     * The signature is compared in constant time, so the time it takes does not reveal how much of it was correct.
+     * The payload and signature have to be encoded exactly the way they are issued. Base64 has several ways to write
+     * the same bytes, which would otherwise let a revoked token be accepted again by writing it differently.
+     * @param token {@link String} signed token
+     * @param now {@link Long} current time in milliseconds.
+     * @return {@link TokenClaims} or {@code null} when the token is malformed, signed with an unknown key,
+     * has a wrong signature, expired or was revoked.
+     * @since 1.1
+     */
+    public TokenClaims verify(String token, long now) {
+        if (token == null) {
+            return null;
+        }
+        int firstSeparator = token.indexOf(SEPARATOR);
+        int lastSeparator = token.lastIndexOf(SEPARATOR);
+        if (firstSeparator <= 0 || lastSeparator <= firstSeparator) {
+            return null;
+        }
+        SigningKey signingKey = keys.get(token.substring(0, firstSeparator));
+        if (signingKey == null) {
+            return null;
+        }
+        try {
+            String encodedPayload = token.substring(firstSeparator + 1, lastSeparator);
+            String encodedSignature = token.substring(lastSeparator + 1);
+            byte[] payload = decoder.decode(encodedPayload);
+            byte[] signature = decoder.decode(encodedSignature);
+            if (isCanonical(encodedPayload, payload) == false || isCanonical(encodedSignature, signature) == false) {
+                return null;
+            }
+            byte[] expectedSignature = signingKey.sign(token.substring(0, lastSeparator).getBytes(StandardCharsets.US_ASCII));
+            if (payload.length != PAYLOAD_LENGTH || MessageDigest.isEqual(expectedSignature, signature) == false) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            TokenClaims claims = new TokenClaims(buffer.getInt(), buffer.getLong(), buffer.getLong());
+            if (claims.getExpiresAt() <= now || revocationList.isRevoked(encodedPayload)) {
+                return null;
+            }
+            return claims;
+        } catch (IllegalArgumentException e) {
+            // Not valid Base64
+            return null;
+        }
+    }
+
+    /**
+     * Revokes a valid token, so it is rejected until it expires. Invalid tokens are ignored.
+     * @param token {@link String} signed token
+     * @param now {@link Long} current time in milliseconds.
+     * @return {@link Boolean} false when the token was not valid.
+     * @since 1.1
+     */
+    public boolean revoke(String token, long now) {
+        TokenClaims claims = verify(token, now);
+        if (claims == null) {
+            return false;
+        }
+        revocationList.revoke(getTokenId(token), claims.getExpiresAt(), now);
+        return true;
+    }
+
+    // Private Functions
+
+    /**
+     * Gets the id of a verified token, which is its canonically encoded payload.
+     * @param token {@link String} verified signed token
+     * @return {@link String}
+     * @since 1.1
+     */
+    private String getTokenId(String token) {
+        return token.substring(token.indexOf(SEPARATOR) + 1, token.lastIndexOf(SEPARATOR));
+    }
+
+    /**
+     * Checks that decoded bytes are encoded the same way again. Unused bits in the last character and padding
+     * are ignored while decoding, so several strings decode to the same bytes while only one is canonical.
+     * @param encoded {@link String} encoded part of a token.
+     * @param decoded bytes that were decoded from it.
+     * @return {@link Boolean}
+     * @since 1.1
+     */
+    private boolean isCanonical(String encoded, byte[] decoded) {
+        return encoder.encodeToString(decoded).equals(encoded);
+    }
+
+    /**
+     * Parses the configured signing keys.
+     * @param configuredKeys {@link List} of keys in the format {@code keyId:base64Secret}.
+     * @return {@link List} of {@link SigningKey}
+     * @throws IllegalStateException When a key is not in the right format.
+     * @since 1.1
+     */
+    private static List<SigningKey> parseKeys(List<String> configuredKeys) {
+        List<SigningKey> result = new ArrayList<>(configuredKeys.size());
+        for (String configuredKey : configuredKeys) {
+            int separator = configuredKey.indexOf(':');
+            if (separator <= 0 || configuredKey.indexOf(SEPARATOR) >= 0) {
+                throw new IllegalStateException("Signing keys have to be in the format keyId:base64Secret.");
+            }
+            try {
+                result.add(new SigningKey(
+                        configuredKey.substring(0, separator),
+                        Base64.getDecoder().decode(configuredKey.substring(separator + 1))
+                ));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Signing key " + configuredKey.substring(0, separator) + " is not valid.", e);
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,72 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.tokens;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+
+/**
+ * Signing Key<br>
+ * Secret that signed tokens are signed with using HMAC-SHA256.
+ *
+ * @implNote
+ * Creating and initializing a {@link Mac} is relatively expensive, while a {@link Mac} cannot be shared between
+ * threads. Every thread therefore keeps its own initialized {@link Mac} for this key, which is reused for every
+ * token that thread signs or verifies.
+ *
+ * @see SignedTokenService
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public class SigningKey {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final String keyId;
+    private final ThreadLocal<Mac> mac;
+
+    /**
+     * Creates a new signing key.
+     * @param keyId {@link String} identifier of the key that is put in every token it signs.
+     * @param secret Secret of the key, at least 32 bytes.
+     * @throws IllegalArgumentException When the secret is shorter than 32 bytes.
+     * @since 1.1
+     */
+    public SigningKey(String keyId, byte[] secret) {
+        if (secret.length < 32) {
+            throw new IllegalArgumentException("The secret of signing key " + keyId + " has to be at least 32 bytes.");
+        }
+        SecretKeySpec secretKey = new SecretKeySpec(secret.clone(), ALGORITHM);
+        this.keyId = keyId;
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac result = Mac.getInstance(ALGORITHM);
+                result.init(secretKey);
+                return result;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    /**
+     * Getter for the identifier of this key.
+     * @return {@link String}
+     * @since 1.1
+     */
+    public String getKeyId() {
+        return keyId;
+    }
+
+    /**
+     * Calculates the signature of the given data.
+     * @param data Data that is signed
+     * @return Signature of 32 bytes
+     * @since 1.1
+     */
+    public byte[] sign(byte[] data) {
+        // doFinal resets the Mac, so it can be reused right away
+        return mac.get().doFinal(data);
+    }
+
+}
@@ -0,0 +1,58 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.tokens;
+
+/**
+ * Token Claims<br>
+ * The information that is encoded in a signed token.
+ *
+ * @see SignedTokenService
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public class TokenClaims {
+
+    private int userId;
+    private long issuedAt;
+    private long expiresAt;
+
+    /**
+     * Creates new token claims.
+     * @param userId The userId of the user the token was issued to.
+     * @param issuedAt The moment the token was issued as epoch milliseconds.
+     * @param expiresAt The moment the token expires as epoch milliseconds.
+     * @since 1.1
+     */
+    public TokenClaims(int userId, long issuedAt, long expiresAt) {
+        this.userId = userId;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Returns the userId of the user the token was issued to.
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    public int getUserId() {
+        return userId;
+    }
+
+    /**
+     * Returns the moment the token was issued.
+     * @return {@link Long} epoch milliseconds
+     * @since 1.1
+     */
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    /**
+     * Returns the moment the token expires.
+     * @return {@link Long} epoch milliseconds
+     * @since 1.1
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+}
@@ -0,0 +1,62 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.tokens;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token Revocation List<br>
+ * Keeps the signed tokens that were revoked, for example because the user logged out, until they expire by themselves.
+ * After that the signature check rejects them anyway, so the list only holds the tokens that were revoked within
+ * the time to live of a token.
+ * <br><br>
+ * Tokens are kept by their id, which is the canonical encoding of their payload. The payload contains a random
+ * nonce, so every issued token has its own id, while a token that is written differently still has the same id.
+ *
+ * @implNote
+ * The list is kept in memory of a single node and is not shared with the other nodes. A revoked token is only
+ * rejected by the node that revoked it, the other nodes accept it until it expires. When every node has to reject
+ * a token right after a logout, the opaque tokens with a shared session store should be used instead.
+ * Expired tokens are removed whenever a token is revoked.
+ *
+ * @see SignedTokenService
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public class TokenRevocationList {
+
+    private final ConcurrentHashMap<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    /**
+     * Revokes a token until the moment it expires.
+     * @param tokenId {@link String} id of the signed token.
+     * @param expiresAt {@link Long} epoch milliseconds at which the token expires.
+     * @param now {@link Long} current time in milliseconds.
+     * @since 1.1
+     */
+    public void revoke(String tokenId, long expiresAt, long now) {
+        revokedTokens.values().removeIf(revokedUntil -> revokedUntil <= now);
+        if (expiresAt > now) {
+            revokedTokens.put(tokenId, expiresAt);
+        }
+    }
+
+    /**
+     * Says whether a token has been revoked.
+     * @param tokenId {@link String} id of the signed token.
+     * @return {@link Boolean}
+     * @since 1.1
+     */
+    public boolean isRevoked(String tokenId) {
+        return revokedTokens.containsKey(tokenId);
+    }
+
+    /**
+     * Gets the amount of tokens that are revoked and have not expired yet.
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    public int size() {
+        return revokedTokens.size();
+    }
+
+}
@@ -0,0 +1,200 @@
+package nl.han.dea.markkiepe.spotitube.services.caching;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * List Cache<br>
+ * Read-through cache of lists that are loaded from the database, keyed by an id like a UserId or PlaylistId.
+ * <br><br>
+ * Changes that are made through the services can be patched into a cached list right away, so the response to a
+ * change can be built from the cache instead of loading the whole list again. When several requests miss the list
+ * of the same key at once, only the first one loads it and the others wait for its result.
+ * <br><br>
+ * When the cache is full the least recently used list is dropped. Lists are dropped after the time to live, so
+ * changes that are made by another node are picked up eventually.
+ *
+ * @param <T> Type of the items in the cached lists.
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public abstract class ListCache<T> {
+
+    private final int maximumSize;
+    private final long timeToLive;
+    private final LinkedHashMap<Integer, CachedList<T>> lists;
+    private final ConcurrentHashMap<Integer, CompletableFuture<List<T>>> loading = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new empty list cache.
+     * @param maximumSize {@link Integer} lists that are kept, {@code 0} to disable the cache.
+     * @param timeToLive {@link Long} milliseconds a list is kept.
+     * @since 1.1
+     */
+    protected ListCache(int maximumSize, long timeToLive) {
+        this.maximumSize = Math.max(0, maximumSize);
+        this.timeToLive = Math.max(0, timeToLive);
+        this.lists = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, CachedList<T>> eldest) {
+                return size() > ListCache.this.maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Gets the list of a key from the cache, or loads it when it is not cached.
+     * A loaded list is only cached when the list of its key was not changed while it was loaded, because the load
+     * might not contain that change. Changes to the lists of other keys do not matter.
+     *
+     * @implNote
+     * A change to a key removes the running load of that key, so the load knows it may not cache its result.
+     * When the loader throws an exception or error, every request that waited for it gets the same exception.
+     *
+     * @param key {@link Integer} id the list belongs to.
+     * @param loader {@link IntFunction} that loads the list of a key from the database.
+     * @return {@link List}, which cannot be modified.
+     * @since 1.1
+     */
+    public List<T> get(int key, IntFunction<List<T>> loader) {
+        List<T> list = get(key, System.currentTimeMillis());
+        if (list != null) {
+            return list;
+        }
+        CompletableFuture<List<T>> load = new CompletableFuture<>();
+        CompletableFuture<List<T>> running = loading.putIfAbsent(key, load);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            list = List.copyOf(loader.apply(key));
+            synchronized (this) {
+                if (loading.remove(key, load)) {
+                    put(key, list, System.currentTimeMillis());
+                }
+            }
+            load.complete(list);
+            return list;
+        } catch (Throwable e) {
+            // Errors have to fail the load as well, otherwise the waiting requests never return
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    /**
+     * Changes the cached list of a key, for example to add an item that was just created.
+     * Nothing happens when the list of the key is not cached.
+     * @param key {@link Integer} id the list belongs to.
+     * @param patch {@link UnaryOperator} that gets the cached list and returns the changed list.
+     * @since 1.1
+     */
+    public synchronized void update(int key, UnaryOperator<List<T>> patch) {
+        loading.remove(key);
+        CachedList<T> cached = lists.get(key);
+        if (cached != null) {
+            lists.put(key, new CachedList<>(List.copyOf(patch.apply(cached.list)), cached.cachedAt));
+        }
+    }
+
+    /**
+     * Removes the cached list of a key, for example because it changed in a way that cannot be patched.
+     * @param key {@link Integer} id the list belongs to.
+     * @since 1.1
+     */
+    public synchronized void invalidate(int key) {
+        loading.remove(key);
+        lists.remove(key);
+    }
+
+    /**
+     * Gets the amount of lists that are cached.
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    public synchronized int size() {
+        return lists.size();
+    }
+
+    // Private Functions
+
+    /**
+     * Gets the cached list of a key.
+     * @param key {@link Integer} id the list belongs to.
+     * @param now {@link Long} current time in milliseconds.
+     * @return {@link List} or {@code null} when the list is not cached or expired.
+     * @since 1.1
+     */
+    private synchronized List<T> get(int key, long now) {
+        CachedList<T> cached = lists.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (now - cached.cachedAt >= timeToLive) {
+            lists.remove(key);
+            return null;
+        }
+        return cached.list;
+    }
+
+    /**
+     * Caches the list of a key.
+     * @param key {@link Integer} id the list belongs to.
+     * @param list {@link List}
+     * @param now {@link Long} current time in milliseconds.
+     * @since 1.1
+     */
+    private void put(int key, List<T> list, long now) {
+        if (maximumSize == 0 || timeToLive == 0) {
+            return;
+        }
+        lists.put(key, new CachedList<>(list, now));
+    }
+
+    /**
+     * Waits for the list that is loaded by another request.
+     * @param running {@link CompletableFuture} of the other request.
+     * @return {@link List}
+     * @since 1.1
+     */
+    private List<T> await(CompletableFuture<List<T>> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * List together with the moment it was cached.
+     * @param <T> Type of the items in the list.
+     * @since 1.1
+     */
+    private static class CachedList<T> {
+
+        private final List<T> list;
+        private final long cachedAt;
+
+        private CachedList(List<T> list, long cachedAt) {
+            this.list = list;
+            this.cachedAt = cachedAt;
+        }
+
+    }
+
+}
@@ -0,0 +1,4 @@
+package nl.han.dea.markkiepe.spotitube.services.exceptions;
+
+public class AuthenticationUnavailableException extends RuntimeException{
+}
@@ -0,0 +1,209 @@
+package nl.han.dea.markkiepe.spotitube.services.ownership;
+
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticationProperties;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Playlist Owner Cache<br>
+ * Remembers the owner of a playlist, so checking the ownership of a playlist does not cost a query every time
+ * one of its tracks is read or changed. The owner of a playlist never changes, so an entry only goes stale when
+ * the playlist is deleted, which invalidates it.
+ * <br><br>
+ * The cache is a fixed table of {@code int} playlist ids and owner ids without boxed keys. Every playlist id has a
+ * single slot in the table, so a new playlist simply replaces the one that was in its slot and the cache never
+ * grows beyond its size. Entries expire after the time to live, which covers playlists that were deleted by
+ * another node.
+ * <br><br>
+ * When several requests miss the same playlist at once, only the first one loads the owner and the others wait
+ * for its result.
+ * <br><br>
+ * The cache is configured in the {@code authentication.properties} file:
+ * <ul>
+ *     <li>{@code playlistOwnerCacheSize} playlists that are remembered at most, {@code 0} to disable the cache.</li>
+ *     <li>{@code playlistOwnerCacheTimeToLive} milliseconds an owner is remembered.</li>
+ * </ul>
+ *
+ * @see nl.han.dea.markkiepe.spotitube.services.AuthenticationManager
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Singleton
+public class PlaylistOwnerCache {
+
+    private final int mask;
+    private final long timeToLive;
+    private final int[] playlistIds;
+    private final int[] ownerIds;
+    private final long[] expiresAt;
+    private final ConcurrentHashMap<Integer, CompletableFuture<Integer>> loading = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Creates the cache that is configured in the {@link AuthenticationProperties}.
+     * @param authenticationProperties {@link AuthenticationProperties}
+     * @since 1.1
+     */
+    @Inject
+    public PlaylistOwnerCache(AuthenticationProperties authenticationProperties) {
+        this(
+                authenticationProperties.getPlaylistOwnerCacheSize(),
+                authenticationProperties.getPlaylistOwnerCacheTimeToLive()
+        );
+    }
+
+    /**
+     * Creates a new cache.
+     * @param size {@link Integer} playlists that are remembered at most, rounded up to a power of two.
+     * {@code 0} disables the cache, every lookup then loads the owner.
+     * @param timeToLive {@link Long} milliseconds an owner is remembered.
+     * @since 1.1
+     */
+    public PlaylistOwnerCache(int size, long timeToLive) {
+        int slots = size > 0 ? Integer.highestOneBit(Math.min(size, 1 << 30) * 2 - 1) : 0;
+        this.mask = slots - 1;
+        this.timeToLive = Math.max(0, timeToLive);
+        this.playlistIds = new int[slots];
+        this.ownerIds = new int[slots];
+        this.expiresAt = new long[slots];
+    }
+
+    /**
+     * Gets the owner of a playlist from the cache, or loads it when the cache does not know the playlist.
+     * A loaded owner is remembered, unless the playlist was invalidated while it was loaded.
+     *
+     * @implNote
+     * When the loader throws an exception or error, every request that waited for it gets the same exception.
+     *
+     * @param playlistId {@link Integer} PlaylistId
+     * @param loader {@link IntUnaryOperator} that loads the owner of a playlist, a result of {@code 0} or less
+     * means the playlist does not exist and is not remembered.
+     * @return {@link Integer} OwnerId
+     * @since 1.1
+     */
+    public int getOwnerId(int playlistId, IntUnaryOperator loader) {
+        int ownerId = get(playlistId);
+        if (ownerId > 0) {
+            return ownerId;
+        }
+        CompletableFuture<Integer> load = new CompletableFuture<>();
+        CompletableFuture<Integer> running = loading.putIfAbsent(playlistId, load);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            long invalidationsBefore = invalidations.get();
+            ownerId = loader.applyAsInt(playlistId);
+            if (ownerId > 0 && invalidations.get() == invalidationsBefore) {
+                put(playlistId, ownerId);
+            }
+            load.complete(ownerId);
+            return ownerId;
+        } catch (Throwable e) {
+            // Errors have to fail the load as well, otherwise the waiting requests never return
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(playlistId, load);
+        }
+    }
+
+    /**
+     * Gets the owner of a playlist, when the cache knows it.
+     * @param playlistId {@link Integer} PlaylistId
+     * @return {@link Integer} OwnerId, {@code 0} when the playlist is not cached or its entry expired.
+     * @since 1.1
+     */
+    public int get(int playlistId) {
+        if (mask < 0) {
+            return 0;
+        }
+        int slot = slot(playlistId);
+        synchronized (this) {
+            if (playlistIds[slot] == playlistId && expiresAt[slot] > System.currentTimeMillis()) {
+                return ownerIds[slot];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Remembers the owner of a playlist, for example because the playlist was just created.
+     * @param playlistId {@link Integer} PlaylistId
+     * @param ownerId {@link Integer} OwnerId
+     * @since 1.1
+     */
+    public void put(int playlistId, int ownerId) {
+        if (mask < 0 || playlistId <= 0 || ownerId <= 0) {
+            return;
+        }
+        int slot = slot(playlistId);
+        synchronized (this) {
+            playlistIds[slot] = playlistId;
+            ownerIds[slot] = ownerId;
+            expiresAt[slot] = System.currentTimeMillis() + timeToLive;
+        }
+    }
+
+    /**
+     * Forgets the owner of a playlist, for example because the playlist was deleted.
+     * @param playlistId {@link Integer} PlaylistId
+     * @since 1.1
+     */
+    public void invalidate(int playlistId) {
+        invalidations.incrementAndGet();
+        if (mask < 0) {
+            return;
+        }
+        int slot = slot(playlistId);
+        synchronized (this) {
+            if (playlistIds[slot] == playlistId) {
+                playlistIds[slot] = 0;
+                ownerIds[slot] = 0;
+                expiresAt[slot] = 0;
+            }
+        }
+    }
+
+    // Private Functions
+
+    /**
+     * Gets the slot of a playlist id in the table. The bits of the id are mixed first, so ids that only differ in
+     * their high bits do not all end up in the same slot.
+     * @param playlistId {@link Integer} PlaylistId
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    private int slot(int playlistId) {
+        int hash = playlistId * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Waits for the owner that is loaded by another request.
+     * @param running {@link CompletableFuture} of the other request.
+     * @return {@link Integer} OwnerId
+     * @since 1.1
+     */
+    private int await(CompletableFuture<Integer> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+}
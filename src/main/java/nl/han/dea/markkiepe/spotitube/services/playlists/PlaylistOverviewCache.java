@@ -0,0 +1,54 @@
+package nl.han.dea.markkiepe.spotitube.services.playlists;
+
+import nl.han.dea.markkiepe.spotitube.datasource.dao.playlists.PlaylistDao;
+import nl.han.dea.markkiepe.spotitube.datasource.util.DatabaseProperties;
+import nl.han.dea.markkiepe.spotitube.services.caching.ListCache;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Playlist Overview Cache<br>
+ * Keeps the playlist overview of recently active users, keyed by UserId, so showing the playlists of a user does not
+ * query the database every time.
+ * <br><br>
+ * Changes made through the services update the overview of the user right away. A created, renamed or deleted
+ * playlist is patched into the cached overview, as is the new length of a playlist whose tracks changed.
+ * <br><br>
+ * The cache is configured in the {@code database.properties} file:
+ * <ul>
+ *     <li>{@code playlistOverviewCacheSize} users whose overview is kept, {@code 0} to disable the cache.</li>
+ *     <li>{@code playlistOverviewCacheTimeToLive} milliseconds the overview of a user is kept.</li>
+ * </ul>
+ *
+ * @see ListCache
+ * @see PlaylistService
+ * @see DatabaseProperties
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Singleton
+public class PlaylistOverviewCache extends ListCache<PlaylistDao> {
+
+    /**
+     * Creates a new empty playlist overview cache.
+     * @param databaseProperties {@link DatabaseProperties}
+     * @since 1.1
+     */
+    @Inject
+    public PlaylistOverviewCache(DatabaseProperties databaseProperties) {
+        this(databaseProperties.getPlaylistOverviewCacheSize(), databaseProperties.getPlaylistOverviewCacheTimeToLive());
+    }
+
+    /**
+     * Creates a new empty playlist overview cache.
+     * @param maximumSize {@link Integer} users whose overview is kept, {@code 0} to disable the cache.
+     * @param timeToLive {@link Long} milliseconds the overview of a user is kept.
+     * @since 1.1
+     */
+    public PlaylistOverviewCache(int maximumSize, long timeToLive) {
+        super(maximumSize, timeToLive);
+    }
+
+}
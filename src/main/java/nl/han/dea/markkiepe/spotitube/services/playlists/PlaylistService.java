@@ -6,12 +6,16 @@ import nl.han.dea.markkiepe.spotitube.datasource.dao.playlists.PlaylistsDao;
 import nl.han.dea.markkiepe.spotitube.datasource.dao.tracks.TracksDao;
 import nl.han.dea.markkiepe.spotitube.resources.dto.playlists.PlaylistDTO;
 import nl.han.dea.markkiepe.spotitube.services.AuthenticationManager;
+import nl.han.dea.markkiepe.spotitube.services.authentication.UserPrincipal;
 import nl.han.dea.markkiepe.spotitube.services.exceptions.UnauthorizedException;
-import nl.han.dea.markkiepe.spotitube.services.exceptions.UserNotFoundException;
 import nl.han.dea.markkiepe.spotitube.services.tracks.TrackService;
+import nl.han.dea.markkiepe.spotitube.services.versioning.ResourceVersions;
 
 import javax.inject.Inject;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 /**
  * This class manages all requests that involve playlists.
@@ -19,15 +23,23 @@ import java.util.ArrayList;
  * @see AuthenticationManager
  * @see PlaylistMapper
  * @see TrackService
+ * @see PlaylistOverviewCache
+ * @see PlaylistTotalsReconciler
+ * @see ResourceVersions
  *
  * @since 1.0
  * @author Mark Kiepe
  */
 public class PlaylistService {
 
+    private static final int MAXIMUM_PAGE_SIZE = 100;
+
     private static PlaylistMapper playlistMapper;
     private static AuthenticationManager authenticationManager;
     private static TrackService trackService;
+    private static PlaylistOverviewCache playlistOverviewCache;
+    private static PlaylistTotalsReconciler playlistTotalsReconciler;
+    private static ResourceVersions resourceVersions;
 
     /**
      * Setter for the {@link PlaylistMapper} that is used to communicate with the database.
@@ -40,8 +52,8 @@ public class PlaylistService {
     }
 
     /**
-     * Setter for the {@link AuthenticationManager} that is used to verify if the given Authentication Token
-     * has the required permission to view, delete and/or modify the given playlist.
+     * Setter for the {@link AuthenticationManager} that is told about created and deleted playlists,
+     * so it knows their owners.
      * @param authenticationManager {@link AuthenticationManager}
      * @since 1.0
      */
@@ -61,133 +73,288 @@ public class PlaylistService {
         this.trackService = trackService;
     }
 
+    /**
+     * Setter for the {@link PlaylistOverviewCache} that keeps the playlist overviews of users.
+     * Without a cache the overview is queried for every request.
+     * @param playlistOverviewCache {@link PlaylistOverviewCache}
+     * @since 1.1
+     */
+    @Inject
+    public void setPlaylistOverviewCache(PlaylistOverviewCache playlistOverviewCache) {
+        this.playlistOverviewCache = playlistOverviewCache;
+    }
+
+    /**
+     * Setter for the {@link PlaylistTotalsReconciler} that repairs the stored track count and duration of playlists
+     * in the background. Injecting it is what starts the reconciliation.
+     * @param playlistTotalsReconciler {@link PlaylistTotalsReconciler}
+     * @since 1.1
+     */
+    @Inject
+    public void setPlaylistTotalsReconciler(PlaylistTotalsReconciler playlistTotalsReconciler) {
+        this.playlistTotalsReconciler = playlistTotalsReconciler;
+    }
+
+    /**
+     * Setter for the {@link ResourceVersions} that are changed after every change to the playlists of a user.
+     * Without versions the playlists of a user have no version.
+     * @param resourceVersions {@link ResourceVersions}
+     * @since 1.1
+     */
+    @Inject
+    public void setResourceVersions(ResourceVersions resourceVersions) {
+        this.resourceVersions = resourceVersions;
+    }
+
     //
 
     /**
      * Gets all playlists that an user owns.
      *
-     * @see AuthenticationManager
+     * @see UserPrincipal
      * @see Playlists
      *
-     * @param authenticationToken {@link String} Authentication Token
-     * @throws UserNotFoundException When the given Authentication Token does not exist this exception is thrown.
+     * @param user {@link UserPrincipal} authenticated user
      * @return {@link Playlists}
      * @since 1.0
      */
-    public Playlists getPlaylists(String authenticationToken) throws UserNotFoundException {
-        int userId = authenticationManager.getUserIdFromToken(authenticationToken);
-        if (userId > 0) {
-            return getPlaylists(userId);
+    public Playlists getPlaylists(UserPrincipal user) {
+        return getPlaylists(user.getUserId());
+    }
+
+    /**
+     * Gets a page of the playlists that an user owns.<br>
+     * The page contains the playlists after the given playlistId, ordered by their id. When the page is full the id
+     * of its last playlist is set as the next cursor, which can be used as {@code afterPlaylistId} for the next page.
+     * The page size is limited to 100 playlists. The length is the total duration of all playlists of the user,
+     * which is summed by the database instead of reading every playlist.
+     *
+     * @see PlaylistMapper#getPlaylistsFromUserId(int, int, int)
+     * @see PlaylistMapper#getPlaylistsLength(int)
+     *
+     * @param user {@link UserPrincipal} authenticated user
+     * @param afterPlaylistId {@link Integer} PlaylistId after which the page starts, {@code 0} for the first page.
+     * @param limit {@link Integer} maximum amount of playlists on the page.
+     * @return {@link Playlists}
+     * @since 1.1
+     */
+    public Playlists getPlaylists(UserPrincipal user, int afterPlaylistId, int limit) {
+        int pageSize = Math.min(Math.max(1, limit), MAXIMUM_PAGE_SIZE);
+        PlaylistsDao playlistsDao = playlistMapper.getPlaylistsFromUserId(user.getUserId(), Math.max(0, afterPlaylistId), pageSize);
+        List<PlaylistDao> page = playlistsDao != null ? playlistsDao.getPlaylists() : new ArrayList<>();
+        Playlists playlists = createPlaylists(page);
+        playlists.setLength(playlistMapper.getPlaylistsLength(user.getUserId()));
+        //
+        if (page.size() == pageSize) {
+            playlists.setNextCursor(page.get(pageSize - 1).getId());
+        }
+        return playlists;
+    }
+
+    /**
+     * Gets the current version of the playlists that an user owns, without reading the playlists.
+     * The version has to be taken before the playlists are read, so a change in between results in a newer version.
+     *
+     * @see ResourceVersions#getUserVersion(int)
+     *
+     * @param user {@link UserPrincipal} authenticated user
+     * @return {@link String} version, {@code null} when versions are not kept.
+     * @since 1.1
+     */
+    public String getPlaylistsVersion(UserPrincipal user) {
+        if (resourceVersions == null) {
+            return null;
         }
-        throw new UserNotFoundException();
+        return resourceVersions.getUserVersion(user.getUserId());
     }
 
     /**
      * Creates a new playlist for the given user with the given specifications.
      *
-     * @see AuthenticationManager
+     * @see AuthenticationManager#playlistCreated(int, int)
      *
-     * @param authenticationToken {@link String} Authentication Token
+     * @param user {@link UserPrincipal} authenticated user
      * @param playlistDTO {@link PlaylistDTO} containing all data required to create a playlist.
-     * @throws UserNotFoundException When the given Authentication Token does not exist this exception is thrown.
      * @return {@link Playlists}
      * @since 1.0
      */
-    public Playlists createPlaylist(String authenticationToken, PlaylistDTO playlistDTO) throws UserNotFoundException {
-        int userId = authenticationManager.getUserIdFromToken(authenticationToken);
-        if (userId > 0) {
-            playlistMapper.createPlaylist(userId, playlistDTO.getName());
-
-            // Getting all user's playlists
-            return getPlaylists(userId);
+    public Playlists createPlaylist(UserPrincipal user, PlaylistDTO playlistDTO) {
+        int playlistId = playlistMapper.createPlaylist(user.getUserId(), playlistDTO.getName());
+        authenticationManager.playlistCreated(playlistId, user.getUserId());
+        if (playlistId > 0) {
+            PlaylistDao created = new PlaylistDao(playlistId, playlistDTO.getName(), 0);
+            updateOverview(user.getUserId(), playlists -> concat(playlists, created));
+        } else {
+            invalidateOverview(user.getUserId());
         }
-        throw new UserNotFoundException();
+        userChanged(user.getUserId());
+
+        // Getting all user's playlists
+        return getPlaylists(user.getUserId());
     }
 
     /**
      * Deletes a specified playlist from the given user's data.
      *
-     * @see AuthenticationManager
+     * @see UserPrincipal#ownsPlaylist(int)
      *
-     * @param authenticationToken {@link String} Authentication Token
+     * @param user {@link UserPrincipal} authenticated user
      * @param playlistId {@link Integer} PlaylistId you wish to remove.
-     * @throws UnauthorizedException This exception is thrown when a given Authentication Token tries to delete
-     * a playlist that is not his.
-     * @throws UserNotFoundException This exception is thrown when a given Authentication Token does not exist.
+     * @throws UnauthorizedException This exception is thrown when a user tries to delete a playlist that is not his.
      * @return {@link Playlists}
      * @since 1.0
      */
-    public Playlists deletePlaylist(String authenticationToken, int playlistId) throws UnauthorizedException, UserNotFoundException {
-        int userId = authenticationManager.getUserIdFromToken(authenticationToken);
-        if (userId > 0) {
-            if (authenticationManager.userHasPlaylistOwnership(userId, playlistId)) {
-                // Deleting playlist
-                playlistMapper.deletePlaylist(playlistId);
+    public Playlists deletePlaylist(UserPrincipal user, int playlistId) throws UnauthorizedException {
+        if (user.ownsPlaylist(playlistId)) {
+            // Deleting playlist and its tracks in a single transaction
+            if (playlistMapper.deletePlaylist(user.getUserId(), playlistId)) {
+                authenticationManager.playlistDeleted(playlistId);
+                updateOverview(user.getUserId(), playlists -> playlists.stream()
+                        .filter(playlist -> playlist.getId() != playlistId)
+                        .collect(Collectors.toList())
+                );
+                userChanged(user.getUserId());
+                if (resourceVersions != null) {
+                    resourceVersions.playlistChanged(playlistId);
+                }
 
                 // Getting all user's playlists
-                return getPlaylists(userId);
+                return getPlaylists(user.getUserId());
             }
-            throw new UnauthorizedException();
         }
-        throw new UserNotFoundException();
+        throw new UnauthorizedException();
     }
 
     /**
      * Edits a specified playlist with the given modifications.
      *
-     * @see AuthenticationManager
+     * @see UserPrincipal#ownsPlaylist(int)
      *
-     * @param authenticationToken {@link String} Authentication Token
+     * @param user {@link UserPrincipal} authenticated user
      * @param playlistId {@link Integer} playlistId of the playlist you wish to modify.
      * @param playlistDTO {@link PlaylistDTO} containing all modification data.
      * @return {@link Playlists}
-     * @throws UnauthorizedException This exception is thrown when a given Authentication Token tries to modify
-     * a playlist that is not his.
-     * @throws UserNotFoundException This exception is thrown when a given Authentication Token does not exist.
+     * @throws UnauthorizedException This exception is thrown when a user tries to modify a playlist that is not his.
      * @since 1.0
      */
-    public Playlists editPlaylist(String authenticationToken, int playlistId, PlaylistDTO playlistDTO) throws UnauthorizedException, UserNotFoundException {
-        int userId = authenticationManager.getUserIdFromToken(authenticationToken);
-        if (userId > 0) {
-            if (authenticationManager.userHasPlaylistOwnership(userId, playlistId)) {
-                // Editing playlist
-                playlistMapper.modifyPlaylist(playlistId, playlistDTO.getName());
+    public Playlists editPlaylist(UserPrincipal user, int playlistId, PlaylistDTO playlistDTO) throws UnauthorizedException {
+        if (user.ownsPlaylist(playlistId)) {
+            // Editing playlist
+            if (playlistMapper.modifyPlaylist(playlistId, playlistDTO.getName())) {
+                updateOverview(user.getUserId(), playlists -> playlists.stream()
+                        .map(playlist -> playlist.getId() == playlistId
+                                ? new PlaylistDao(playlistId, playlistDTO.getName(), playlist.getLength())
+                                : playlist)
+                        .collect(Collectors.toList())
+                );
+                userChanged(user.getUserId());
 
                 // Getting all user's playlists
-                return getPlaylists(userId);
+                return getPlaylists(user.getUserId());
             }
-            throw new UnauthorizedException();
         }
-        throw new UserNotFoundException();
+        throw new UnauthorizedException();
     }
 
     // Private Functions
 
     /**
      * Creates a {@link Playlists} object containing all playlists that belong to the specified userId.
+     * The playlists are taken from the {@link PlaylistOverviewCache} when the overview of the user is cached.
      *
      * @param userId {@link Integer} UserId
      * @return {@link Playlists}
      * @since 1.0
      */
     private Playlists getPlaylists(int userId) {
+        List<PlaylistDao> playlistDaos = playlistOverviewCache != null
+                ? playlistOverviewCache.get(userId, this::loadPlaylists)
+                : loadPlaylists(userId);
+        return createPlaylists(playlistDaos);
+    }
+
+    /**
+     * Creates a {@link Playlists} object from the given {@link PlaylistDao}'s, with their summed length.
+     * @param playlistDaos {@link List} of {@link PlaylistDao}
+     * @return {@link Playlists}
+     * @since 1.1
+     */
+    private Playlists createPlaylists(List<PlaylistDao> playlistDaos) {
         Playlists playlists = new Playlists();
         //
+        int length = 0;
+        for (PlaylistDao playlistDao : playlistDaos) {
+            Playlist playlist = new Playlist(
+                    playlistDao.getId(),
+                    playlistDao.getName(),
+                    new TracksDao(),
+                    playlistDao.getLength()
+            );
+            playlists.addPlaylist(playlist);
+            length += playlistDao.getLength();
+        }
+        playlists.setLength(length);
+        return playlists;
+    }
+
+    /**
+     * Loads the playlists that belong to the specified userId from the database.
+     * @param userId {@link Integer} UserId
+     * @return {@link List} of {@link PlaylistDao}
+     * @since 1.1
+     */
+    private List<PlaylistDao> loadPlaylists(int userId) {
         PlaylistsDao playlistsDao = playlistMapper.getPlaylistsFromUserId(userId);
         if (playlistsDao != null) {
-            playlists.setLength(playlistsDao.getLength());
-            //
-            ArrayList<PlaylistDao> playlistDaos = playlistsDao.getPlaylists();
-            for (PlaylistDao playlistDao : playlistDaos) {
-                Playlist playlist = new Playlist(
-                        playlistDao.getId(),
-                        playlistDao.getName(),
-                        new TracksDao(),
-                        playlistDao.getLength()
-                );
-                playlists.addPlaylist(playlist);
-            }
+            return playlistsDao.getPlaylists();
         }
-        return playlists;
+        return new ArrayList<>();
+    }
+
+    /**
+     * Changes the cached playlist overview of a user, when it is cached.
+     * @param userId {@link Integer} UserId
+     * @param patch {@link UnaryOperator} that changes the playlists.
+     * @since 1.1
+     */
+    private void updateOverview(int userId, UnaryOperator<List<PlaylistDao>> patch) {
+        if (playlistOverviewCache != null) {
+            playlistOverviewCache.update(userId, patch);
+        }
+    }
+
+    /**
+     * Changes the version of the playlists of a user, when versions are kept.
+     * @param userId {@link Integer} UserId
+     * @since 1.1
+     */
+    private void userChanged(int userId) {
+        if (resourceVersions != null) {
+            resourceVersions.userChanged(userId);
+        }
+    }
+
+    /**
+     * Removes the cached playlist overview of a user, when it is cached.
+     * @param userId {@link Integer} UserId
+     * @since 1.1
+     */
+    private void invalidateOverview(int userId) {
+        if (playlistOverviewCache != null) {
+            playlistOverviewCache.invalidate(userId);
+        }
+    }
+
+    /**
+     * Creates a new list with the given playlists followed by one more playlist.
+     * @param playlists {@link List} of {@link PlaylistDao}
+     * @param playlist {@link PlaylistDao} that is added at the end.
+     * @return {@link List} of {@link PlaylistDao}
+     * @since 1.1
+     */
+    private List<PlaylistDao> concat(List<PlaylistDao> playlists, PlaylistDao playlist) {
+        List<PlaylistDao> result = new ArrayList<>(playlists);
+        result.add(playlist);
+        return result;
     }
 }
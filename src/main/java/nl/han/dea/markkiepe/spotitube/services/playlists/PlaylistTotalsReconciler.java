@@ -0,0 +1,98 @@
+package nl.han.dea.markkiepe.spotitube.services.playlists;
+
+import nl.han.dea.markkiepe.spotitube.datasource.PlaylistMapper;
+import nl.han.dea.markkiepe.spotitube.datasource.util.DatabaseProperties;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Playlist Totals Reconciler<br>
+ * Repairs the stored track count and duration of playlists in the background. The totals are kept up to date when
+ * tracks are added or removed through the application, but they drift when the tracks of a playlist or the duration
+ * of a track are changed directly in the database.
+ * <br><br>
+ * The first reconciliation runs right away when the application starts, so playlists that existed before the totals
+ * were stored do not show a duration of {@code 0} until the first interval passed. The migration that adds the
+ * columns fills them for existing playlists as well:
+ * <pre>
+ * ALTER TABLE UserPlaylist ADD
+ *     trackCount INT NOT NULL DEFAULT 0,
+ *     totalDuration INT NOT NULL DEFAULT 0;
+ * CREATE INDEX IX_UserPlaylist_ownerId ON UserPlaylist (ownerId)
+ *     INCLUDE (playlistName, totalDuration);
+ * UPDATE UP SET trackCount = ISNULL(PT.trackCount, 0), totalDuration = ISNULL(PT.totalDuration, 0)
+ * FROM UserPlaylist UP LEFT JOIN (
+ *     SELECT P.playlistId, COUNT(*) AS trackCount, SUM(T.duration) AS totalDuration
+ *     FROM Playlist P INNER JOIN Track T ON P.trackId = T.trackId
+ *     GROUP BY P.playlistId
+ * ) PT ON UP.playlistId = PT.playlistId;
+ * </pre>
+ * The reconciler is configured in the {@code database.properties} file:
+ * <ul>
+ *     <li>{@code playlistTotalsReconciliationInterval} milliseconds between two reconciliations,
+ *     {@code 0} to disable the reconciliation.</li>
+ * </ul>
+ *
+ * @see PlaylistMapper#reconcilePlaylistTotals()
+ * @see DatabaseProperties
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Singleton
+public class PlaylistTotalsReconciler {
+
+    private final PlaylistMapper playlistMapper;
+    private final ScheduledExecutorService reconciler;
+
+    /**
+     * Creates a new reconciler and starts reconciling the playlist totals in the background, starting right away.
+     * @param playlistMapper {@link PlaylistMapper} that repairs the totals.
+     * @param databaseProperties {@link DatabaseProperties}
+     * @since 1.1
+     */
+    @Inject
+    public PlaylistTotalsReconciler(PlaylistMapper playlistMapper, DatabaseProperties databaseProperties) {
+        this.playlistMapper = playlistMapper;
+        long interval = Math.max(0, databaseProperties.getPlaylistTotalsReconciliationInterval());
+        //
+        this.reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "spotitube-playlist-totals-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (interval > 0) {
+            reconciler.scheduleWithFixedDelay(this::reconcile, 0, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Repairs the stored totals of all playlists that drifted.
+     * @return {@link Integer} amount of playlists whose totals were repaired, {@code 0} when the reconciliation failed.
+     * @since 1.1
+     */
+    public int reconcile() {
+        try {
+            return playlistMapper.reconcilePlaylistTotals();
+        } catch (RuntimeException e) {
+            // Keeps the reconciler running, the next reconciliation is tried again
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    /**
+     * Stops the background reconciliation.
+     * @since 1.1
+     */
+    @PreDestroy
+    public void shutdown() {
+        reconciler.shutdownNow();
+    }
+
+}
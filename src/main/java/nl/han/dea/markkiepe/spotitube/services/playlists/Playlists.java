@@ -13,6 +13,7 @@ public class Playlists {
 
     private ArrayList<Playlist> playlists = new ArrayList<>();
     private int length;
+    private Integer nextCursor;
 
     /**
      * Setter for the length of this playlist.
@@ -52,4 +53,22 @@ public class Playlists {
         return length;
     }
 
+    /**
+     * Gets the cursor of the next page, which is the id of the last playlist on this page.
+     * @return {@link Integer} or {@code null} when there is no next page.
+     * @since 1.1
+     */
+    public Integer getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Sets the cursor of the next page.
+     * @param nextCursor {@link Integer} or {@code null} when there is no next page.
+     * @since 1.1
+     */
+    public void setNextCursor(Integer nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
 }
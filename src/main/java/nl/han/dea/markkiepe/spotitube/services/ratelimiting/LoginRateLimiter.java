@@ -0,0 +1,104 @@
+package nl.han.dea.markkiepe.spotitube.services.ratelimiting;
+
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticationProperties;
+import nl.han.dea.markkiepe.spotitube.services.exceptions.TooManyRequestsException;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Locale;
+
+/**
+ * Login Rate Limiter<br>
+ * Limits the amount of log-in attempts per client address and per username, so brute forcing a password costs
+ * the attacker time instead of costing the server database queries and password hashes.
+ * <br><br>
+ * The limits are configured in the {@code authentication.properties} file:
+ * <ul>
+ *     <li>{@code loginAddressBurst} attempts a client address can make at once, {@code 0} for no limit.</li>
+ *     <li>{@code loginAddressRefillInterval} milliseconds after which a client address can make one more attempt.</li>
+ *     <li>{@code loginUsernameBurst} attempts that can be made for a username at once, {@code 0} for no limit.</li>
+ *     <li>{@code loginUsernameRefillInterval} milliseconds after which one more attempt can be made for a username.</li>
+ *     <li>{@code loginRateLimitMaximumKeys} addresses and usernames that are remembered at most, each.</li>
+ * </ul>
+ *
+ * @see RateLimiter
+ * @see AuthenticationProperties
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Singleton
+public class LoginRateLimiter {
+
+    private final RateLimiter addressLimiter;
+    private final RateLimiter usernameLimiter;
+
+    /**
+     * Creates the rate limiters that are configured in the {@link AuthenticationProperties}.
+     * @param authenticationProperties {@link AuthenticationProperties}
+     * @since 1.1
+     */
+    @Inject
+    public LoginRateLimiter(AuthenticationProperties authenticationProperties) {
+        this(
+                new RateLimiter(
+                        authenticationProperties.getLoginAddressBurst(),
+                        authenticationProperties.getLoginAddressRefillInterval(),
+                        authenticationProperties.getLoginRateLimitMaximumKeys()
+                ),
+                new RateLimiter(
+                        authenticationProperties.getLoginUsernameBurst(),
+                        authenticationProperties.getLoginUsernameRefillInterval(),
+                        authenticationProperties.getLoginRateLimitMaximumKeys()
+                )
+        );
+    }
+
+    /**
+     * Creates a login rate limiter with the given limiters.
+     * @param addressLimiter {@link RateLimiter} for client addresses.
+     * @param usernameLimiter {@link RateLimiter} for usernames.
+     * @since 1.1
+     */
+    public LoginRateLimiter(RateLimiter addressLimiter, RateLimiter usernameLimiter) {
+        this.addressLimiter = addressLimiter;
+        this.usernameLimiter = usernameLimiter;
+    }
+
+    /**
+     * Counts a log-in attempt of a client address.
+     * @param address {@link String} remote address of the client.
+     * @throws TooManyRequestsException When the client made too many attempts.
+     * @since 1.1
+     */
+    public void acquireForAddress(String address) {
+        acquire(addressLimiter, address);
+    }
+
+    /**
+     * Counts a log-in attempt for a username. Usernames are compared without regard to case, like the database does.
+     * @param username {@link String}
+     * @throws TooManyRequestsException When too many attempts were made for the username.
+     * @since 1.1
+     */
+    public void acquireForUsername(String username) {
+        acquire(usernameLimiter, username.strip().toLowerCase(Locale.ROOT));
+    }
+
+    // Private Functions
+
+    /**
+     * Takes a token from the bucket of a key.
+     * @param rateLimiter {@link RateLimiter}
+     * @param key {@link String}
+     * @throws TooManyRequestsException With the seconds until the next attempt is allowed.
+     * @since 1.1
+     */
+    private void acquire(RateLimiter rateLimiter, String key) {
+        long wait = rateLimiter.tryAcquire(key, System.currentTimeMillis());
+        if (wait > 0) {
+            throw new TooManyRequestsException((wait + 999) / 1000);
+        }
+    }
+
+}
@@ -0,0 +1,121 @@
+package nl.han.dea.markkiepe.spotitube.services.ratelimiting;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate Limiter<br>
+ * Keeps a token bucket per key, for example per username. Every attempt takes a token from the bucket of its key
+ * and the bucket is refilled with one token per refill interval, up to its capacity. An attempt on an empty
+ * bucket is refused.
+ * <br><br>
+ * A bucket is a single {@link AtomicLong} with the moment the bucket is full again, which is how the generic cell
+ * rate algorithm writes a token bucket. Taking a token moves that moment one refill interval further, which is a
+ * single compare-and-set, and the bucket is refilled by simply letting time pass. No thread ever blocks on a lock.
+ * <br><br>
+ * Buckets that are full again hold no information, so they are removed at most once per sweep interval. A bucket
+ * that still limits its key is never removed, so an attacker cannot reset the bucket of a victim by using many
+ * new keys. Instead, when the maximum amount of buckets is reached, an attempt for a key without a bucket is
+ * refused until a sweep makes room, which keeps the memory bounded even when an attacker uses a new key for every
+ * attempt.
+ *
+ * @implNote
+ * An attempt that races with the removal of its bucket can be forgotten. This only ever allows one extra attempt.
+ * Attempts for new keys that race with each other can add a few buckets more than the maximum.
+ *
+ * @see LoginRateLimiter
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+public class RateLimiter {
+
+    private static final long MINIMUM_SWEEP_INTERVAL = 1000;
+
+    private final int capacity;
+    private final long refillInterval;
+    private final int maximumBuckets;
+    private final long sweepInterval;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepAt = new AtomicLong();
+
+    /**
+     * Creates a new rate limiter.
+     * @param capacity {@link Integer} attempts that can be made at once, {@code 0} to allow every attempt.
+     * @param refillInterval {@link Long} milliseconds after which one more attempt can be made.
+     * @param maximumBuckets {@link Integer} keys that are kept at most.
+     * @since 1.1
+     */
+    public RateLimiter(int capacity, long refillInterval, int maximumBuckets) {
+        this.capacity = Math.max(0, capacity);
+        this.refillInterval = Math.max(1, refillInterval);
+        this.maximumBuckets = Math.max(1, maximumBuckets);
+        this.sweepInterval = Math.max(MINIMUM_SWEEP_INTERVAL, this.refillInterval);
+    }
+
+    /**
+     * Takes a token from the bucket of a key.
+     * @param key {@link String}
+     * @param now {@link Long} current time in milliseconds.
+     * @return {@link Long} {@code 0} when the attempt is allowed, otherwise the milliseconds until a token is available.
+     * @since 1.1
+     */
+    public long tryAcquire(String key, long now) {
+        if (capacity == 0) {
+            return 0;
+        }
+        sweepIfNeeded(now);
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maximumBuckets) {
+                return Math.max(1, nextSweepAt.get() - now);
+            }
+            bucket = buckets.computeIfAbsent(key, newKey -> new AtomicLong(now));
+        }
+        long burst = capacity * refillInterval;
+        while (true) {
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + refillInterval;
+            if (next - now > burst) {
+                return next - now - burst;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gets the amount of keys that currently have a bucket.
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Removes the buckets that are full again. Buckets that still limit their key are kept.
+     * @param now {@link Long} current time in milliseconds.
+     * @since 1.1
+     */
+    public void sweep(long now) {
+        buckets.values().removeIf(bucket -> bucket.get() <= now);
+    }
+
+    // Private Functions
+
+    /**
+     * Sweeps the buckets when the sweep interval passed, also when there is no room for new buckets, so a burst of
+     * new keys does not scan every bucket on each attempt. Only one caller sweeps at a time.
+     * @param now {@link Long} current time in milliseconds.
+     * @since 1.1
+     */
+    private void sweepIfNeeded(long now) {
+        long sweepAt = nextSweepAt.get();
+        if (now >= sweepAt && nextSweepAt.compareAndSet(sweepAt, now + sweepInterval)) {
+            sweep(now);
+        }
+    }
+
+}
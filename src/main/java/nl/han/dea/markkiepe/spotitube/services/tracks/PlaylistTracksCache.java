@@ -0,0 +1,51 @@
+package nl.han.dea.markkiepe.spotitube.services.tracks;
+
+import nl.han.dea.markkiepe.spotitube.datasource.dao.tracks.TrackDao;
+import nl.han.dea.markkiepe.spotitube.datasource.util.DatabaseProperties;
+import nl.han.dea.markkiepe.spotitube.services.caching.ListCache;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Playlist Tracks Cache<br>
+ * Keeps the tracks of recently used playlists, keyed by PlaylistId. A track that is added to or removed from a
+ * playlist is patched into the cached tracks, so the response to the change does not read all tracks again.
+ * <br><br>
+ * The cache is configured in the {@code database.properties} file:
+ * <ul>
+ *     <li>{@code playlistTracksCacheSize} playlists whose tracks are kept, {@code 0} to disable the cache.</li>
+ *     <li>{@code playlistTracksCacheTimeToLive} milliseconds the tracks of a playlist are kept.</li>
+ * </ul>
+ *
+ * @see ListCache
+ * @see TrackService
+ * @see DatabaseProperties
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Singleton
+public class PlaylistTracksCache extends ListCache<TrackDao> {
+
+    /**
+     * Creates a new empty playlist tracks cache.
+     * @param databaseProperties {@link DatabaseProperties}
+     * @since 1.1
+     */
+    @Inject
+    public PlaylistTracksCache(DatabaseProperties databaseProperties) {
+        this(databaseProperties.getPlaylistTracksCacheSize(), databaseProperties.getPlaylistTracksCacheTimeToLive());
+    }
+
+    /**
+     * Creates a new empty playlist tracks cache.
+     * @param maximumSize {@link Integer} playlists whose tracks are kept, {@code 0} to disable the cache.
+     * @param timeToLive {@link Long} milliseconds the tracks of a playlist are kept.
+     * @since 1.1
+     */
+    public PlaylistTracksCache(int maximumSize, long timeToLive) {
+        super(maximumSize, timeToLive);
+    }
+
+}
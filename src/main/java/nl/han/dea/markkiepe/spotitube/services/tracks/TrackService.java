@@ -1,46 +1,82 @@
 package nl.han.dea.markkiepe.spotitube.services.tracks;
 
 import nl.han.dea.markkiepe.spotitube.datasource.TracksMapper;
+import nl.han.dea.markkiepe.spotitube.datasource.dao.playlists.PlaylistDao;
 import nl.han.dea.markkiepe.spotitube.datasource.dao.tracks.TrackDao;
 import nl.han.dea.markkiepe.spotitube.datasource.dao.tracks.TracksDao;
-import nl.han.dea.markkiepe.spotitube.services.AuthenticationManager;
+import nl.han.dea.markkiepe.spotitube.services.authentication.UserPrincipal;
 import nl.han.dea.markkiepe.spotitube.services.exceptions.UnauthorizedException;
-import nl.han.dea.markkiepe.spotitube.services.exceptions.UserNotFoundException;
+import nl.han.dea.markkiepe.spotitube.services.playlists.PlaylistOverviewCache;
+import nl.han.dea.markkiepe.spotitube.services.versioning.ResourceVersions;
 
 import javax.inject.Inject;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 /**
  * This class manages all requests that involve tracks.
- * @see AuthenticationManager
+ * @see UserPrincipal
  * @see TracksMapper
+ * @see PlaylistOverviewCache
+ * @see PlaylistTracksCache
+ * @see ResourceVersions
  * @since 1.0
  * @author Mark Kiepe
  */
 public class TrackService {
 
-    private static AuthenticationManager authenticationManager;
+    private static final int DEFAULT_PAGE_SIZE = 10;
+    private static final int MAXIMUM_PAGE_SIZE = 100;
+
     private static TracksMapper tracksMapper;
+    private static PlaylistOverviewCache playlistOverviewCache;
+    private static PlaylistTracksCache playlistTracksCache;
+    private static ResourceVersions resourceVersions;
 
     /**
-     * Setter for the {@link AuthenticationManager} that is used to verify if the given Authentication Token
-     * has the required permission to view, delete and/or modify the given track.
-     * @param authenticationManager {@link AuthenticationManager}
+     * Setter for the {@link TracksMapper} that is used to communicate with the database.
+     * @param tracksMapper {@link TracksMapper}
      * @since 1.0
      */
     @Inject
-    public void setAuthenticationManager(AuthenticationManager authenticationManager) {
-        this.authenticationManager = authenticationManager;
+    public void setTracksMapper(TracksMapper tracksMapper) {
+        this.tracksMapper = tracksMapper;
     }
 
     /**
-     * Setter for the {@link TracksMapper} that is used to communicate with the database.
-     * @param tracksMapper {@link TracksMapper}
-     * @since 1.0
+     * Setter for the {@link PlaylistOverviewCache} whose playlist length is updated when the tracks of one of
+     * the playlists of a user change, because the length of that playlist changes with them.
+     * @param playlistOverviewCache {@link PlaylistOverviewCache}
+     * @since 1.1
      */
     @Inject
-    public void setTracksMapper(TracksMapper tracksMapper) {
-        this.tracksMapper = tracksMapper;
+    public void setPlaylistOverviewCache(PlaylistOverviewCache playlistOverviewCache) {
+        this.playlistOverviewCache = playlistOverviewCache;
+    }
+
+    /**
+     * Setter for the {@link PlaylistTracksCache} that keeps the tracks of playlists, so the response to adding or
+     * removing a track can be built without reading all tracks again. Without a cache the tracks are read every time.
+     * @param playlistTracksCache {@link PlaylistTracksCache}
+     * @since 1.1
+     */
+    @Inject
+    public void setPlaylistTracksCache(PlaylistTracksCache playlistTracksCache) {
+        this.playlistTracksCache = playlistTracksCache;
+    }
+
+    /**
+     * Setter for the {@link ResourceVersions} that are changed after every change to the tracks of a playlist.
+     * Without versions the tracks of a playlist have no version.
+     * @param resourceVersions {@link ResourceVersions}
+     * @since 1.1
+     */
+    @Inject
+    public void setResourceVersions(ResourceVersions resourceVersions) {
+        this.resourceVersions = resourceVersions;
     }
 
     //
@@ -52,113 +88,302 @@ public class TrackService {
      * @see Tracks
      * @see Track
      *
-     * @param authenticationToken {@link String} Authentication Token
+     * @param user {@link UserPrincipal} authenticated user
      * @param playlistId {@link Integer}
-     * @throws UserNotFoundException When the given Authentication Token does not exist this exception is thrown.
-     * @throws UnauthorizedException When the given Authentication Token does not have the required permissions to
-     * view, edit or delete the given track.
+     * @throws UnauthorizedException When the user does not own the given playlist.
      * @return {@link Tracks}
      * @since 1.0
      */
-    public Tracks getTracksInPlaylist(String authenticationToken, int playlistId) throws UserNotFoundException, UnauthorizedException {
-        int userId = authenticationManager.getUserIdFromToken(authenticationToken);
-        if (userId > 0) {
-            if (authenticationManager.userHasPlaylistOwnership(userId, playlistId)) {
-                return getTracksInPlaylist(playlistId);
+    public Tracks getTracksInPlaylist(UserPrincipal user, int playlistId) throws UnauthorizedException {
+        if (user.ownsPlaylist(playlistId)) {
+            return getTracksInPlaylist(playlistId);
+        }
+        throw new UnauthorizedException();
+    }
+
+    /**
+     * Creates a {@link Tracks} object that contains a page of {@link Track} objects that belong to the given playlist.<br>
+     * The page contains the tracks after the given trackId, ordered by their id. When the page is full the id of
+     * its last track is set as the next cursor, which can be used as {@code afterTrackId} for the next page.
+     * The page size is limited to 100 tracks. Pages are read from the database, not from the {@link PlaylistTracksCache}.
+     *
+     * @see UserPrincipal#ownsPlaylist(int)
+     * @see TracksMapper#getTracksInPlaylist(int, int, int)
+     *
+     * @param user {@link UserPrincipal} authenticated user
+     * @param playlistId {@link Integer} PlaylistId
+     * @param afterTrackId {@link Integer} TrackId after which the page starts, {@code 0} for the first page.
+     * @param limit {@link Integer} maximum amount of tracks on the page.
+     * @return {@link Tracks}
+     * @throws UnauthorizedException When the user does not own the given playlist.
+     * @since 1.1
+     */
+    public Tracks getTracksInPlaylist(UserPrincipal user, int playlistId, int afterTrackId, int limit) throws UnauthorizedException {
+        if (user.ownsPlaylist(playlistId)) {
+            int pageSize = Math.min(Math.max(1, limit), MAXIMUM_PAGE_SIZE);
+            return createPage(tracksMapper.getTracksInPlaylist(playlistId, Math.max(0, afterTrackId), pageSize), pageSize);
+        }
+        throw new UnauthorizedException();
+    }
+
+    /**
+     * Gets the current version of the tracks in the given playlist, without reading the tracks.
+     * The version has to be taken before the tracks are read, so a change in between results in a newer version.
+     *
+     * @see ResourceVersions#getPlaylistVersion(int)
+     *
+     * @param user {@link UserPrincipal} authenticated user
+     * @param playlistId {@link Integer}
+     * @return {@link String} version, {@code null} when versions are not kept.
+     * @throws UnauthorizedException When the user does not own the given playlist.
+     * @since 1.1
+     */
+    public String getTracksInPlaylistVersion(UserPrincipal user, int playlistId) throws UnauthorizedException {
+        if (user.ownsPlaylist(playlistId)) {
+            if (resourceVersions == null) {
+                return null;
             }
-            throw new UnauthorizedException();
+            return resourceVersions.getPlaylistVersion(playlistId);
         }
-        throw new UserNotFoundException();
+        throw new UnauthorizedException();
     }
 
     /**
-     * Creates a {@link Tracks} object that contains {@link Track} objects that are not in the given playlist.
+     * Creates a {@link Tracks} object that contains the first page of {@link Track} objects that are not in the given playlist.
      *
-     * @see AuthenticationManager
-     * @see TracksMapper
+     * @see TrackService#getTracksNotInPlaylist(UserPrincipal, int, int, int)
      *
-     * @param authenticationToken {@link String} Authentication Token
+     * @param user {@link UserPrincipal} authenticated user
      * @param playlistId {@link Integer} PlaylistId
      * @return {@link Tracks}
-     * @throws UserNotFoundException When the given Authentication Token does not exist this exception is thrown.
-     * @throws UnauthorizedException When the given Authentication Token does not have the required permissions to
-     * view, edit or delete the given track.
+     * @throws UnauthorizedException When the user does not own the given playlist.
      * @since 1.0
      */
-    public Tracks getTracksNotInPlaylist(String authenticationToken, int playlistId) throws UserNotFoundException, UnauthorizedException {
-        int userId = authenticationManager.getUserIdFromToken(authenticationToken);
-        if (userId > 0) {
-            if (authenticationManager.userHasPlaylistOwnership(userId, playlistId)) {
-                TracksDao tracksDao = tracksMapper.getTracksNotInPlaylist(playlistId);
-                return createTracks(tracksDao);
-            }
-            throw new UnauthorizedException();
+    public Tracks getTracksNotInPlaylist(UserPrincipal user, int playlistId) throws UnauthorizedException {
+        return getTracksNotInPlaylist(user, playlistId, 0, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Creates a {@link Tracks} object that contains a page of {@link Track} objects that are not in the given playlist.<br>
+     * The page contains the tracks after the given trackId, ordered by their id. When the page is full the id of
+     * its last track is set as the next cursor, which can be used as {@code afterTrackId} for the next page.
+     * The page size is limited to 100 tracks.
+     *
+     * @see UserPrincipal#ownsPlaylist(int)
+     * @see TracksMapper#getTracksNotInPlaylist(int, int, int)
+     *
+     * @param user {@link UserPrincipal} authenticated user
+     * @param playlistId {@link Integer} PlaylistId
+     * @param afterTrackId {@link Integer} TrackId after which the page starts, {@code 0} for the first page.
+     * @param limit {@link Integer} maximum amount of tracks on the page.
+     * @return {@link Tracks}
+     * @throws UnauthorizedException When the user does not own the given playlist.
+     * @since 1.1
+     */
+    public Tracks getTracksNotInPlaylist(UserPrincipal user, int playlistId, int afterTrackId, int limit) throws UnauthorizedException {
+        if (user.ownsPlaylist(playlistId)) {
+            int pageSize = Math.min(Math.max(1, limit), MAXIMUM_PAGE_SIZE);
+            return createPage(tracksMapper.getTracksNotInPlaylist(playlistId, Math.max(0, afterTrackId), pageSize), pageSize);
         }
-        throw new UserNotFoundException();
+        throw new UnauthorizedException();
     }
 
     /**
-     * Adds a new Track to a given Playlist
+     * Creates a {@link TrackStream} over all {@link Track} objects that are not in the given playlist, ordered by their id.<br>
+     * The permissions are checked right away, the tracks are only read when the stream is consumed.
      *
-     * @see AuthenticationManager
+     * @see UserPrincipal#ownsPlaylist(int)
+     * @see TracksMapper#streamTracksNotInPlaylist(int, int, java.util.function.Consumer)
+     *
+     * @param user {@link UserPrincipal} authenticated user
+     * @param playlistId {@link Integer} PlaylistId
+     * @param afterTrackId {@link Integer} TrackId after which the stream starts, {@code 0} for all tracks.
+     * @return {@link TrackStream}
+     * @throws UnauthorizedException When the user does not own the given playlist.
+     * @since 1.1
+     */
+    public TrackStream streamTracksNotInPlaylist(UserPrincipal user, int playlistId, int afterTrackId) throws UnauthorizedException {
+        if (user.ownsPlaylist(playlistId)) {
+            int startAfter = Math.max(0, afterTrackId);
+            return consumer -> tracksMapper.streamTracksNotInPlaylist(
+                    playlistId,
+                    startAfter,
+                    trackDao -> consumer.accept(createTrack(trackDao))
+            );
+        }
+        throw new UnauthorizedException();
+    }
+
+    /**
+     * Adds a new Track to a given Playlist<br>
+     * The added track is returned by the insert and patched into the cached tracks of the playlist, which are only
+     * read again when they are not cached.
+     *
+     * @see UserPrincipal#ownsPlaylist(int)
      * @see TracksMapper
      *
-     * @param authenticationToken {@link String} Authentication Token
+     * @param user {@link UserPrincipal} authenticated user
      * @param playlistId {@link Integer} playlistId
      * @param track {@link Track} containing track data that you wish to add to the playlist.
      * @return {@link Tracks}
-     * @throws UserNotFoundException When the given Authentication Token does not exist this exception is thrown.
-     * @throws UnauthorizedException When the given Authentication Token does not have the required permissions to
-     * view, edit or delete the given track.
+     * @throws UnauthorizedException When the user does not own the given playlist.
      * @since 1.0
      */
-    public Tracks addTrackInPlaylist(String authenticationToken, int playlistId, Track track) throws UserNotFoundException, UnauthorizedException {
-        int userId = authenticationManager.getUserIdFromToken(authenticationToken);
-        if (userId > 0) {
-            if (authenticationManager.userHasPlaylistOwnership(userId, playlistId)) {
-                // Adding track to playlist
-                tracksMapper.addTrackToPlaylist(userId, playlistId, track.getId());
+    public Tracks addTrackInPlaylist(UserPrincipal user, int playlistId, Track track) throws UnauthorizedException {
+        if (user.ownsPlaylist(playlistId)) {
+            // Adding track to playlist
+            TracksDao addedTracks = tracksMapper.addTrackToPlaylist(user.getUserId(), playlistId, track.getId());
+            if (addedTracks != null) {
+                updateTracks(playlistId, trackDaos -> {
+                    List<TrackDao> result = new ArrayList<>(trackDaos);
+                    result.addAll(addedTracks.getTracks());
+                    return result;
+                });
+                return tracksChanged(user, playlistId);
+            }
+        }
+        throw new UnauthorizedException();
+    }
 
-                // Getting updated tracks in playlist
-                return getTracksInPlaylist(playlistId);
+    /**
+     * Adds multiple tracks to a given Playlist at once.<br>
+     * The ownership of the playlist is checked once, after which all tracks are added in a single batch and the
+     * playlist is read once. Duplicate trackIds are only added once.
+     *
+     * @see UserPrincipal#ownsPlaylist(int)
+     * @see TracksMapper#addTracksToPlaylist(int, int[])
+     *
+     * @param user {@link UserPrincipal} authenticated user
+     * @param playlistId {@link Integer} playlistId
+     * @param trackIds TrackIds of the tracks you wish to add to the playlist.
+     * @return {@link Tracks}
+     * @throws UnauthorizedException When the user does not own the given playlist.
+     * @since 1.1
+     */
+    public Tracks addTracksInPlaylist(UserPrincipal user, int playlistId, List<Integer> trackIds) throws UnauthorizedException {
+        if (user.ownsPlaylist(playlistId)) {
+            // Adding tracks to playlist
+            int[] distinctTrackIds = trackIds == null ? new int[0] : trackIds.stream()
+                    .filter(Objects::nonNull)
+                    .mapToInt(Integer::intValue)
+                    .distinct()
+                    .toArray();
+            if (distinctTrackIds.length > 0) {
+                tracksMapper.addTracksToPlaylist(user.getUserId(), playlistId, distinctTrackIds);
+                invalidateTracks(playlistId);
+                return tracksChanged(user, playlistId);
             }
-            throw new UnauthorizedException();
+
+            // Getting updated tracks in playlist
+            return getTracksInPlaylist(playlistId);
         }
-        throw new UserNotFoundException();
+        throw new UnauthorizedException();
     }
 
     /**
-     * Deletes a given track from the playlist.
+     * Deletes a given track from the playlist.<br>
+     * The track is removed from the cached tracks of the playlist, which are only read again when they are not cached.
      *
-     * @see AuthenticationManager
+     * @see UserPrincipal#ownsPlaylist(int)
      * @see TracksMapper
      *
-     * @param authenticationToken {@link String} Authentication Token
+     * @param user {@link UserPrincipal} authenticated user
      * @param playlistId {@link Integer} PlaylistId
      * @param trackId {@link Integer} TrackId that you wish to remove from the playlist.
      * @return {@link Tracks}
-     * @throws UserNotFoundException When the given Authentication Token does not exist this exception is thrown.
-     * @throws UnauthorizedException When the given Authentication Token does not have the required permissions to
-     * view, edit or delete the given track.
+     * @throws UnauthorizedException When the user does not own the given playlist.
      * @since 1.0
      */
-    public Tracks deleteTrackInPlaylist(String authenticationToken, int playlistId, int trackId) throws UserNotFoundException, UnauthorizedException {
-        int userId = authenticationManager.getUserIdFromToken(authenticationToken);
-        if (userId > 0) {
-            if (authenticationManager.userHasPlaylistOwnership(userId, playlistId)) {
-                // Deleting track in playlist
-                tracksMapper.deleteTrackFromPlaylist(playlistId, trackId);
-
-                // Getting updated tracks in playlist
-                return getTracksInPlaylist(playlistId);
+    public Tracks deleteTrackInPlaylist(UserPrincipal user, int playlistId, int trackId) throws UnauthorizedException {
+        if (user.ownsPlaylist(playlistId)) {
+            // Deleting track in playlist
+            if (tracksMapper.deleteTrackFromPlaylist(user.getUserId(), playlistId, trackId)) {
+                updateTracks(playlistId, trackDaos -> trackDaos.stream()
+                        .filter(trackDao -> trackDao.getId() != trackId)
+                        .collect(Collectors.toList())
+                );
+                return tracksChanged(user, playlistId);
             }
-            throw new UnauthorizedException();
         }
-        throw new UserNotFoundException();
+        throw new UnauthorizedException();
     }
 
     // Private Functions
 
+    /**
+     * Finishes a change to the tracks of a playlist. The updated tracks are read for the response, the length of
+     * the playlist in the cached overview of its owner is set to their total duration and the versions are changed.
+     * The versions are changed last, so a request in between never gets the old overview with the new version.
+     * @param user {@link UserPrincipal} owner of the playlist.
+     * @param playlistId {@link Integer} PlaylistId
+     * @return {@link Tracks} updated tracks in the playlist.
+     * @since 1.1
+     */
+    private Tracks tracksChanged(UserPrincipal user, int playlistId) {
+        // Getting updated tracks in playlist
+        Tracks tracks = getTracksInPlaylist(playlistId);
+        updateOverview(user, playlistId, tracks);
+        playlistChanged(user, playlistId);
+        return tracks;
+    }
+
+    /**
+     * Changes the versions of the tracks of a playlist and of the playlists of its owner, whose length changed
+     * with it, when versions are kept.
+     * @param user {@link UserPrincipal} owner of the playlist.
+     * @param playlistId {@link Integer} PlaylistId
+     * @since 1.1
+     */
+    private void playlistChanged(UserPrincipal user, int playlistId) {
+        if (resourceVersions != null) {
+            resourceVersions.playlistChanged(playlistId);
+            resourceVersions.userChanged(user.getUserId());
+        }
+    }
+
+    /**
+     * Changes the cached tracks of a playlist, when they are cached.
+     * @param playlistId {@link Integer} PlaylistId
+     * @param patch {@link UnaryOperator} that changes the tracks.
+     * @since 1.1
+     */
+    private void updateTracks(int playlistId, UnaryOperator<List<TrackDao>> patch) {
+        if (playlistTracksCache != null) {
+            playlistTracksCache.update(playlistId, patch);
+        }
+    }
+
+    /**
+     * Removes the cached tracks of a playlist, when they are cached.
+     * @param playlistId {@link Integer} PlaylistId
+     * @since 1.1
+     */
+    private void invalidateTracks(int playlistId) {
+        if (playlistTracksCache != null) {
+            playlistTracksCache.invalidate(playlistId);
+        }
+    }
+
+    /**
+     * Sets the length of a playlist in the cached playlist overview of its owner, when the overview is cached.
+     * The total length of the overview is summed from its playlists, so it changes with it.
+     * @param user {@link UserPrincipal} owner of the playlist.
+     * @param playlistId {@link Integer} PlaylistId
+     * @param tracks {@link Tracks} all tracks that are in the playlist now.
+     * @since 1.1
+     */
+    private void updateOverview(UserPrincipal user, int playlistId, Tracks tracks) {
+        if (playlistOverviewCache != null) {
+            int length = tracks.getTracks().stream().mapToInt(Track::getDuration).sum();
+            playlistOverviewCache.update(user.getUserId(), playlistDaos -> playlistDaos.stream()
+                    .map(playlistDao -> playlistDao.getId() == playlistId
+                            ? new PlaylistDao(playlistId, playlistDao.getName(), length)
+                            : playlistDao)
+                    .collect(Collectors.toList())
+            );
+        }
+    }
+
     /**
      * Creates a new {@link Tracks} object from a given {@link TracksDao}
      * @param tracksDao {@link TracksDao} that you wish to convert into {@link Tracks}
@@ -166,34 +391,72 @@ public class TrackService {
      * @since 1.0
      */
     private Tracks createTracks(TracksDao tracksDao) {
+        if (tracksDao != null) {
+            return createTracks(tracksDao.getTracks());
+        }
+        return new Tracks();
+    }
+
+    /**
+     * Creates a {@link Tracks} object from a page of tracks. When the page is full the id of its last track is set
+     * as the next cursor.
+     * @param tracksDao {@link TracksDao} with the tracks on the page.
+     * @param pageSize {@link Integer} maximum amount of tracks on the page.
+     * @return {@link Tracks}
+     * @since 1.1
+     */
+    private Tracks createPage(TracksDao tracksDao, int pageSize) {
+        Tracks tracks = createTracks(tracksDao);
+        //
+        ArrayList<Track> page = tracks.getTracks();
+        if (page.size() == pageSize) {
+            tracks.setNextCursor(page.get(pageSize - 1).getId());
+        }
+        return tracks;
+    }
+
+    /**
+     * Creates a new {@link Tracks} object from the given {@link TrackDao}'s
+     * @param trackDaos {@link List} of {@link TrackDao}'s that you wish to convert into {@link Tracks}
+     * @return {@link Tracks}
+     * @since 1.1
+     */
+    private Tracks createTracks(List<TrackDao> trackDaos) {
         Tracks tracks = new Tracks();
         //
-        if (tracksDao != null) {
-            ArrayList<TrackDao> trackDaos = tracksDao.getTracks();
-            if (trackDaos.size() > 0) {
-                for (TrackDao trackDao : trackDaos) {
-                    Track track = new Track(
-                            trackDao.getId(),
-                            trackDao.getTitle(),
-                            trackDao.getPerformer(),
-                            trackDao.getDuration(),
-                            trackDao.getAlbum(),
-                            trackDao.getPlaycount(),
-                            trackDao.getPublicationDate(),
-                            trackDao.getDescription(),
-                            trackDao.getOfflineAvailable()
-                    );
-                    tracks.addTrack(track);
-                }
+        if (trackDaos.size() > 0) {
+            for (TrackDao trackDao : trackDaos) {
+                tracks.addTrack(createTrack(trackDao));
             }
         }
         return tracks;
     }
 
+    /**
+     * Creates a new {@link Track} from a given {@link TrackDao}
+     * @param trackDao {@link TrackDao} that you wish to convert into a {@link Track}
+     * @return {@link Track}
+     * @since 1.1
+     */
+    private Track createTrack(TrackDao trackDao) {
+        return new Track(
+                trackDao.getId(),
+                trackDao.getTitle(),
+                trackDao.getPerformer(),
+                trackDao.getDuration(),
+                trackDao.getAlbum(),
+                trackDao.getPlaycount(),
+                trackDao.getPublicationDate(),
+                trackDao.getDescription(),
+                trackDao.getOfflineAvailable()
+        );
+    }
+
     /**
      * Returns a {@link Tracks}s object containing {@link Track} classes that belong to this playlist.
+     * The tracks are taken from the {@link PlaylistTracksCache} when the tracks of the playlist are cached.
      *
-     * @see AuthenticationManager
+     * @see UserPrincipal#ownsPlaylist(int)
      * @see TracksMapper
      *
      * @param playlistId {@link Integer} PlaylistId
@@ -201,8 +464,24 @@ public class TrackService {
      * @since 1.0
      */
     private Tracks getTracksInPlaylist(int playlistId) {
+        if (playlistTracksCache != null) {
+            return createTracks(playlistTracksCache.get(playlistId, this::loadTracksInPlaylist));
+        }
+        return createTracks(tracksMapper.getTracksInPlaylist(playlistId));
+    }
+
+    /**
+     * Loads the tracks that belong to the given playlist from the database.
+     * @param playlistId {@link Integer} PlaylistId
+     * @return {@link List} of {@link TrackDao}
+     * @since 1.1
+     */
+    private List<TrackDao> loadTracksInPlaylist(int playlistId) {
         TracksDao tracksDao = tracksMapper.getTracksInPlaylist(playlistId);
-        return createTracks(tracksDao);
+        if (tracksDao != null) {
+            return tracksDao.getTracks();
+        }
+        return new ArrayList<>();
     }
 
 
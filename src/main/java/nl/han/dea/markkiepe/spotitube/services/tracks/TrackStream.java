@@ -0,0 +1,28 @@
+package nl.han.dea.markkiepe.spotitube.services.tracks;
+
+import nl.han.dea.markkiepe.spotitube.datasource.exceptions.DatabaseErrorException;
+
+import java.util.function.Consumer;
+
+/**
+ * Track Stream<br>
+ * A query for tracks that has been authorized but not executed yet. The tracks are read from the database
+ * when {@link TrackStream#forEach(Consumer)} is called and are handed over one by one without being collected.
+ *
+ * @see TrackService#streamTracksNotInPlaylist(String, int, int)
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@FunctionalInterface
+public interface TrackStream {
+
+    /**
+     * Executes the query and hands every {@link Track} to the consumer.
+     * @param consumer {@link Consumer} that receives every {@link Track}.
+     * @throws DatabaseErrorException When an unexpected error occurs while querying the database.
+     * @since 1.1
+     */
+    void forEach(Consumer<Track> consumer) throws DatabaseErrorException;
+
+}
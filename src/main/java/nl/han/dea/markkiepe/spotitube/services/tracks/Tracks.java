@@ -11,6 +11,7 @@ import java.util.ArrayList;
 public class Tracks {
 
     private ArrayList<Track> tracks = new ArrayList<>();
+    private Integer nextCursor;
 
     /**
      * Adds a new {@link Track} to the collection.
@@ -29,4 +30,22 @@ public class Tracks {
     public ArrayList<Track> getTracks() {
         return tracks;
     }
+
+    /**
+     * Gets the cursor of the next page, which is the id of the last track on this page.
+     * @return {@link Integer} or {@code null} when there is no next page.
+     * @since 1.1
+     */
+    public Integer getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Sets the cursor of the next page.
+     * @param nextCursor {@link Integer} or {@code null} when there is no next page.
+     * @since 1.1
+     */
+    public void setNextCursor(Integer nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
@@ -0,0 +1,167 @@
+package nl.han.dea.markkiepe.spotitube.services.versioning;
+
+import nl.han.dea.markkiepe.spotitube.datasource.util.DatabaseProperties;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Resource Versions<br>
+ * Keeps version counters for the playlists of every user and the tracks of every playlist. The services bump a
+ * counter after every change, so a version that a client got earlier tells whether it still has the latest data
+ * without querying the database. The versions are used as {@code ETag} of the responses.
+ * <br><br>
+ * The counters are a fixed table of slots. Every UserId and PlaylistId has a single slot, which it may share with
+ * other ids. A change to one of them then also changes the version of the others, which costs a full response but
+ * never returns outdated data. A version only ever increases.
+ * <br><br>
+ * The versions are configured in the {@code database.properties} file:
+ * <ul>
+ *     <li>{@code resourceVersionSlots} counters per kind of resource, rounded up to a power of two.</li>
+ *     <li>{@code resourceVersionTimeToLive} milliseconds after which every version changes, {@code 0} to never
+ *     change versions without a change.</li>
+ * </ul>
+ *
+ * @implNote
+ * The counters only see the changes that are made by this node. The time to live makes sure that changes made by
+ * another node or directly in the database are picked up, like the caches do. Versions contain an id of the
+ * running instance, so versions from before a restart never match.
+ *
+ * @see DatabaseProperties
+ *
+ * @author Mark Kiepe
+ * @since 1.1
+ */
+@Singleton
+public class ResourceVersions {
+
+    private static final int KEY_MIXER = 0x9E3779B9;
+
+    private final String instanceId;
+    private final long timeToLive;
+    private final int mask;
+    private final AtomicLongArray userVersions;
+    private final AtomicLongArray playlistVersions;
+
+    /**
+     * Creates the versions that are configured in the {@link DatabaseProperties}.
+     * @param databaseProperties {@link DatabaseProperties}
+     * @since 1.1
+     */
+    @Inject
+    public ResourceVersions(DatabaseProperties databaseProperties) {
+        this(databaseProperties.getResourceVersionSlots(), databaseProperties.getResourceVersionTimeToLive());
+    }
+
+    /**
+     * Creates new versions that all start at zero.
+     * @param slots {@link Integer} counters per kind of resource, rounded up to a power of two.
+     * @param timeToLive {@link Long} milliseconds after which every version changes, {@code 0} for never.
+     * @since 1.1
+     */
+    public ResourceVersions(int slots, long timeToLive) {
+        int size = Integer.highestOneBit(Math.min(Math.max(1, slots), 1 << 30) * 2 - 1);
+        this.mask = size - 1;
+        this.timeToLive = Math.max(0, timeToLive);
+        this.userVersions = new AtomicLongArray(size);
+        this.playlistVersions = new AtomicLongArray(size);
+        this.instanceId = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36);
+    }
+
+    /**
+     * Tells that the playlists of a user changed, including the length of one of them.
+     * Has to be called after the change is made, otherwise a request in between could get the old data with
+     * the new version.
+     * @param userId {@link Integer} UserId
+     * @since 1.1
+     */
+    public void userChanged(int userId) {
+        userVersions.incrementAndGet(slot(userId));
+    }
+
+    /**
+     * Tells that the tracks of a playlist changed.
+     * Has to be called after the change is made, otherwise a request in between could get the old data with
+     * the new version.
+     * @param playlistId {@link Integer} PlaylistId
+     * @since 1.1
+     */
+    public void playlistChanged(int playlistId) {
+        playlistVersions.incrementAndGet(slot(playlistId));
+    }
+
+    /**
+     * Gets the current version of the playlists of a user.
+     * @param userId {@link Integer} UserId
+     * @param now {@link Long} current time in milliseconds.
+     * @return {@link String}
+     * @since 1.1
+     */
+    public String getUserVersion(int userId, long now) {
+        return createVersion("u", userId, userVersions.get(slot(userId)), now);
+    }
+
+    /**
+     * Gets the current version of the playlists of a user.
+     * @see ResourceVersions#getUserVersion(int, long)
+     * @param userId {@link Integer} UserId
+     * @return {@link String}
+     * @since 1.1
+     */
+    public String getUserVersion(int userId) {
+        return getUserVersion(userId, System.currentTimeMillis());
+    }
+
+    /**
+     * Gets the current version of the tracks of a playlist.
+     * @param playlistId {@link Integer} PlaylistId
+     * @param now {@link Long} current time in milliseconds.
+     * @return {@link String}
+     * @since 1.1
+     */
+    public String getPlaylistVersion(int playlistId, long now) {
+        return createVersion("p", playlistId, playlistVersions.get(slot(playlistId)), now);
+    }
+
+    /**
+     * Gets the current version of the tracks of a playlist.
+     * @see ResourceVersions#getPlaylistVersion(int, long)
+     * @param playlistId {@link Integer} PlaylistId
+     * @return {@link String}
+     * @since 1.1
+     */
+    public String getPlaylistVersion(int playlistId) {
+        return getPlaylistVersion(playlistId, System.currentTimeMillis());
+    }
+
+    // Private Functions
+
+    /**
+     * Gets the slot of the counter of an id.
+     * @param id {@link Integer} UserId or PlaylistId
+     * @return {@link Integer}
+     * @since 1.1
+     */
+    private int slot(int id) {
+        // Spreads ids that are close together over the table
+        int hash = id * KEY_MIXER;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Creates the version of a resource from its counter.
+     * @param kind {@link String} kind of resource.
+     * @param id {@link Integer} id of the resource.
+     * @param counter {@link Long} value of the counter of the resource.
+     * @param now {@link Long} current time in milliseconds.
+     * @return {@link String}
+     * @since 1.1
+     */
+    private String createVersion(String kind, int id, long counter, long now) {
+        long period = timeToLive > 0 ? now / timeToLive : 0;
+        return kind + id + "-" + instanceId + "-" + Long.toString(period, 36) + "-" + counter;
+    }
+
+}
@@ -1,18 +1,22 @@
 package nl.han.dea.markkiepe.spotitube.datasource;
 
+import nl.han.dea.markkiepe.spotitube.datasource.credentials.CredentialsCache;
+import nl.han.dea.markkiepe.spotitube.datasource.credentials.UsernameFilter;
 import nl.han.dea.markkiepe.spotitube.datasource.dao.credentials.CredentialsDao;
 import nl.han.dea.markkiepe.spotitube.datasource.exceptions.credentials.AccountDoesNotExistException;
 import nl.han.dea.markkiepe.spotitube.datasource.exceptions.DatabaseErrorException;
+import nl.han.dea.markkiepe.spotitube.datasource.pool.ConnectionPool;
+import nl.han.dea.markkiepe.spotitube.datasource.pool.ConnectionRouter;
 import nl.han.dea.markkiepe.spotitube.datasource.util.DatabaseProperties;
 import nl.han.dea.markkiepe.spotitube.datasource.util.SqlProperties;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.Properties;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 class CredentialsMapperTest {
 
@@ -27,10 +31,74 @@ class CredentialsMapperTest {
     void setup() {
         // Arrange
         sut = new CredentialsMapper();
-        sut.setDatabaseProperties(new DatabaseProperties());
+        DatabaseProperties databaseProperties = new DatabaseProperties();
+        sut.setDatabaseProperties(databaseProperties);
+        sut.setConnectionRouter(new ConnectionRouter(databaseProperties, new ConnectionPool(databaseProperties)));
         sut.setSqlProperties(new SqlProperties());
     }
 
+    @AfterEach
+    void teardown() {
+        sut.setUsernameFilter(null);
+        sut.setCredentialsCache(null);
+    }
+
+    @Test
+    void whenTheUsernameFilterRefusesAUsernameNoQueryIsExecuted() {
+        // Arrange
+        UsernameFilter mockedUsernameFilter = mock(UsernameFilter.class);
+        when(mockedUsernameFilter.mightExist(NOT_EXISTING_USERNAME)).thenReturn(false);
+        sut.setUsernameFilter(mockedUsernameFilter);
+        ConnectionRouter mockedConnectionRouter = mock(ConnectionRouter.class);
+        sut.setConnectionRouter(mockedConnectionRouter);
+
+        // Act
+        var thrown = assertThrows(
+                AccountDoesNotExistException.class,
+                () -> sut.getUserInfo(NOT_EXISTING_USERNAME)
+        );
+
+        // Assert
+        assertEquals(AccountDoesNotExistException.class, thrown.getClass());
+        verifyNoInteractions(mockedConnectionRouter);
+    }
+
+    @Test
+    void aLogInNeverLoadsTheUsernameFilter() {
+        // Arrange
+        UsernameFilter mockedUsernameFilter = mock(UsernameFilter.class);
+        when(mockedUsernameFilter.mightExist(NOT_EXISTING_USERNAME)).thenReturn(false);
+        sut.setUsernameFilter(mockedUsernameFilter);
+
+        // Act
+        assertThrows(
+                AccountDoesNotExistException.class,
+                () -> sut.getUserInfo(NOT_EXISTING_USERNAME)
+        );
+
+        // Assert
+        verify(mockedUsernameFilter, never()).startLoading();
+        verify(mockedUsernameFilter, never()).load(any());
+    }
+
+    @Test
+    void cachedCredentialsAreReturnedWithoutAQuery() {
+        // Arrange
+        CredentialsDao credentials = new CredentialsDao(1, "hash");
+        CredentialsCache mockedCredentialsCache = mock(CredentialsCache.class);
+        when(mockedCredentialsCache.get(eq(EXISTING_USERNAME), anyLong())).thenReturn(credentials);
+        sut.setCredentialsCache(mockedCredentialsCache);
+        ConnectionRouter mockedConnectionRouter = mock(ConnectionRouter.class);
+        sut.setConnectionRouter(mockedConnectionRouter);
+
+        // Act
+        var result = sut.getUserInfo(EXISTING_USERNAME);
+
+        // Assert
+        assertSame(credentials, result);
+        verifyNoInteractions(mockedConnectionRouter);
+    }
+
     @Test
     void gettingCredentialsDaoWhenExistingAccountIsRequested() {
         // Act
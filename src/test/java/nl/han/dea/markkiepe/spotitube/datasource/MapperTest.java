@@ -1,14 +1,26 @@
 package nl.han.dea.markkiepe.spotitube.datasource;
 
+import nl.han.dea.markkiepe.spotitube.datasource.context.QueryDeadline;
 import nl.han.dea.markkiepe.spotitube.datasource.exceptions.DatabaseErrorException;
+import nl.han.dea.markkiepe.spotitube.datasource.exceptions.DatabaseUnavailableException;
+import nl.han.dea.markkiepe.spotitube.datasource.exceptions.QueryTimeoutException;
 import nl.han.dea.markkiepe.spotitube.datasource.exceptions.WrongPreparedStatementType;
+import nl.han.dea.markkiepe.spotitube.datasource.pool.ConnectionRouter;
+import nl.han.dea.markkiepe.spotitube.datasource.pool.PooledConnection;
+import nl.han.dea.markkiepe.spotitube.datasource.rowmapping.RowMapper;
 import nl.han.dea.markkiepe.spotitube.datasource.util.DatabaseProperties;
 import nl.han.dea.markkiepe.spotitube.datasource.util.SqlProperties;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -16,82 +28,299 @@ import static org.mockito.Mockito.*;
 class MapperTest {
 
     private static final String NOT_EXISTING_SCRIPT_NAME = "hi";
+    private static final String SCRIPT_NAME = "verycoolscriptname";
+    private static final String SCRIPT = "SELECT * FROM Users";
 
     private CredentialsMapper mockedSubClass;
     private SqlProperties mockedSqlProperties;
     private DatabaseProperties mockedDatabaseProperties;
+    private ConnectionRouter mockedConnectionRouter;
+    private PooledConnection mockedPooledConnection;
+    private Connection mockedConnection;
+    private PreparedStatement mockedPreparedStatement;
+    private ResultSet mockedResultSet;
 
     @BeforeEach
-    void setup() {
+    void setup() throws SQLException {
         // Arrange
         mockedSubClass = spy(new CredentialsMapper());
         //
         mockedSqlProperties = mock(SqlProperties.class);
         mockedDatabaseProperties = mock(DatabaseProperties.class);
+        mockedConnectionRouter = mock(ConnectionRouter.class);
+        mockedPooledConnection = mock(PooledConnection.class);
+        mockedConnection = mock(Connection.class);
+        mockedPreparedStatement = mock(PreparedStatement.class);
+        mockedResultSet = mock(ResultSet.class);
         //
         mockedSubClass.setSqlProperties(mockedSqlProperties);
         mockedSubClass.setDatabaseProperties(mockedDatabaseProperties);
+        mockedSubClass.setConnectionRouter(mockedConnectionRouter);
+        //
+        when(mockedSqlProperties.getSqlScript(SCRIPT_NAME)).thenReturn(SCRIPT);
+        when(mockedConnectionRouter.getConnection(anyString(), anyLong())).thenReturn(mockedPooledConnection);
+        when(mockedConnectionRouter.getPrimaryConnection(anyLong())).thenReturn(mockedPooledConnection);
+        when(mockedPooledConnection.getConnection()).thenReturn(mockedConnection);
+        when(mockedPooledConnection.prepareStatement(SCRIPT_NAME, SCRIPT)).thenReturn(mockedPreparedStatement);
+        when(mockedPreparedStatement.executeQuery()).thenReturn(mockedResultSet);
+    }
+
+    @AfterEach
+    void teardown() {
+        QueryDeadline.clear();
     }
 
     @Test
-    void whenAnExceptionOccursWhileQueryingTheDatabaseAllConnectionsGetClosed() {
+    void whenAnExceptionOccursWhileQueryingTheDatabaseAllConnectionsGetClosed() throws SQLException {
+        // Arrange
+        when(mockedPreparedStatement.executeUpdate()).thenThrow(SQLException.class);
+
         // Act
         var result = assertThrows(
                 DatabaseErrorException.class,
-                () -> mockedSubClass.queryDatabase(NOT_EXISTING_SCRIPT_NAME, false)
+                () -> mockedSubClass.updateDatabase(SCRIPT_NAME)
         );
 
         // Assert
+        verify(mockedPooledConnection, times(1)).discardStatement(SCRIPT_NAME);
+        verify(mockedPooledConnection, times(1)).close();
         assertEquals(DatabaseErrorException.class, result.getClass());
     }
 
     @Test
     void whenAWrongDataTypeIsGivenToThePrepareStatementMethodAWrongPreparedStatementTypeIsThrown() {
-        // Arrange
-        Connection mockedConnection = mock(Connection.class);
-
         // Act
         var result = assertThrows(
                 WrongPreparedStatementType.class,
-                () -> mockedSubClass.createPreparedStatement(mockedConnection, NOT_EXISTING_SCRIPT_NAME, true)
+                () -> mockedSubClass.createPreparedStatement(mockedPooledConnection, NOT_EXISTING_SCRIPT_NAME, new Object())
         );
 
         // Assert
         assertEquals(WrongPreparedStatementType.class, result.getClass());
     }
-    
+
     @Test
-    void whenNoResponseIsRequestedTheMethodDoesNotFailAndReturnsNull() {
+    void whenAQueryIsDoneTheResultSetAndConnectionGetClosedAndTheStatementStaysCached() throws SQLException {
         // Arrange
-        String scriptName = "verycoolscriptname";
-        String script = "SELECT * FROM Users";
-        when(mockedDatabaseProperties.getConnectionString()).thenReturn("jdbc:sqlserver://localhost;databaseName=Spotitube;user=spotitubeUser;password=mark;");
-        when(mockedSqlProperties.getSqlScript(scriptName)).thenReturn(script);
+        when(mockedResultSet.next()).thenReturn(true, false);
 
         // Act
-        ResultSet result = null;
-        try {
-            result = mockedSubClass.queryDatabase(scriptName, false);
-        } catch (Exception e) {
-        }
-        
+        var result = mockedSubClass.queryDatabase(SCRIPT_NAME, resultSet -> resultSet.next());
+
         // Assert
-        assertEquals(null, result);
+        verify(mockedResultSet, times(1)).close();
+        verify(mockedPreparedStatement, never()).close();
+        verify(mockedPooledConnection, never()).discardStatement(SCRIPT_NAME);
+        verify(mockedPooledConnection, times(1)).close();
+        assertEquals(true, result);
     }
 
     @Test
-    void whenAnExceptionOccursWhileQueryingDatabaseAllTheQueryGetsCancelledAndADatabaseErrorExceptionIsThrown() {
+    void whenEachRowIsRequestedTheCallbackIsCalledForEveryRow() throws SQLException {
+        // Arrange
+        when(mockedResultSet.next()).thenReturn(true, true, false);
+        int[] rows = new int[1];
+
+        // Act
+        mockedSubClass.forEachRow(SCRIPT_NAME, resultSet -> rows[0]++);
+
+        // Assert
+        verify(mockedPooledConnection, times(1)).close();
+        assertEquals(2, rows[0]);
+    }
+
+    @Test
+    void whenTheDatabaseIsUpdatedTheAmountOfAffectedRowsIsReturned() throws SQLException {
+        // Arrange
+        when(mockedPreparedStatement.executeUpdate()).thenReturn(3);
+
+        // Act
+        var result = mockedSubClass.updateDatabase(SCRIPT_NAME);
+
+        // Assert
+        verify(mockedPooledConnection, times(1)).close();
+        assertEquals(3, result);
+    }
+
+    @Test
+    void whenRowsAreStreamedTheStreamFetchSizeIsUsed() throws SQLException {
+        // Arrange
+        when(mockedDatabaseProperties.getStreamFetchSize()).thenReturn(50);
+        when(mockedResultSet.next()).thenReturn(false);
+        when(mockedResultSet.getMetaData()).thenReturn(mock(ResultSetMetaData.class));
+
+        // Act
+        mockedSubClass.streamRows(SCRIPT_NAME, new RowMapper<>((resultSet, columns) -> null), row -> {});
+
+        // Assert
+        verify(mockedPreparedStatement, times(1)).setFetchSize(50);
+        verify(mockedResultSet, times(1)).close();
+        verify(mockedPooledConnection, times(1)).close();
+    }
+
+    @Test
+    void whenABatchIsExecutedTheParameterSetsAreSentInChunksOfTheBatchSizeAndCommitted() throws SQLException {
+        // Arrange
+        when(mockedDatabaseProperties.getBatchSize()).thenReturn(2);
+        when(mockedConnection.getAutoCommit()).thenReturn(true);
+        when(mockedPreparedStatement.executeBatch()).thenReturn(new int[] { 1, 1 }, new int[] { 1 });
+
+        // Act
+        var result = mockedSubClass.batchUpdateDatabase(SCRIPT_NAME, List.of(new Object[] { 1 }, new Object[] { 2 }, new Object[] { 3 }));
+
+        // Assert
+        verify(mockedPreparedStatement, times(3)).addBatch();
+        verify(mockedPreparedStatement, times(2)).executeBatch();
+        verify(mockedConnection, times(1)).commit();
+        verify(mockedConnection, times(1)).setAutoCommit(true);
+        verify(mockedPooledConnection, times(1)).close();
+        assertEquals(3, result);
+    }
+
+    @Test
+    void whenABatchFailsTheTransactionIsRolledBack() throws SQLException {
+        // Arrange
+        when(mockedDatabaseProperties.getBatchSize()).thenReturn(2);
+        when(mockedPreparedStatement.executeBatch()).thenThrow(SQLException.class);
+
+        // Act
+        var result = assertThrows(
+                DatabaseErrorException.class,
+                () -> mockedSubClass.batchUpdateDatabase(SCRIPT_NAME, List.<Object[]>of(new Object[] { 1 }))
+        );
+
+        // Assert
+        verify(mockedConnection, times(1)).rollback();
+        verify(mockedConnection, never()).commit();
+        verify(mockedPooledConnection, times(1)).close();
+        assertEquals(DatabaseErrorException.class, result.getClass());
+    }
+
+    @Test
+    void whenAUnitOfWorkSucceedsAllScriptsRunOnOnePrimaryConnectionAndAreCommittedOnce() throws SQLException {
+        // Arrange
+        when(mockedConnection.getAutoCommit()).thenReturn(true);
+        when(mockedPreparedStatement.executeUpdate()).thenReturn(1, 2);
+
+        // Act
+        var result = mockedSubClass.executeInTransaction(
+                transaction -> transaction.update(SCRIPT_NAME, 1) + transaction.update(SCRIPT_NAME, 2)
+        );
+
+        // Assert
+        verify(mockedConnectionRouter, times(1)).getPrimaryConnection(anyLong());
+        verify(mockedConnectionRouter, never()).getConnection(anyString(), anyLong());
+        verify(mockedConnection, times(1)).setAutoCommit(false);
+        verify(mockedConnection, times(1)).commit();
+        verify(mockedConnection, never()).rollback();
+        verify(mockedConnection, times(1)).setAutoCommit(true);
+        verify(mockedPooledConnection, times(1)).close();
+        assertEquals(3, result);
+    }
+
+    @Test
+    void whenAUnitOfWorkFailsTheTransactionIsRolledBackAndItsStatementsAreDiscarded() throws SQLException {
+        // Arrange
+        when(mockedPreparedStatement.executeUpdate()).thenReturn(1).thenThrow(SQLException.class);
+
+        // Act
+        var result = assertThrows(
+                DatabaseErrorException.class,
+                () -> mockedSubClass.executeInTransaction(
+                        transaction -> transaction.update(SCRIPT_NAME, 1) + transaction.update(SCRIPT_NAME, 2)
+                )
+        );
+
+        // Assert
+        verify(mockedConnection, times(1)).rollback();
+        verify(mockedConnection, never()).commit();
+        verify(mockedPooledConnection, times(1)).discardStatement(SCRIPT_NAME);
+        verify(mockedPooledConnection, times(1)).close();
+        assertEquals(DatabaseErrorException.class, result.getClass());
+    }
+
+    @Test
+    void whenTheRequestHasADeadlineTheQueryTimeoutIsTheRemainingTime() throws SQLException {
+        // Arrange
+        QueryDeadline.start(2500);
+
+        // Act
+        mockedSubClass.updateDatabase(SCRIPT_NAME);
+
+        // Assert
+        verify(mockedConnectionRouter, times(1)).getConnection(eq(SCRIPT_NAME), longThat(wait -> wait <= 2500));
+        verify(mockedPreparedStatement, times(1)).setQueryTimeout(3);
+    }
+
+    @Test
+    void whenTheRequestHasNoDeadlineTheDefaultQueryTimeoutIsUsed() throws SQLException {
+        // Arrange
+        when(mockedDatabaseProperties.getQueryTimeout()).thenReturn(30);
+
+        // Act
+        mockedSubClass.updateDatabase(SCRIPT_NAME);
+
+        // Assert
+        verify(mockedPreparedStatement, times(1)).setQueryTimeout(30);
+    }
+
+    @Test
+    void whenTheDeadlineHasPassedNoConnectionIsBorrowedAndAQueryTimeoutExceptionIsThrown() throws SQLException {
+        // Arrange
+        QueryDeadline.start(-1);
+
+        // Act
+        var result = assertThrows(
+                QueryTimeoutException.class,
+                () -> mockedSubClass.updateDatabase(SCRIPT_NAME)
+        );
+
+        // Assert
+        verify(mockedConnectionRouter, never()).getConnection(anyString(), anyLong());
+        assertEquals(QueryTimeoutException.class, result.getClass());
+    }
+
+    @Test
+    void whenAQueryTimesOutAQueryTimeoutExceptionIsThrown() throws SQLException {
+        // Arrange
+        when(mockedPreparedStatement.executeUpdate()).thenThrow(SQLTimeoutException.class);
+
+        // Act
+        var result = assertThrows(
+                QueryTimeoutException.class,
+                () -> mockedSubClass.updateDatabase(SCRIPT_NAME)
+        );
+
+        // Assert
+        verify(mockedPooledConnection, times(1)).close();
+        assertEquals(QueryTimeoutException.class, result.getClass());
+    }
+
+    @Test
+    void whenNoConnectionBecomesAvailableADatabaseUnavailableExceptionIsThrown() throws SQLException {
         // Arrange
-        String scriptName = "verycoolscriptname";
+        when(mockedConnectionRouter.getConnection(anyString(), anyLong())).thenThrow(SQLTimeoutException.class);
 
+        // Act
+        var result = assertThrows(
+                DatabaseUnavailableException.class,
+                () -> mockedSubClass.updateDatabase(SCRIPT_NAME)
+        );
+
+        // Assert
+        assertEquals(DatabaseUnavailableException.class, result.getClass());
+    }
+
+    @Test
+    void whenAnExceptionOccursWhileQueryingDatabaseAllTheQueryGetsCancelledAndADatabaseErrorExceptionIsThrown() {
         // Act
         var result = assertThrows(
                 DatabaseErrorException.class,
-                () -> mockedSubClass.queryDatabase(NOT_EXISTING_SCRIPT_NAME, false)
+                () -> mockedSubClass.queryDatabase(NOT_EXISTING_SCRIPT_NAME, resultSet -> null)
         );
 
         // Assert
         assertEquals(DatabaseErrorException.class, result.getClass());
     }
 
-}
\ No newline at end of file
+}
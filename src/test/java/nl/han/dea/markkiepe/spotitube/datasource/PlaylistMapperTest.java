@@ -3,6 +3,8 @@ package nl.han.dea.markkiepe.spotitube.datasource;
 import nl.han.dea.markkiepe.spotitube.datasource.dao.playlists.PlaylistsDao;
 import nl.han.dea.markkiepe.spotitube.datasource.exceptions.DatabaseErrorException;
 import nl.han.dea.markkiepe.spotitube.datasource.exceptions.playlists.PlaylistDoesNotExistException;
+import nl.han.dea.markkiepe.spotitube.datasource.pool.ConnectionPool;
+import nl.han.dea.markkiepe.spotitube.datasource.pool.ConnectionRouter;
 import nl.han.dea.markkiepe.spotitube.datasource.util.DatabaseProperties;
 import nl.han.dea.markkiepe.spotitube.datasource.util.SqlProperties;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,7 +20,9 @@ class PlaylistMapperTest {
     void setup() {
         // Arrange
         sut = new PlaylistMapper();
-        sut.setDatabaseProperties(new DatabaseProperties());
+        DatabaseProperties databaseProperties = new DatabaseProperties();
+        sut.setDatabaseProperties(databaseProperties);
+        sut.setConnectionRouter(new ConnectionRouter(databaseProperties, new ConnectionPool(databaseProperties)));
         sut.setSqlProperties(new SqlProperties());
     }
 
@@ -26,12 +30,12 @@ class PlaylistMapperTest {
     void sendingIncorrectPlaylistIdThrowsException() {
         // Act
         var result = assertThrows(
-                DatabaseErrorException.class,
+                PlaylistDoesNotExistException.class,
                 () -> sut.getPlaylistOwnerId(-1)
         );
 
         // Assert
-        assertEquals(DatabaseErrorException.class, result.getClass());
+        assertEquals(PlaylistDoesNotExistException.class, result.getClass());
     }
 
     @Test
@@ -44,18 +48,36 @@ class PlaylistMapperTest {
     }
 
     @Test
-    void creatingPlaylistReturnsTrue() {
+    void gettingAPageOfPlaylistsReturnsAtMostTheLimit() {
+        // Act
+        var result = sut.getPlaylistsFromUserId(1, 0, 1);
+
+        // Assert
+        assertTrue(result.getPlaylists().size() <= 1);
+    }
+
+    @Test
+    void gettingPlaylistsLengthSumsTheLengthOfAllPlaylists() {
+        // Act
+        var result = sut.getPlaylistsLength(1);
+
+        // Assert
+        assertEquals(sut.getPlaylistsFromUserId(1).getLength(), result);
+    }
+
+    @Test
+    void creatingPlaylistReturnsTheNewPlaylistId() {
         // Act
         var result = sut.createPlaylist(1, "h");
 
         // Assert
-        assertEquals(true, result);
+        assertTrue(result > 0);
     }
 
     @Test
     void deletingPlaylistReturnsTrue() {
         // Act
-        var result = sut.deletePlaylist(1);
+        var result = sut.deletePlaylist(1, 1);
 
         // Assert
         assertEquals(true, result);
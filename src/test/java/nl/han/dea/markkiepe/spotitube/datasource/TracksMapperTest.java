@@ -1,6 +1,8 @@
 package nl.han.dea.markkiepe.spotitube.datasource;
 
 import nl.han.dea.markkiepe.spotitube.datasource.dao.tracks.TracksDao;
+import nl.han.dea.markkiepe.spotitube.datasource.pool.ConnectionPool;
+import nl.han.dea.markkiepe.spotitube.datasource.pool.ConnectionRouter;
 import nl.han.dea.markkiepe.spotitube.datasource.util.DatabaseProperties;
 import nl.han.dea.markkiepe.spotitube.datasource.util.SqlProperties;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,6 +28,7 @@ class TracksMapperTest {
         mockedDatabaseProperties = new DatabaseProperties();
         mockedSqlProperties = new SqlProperties();
         sut.setDatabaseProperties(mockedDatabaseProperties);
+        sut.setConnectionRouter(new ConnectionRouter(mockedDatabaseProperties, new ConnectionPool(mockedDatabaseProperties)));
         sut.setSqlProperties(mockedSqlProperties);
     }
 
@@ -38,6 +41,15 @@ class TracksMapperTest {
         assertEquals(TracksDao.class, result.getClass());
     }
 
+    @Test
+    void gettingAPageOfTracksReturnsAtMostTheLimit() {
+        // Act
+        var result = sut.getTracksInPlaylist(PLAYLISTID, 0, 1);
+
+        // Assert
+        assertTrue(result.getTracks().size() <= 1);
+    }
+
     @Test
     void gettingTracksNotInPlaylistReturnsTracksDaoObject() {
         // Act
@@ -48,18 +60,18 @@ class TracksMapperTest {
     }
 
     @Test
-    void addingTrackToPlaylistReturnsTrue() {
+    void addingTrackToPlaylistReturnsTheAddedTrack() {
         // Act
         var result = sut.addTrackToPlaylist(1, 1, 1);
 
         // Assert
-        assertEquals(true, result);
+        assertEquals(TracksDao.class, result.getClass());
     }
 
     @Test
     void deletingTrackFromPlaylistReturnsTrue() {
         // Act
-        var result = sut.deleteTrackFromPlaylist(1, 1);
+        var result = sut.deleteTrackFromPlaylist(1, 1, 1);
 
         // Assert
         assertEquals(true, result);
@@ -0,0 +1,102 @@
+package nl.han.dea.markkiepe.spotitube.datasource.binding;
+
+import nl.han.dea.markkiepe.spotitube.datasource.exceptions.WrongPreparedStatementType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BindingPlanTest {
+
+    private static final String SCRIPT_NAME = "verycoolscriptname";
+    private static final String SCRIPT = "SELECT * FROM Tracks WHERE title <> '?' AND id IN (?) AND performer = ?";
+
+    private PreparedStatement mockedPreparedStatement;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        mockedPreparedStatement = mock(PreparedStatement.class);
+    }
+
+    @Test
+    void parametersAreBoundWithTheBinderOfTheirDatatype() throws SQLException {
+        // Arrange
+        Object[] parameters = new Object[] { "Metallica", 3, true, null };
+        BindingPlan sut = BindingPlan.resolve(parameters);
+
+        // Act
+        sut.bind(mockedPreparedStatement, parameters);
+
+        // Assert
+        verify(mockedPreparedStatement, times(1)).setString(1, "Metallica");
+        verify(mockedPreparedStatement, times(1)).setInt(2, 3);
+        verify(mockedPreparedStatement, times(1)).setBoolean(3, true);
+        verify(mockedPreparedStatement, times(1)).setNull(4, Types.NULL);
+    }
+
+    @Test
+    void intArraysAreExpandedToOnePlaceholderPerElement() throws SQLException {
+        // Arrange
+        Object[] parameters = new Object[] { new int[] { 1, 2, 3 }, "Metallica" };
+        BindingPlan sut = BindingPlan.resolve(parameters);
+
+        // Act
+        String script = sut.expandScript(SCRIPT, parameters);
+        sut.bind(mockedPreparedStatement, parameters);
+
+        // Assert
+        assertEquals("SELECT * FROM Tracks WHERE title <> '?' AND id IN (?, ?, ?) AND performer = ?", script);
+        assertEquals(SCRIPT_NAME + "[3,]", sut.getStatementKey(SCRIPT_NAME, parameters));
+        verify(mockedPreparedStatement, times(1)).setInt(1, 1);
+        verify(mockedPreparedStatement, times(1)).setInt(2, 2);
+        verify(mockedPreparedStatement, times(1)).setInt(3, 3);
+        verify(mockedPreparedStatement, times(1)).setString(4, "Metallica");
+    }
+
+    @Test
+    void emptyIntArraysAreReplacedByNull() {
+        // Arrange
+        Object[] parameters = new Object[] { new int[0], "Metallica" };
+        BindingPlan sut = BindingPlan.resolve(parameters);
+
+        // Act
+        String script = sut.expandScript(SCRIPT, parameters);
+
+        // Assert
+        assertEquals("SELECT * FROM Tracks WHERE title <> '?' AND id IN (NULL) AND performer = ?", script);
+    }
+
+    @Test
+    void aCachedPlanIsReusedAsLongAsTheDatatypesStayTheSame() {
+        // Arrange
+        BindingPlanCache sut = new BindingPlanCache();
+        BindingPlan first = sut.getPlan(SCRIPT_NAME, new Object[] { "Metallica", 1 });
+
+        // Act
+        BindingPlan second = sut.getPlan(SCRIPT_NAME, new Object[] { null, 2 });
+        BindingPlan third = sut.getPlan(SCRIPT_NAME, new Object[] { 1, 2 });
+
+        // Assert
+        assertSame(first, second);
+        assertNotSame(first, third);
+    }
+
+    @Test
+    void whenADatatypeIsNotSupportedAWrongPreparedStatementTypeIsThrown() {
+        // Act
+        var result = assertThrows(
+                WrongPreparedStatementType.class,
+                () -> BindingPlan.resolve(new Object[] { new Object() })
+        );
+
+        // Assert
+        assertEquals(WrongPreparedStatementType.class, result.getClass());
+    }
+
+}
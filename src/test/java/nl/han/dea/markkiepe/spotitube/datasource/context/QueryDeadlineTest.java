@@ -0,0 +1,53 @@
+package nl.han.dea.markkiepe.spotitube.datasource.context;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryDeadlineTest {
+
+    @AfterEach
+    void teardown() {
+        QueryDeadline.clear();
+    }
+
+    @Test
+    void withoutADeadlineTheRemainingTimeIsUnlimited() {
+        // Act
+        var result = QueryDeadline.getRemainingMillis();
+
+        // Assert
+        assertFalse(QueryDeadline.isSet());
+        assertEquals(Long.MAX_VALUE, result);
+    }
+
+    @Test
+    void theRemainingTimeNeverExceedsTheBudget() {
+        // Arrange
+        QueryDeadline.start(1000);
+
+        // Act
+        var result = QueryDeadline.getRemainingMillis();
+
+        // Assert
+        assertTrue(QueryDeadline.isSet());
+        assertTrue(result <= 1000 && result > 0);
+    }
+
+    @Test
+    void aDeadlineIsOnlyVisibleToTheThreadThatStartedIt() throws InterruptedException {
+        // Arrange
+        QueryDeadline.start(1000);
+        boolean[] setOnOtherThread = new boolean[1];
+
+        // Act
+        Thread thread = new Thread(() -> setOnOtherThread[0] = QueryDeadline.isSet());
+        thread.start();
+        thread.join();
+
+        // Assert
+        assertFalse(setOnOtherThread[0]);
+    }
+
+}
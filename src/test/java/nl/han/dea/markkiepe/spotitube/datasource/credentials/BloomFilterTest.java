@@ -0,0 +1,65 @@
+package nl.han.dea.markkiepe.spotitube.datasource.credentials;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    private static final int TEXTS = 10000;
+
+    private BloomFilter sut;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        sut = new BloomFilter(TEXTS, 10);
+    }
+
+    @Test
+    void everyAddedTextMightBeContained() {
+        // Arrange
+        for (int index = 0; index < TEXTS; index++) {
+            sut.add("user" + index);
+        }
+
+        // Act
+        boolean result = true;
+        for (int index = 0; index < TEXTS; index++) {
+            result &= sut.mightContain("user" + index);
+        }
+
+        // Assert
+        assertTrue(result);
+    }
+
+    @Test
+    void fewTextsThatWereNeverAddedAreFalsePositives() {
+        // Arrange
+        for (int index = 0; index < TEXTS; index++) {
+            sut.add("user" + index);
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int index = 0; index < TEXTS; index++) {
+            if (sut.mightContain("stranger" + index)) {
+                falsePositives++;
+            }
+        }
+
+        // Assert
+        assertTrue(falsePositives < TEXTS * 0.03, "False positives: " + falsePositives);
+    }
+
+    @Test
+    void anEmptyFilterContainsNothing() {
+        // Act
+        var result = sut.mightContain("mark");
+
+        // Assert
+        assertFalse(result);
+    }
+
+}
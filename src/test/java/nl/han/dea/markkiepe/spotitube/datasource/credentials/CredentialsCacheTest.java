@@ -0,0 +1,71 @@
+package nl.han.dea.markkiepe.spotitube.datasource.credentials;
+
+import nl.han.dea.markkiepe.spotitube.datasource.dao.credentials.CredentialsDao;
+import nl.han.dea.markkiepe.spotitube.datasource.util.DatabaseProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CredentialsCacheTest {
+
+    private static final long TIME_TO_LIVE = 60000;
+
+    private CredentialsCache sut;
+    private DatabaseProperties mockedDatabaseProperties;
+    private CredentialsDao credentials;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        mockedDatabaseProperties = mock(DatabaseProperties.class);
+        when(mockedDatabaseProperties.getCredentialsCacheSize()).thenReturn(2);
+        when(mockedDatabaseProperties.getCredentialsCacheTimeToLive()).thenReturn(TIME_TO_LIVE);
+        sut = new CredentialsCache(mockedDatabaseProperties);
+        credentials = new CredentialsDao(1, "hash");
+    }
+
+    @Test
+    void cachedCredentialsAreReturnedUntilTheyExpire() {
+        // Arrange
+        sut.put("mark", credentials, 0);
+
+        // Act
+        var before = sut.get("mark", TIME_TO_LIVE - 1);
+        var result = sut.get("mark", TIME_TO_LIVE);
+
+        // Assert
+        assertSame(credentials, before);
+        assertNull(result);
+    }
+
+    @Test
+    void theLeastRecentlyUsedCredentialsAreDroppedWhenTheCacheIsFull() {
+        // Arrange
+        sut.put("mark", credentials, 0);
+        sut.put("meron", new CredentialsDao(2, "hash"), 0);
+        sut.get("mark", 0);
+
+        // Act
+        sut.put("third", new CredentialsDao(3, "hash"), 0);
+
+        // Assert
+        assertEquals(2, sut.size());
+        assertNotNull(sut.get("mark", 0));
+        assertNull(sut.get("meron", 0));
+    }
+
+    @Test
+    void invalidatingAUserRemovesTheirCredentials() {
+        // Arrange
+        sut.put("mark", credentials, 0);
+
+        // Act
+        sut.invalidate(1);
+
+        // Assert
+        assertNull(sut.get("mark", 0));
+    }
+
+}
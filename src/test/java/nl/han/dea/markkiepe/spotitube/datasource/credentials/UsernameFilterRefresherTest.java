@@ -0,0 +1,93 @@
+package nl.han.dea.markkiepe.spotitube.datasource.credentials;
+
+import nl.han.dea.markkiepe.spotitube.datasource.CredentialsMapper;
+import nl.han.dea.markkiepe.spotitube.datasource.exceptions.DatabaseErrorException;
+import nl.han.dea.markkiepe.spotitube.datasource.util.DatabaseProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UsernameFilterRefresherTest {
+
+    private UsernameFilterRefresher sut;
+    private UsernameFilter usernameFilter;
+    private CredentialsMapper mockedCredentialsMapper;
+    private DatabaseProperties mockedDatabaseProperties;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        mockedCredentialsMapper = mock(CredentialsMapper.class);
+        mockedDatabaseProperties = mock(DatabaseProperties.class);
+        when(mockedDatabaseProperties.getUsernameFilterRefreshInterval()).thenReturn(3600000L);
+        when(mockedDatabaseProperties.getUsernameFilterBitsPerUsername()).thenReturn(10);
+        usernameFilter = new UsernameFilter(mockedDatabaseProperties);
+        //
+        when(mockedDatabaseProperties.getUsernameFilterRefreshInterval()).thenReturn(0L);
+        sut = new UsernameFilterRefresher(usernameFilter, mockedCredentialsMapper, mockedDatabaseProperties);
+    }
+
+    @AfterEach
+    void teardown() {
+        sut.shutdown();
+    }
+
+    @Test
+    void refreshingLoadsAllUsernamesIntoTheFilter() {
+        // Arrange
+        when(mockedCredentialsMapper.getAllUsernames()).thenReturn(List.of("mark"));
+
+        // Act
+        var result = sut.refresh();
+
+        // Assert
+        assertTrue(result);
+        assertTrue(usernameFilter.mightExist("mark"));
+        assertFalse(usernameFilter.mightExist("stranger"));
+    }
+
+    @Test
+    void aFailedRefreshKeepsTheCurrentFilter() {
+        // Arrange
+        when(mockedCredentialsMapper.getAllUsernames()).thenReturn(List.of("mark"));
+        sut.refresh();
+        when(mockedCredentialsMapper.getAllUsernames()).thenThrow(DatabaseErrorException.class);
+
+        // Act
+        var result = sut.refresh();
+
+        // Assert
+        assertFalse(result);
+        assertFalse(usernameFilter.mightExist("stranger"));
+        assertTrue(usernameFilter.startLoading());
+    }
+
+    @Test
+    void theFirstRefreshRunsRightAwayOnStartup() {
+        // Arrange
+        sut.shutdown();
+        when(mockedDatabaseProperties.getUsernameFilterRefreshInterval()).thenReturn(3600000L);
+        when(mockedCredentialsMapper.getAllUsernames()).thenReturn(List.of("mark"));
+
+        // Act
+        sut = new UsernameFilterRefresher(usernameFilter, mockedCredentialsMapper, mockedDatabaseProperties);
+
+        // Assert
+        verify(mockedCredentialsMapper, timeout(5000).times(1)).getAllUsernames();
+    }
+
+    @Test
+    void aDisabledRefresherNeverRuns() throws Exception {
+        // Act
+        Thread.sleep(50);
+
+        // Assert
+        verify(mockedCredentialsMapper, never()).getAllUsernames();
+    }
+
+}
@@ -0,0 +1,115 @@
+package nl.han.dea.markkiepe.spotitube.datasource.credentials;
+
+import nl.han.dea.markkiepe.spotitube.datasource.util.DatabaseProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UsernameFilterTest {
+
+    private static final long REFRESH_INTERVAL = 60000;
+
+    private UsernameFilter sut;
+    private DatabaseProperties mockedDatabaseProperties;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        mockedDatabaseProperties = mock(DatabaseProperties.class);
+        when(mockedDatabaseProperties.getUsernameFilterRefreshInterval()).thenReturn(REFRESH_INTERVAL);
+        when(mockedDatabaseProperties.getUsernameFilterBitsPerUsername()).thenReturn(10);
+        sut = new UsernameFilter(mockedDatabaseProperties);
+    }
+
+    @Test
+    void untilTheFilterIsLoadedEveryUsernameMightExist() {
+        // Act
+        var result = sut.mightExist("stranger");
+
+        // Assert
+        assertTrue(result);
+    }
+
+    @Test
+    void afterLoadingOnlyTheLoadedUsernamesMightExist() {
+        // Arrange
+        sut.load(List.of("mark", "meron"));
+
+        // Act
+        var result = sut.mightExist("stranger");
+
+        // Assert
+        assertFalse(result);
+        assertTrue(sut.mightExist("mark"));
+    }
+
+    @Test
+    void usernamesAreComparedLikeTheDatabaseDoes() {
+        // Arrange
+        sut.load(List.of("Mark"));
+
+        // Act
+        var result = sut.mightExist("mARK  ");
+
+        // Assert
+        assertTrue(result);
+    }
+
+    @Test
+    void aCreatedAccountIsAddedRightAway() {
+        // Arrange
+        sut.load(List.of("mark"));
+
+        // Act
+        sut.add("newuser");
+
+        // Assert
+        assertTrue(sut.mightExist("newuser"));
+    }
+
+    @Test
+    void anAccountThatIsCreatedWhileLoadingIsNotLost() {
+        // Arrange
+        sut.load(List.of("mark"));
+        sut.startLoading();
+
+        // Act
+        sut.add("newuser");
+        sut.load(List.of("mark"));
+
+        // Assert
+        assertTrue(sut.mightExist("newuser"));
+    }
+
+    @Test
+    void onlyOneCallerLoadsTheUsernamesAtATime() {
+        // Act
+        boolean first = sut.startLoading();
+        boolean second = sut.startLoading();
+        sut.load(List.of("mark"));
+        boolean next = sut.startLoading();
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        assertTrue(next);
+    }
+
+    @Test
+    void aDisabledFilterIsNeverLoaded() {
+        // Arrange
+        when(mockedDatabaseProperties.getUsernameFilterRefreshInterval()).thenReturn(0L);
+        sut = new UsernameFilter(mockedDatabaseProperties);
+
+        // Act
+        var result = sut.startLoading();
+
+        // Assert
+        assertFalse(result);
+    }
+
+}
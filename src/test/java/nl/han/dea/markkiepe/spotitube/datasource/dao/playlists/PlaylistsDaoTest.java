@@ -71,4 +71,19 @@ class PlaylistsDaoTest {
 
     }
 
+    @Test
+    void gettingPlaylistLengthWhenHavingMultiplePlaylistsReturnsTheSumOfTheirLengths() {
+        // Arrange
+        PlaylistDao firstPlaylistDao = new PlaylistDao(1, "first", 5);
+        PlaylistDao secondPlaylistDao = new PlaylistDao(2, "second", 7);
+
+        // Act
+        sut.addPlaylistDao(firstPlaylistDao);
+        sut.addPlaylistDao(secondPlaylistDao);
+        var result = sut.getLength();
+
+        // Assert
+        assertEquals(12, result);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,115 @@
+package nl.han.dea.markkiepe.spotitube.datasource.pool;
+
+import nl.han.dea.markkiepe.spotitube.datasource.util.DatabaseProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConnectionPoolTest {
+
+    private static final int MAXIMUM_SIZE = 2;
+
+    private ConnectionPool sut;
+    private DatabaseProperties mockedDatabaseProperties;
+
+    @BeforeEach
+    void setup() throws Exception {
+        // Arrange
+        mockedDatabaseProperties = mock(DatabaseProperties.class);
+        when(mockedDatabaseProperties.getPoolMinimumSize()).thenReturn(0);
+        when(mockedDatabaseProperties.getPoolMaximumSize()).thenReturn(MAXIMUM_SIZE);
+        when(mockedDatabaseProperties.getPoolAcquireTimeout()).thenReturn(10L);
+        when(mockedDatabaseProperties.getPoolIdleTimeout()).thenReturn(60000L);
+        when(mockedDatabaseProperties.getPoolValidationInterval()).thenReturn(60000L);
+        //
+        sut = spy(new ConnectionPool(mockedDatabaseProperties));
+        doAnswer(invocation -> mock(Connection.class)).when(sut).createPhysicalConnection();
+    }
+
+    @AfterEach
+    void teardown() {
+        sut.shutdown();
+    }
+
+    @Test
+    void returnedConnectionsAreReusedInsteadOfOpeningANewOne() throws Exception {
+        // Act
+        PooledConnection first = sut.getConnection();
+        first.close();
+        PooledConnection second = sut.getConnection();
+
+        // Assert
+        verify(sut, times(1)).createPhysicalConnection();
+        assertSame(first.getConnection(), second.getConnection());
+    }
+
+    @Test
+    void whenThePoolIsExhaustedGettingAConnectionTimesOut() throws Exception {
+        // Arrange
+        sut.getConnection();
+        sut.getConnection();
+
+        // Act
+        var result = assertThrows(
+                SQLTimeoutException.class,
+                () -> sut.getConnection()
+        );
+
+        // Assert
+        assertEquals(MAXIMUM_SIZE, sut.getActiveConnectionCount());
+        assertEquals(SQLTimeoutException.class, result.getClass());
+    }
+
+    @Test
+    void brokenConnectionsAreClosedInsteadOfReturnedToThePool() throws Exception {
+        // Arrange
+        PooledConnection connection = sut.getConnection();
+        connection.markBroken();
+
+        // Act
+        connection.close();
+
+        // Assert
+        verify(connection.getConnection(), times(1)).close();
+        assertEquals(0, sut.getIdleConnectionCount());
+        assertEquals(0, sut.getActiveConnectionCount());
+    }
+
+    @Test
+    void whenAConnectionCannotBeOpenedTheFailureIsRememberedUntilTheNextSuccessfulConnect() throws Exception {
+        // Arrange
+        doThrow(SQLException.class).doAnswer(invocation -> mock(Connection.class)).when(sut).createPhysicalConnection();
+
+        // Act
+        assertThrows(SQLException.class, () -> sut.getConnection());
+        long failedAt = sut.getLastFailureAt();
+        sut.getConnection();
+
+        // Assert
+        assertTrue(failedAt > 0);
+        assertEquals(0, sut.getLastFailureAt());
+        assertEquals(1, sut.getActiveConnectionCount());
+    }
+
+    @Test
+    void closingAConnectionTwiceOnlyReturnsItOnce() throws Exception {
+        // Arrange
+        PooledConnection connection = sut.getConnection();
+
+        // Act
+        connection.close();
+        connection.close();
+
+        // Assert
+        assertEquals(1, sut.getIdleConnectionCount());
+        assertEquals(0, sut.getActiveConnectionCount());
+    }
+
+}
@@ -0,0 +1,153 @@
+package nl.han.dea.markkiepe.spotitube.datasource.pool;
+
+import nl.han.dea.markkiepe.spotitube.datasource.context.SessionContext;
+import nl.han.dea.markkiepe.spotitube.datasource.util.DatabaseProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConnectionRouterTest {
+
+    private static final String READ_SCRIPT_NAME = "getPlaylistsOwnedByUserId";
+    private static final String WRITE_SCRIPT_NAME = "createNewPlaylist";
+    private static final String SESSION = "1234-1234-1234";
+    private static final long MAXIMUM_WAIT = 100;
+
+    private ConnectionRouter sut;
+    private ConnectionPool mockedPrimaryPool;
+    private ConnectionPool mockedFirstReplicaPool;
+    private ConnectionPool mockedSecondReplicaPool;
+    private PooledConnection mockedPrimaryConnection;
+    private PooledConnection mockedFirstReplicaConnection;
+    private PooledConnection mockedSecondReplicaConnection;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        // Arrange
+        DatabaseProperties mockedDatabaseProperties = mock(DatabaseProperties.class);
+        when(mockedDatabaseProperties.getReadOnlyScripts()).thenReturn(Set.of(READ_SCRIPT_NAME));
+        when(mockedDatabaseProperties.getStickyPrimaryWindow()).thenReturn(60000L);
+        when(mockedDatabaseProperties.getReplicaRetryInterval()).thenReturn(60000L);
+        //
+        mockedPrimaryPool = mock(ConnectionPool.class);
+        mockedFirstReplicaPool = mock(ConnectionPool.class);
+        mockedSecondReplicaPool = mock(ConnectionPool.class);
+        mockedPrimaryConnection = mock(PooledConnection.class);
+        mockedFirstReplicaConnection = mock(PooledConnection.class);
+        mockedSecondReplicaConnection = mock(PooledConnection.class);
+        when(mockedPrimaryPool.getConnection(MAXIMUM_WAIT)).thenReturn(mockedPrimaryConnection);
+        when(mockedFirstReplicaPool.getConnection(MAXIMUM_WAIT)).thenReturn(mockedFirstReplicaConnection);
+        when(mockedSecondReplicaPool.getConnection(MAXIMUM_WAIT)).thenReturn(mockedSecondReplicaConnection);
+        //
+        sut = new ConnectionRouter(
+                mockedDatabaseProperties,
+                mockedPrimaryPool,
+                List.of(mockedFirstReplicaPool, mockedSecondReplicaPool)
+        );
+    }
+
+    @AfterEach
+    void teardown() {
+        SessionContext.clear();
+    }
+
+    @Test
+    void readOnlyScriptsAreSpreadOverTheReplicas() throws SQLException {
+        // Act
+        var first = sut.getConnection(READ_SCRIPT_NAME, MAXIMUM_WAIT);
+        var second = sut.getConnection(READ_SCRIPT_NAME, MAXIMUM_WAIT);
+        var third = sut.getConnection(READ_SCRIPT_NAME, MAXIMUM_WAIT);
+
+        // Assert
+        assertSame(mockedFirstReplicaConnection, first);
+        assertSame(mockedSecondReplicaConnection, second);
+        assertSame(mockedFirstReplicaConnection, third);
+        verify(mockedPrimaryPool, never()).getConnection(anyLong());
+    }
+
+    @Test
+    void otherScriptsAreExecutedOnThePrimary() throws SQLException {
+        // Act
+        var result = sut.getConnection(WRITE_SCRIPT_NAME, MAXIMUM_WAIT);
+
+        // Assert
+        assertSame(mockedPrimaryConnection, result);
+    }
+
+    @Test
+    void afterAWriteTheReadsOfTheSameSessionStayOnThePrimary() throws SQLException {
+        // Arrange
+        SessionContext.set(SESSION);
+        sut.getConnection(WRITE_SCRIPT_NAME, MAXIMUM_WAIT);
+
+        // Act
+        var result = sut.getConnection(READ_SCRIPT_NAME, MAXIMUM_WAIT);
+
+        // Assert
+        assertSame(mockedPrimaryConnection, result);
+    }
+
+    @Test
+    void aTransactionOnThePrimaryKeepsTheReadsOfTheSameSessionOnThePrimary() throws SQLException {
+        // Arrange
+        SessionContext.set(SESSION);
+        var transactionConnection = sut.getPrimaryConnection(MAXIMUM_WAIT);
+
+        // Act
+        var result = sut.getConnection(READ_SCRIPT_NAME, MAXIMUM_WAIT);
+
+        // Assert
+        assertSame(mockedPrimaryConnection, transactionConnection);
+        assertSame(mockedPrimaryConnection, result);
+    }
+
+    @Test
+    void aWriteDoesNotAffectTheReadsOfOtherSessions() throws SQLException {
+        // Arrange
+        SessionContext.set(SESSION);
+        sut.getConnection(WRITE_SCRIPT_NAME, MAXIMUM_WAIT);
+        SessionContext.set("other-session");
+
+        // Act
+        var result = sut.getConnection(READ_SCRIPT_NAME, MAXIMUM_WAIT);
+
+        // Assert
+        assertSame(mockedFirstReplicaConnection, result);
+    }
+
+    @Test
+    void replicasThatFailedRecentlyAreSkipped() throws SQLException {
+        // Arrange
+        when(mockedFirstReplicaPool.getLastFailureAt()).thenReturn(System.currentTimeMillis());
+
+        // Act
+        var first = sut.getConnection(READ_SCRIPT_NAME, MAXIMUM_WAIT);
+        var second = sut.getConnection(READ_SCRIPT_NAME, MAXIMUM_WAIT);
+
+        // Assert
+        assertSame(mockedSecondReplicaConnection, first);
+        assertSame(mockedSecondReplicaConnection, second);
+        verify(mockedFirstReplicaPool, never()).getConnection(anyLong());
+    }
+
+    @Test
+    void whenNoReplicaCanHandOutAConnectionThePrimaryIsUsed() throws SQLException {
+        // Arrange
+        when(mockedFirstReplicaPool.getConnection(MAXIMUM_WAIT)).thenThrow(SQLException.class);
+        when(mockedSecondReplicaPool.getConnection(MAXIMUM_WAIT)).thenThrow(SQLException.class);
+
+        // Act
+        var result = sut.getConnection(READ_SCRIPT_NAME, MAXIMUM_WAIT);
+
+        // Assert
+        assertSame(mockedPrimaryConnection, result);
+    }
+
+}
@@ -0,0 +1,77 @@
+package nl.han.dea.markkiepe.spotitube.datasource.pool;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StatementCacheTest {
+
+    private static final int MAXIMUM_SIZE = 2;
+
+    private StatementCache sut;
+    private Connection mockedConnection;
+    private LongAdder hits;
+    private LongAdder misses;
+
+    @BeforeEach
+    void setup() throws Exception {
+        // Arrange
+        mockedConnection = mock(Connection.class);
+        hits = new LongAdder();
+        misses = new LongAdder();
+        sut = new StatementCache(mockedConnection, MAXIMUM_SIZE, hits, misses);
+        //
+        when(mockedConnection.prepareStatement(anyString())).thenAnswer(invocation -> mock(PreparedStatement.class));
+    }
+
+    @Test
+    void preparingTheSameScriptTwiceReusesTheStatement() throws Exception {
+        // Act
+        PreparedStatement first = sut.prepareStatement("getPlaylistOwnerId", "SELECT 1");
+        PreparedStatement second = sut.prepareStatement("getPlaylistOwnerId", "SELECT 1");
+
+        // Assert
+        verify(mockedConnection, times(1)).prepareStatement("SELECT 1");
+        assertSame(first, second);
+        assertEquals(1, hits.sum());
+        assertEquals(1, misses.sum());
+    }
+
+    @Test
+    void whenTheCacheIsFullTheLeastRecentlyUsedStatementIsClosed() throws Exception {
+        // Arrange
+        PreparedStatement first = sut.prepareStatement("first", "SELECT 1");
+        PreparedStatement second = sut.prepareStatement("second", "SELECT 2");
+        sut.prepareStatement("first", "SELECT 1");
+
+        // Act
+        sut.prepareStatement("third", "SELECT 3");
+
+        // Assert
+        verify(second, times(1)).close();
+        verify(first, never()).close();
+        assertEquals(MAXIMUM_SIZE, sut.size());
+    }
+
+    @Test
+    void discardingAStatementClosesItAndPreparesItAgainNextTime() throws Exception {
+        // Arrange
+        PreparedStatement first = sut.prepareStatement("first", "SELECT 1");
+
+        // Act
+        sut.discard("first");
+        PreparedStatement result = sut.prepareStatement("first", "SELECT 1");
+
+        // Assert
+        verify(first, times(1)).close();
+        assertNotSame(first, result);
+        assertEquals(2, misses.sum());
+    }
+
+}
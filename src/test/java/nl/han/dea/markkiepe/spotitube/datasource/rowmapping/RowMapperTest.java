@@ -0,0 +1,109 @@
+package nl.han.dea.markkiepe.spotitube.datasource.rowmapping;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RowMapperTest {
+
+    private static final String SCRIPT_NAME = "verycoolscriptname";
+
+    private RowMapper<String> sut;
+    private ResultSet mockedResultSet;
+    private ResultSetMetaData mockedMetaData;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        // Arrange
+        sut = new RowMapper<>(
+                (resultSet, columns) -> resultSet.getString(columns[0]) + resultSet.getInt(columns[1]),
+                "name", "id"
+        );
+        mockedResultSet = mock(ResultSet.class);
+        mockedMetaData = mock(ResultSetMetaData.class);
+        //
+        when(mockedResultSet.getMetaData()).thenReturn(mockedMetaData);
+        when(mockedMetaData.getColumnCount()).thenReturn(2);
+        when(mockedMetaData.getColumnLabel(1)).thenReturn("id");
+        when(mockedMetaData.getColumnLabel(2)).thenReturn("Name");
+        when(mockedResultSet.getString(2)).thenReturn("playlist");
+        when(mockedResultSet.getInt(1)).thenReturn(1);
+    }
+
+    @Test
+    void columnsAreReadByTheirResolvedPosition() throws SQLException {
+        // Arrange
+        when(mockedResultSet.next()).thenReturn(true, true, false);
+        List<String> rows = new ArrayList<>();
+
+        // Act
+        sut.mapRows(SCRIPT_NAME, mockedResultSet, rows::add);
+
+        // Assert
+        assertEquals(List.of("playlist1", "playlist1"), rows);
+    }
+
+    @Test
+    void columnPositionsAreOnlyResolvedOncePerScript() throws SQLException {
+        // Arrange
+        when(mockedResultSet.next()).thenReturn(true);
+
+        // Act
+        sut.mapFirstRow(SCRIPT_NAME, mockedResultSet);
+        sut.mapFirstRow(SCRIPT_NAME, mockedResultSet);
+
+        // Assert
+        verify(mockedResultSet, times(1)).getMetaData();
+    }
+
+    @Test
+    void whenTheResultIsEmptyTheFirstRowIsNull() throws SQLException {
+        // Arrange
+        when(mockedResultSet.next()).thenReturn(false);
+
+        // Act
+        var result = sut.mapFirstRow(SCRIPT_NAME, mockedResultSet);
+
+        // Assert
+        assertNull(result);
+    }
+
+    @Test
+    void whenAColumnDoesNotExistAnSQLExceptionIsThrown() throws SQLException {
+        // Arrange
+        when(mockedResultSet.next()).thenReturn(true);
+        when(mockedMetaData.getColumnLabel(2)).thenReturn("title");
+
+        // Act
+        var result = assertThrows(
+                SQLException.class,
+                () -> sut.mapFirstRow(SCRIPT_NAME, mockedResultSet)
+        );
+
+        // Assert
+        assertEquals(SQLException.class, result.getClass());
+    }
+
+    @Test
+    void datesAreConvertedToAUtilDate() throws SQLException {
+        // Arrange
+        when(mockedResultSet.getDate(1)).thenReturn(new Date(1000));
+
+        // Act
+        var result = RowMapper.getDate(mockedResultSet, 1);
+
+        // Assert
+        assertEquals(java.util.Date.class, result.getClass());
+        assertEquals(1000, result.getTime());
+    }
+
+}
@@ -5,6 +5,9 @@ import nl.han.dea.markkiepe.spotitube.resources.dto.authentication.Authenticatio
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import javax.ws.rs.core.Response;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
 class AuthenticationResourceTest {
@@ -32,4 +35,14 @@ class AuthenticationResourceTest {
         verify(mockedAuthenticationService, times(1)).loginRequest(mockedAuthenticationDTO);
     }
 
-}
\ No newline at end of file
+    @Test
+    void logoutCallsTheLogoutOnTheAuthenticationServiceAndReturnsNoContent() {
+        // Act
+        var result = sut.logout("1234");
+
+        // Assert
+        verify(mockedAuthenticationService, times(1)).logout("1234");
+        assertEquals(Response.Status.NO_CONTENT.getStatusCode(), result.getStatus());
+    }
+
+}
@@ -1,21 +1,35 @@
 package nl.han.dea.markkiepe.spotitube.resources;
 
 import nl.han.dea.markkiepe.spotitube.resources.dto.playlists.PlaylistDTO;
+import nl.han.dea.markkiepe.spotitube.resources.dto.tracks.TrackIdsDTO;
+import nl.han.dea.markkiepe.spotitube.services.authentication.UserPrincipal;
 import nl.han.dea.markkiepe.spotitube.services.playlists.PlaylistService;
 import nl.han.dea.markkiepe.spotitube.services.tracks.Track;
 import nl.han.dea.markkiepe.spotitube.services.tracks.TrackService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.SecurityContext;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
 class PlaylistResourceTest {
 
-    private static final String AUTHENTICATION_TOKEN = "1234-1234-1234";
+    private static final int USER_ID = 12;
     private static final int PLAYLISTID = 123;
     private static final int TRACKID = 321;
+    private static final String VERSION = "u12-1";
 
     private PlaylistResource sut;
+    private SecurityContext mockedSecurityContext;
+    private Request mockedRequest;
+    private UserPrincipal user;
     private PlaylistService mockedPlaylistService;
     private TrackService mockedTrackService;
 
@@ -26,6 +40,10 @@ class PlaylistResourceTest {
     void setup() {
         // Arrange
         sut = new PlaylistResource();
+        user = new UserPrincipal(USER_ID, playlistId -> true);
+        mockedSecurityContext = mock(SecurityContext.class);
+        when(mockedSecurityContext.getUserPrincipal()).thenReturn(user);
+        mockedRequest = mock(Request.class);
         mockedPlaylistService = mock(PlaylistService.class);
         mockedTrackService = mock(TrackService.class);
         sut.setPlaylistService(mockedPlaylistService);
@@ -38,64 +56,140 @@ class PlaylistResourceTest {
     @Test
     void whenGettingPlaylistsThePlaylistServiceIsInvoked() {
         // Act
-        sut.getPlaylists(AUTHENTICATION_TOKEN);
+        sut.getPlaylists(mockedSecurityContext, mockedRequest, 0, 0);
+
+        // Assert
+        verify(mockedPlaylistService, times(1)).getPlaylists(user);
+    }
+
+    @Test
+    void whenGettingPlaylistsWithALimitAPageIsRequestedFromThePlaylistService() {
+        // Act
+        sut.getPlaylists(mockedSecurityContext, mockedRequest, PLAYLISTID, 20);
+
+        // Assert
+        verify(mockedPlaylistService, times(1)).getPlaylists(user, PLAYLISTID, 20);
+        verify(mockedPlaylistService, never()).getPlaylists(user);
+    }
+
+    @Test
+    void whenGettingPlaylistsTheirVersionIsSentAsETag() {
+        // Arrange
+        when(mockedPlaylistService.getPlaylistsVersion(user)).thenReturn(VERSION);
+
+        // Act
+        var result = sut.getPlaylists(mockedSecurityContext, mockedRequest, 0, 0);
+
+        // Assert
+        verify(mockedRequest, times(1)).evaluatePreconditions(new EntityTag(VERSION));
+        assertEquals(Response.Status.OK.getStatusCode(), result.getStatus());
+        assertEquals(new EntityTag(VERSION), result.getEntityTag());
+    }
+
+    @Test
+    void whenGettingPlaylistsThatDidNotChangeThePlaylistsAreNotRead() {
+        // Arrange
+        when(mockedPlaylistService.getPlaylistsVersion(user)).thenReturn(VERSION);
+        when(mockedRequest.evaluatePreconditions(new EntityTag(VERSION)))
+                .thenReturn(Response.notModified(new EntityTag(VERSION)));
+
+        // Act
+        var result = sut.getPlaylists(mockedSecurityContext, mockedRequest, 0, 0);
 
         // Assert
-        verify(mockedPlaylistService, times(1)).getPlaylists(AUTHENTICATION_TOKEN);
+        verify(mockedPlaylistService, never()).getPlaylists(user);
+        assertEquals(Response.Status.NOT_MODIFIED.getStatusCode(), result.getStatus());
     }
 
     @Test
     void whenAddingPlaylistThePlaylistServiceIsInvoked() {
         // Act
-        sut.createPlaylist(AUTHENTICATION_TOKEN, mockedPlaylistDTO);
+        sut.createPlaylist(mockedSecurityContext, mockedPlaylistDTO);
 
         // Assert
-        verify(mockedPlaylistService, times(1)).createPlaylist(AUTHENTICATION_TOKEN, mockedPlaylistDTO);
+        verify(mockedPlaylistService, times(1)).createPlaylist(user, mockedPlaylistDTO);
     }
 
     @Test
     void whenDeletingPlaylistThePlaylistServiceIsInvoked() {
         // Act
-        sut.deletePlaylist(AUTHENTICATION_TOKEN, PLAYLISTID);
+        sut.deletePlaylist(mockedSecurityContext, PLAYLISTID);
 
         // Assert
-        verify(mockedPlaylistService, times(1)).deletePlaylist(AUTHENTICATION_TOKEN, PLAYLISTID);
+        verify(mockedPlaylistService, times(1)).deletePlaylist(user, PLAYLISTID);
     }
 
     @Test
     void whenModifyingAPlaylistThePlaylistServiceIsInvoked() {
         // Act
-        sut.updatePlaylist(AUTHENTICATION_TOKEN, PLAYLISTID, mockedPlaylistDTO);
+        sut.updatePlaylist(mockedSecurityContext, PLAYLISTID, mockedPlaylistDTO);
 
         // Assert
-        verify(mockedPlaylistService, times(1)).editPlaylist(AUTHENTICATION_TOKEN, PLAYLISTID, mockedPlaylistDTO);
+        verify(mockedPlaylistService, times(1)).editPlaylist(user, PLAYLISTID, mockedPlaylistDTO);
     }
 
     @Test
     void whenGettingTracksInPlaylistTheTrackServiceIsInvoked() {
         // Act
-        sut.getTracksInPlaylist(AUTHENTICATION_TOKEN, PLAYLISTID);
+        sut.getTracksInPlaylist(mockedSecurityContext, mockedRequest, PLAYLISTID, 0, 0);
 
         // Assert
-        verify(mockedTrackService, times(1)).getTracksInPlaylist(AUTHENTICATION_TOKEN, PLAYLISTID);
+        verify(mockedTrackService, times(1)).getTracksInPlaylist(user, PLAYLISTID);
+    }
+
+    @Test
+    void whenGettingTracksInPlaylistWithALimitAPageIsRequestedFromTheTrackService() {
+        // Act
+        sut.getTracksInPlaylist(mockedSecurityContext, mockedRequest, PLAYLISTID, TRACKID, 20);
+
+        // Assert
+        verify(mockedTrackService, times(1)).getTracksInPlaylist(user, PLAYLISTID, TRACKID, 20);
+        verify(mockedTrackService, never()).getTracksInPlaylist(user, PLAYLISTID);
+    }
+
+    @Test
+    void whenGettingTracksInPlaylistThatDidNotChangeTheTracksAreNotRead() {
+        // Arrange
+        when(mockedTrackService.getTracksInPlaylistVersion(user, PLAYLISTID)).thenReturn(VERSION);
+        when(mockedRequest.evaluatePreconditions(new EntityTag(VERSION)))
+                .thenReturn(Response.notModified(new EntityTag(VERSION)));
+
+        // Act
+        var result = sut.getTracksInPlaylist(mockedSecurityContext, mockedRequest, PLAYLISTID, 0, 0);
+
+        // Assert
+        verify(mockedTrackService, never()).getTracksInPlaylist(user, PLAYLISTID);
+        assertEquals(Response.Status.NOT_MODIFIED.getStatusCode(), result.getStatus());
     }
 
     @Test
     void whenAddingTracksToPlaylistTheTrackServiceIsInvoked() {
         // Act
-        sut.addTrackToPlaylist(AUTHENTICATION_TOKEN, PLAYLISTID, mockedTrack);
+        sut.addTrackToPlaylist(mockedSecurityContext, PLAYLISTID, mockedTrack);
+
+        // Assert
+        verify(mockedTrackService, times(1)).addTrackInPlaylist(user, PLAYLISTID, mockedTrack);
+    }
+
+    @Test
+    void whenAddingMultipleTracksToPlaylistTheTrackServiceIsInvoked() {
+        // Arrange
+        ArrayList<Integer> trackIds = new ArrayList<>(List.of(TRACKID));
+
+        // Act
+        sut.addTracksToPlaylist(mockedSecurityContext, PLAYLISTID, new TrackIdsDTO(trackIds));
 
         // Assert
-        verify(mockedTrackService, times(1)).addTrackInPlaylist(AUTHENTICATION_TOKEN, PLAYLISTID, mockedTrack);
+        verify(mockedTrackService, times(1)).addTracksInPlaylist(user, PLAYLISTID, trackIds);
     }
 
     @Test
     void whenDeletingTrackFromPlaylistTheTrackServiceIsInvoked() {
         // Act
-        sut.deleteTrackFromPlaylist(AUTHENTICATION_TOKEN, PLAYLISTID, TRACKID);
+        sut.deleteTrackFromPlaylist(mockedSecurityContext, PLAYLISTID, TRACKID);
 
         // Assert
-        verify(mockedTrackService, times(1)).deleteTrackInPlaylist(AUTHENTICATION_TOKEN, PLAYLISTID, TRACKID);
+        verify(mockedTrackService, times(1)).deleteTrackInPlaylist(user, PLAYLISTID, TRACKID);
     }
 
 }
\ No newline at end of file
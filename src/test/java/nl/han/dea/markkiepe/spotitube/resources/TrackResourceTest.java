@@ -1,23 +1,35 @@
 package nl.han.dea.markkiepe.spotitube.resources;
 
+import nl.han.dea.markkiepe.spotitube.resources.streaming.TracksStreamingOutput;
+import nl.han.dea.markkiepe.spotitube.services.authentication.UserPrincipal;
 import nl.han.dea.markkiepe.spotitube.services.tracks.TrackService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import javax.ws.rs.core.SecurityContext;
+
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class TrackResourceTest {
 
-    private static final String AUTHENTICATION_TOKEN = "1234-4321-1234";
+    private static final int USER_ID = 12;
     private static final int PLAYLIST_ID = 321;
+    private static final int AFTER_TRACK_ID = 12;
+    private static final int LIMIT = 10;
 
     private TrackResource sut;
+    private SecurityContext mockedSecurityContext;
+    private UserPrincipal user;
     private TrackService mockedTrackService;
 
     @BeforeEach
     void setup() {
         // Arrange
         sut = new TrackResource();
+        user = new UserPrincipal(USER_ID, playlistId -> true);
+        mockedSecurityContext = mock(SecurityContext.class);
+        when(mockedSecurityContext.getUserPrincipal()).thenReturn(user);
         mockedTrackService = mock(TrackService.class);
         sut.setTrackService(mockedTrackService);
     }
@@ -25,10 +37,20 @@ class TrackResourceTest {
     @Test
     void whenGettingTracksNotInPlaylistTheTrackServiceIsInvoked() {
         // Act
-        sut.getTracksNotInPlaylist(AUTHENTICATION_TOKEN, PLAYLIST_ID);
+        sut.getTracksNotInPlaylist(mockedSecurityContext, PLAYLIST_ID, AFTER_TRACK_ID, LIMIT, false);
+
+        // Assert
+        verify(mockedTrackService, times(1)).getTracksNotInPlaylist(user, PLAYLIST_ID, AFTER_TRACK_ID, LIMIT);
+    }
+
+    @Test
+    void whenStreamingTracksNotInPlaylistTheTracksAreStreamedToTheResponse() {
+        // Act
+        var result = sut.getTracksNotInPlaylist(mockedSecurityContext, PLAYLIST_ID, AFTER_TRACK_ID, LIMIT, true);
 
         // Assert
-        verify(mockedTrackService, times(1)).getTracksNotInPlaylist(AUTHENTICATION_TOKEN, PLAYLIST_ID);
+        verify(mockedTrackService, times(1)).streamTracksNotInPlaylist(user, PLAYLIST_ID, AFTER_TRACK_ID);
+        assertEquals(TracksStreamingOutput.class, result.getEntity().getClass());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package nl.han.dea.markkiepe.spotitube.resources.exceptionMappers;
+
+import nl.han.dea.markkiepe.spotitube.services.exceptions.AuthenticationUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.Response;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class AuthenticationUnavailableExceptionMapperTest {
+
+    private AuthenticationUnavailableExceptionMapper sut;
+    private AuthenticationUnavailableException exception;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        sut = new AuthenticationUnavailableExceptionMapper();
+        exception = mock(AuthenticationUnavailableException.class);
+    }
+
+    @Test
+    void whenAAuthenticationUnavailableExceptionIsThrownAndTheResponseIsRequestedThisIsReturned() {
+        // Act
+        Response result = sut.toResponse(exception);
+
+        // Assert
+        assertEquals(Response.Status.SERVICE_UNAVAILABLE, result.getStatusInfo());
+    }
+
+}
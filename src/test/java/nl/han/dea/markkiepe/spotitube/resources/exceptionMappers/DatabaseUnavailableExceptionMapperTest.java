@@ -0,0 +1,33 @@
+package nl.han.dea.markkiepe.spotitube.resources.exceptionMappers;
+
+import nl.han.dea.markkiepe.spotitube.datasource.exceptions.DatabaseUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.Response;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class DatabaseUnavailableExceptionMapperTest {
+
+    private DatabaseUnavailableExceptionMapper sut;
+    private DatabaseUnavailableException exception;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        sut = new DatabaseUnavailableExceptionMapper();
+        exception = mock(DatabaseUnavailableException.class);
+    }
+
+    @Test
+    void whenADatabaseUnavailableExceptionIsThrownAndTheResponseIsRequestedThisIsReturned() {
+        // Act
+        Response result = sut.toResponse(exception);
+
+        // Assert
+        assertEquals(Response.Status.SERVICE_UNAVAILABLE, result.getStatusInfo());
+    }
+
+}
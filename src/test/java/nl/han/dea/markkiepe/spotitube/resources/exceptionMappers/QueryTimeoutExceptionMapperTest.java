@@ -0,0 +1,33 @@
+package nl.han.dea.markkiepe.spotitube.resources.exceptionMappers;
+
+import nl.han.dea.markkiepe.spotitube.datasource.exceptions.QueryTimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.Response;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class QueryTimeoutExceptionMapperTest {
+
+    private QueryTimeoutExceptionMapper sut;
+    private QueryTimeoutException exception;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        sut = new QueryTimeoutExceptionMapper();
+        exception = mock(QueryTimeoutException.class);
+    }
+
+    @Test
+    void whenAQueryTimeoutExceptionIsThrownAndTheResponseIsRequestedThisIsReturned() {
+        // Act
+        Response result = sut.toResponse(exception);
+
+        // Assert
+        assertEquals(Response.Status.GATEWAY_TIMEOUT, result.getStatusInfo());
+    }
+
+}
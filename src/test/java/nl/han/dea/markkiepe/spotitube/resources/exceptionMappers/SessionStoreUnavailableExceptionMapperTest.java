@@ -0,0 +1,33 @@
+package nl.han.dea.markkiepe.spotitube.resources.exceptionMappers;
+
+import nl.han.dea.markkiepe.spotitube.services.exceptions.SessionStoreUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.Response;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class SessionStoreUnavailableExceptionMapperTest {
+
+    private SessionStoreUnavailableExceptionMapper sut;
+    private SessionStoreUnavailableException exception;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        sut = new SessionStoreUnavailableExceptionMapper();
+        exception = mock(SessionStoreUnavailableException.class);
+    }
+
+    @Test
+    void whenASessionStoreUnavailableExceptionIsThrownAndTheResponseIsRequestedThisIsReturned() {
+        // Act
+        Response result = sut.toResponse(exception);
+
+        // Assert
+        assertEquals(Response.Status.SERVICE_UNAVAILABLE, result.getStatusInfo());
+    }
+
+}
@@ -0,0 +1,35 @@
+package nl.han.dea.markkiepe.spotitube.resources.exceptionMappers;
+
+import nl.han.dea.markkiepe.spotitube.services.exceptions.TooManyRequestsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.Response;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TooManyRequestsExceptionMapperTest {
+
+    private static final long RETRY_AFTER = 12;
+
+    private TooManyRequestsExceptionMapper sut;
+    private TooManyRequestsException exception;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        sut = new TooManyRequestsExceptionMapper();
+        exception = new TooManyRequestsException(RETRY_AFTER);
+    }
+
+    @Test
+    void whenATooManyRequestsExceptionIsThrownAndTheResponseIsRequestedThisIsReturned() {
+        // Act
+        Response result = sut.toResponse(exception);
+
+        // Assert
+        assertEquals(Response.Status.TOO_MANY_REQUESTS, result.getStatusInfo());
+        assertEquals(RETRY_AFTER, result.getHeaders().getFirst("Retry-After"));
+    }
+
+}
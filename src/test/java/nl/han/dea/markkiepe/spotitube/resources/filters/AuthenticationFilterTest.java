@@ -0,0 +1,90 @@
+package nl.han.dea.markkiepe.spotitube.resources.filters;
+
+import nl.han.dea.markkiepe.spotitube.services.AuthenticationManager;
+import nl.han.dea.markkiepe.spotitube.services.authentication.UserPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.UriInfo;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AuthenticationFilterTest {
+
+    private static final String EXISTING_TOKEN = "1234-1234";
+    private static final String NOT_EXISTING_TOKEN = "4321-4321";
+    private static final int USER_ID = 123;
+
+    private AuthenticationFilter sut;
+    private AuthenticationManager mockedAuthenticationManager;
+    private ContainerRequestContext mockedRequest;
+    private MultivaluedMap<String, String> queryParameters;
+    private UserPrincipal user;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        mockedAuthenticationManager = mock(AuthenticationManager.class);
+        mockedRequest = mock(ContainerRequestContext.class);
+        UriInfo mockedUriInfo = mock(UriInfo.class);
+        queryParameters = new MultivaluedHashMap<>();
+        user = new UserPrincipal(USER_ID, playlistId -> true);
+        when(mockedRequest.getUriInfo()).thenReturn(mockedUriInfo);
+        when(mockedUriInfo.getQueryParameters()).thenReturn(queryParameters);
+        when(mockedAuthenticationManager.authenticate(EXISTING_TOKEN)).thenReturn(user);
+        when(mockedAuthenticationManager.authenticate(NOT_EXISTING_TOKEN)).thenReturn(null);
+        //
+        sut = new AuthenticationFilter();
+        sut.setAuthenticationManager(mockedAuthenticationManager);
+    }
+
+    @Test
+    void whenTheTokenIsValidTheUserIsSetOnTheSecurityContext() {
+        // Arrange
+        queryParameters.putSingle("token", EXISTING_TOKEN);
+        ArgumentCaptor<SecurityContext> securityContext = ArgumentCaptor.forClass(SecurityContext.class);
+
+        // Act
+        sut.filter(mockedRequest);
+
+        // Assert
+        verify(mockedRequest).setSecurityContext(securityContext.capture());
+        verify(mockedRequest, never()).abortWith(any());
+        assertSame(user, securityContext.getValue().getUserPrincipal());
+    }
+
+    @Test
+    void whenTheTokenIsInvalidTheRequestIsAbortedWithNotFound() {
+        // Arrange
+        queryParameters.putSingle("token", NOT_EXISTING_TOKEN);
+        ArgumentCaptor<Response> response = ArgumentCaptor.forClass(Response.class);
+
+        // Act
+        sut.filter(mockedRequest);
+
+        // Assert
+        verify(mockedRequest).abortWith(response.capture());
+        verify(mockedRequest, never()).setSecurityContext(any());
+        assertEquals(Response.Status.NOT_FOUND.getStatusCode(), response.getValue().getStatus());
+    }
+
+    @Test
+    void theTokenIsResolvedOncePerRequest() {
+        // Arrange
+        queryParameters.putSingle("token", EXISTING_TOKEN);
+
+        // Act
+        sut.filter(mockedRequest);
+
+        // Assert
+        verify(mockedAuthenticationManager, times(1)).authenticate(EXISTING_TOKEN);
+    }
+
+}
@@ -0,0 +1,83 @@
+package nl.han.dea.markkiepe.spotitube.resources.filters;
+
+import nl.han.dea.markkiepe.spotitube.resources.dto.authentication.AuthenticationDTO;
+import nl.han.dea.markkiepe.spotitube.services.exceptions.TooManyRequestsException;
+import nl.han.dea.markkiepe.spotitube.services.ratelimiting.LoginRateLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LoginRateLimitFilterTest {
+
+    private static final String ADDRESS = "192.0.2.1";
+    private static final String USERNAME = "mark";
+
+    private LoginRateLimitFilter sut;
+    private LoginRateLimiter mockedLoginRateLimiter;
+    private HttpServletRequest mockedHttpServletRequest;
+    private ReaderInterceptorContext mockedReaderInterceptorContext;
+
+    @BeforeEach
+    void setup() throws Exception {
+        // Arrange
+        mockedLoginRateLimiter = mock(LoginRateLimiter.class);
+        mockedHttpServletRequest = mock(HttpServletRequest.class);
+        when(mockedHttpServletRequest.getRemoteAddr()).thenReturn(ADDRESS);
+        mockedReaderInterceptorContext = mock(ReaderInterceptorContext.class);
+        when(mockedReaderInterceptorContext.proceed()).thenReturn(new AuthenticationDTO(USERNAME, "password"));
+        //
+        sut = new LoginRateLimitFilter();
+        sut.setLoginRateLimiter(mockedLoginRateLimiter);
+        sut.setHttpServletRequest(mockedHttpServletRequest);
+    }
+
+    @Test
+    void whenARequestIsFilteredTheClientAddressIsLimited() {
+        // Act
+        sut.filter(mock(ContainerRequestContext.class));
+
+        // Assert
+        verify(mockedLoginRateLimiter, times(1)).acquireForAddress(ADDRESS);
+    }
+
+    @Test
+    void whenTheBodyIsReadTheUsernameIsLimitedAndTheBodyIsReturned() throws Exception {
+        // Act
+        Object result = sut.aroundReadFrom(mockedReaderInterceptorContext);
+
+        // Assert
+        verify(mockedLoginRateLimiter, times(1)).acquireForUsername(USERNAME);
+        assertEquals(USERNAME, ((AuthenticationDTO) result).getUser());
+    }
+
+    @Test
+    void whenTheUsernameMadeTooManyAttemptsTheExceptionIsThrown() {
+        // Arrange
+        doThrow(new TooManyRequestsException(5)).when(mockedLoginRateLimiter).acquireForUsername(USERNAME);
+
+        // Act & Assert
+        assertThrows(
+                TooManyRequestsException.class,
+                () -> sut.aroundReadFrom(mockedReaderInterceptorContext)
+        );
+    }
+
+    @Test
+    void requestsWithoutAKnownAddressAreNotLimitedByAddress() {
+        // Arrange
+        sut.setHttpServletRequest(null);
+
+        // Act
+        sut.filter(mock(ContainerRequestContext.class));
+
+        // Assert
+        verifyNoInteractions(mockedLoginRateLimiter);
+    }
+
+}
@@ -0,0 +1,62 @@
+package nl.han.dea.markkiepe.spotitube.resources.filters;
+
+import nl.han.dea.markkiepe.spotitube.datasource.context.QueryDeadline;
+import nl.han.dea.markkiepe.spotitube.datasource.util.DatabaseProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RequestDeadlineFilterTest {
+
+    private static final long REQUEST_DEADLINE = 5000;
+
+    private RequestDeadlineFilter sut;
+    private ContainerRequestContext mockedRequest;
+    private ContainerResponseContext mockedResponse;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        DatabaseProperties mockedDatabaseProperties = mock(DatabaseProperties.class);
+        when(mockedDatabaseProperties.getRequestDeadline()).thenReturn(REQUEST_DEADLINE);
+        mockedRequest = mock(ContainerRequestContext.class);
+        mockedResponse = mock(ContainerResponseContext.class);
+        //
+        sut = new RequestDeadlineFilter();
+        sut.setDatabaseProperties(mockedDatabaseProperties);
+    }
+
+    @AfterEach
+    void teardown() {
+        QueryDeadline.clear();
+    }
+
+    @Test
+    void whenARequestIsFilteredTheDeadlineIsStarted() {
+        // Act
+        sut.filter(mockedRequest);
+
+        // Assert
+        assertTrue(QueryDeadline.isSet());
+        assertTrue(QueryDeadline.getRemainingMillis() <= REQUEST_DEADLINE);
+    }
+
+    @Test
+    void whenTheResponseIsFilteredTheDeadlineIsCleared() {
+        // Arrange
+        sut.filter(mockedRequest);
+
+        // Act
+        sut.filter(mockedRequest, mockedResponse);
+
+        // Assert
+        assertFalse(QueryDeadline.isSet());
+    }
+
+}
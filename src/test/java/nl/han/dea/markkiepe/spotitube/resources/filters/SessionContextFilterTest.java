@@ -0,0 +1,78 @@
+package nl.han.dea.markkiepe.spotitube.resources.filters;
+
+import nl.han.dea.markkiepe.spotitube.datasource.context.SessionContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.UriInfo;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SessionContextFilterTest {
+
+    private static final String AUTHENTICATION_TOKEN = "1234-1234-1234";
+
+    private SessionContextFilter sut;
+    private ContainerRequestContext mockedRequest;
+    private MultivaluedMap<String, String> queryParameters;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        sut = new SessionContextFilter();
+        mockedRequest = mock(ContainerRequestContext.class);
+        UriInfo mockedUriInfo = mock(UriInfo.class);
+        queryParameters = new MultivaluedHashMap<>();
+        //
+        when(mockedRequest.getUriInfo()).thenReturn(mockedUriInfo);
+        when(mockedUriInfo.getQueryParameters()).thenReturn(queryParameters);
+    }
+
+    @AfterEach
+    void teardown() {
+        SessionContext.clear();
+    }
+
+    @Test
+    void theAuthenticationTokenOfTheRequestIsTheSession() {
+        // Arrange
+        queryParameters.putSingle("token", AUTHENTICATION_TOKEN);
+
+        // Act
+        sut.filter(mockedRequest);
+
+        // Assert
+        assertEquals(AUTHENTICATION_TOKEN, SessionContext.get());
+    }
+
+    @Test
+    void aRequestWithoutAnAuthenticationTokenReplacesThePreviousSession() {
+        // Arrange
+        SessionContext.set(AUTHENTICATION_TOKEN);
+
+        // Act
+        sut.filter(mockedRequest);
+
+        // Assert
+        assertNull(SessionContext.get());
+    }
+
+    @Test
+    void whenTheResponseIsFilteredTheSessionIsCleared() {
+        // Arrange
+        SessionContext.set(AUTHENTICATION_TOKEN);
+
+        // Act
+        sut.filter(mockedRequest, mock(ContainerResponseContext.class));
+
+        // Assert
+        assertNull(SessionContext.get());
+    }
+
+}
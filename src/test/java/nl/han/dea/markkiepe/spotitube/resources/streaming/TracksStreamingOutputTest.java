@@ -0,0 +1,47 @@
+package nl.han.dea.markkiepe.spotitube.resources.streaming;
+
+import nl.han.dea.markkiepe.spotitube.services.tracks.Track;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracksStreamingOutputTest {
+
+    @Test
+    void everyStreamedTrackIsWrittenInsideTheTracksArray() throws IOException {
+        // Arrange
+        TracksStreamingOutput sut = new TracksStreamingOutput(consumer -> {
+            consumer.accept(new Track(1, "first", null, 0, null, 0, null, null, false));
+            consumer.accept(new Track(2, "second", null, 0, null, 0, null, null, false));
+        });
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        sut.write(outputStream);
+
+        // Assert
+        String result = outputStream.toString(StandardCharsets.UTF_8);
+        assertTrue(result.startsWith("{\"tracks\":[{"));
+        assertTrue(result.contains("\"title\":\"first\"},{"));
+        assertTrue(result.contains("\"title\":\"second\""));
+        assertTrue(result.endsWith("}]}"));
+    }
+
+    @Test
+    void whenThereAreNoTracksAnEmptyArrayIsWritten() throws IOException {
+        // Arrange
+        TracksStreamingOutput sut = new TracksStreamingOutput(consumer -> {});
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        sut.write(outputStream);
+
+        // Assert
+        assertEquals("{\"tracks\":[]}", outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+}
@@ -2,11 +2,16 @@ package nl.han.dea.markkiepe.spotitube.services;
 
 import nl.han.dea.markkiepe.spotitube.datasource.PlaylistMapper;
 import nl.han.dea.markkiepe.spotitube.datasource.exceptions.DatabaseErrorException;
+import nl.han.dea.markkiepe.spotitube.datasource.exceptions.playlists.PlaylistDoesNotExistException;
 import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticationService;
 import nl.han.dea.markkiepe.spotitube.services.exceptions.UserNotFoundException;
+import nl.han.dea.markkiepe.spotitube.services.ownership.PlaylistOwnerCache;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -39,6 +44,13 @@ class AuthenticationManagerTest {
         when(mockedAuthenticationService.getUserIdFromToken(EXISTING_TOKEN)).thenReturn(EXISTING_USERID);
         when(mockedAuthenticationService.getUserIdFromToken(EXCEPTION_TOKEN)).thenThrow(UserNotFoundException.class);
         when(mockedAuthenticationService.getUserIdFromToken(NOT_EXISTING_TOKEN)).thenReturn(0);
+        when(mockedAuthenticationService.findUserIdByToken(EXISTING_TOKEN)).thenReturn(EXISTING_USERID);
+        when(mockedAuthenticationService.findUserIdByToken(NOT_EXISTING_TOKEN)).thenReturn(0);
+    }
+
+    @AfterEach
+    void teardown() {
+        sut.setPlaylistOwnerCache(null);
     }
 
     @Test
@@ -71,6 +83,93 @@ class AuthenticationManagerTest {
         assertEquals(false, result);
     }
 
+    @Test
+    void whenTheOwnerIsCachedTheSecondCheckDoesNotQueryIt() {
+        // Arrange
+        sut.setPlaylistOwnerCache(new PlaylistOwnerCache(16, 60000));
+
+        // Act
+        sut.userHasPlaylistOwnership(EXISTING_USERID, EXISTING_PLAYLISTID);
+        var result = sut.userHasPlaylistOwnership(EXISTING_USERID, EXISTING_PLAYLISTID);
+
+        // Assert
+        verify(mockedPlaylistMapper, times(1)).getPlaylistOwnerId(EXISTING_PLAYLISTID);
+        assertEquals(true, result);
+    }
+
+    @Test
+    void whenAPlaylistIsCreatedItsOwnerIsKnownWithoutAQuery() {
+        // Arrange
+        sut.setPlaylistOwnerCache(new PlaylistOwnerCache(16, 60000));
+
+        // Act
+        sut.playlistCreated(NOT_EXISTING_PLAYLISTID, EXISTING_USERID);
+        var result = sut.userHasPlaylistOwnership(EXISTING_USERID, NOT_EXISTING_PLAYLISTID);
+
+        // Assert
+        verify(mockedPlaylistMapper, never()).getPlaylistOwnerId(NOT_EXISTING_PLAYLISTID);
+        assertEquals(true, result);
+    }
+
+    @Test
+    void whenAPlaylistDoesNotExistTheOwnerCacheGetsZeroInsteadOfAnException() {
+        // Arrange
+        PlaylistOwnerCache spiedPlaylistOwnerCache = spy(new PlaylistOwnerCache(16, 60000));
+        sut.setPlaylistOwnerCache(spiedPlaylistOwnerCache);
+        AtomicReference<Object> loadedOwner = new AtomicReference<>();
+        doAnswer(invocation -> {
+            try {
+                loadedOwner.set(invocation.callRealMethod());
+            } catch (Throwable e) {
+                loadedOwner.set(e);
+                throw e;
+            }
+            return loadedOwner.get();
+        }).when(spiedPlaylistOwnerCache).getOwnerId(eq(NOT_EXISTING_PLAYLISTID), any());
+        when(mockedPlaylistMapper.getPlaylistOwnerId(NOT_EXISTING_PLAYLISTID)).thenThrow(PlaylistDoesNotExistException.class);
+
+        // Act
+        var result = sut.userHasPlaylistOwnership(EXISTING_USERID, NOT_EXISTING_PLAYLISTID);
+
+        // Assert
+        assertFalse(result);
+        assertEquals(0, loadedOwner.get());
+    }
+
+    @Test
+    void whenAPlaylistIsDeletedItsOwnerIsQueriedAgain() {
+        // Arrange
+        sut.setPlaylistOwnerCache(new PlaylistOwnerCache(16, 60000));
+        sut.userHasPlaylistOwnership(EXISTING_USERID, EXISTING_PLAYLISTID);
+
+        // Act
+        sut.playlistDeleted(EXISTING_PLAYLISTID);
+        sut.userHasPlaylistOwnership(EXISTING_USERID, EXISTING_PLAYLISTID);
+
+        // Assert
+        verify(mockedPlaylistMapper, times(2)).getPlaylistOwnerId(EXISTING_PLAYLISTID);
+    }
+
+    @Test
+    void whenACorrectTokenIsAuthenticatedThePrincipalChecksOwnershipThroughTheManager() {
+        // Act
+        var result = sut.authenticate(EXISTING_TOKEN);
+
+        // Assert
+        assertEquals(EXISTING_USERID, result.getUserId());
+        assertTrue(result.ownsPlaylist(EXISTING_PLAYLISTID));
+        verify(mockedPlaylistMapper, times(1)).getPlaylistOwnerId(EXISTING_PLAYLISTID);
+    }
+
+    @Test
+    void whenAnIncorrectTokenIsAuthenticatedNoPrincipalIsReturned() {
+        // Act
+        var result = sut.authenticate(NOT_EXISTING_TOKEN);
+
+        // Assert
+        assertNull(result);
+    }
+
     @Test
     void whenACorrectTokenIsGivenTheCorrectUserIdIsReturned() {
         // Act
@@ -5,6 +5,9 @@ import nl.han.dea.markkiepe.spotitube.datasource.CredentialsMapper;
 import nl.han.dea.markkiepe.spotitube.datasource.dao.credentials.CredentialsDao;
 import nl.han.dea.markkiepe.spotitube.datasource.exceptions.credentials.AccountDoesNotExistException;
 import nl.han.dea.markkiepe.spotitube.datasource.exceptions.DatabaseErrorException;
+import nl.han.dea.markkiepe.spotitube.services.authentication.passwords.PasswordHashingEngine;
+import nl.han.dea.markkiepe.spotitube.services.authentication.passwords.Pbkdf2PasswordHasher;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -15,6 +18,7 @@ class AuthenticateCredentialsTest {
 
     private AuthenticateCredentials sut;
     private CredentialsMapper mockedCredentialsMapper;
+    private PasswordHashingEngine passwordHashingEngine;
 
     private static final String ACCEPTED_USERNAME = "mark";
     private static final String ACCEPTED_PASSWORD = "verysecure";
@@ -29,6 +33,13 @@ class AuthenticateCredentialsTest {
         sut = new AuthenticateCredentials();
         mockedCredentialsMapper = mock(CredentialsMapper.class);
         sut.setCredentialsMapper(mockedCredentialsMapper);
+        passwordHashingEngine = new PasswordHashingEngine(new Pbkdf2PasswordHasher(1000), 1, 4, 5000);
+        sut.setPasswordHashingEngine(passwordHashingEngine);
+    }
+
+    @AfterEach
+    void teardown() {
+        passwordHashingEngine.shutdown();
     }
 
     @Test
@@ -50,6 +61,45 @@ class AuthenticateCredentialsTest {
         assertEquals(userId, result);
     }
 
+    @Test
+    void whenACorrectPasswordWasStoredInTheLegacyFormatItIsRehashed() {
+        // Arrange
+        when(mockedCredentialsMapper.getUserInfo(ACCEPTED_USERNAME)).thenReturn(new CredentialsDao(123, ACCEPTED_HASHED_PASSWORD));
+
+        // Act
+        sut.attemptLogin(ACCEPTED_USERNAME, ACCEPTED_PASSWORD);
+
+        // Assert
+        verify(mockedCredentialsMapper).updatePassword(eq(123), eq(ACCEPTED_HASHED_PASSWORD), startsWith("$pbkdf2-sha256$1000$"));
+    }
+
+    @Test
+    void whenACorrectPasswordIsStoredInTheCurrentFormatItIsNotRehashed() {
+        // Arrange
+        String hashedPassword = passwordHashingEngine.hash(ACCEPTED_PASSWORD);
+        when(mockedCredentialsMapper.getUserInfo(ACCEPTED_USERNAME)).thenReturn(new CredentialsDao(123, hashedPassword));
+
+        // Act
+        var result = sut.attemptLogin(ACCEPTED_USERNAME, ACCEPTED_PASSWORD);
+
+        // Assert
+        assertEquals(123, result);
+        verify(mockedCredentialsMapper, never()).updatePassword(anyInt(), any(), any());
+    }
+
+    @Test
+    void whenRehashingFailsTheUserIsStillLoggedIn() {
+        // Arrange
+        when(mockedCredentialsMapper.getUserInfo(ACCEPTED_USERNAME)).thenReturn(new CredentialsDao(123, ACCEPTED_HASHED_PASSWORD));
+        when(mockedCredentialsMapper.updatePassword(anyInt(), any(), any())).thenThrow(DatabaseErrorException.class);
+
+        // Act
+        var result = sut.attemptLogin(ACCEPTED_USERNAME, ACCEPTED_PASSWORD);
+
+        // Assert
+        assertEquals(123, result);
+    }
+
     @Test
     void whenAnAccountExistButTheEnteredPasswordIsWrongAnIncorrectCredentialsExceptionIsThrown() {
         // Arrange
@@ -114,6 +164,24 @@ class AuthenticateCredentialsTest {
         assertEquals(IncorrectCredentialsException.class, result.getClass());
     }
 
+    @Test
+    void whenAnAccountDoesNotExistThePasswordIsStillHashed() {
+        // Arrange
+        PasswordHashingEngine mockedPasswordHashingEngine = mock(PasswordHashingEngine.class);
+        sut.setPasswordHashingEngine(mockedPasswordHashingEngine);
+        when(mockedCredentialsMapper.getUserInfo(ACCEPTED_USERNAME)).thenThrow(AccountDoesNotExistException.class);
+
+        // Act
+        assertThrows(
+                IncorrectCredentialsException.class,
+                () -> sut.attemptLogin(ACCEPTED_USERNAME, ACCEPTED_PASSWORD)
+        );
+
+        // Assert
+        verify(mockedPasswordHashingEngine, times(1)).verifyWithoutAccount(ACCEPTED_PASSWORD);
+        verify(mockedPasswordHashingEngine, never()).verify(anyString(), anyString());
+    }
+
     @Test
     void whenAnDatabaseErrorExceptionIsThrownTheIncorrectCredentialsExceptionIsThrown() {
         // Arrange
@@ -3,11 +3,13 @@ package nl.han.dea.markkiepe.spotitube.services.authentication;
 import nl.han.dea.markkiepe.spotitube.services.exceptions.IncorrectCredentialsException;
 import nl.han.dea.markkiepe.spotitube.services.exceptions.UserNotFoundException;
 import nl.han.dea.markkiepe.spotitube.resources.dto.authentication.AuthenticationDTO;
+import nl.han.dea.markkiepe.spotitube.services.authentication.sessions.SessionStore;
+import nl.han.dea.markkiepe.spotitube.services.authentication.sessions.SessionSweeper;
+import nl.han.dea.markkiepe.spotitube.services.authentication.tokens.SignedTokenService;
+import nl.han.dea.markkiepe.spotitube.services.authentication.tokens.TokenClaims;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.util.ArrayList;
-
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
@@ -17,6 +19,9 @@ class AuthenticationServiceTest {
     private AuthenticationService sut;
     private TokenGenerator mockedTokenGenerator;
     private AuthenticateCredentials mockedAuthenticateCredentials;
+    private SessionStore mockedSessionStore;
+    private SessionSweeper mockedSessionSweeper;
+    private SignedTokenService mockedSignedTokenService;
 
     @BeforeEach
     void setup() {
@@ -24,8 +29,17 @@ class AuthenticationServiceTest {
         sut = new AuthenticationService();
         mockedTokenGenerator = mock(TokenGenerator.class);
         mockedAuthenticateCredentials = mock(AuthenticateCredentials.class);
+        mockedSessionStore = mock(SessionStore.class);
+        mockedSessionSweeper = mock(SessionSweeper.class);
+        mockedSignedTokenService = mock(SignedTokenService.class);
         sut.setGenerator(mockedTokenGenerator);
         sut.setAuthenticateCredentials(mockedAuthenticateCredentials);
+        sut.setSessionStore(mockedSessionStore);
+        sut.setSessionSweeper(mockedSessionSweeper);
+        sut.setSignedTokenService(mockedSignedTokenService);
+        //
+        when(mockedSessionStore.add(any())).thenReturn(true);
+        when(mockedSessionSweeper.renew(any())).thenReturn(true);
     }
 
     @Test
@@ -64,18 +78,25 @@ class AuthenticationServiceTest {
         AuthenticatedUser user = mock(AuthenticatedUser.class);
         String token = "abc";
         when(user.getToken()).thenReturn(token);
-        ArrayList<AuthenticatedUser> list = new ArrayList<>();
-        list.add(user);
-        sut.setUsers(list);
+        when(mockedSessionStore.get(token)).thenReturn(user);
 
         // Act
         var result = sut.getUserIdFromToken(token);
 
         // Assert
-        verify(user, times(1)).getToken();
+        verify(mockedSessionStore, times(1)).get(token);
         verify(user).getUserId();
     }
 
+    @Test
+    void findUserIdByTokenReturnsZeroInsteadOfThrowingIfUserDoesNotExist() {
+        // Act
+        var result = sut.findUserIdByToken("1234");
+
+        // Assert
+        assertEquals(0, result);
+    }
+
     @Test
     void getUserIdFromTokenThrowsUserNotFoundExceptionIfUserDoesNotExist() {
         // Act
@@ -88,6 +109,24 @@ class AuthenticationServiceTest {
         assertEquals(UserNotFoundException.class, result.getClass());
     }
 
+    @Test
+    void getUserIdFromTokenThrowsUserNotFoundExceptionIfTheSessionExpired() {
+        // Arrange
+        AuthenticatedUser user = mock(AuthenticatedUser.class);
+        when(mockedSessionStore.get("1234")).thenReturn(user);
+        when(mockedSessionSweeper.renew(user)).thenReturn(false);
+
+        // Act
+        var result = assertThrows(
+                UserNotFoundException.class,
+                () -> sut.getUserIdFromToken("1234")
+        );
+
+        // Assert
+        verify(mockedSessionSweeper, times(1)).renew(user);
+        assertEquals(UserNotFoundException.class, result.getClass());
+    }
+
     @Test
     void anAuthenticatedUserIsGeneratedWhenTheLoginDetailsAreCorrect() {
         // Arrange
@@ -105,9 +144,29 @@ class AuthenticationServiceTest {
 
         // Assert
         verify(mockedAuthenticateCredentials).attemptLogin(username, password);
+        verify(mockedSessionSweeper, times(1)).track(result);
         assertEquals(AuthenticatedUser.class, result.getClass() );
     }
 
+    @Test
+    void whenAGeneratedTokenIsAlreadyInUseANewTokenIsGenerated() {
+        // Arrange
+        AuthenticationDTO mockedUserLoginDetails = mock(AuthenticationDTO.class);
+        when(mockedUserLoginDetails.getUser()).thenReturn("mark");
+        when(mockedUserLoginDetails.getPassword()).thenReturn("supersafe");
+        when(mockedAuthenticateCredentials.attemptLogin("mark", "supersafe")).thenReturn(1);
+        when(mockedTokenGenerator.generateNewToken()).thenReturn("taken", "free");
+        when(mockedSessionStore.get("taken")).thenReturn(mock(AuthenticatedUser.class));
+
+        // Act
+        var result = sut.loginRequest(mockedUserLoginDetails);
+
+        // Assert
+        verify(mockedTokenGenerator, times(2)).generateNewToken();
+        verify(mockedSessionStore, times(1)).add(result);
+        assertEquals("free", result.getToken());
+    }
+
     @Test
     void whenATokenMatchesAnUserIdTrueIsReturnedFromDoesTokenMatchUserId() {
         // Arrange
@@ -120,9 +179,7 @@ class AuthenticationServiceTest {
         when(user.getToken()).thenReturn(token);
         when(user.getUserId()).thenReturn(userId);
         //
-        ArrayList<AuthenticatedUser> list = new ArrayList<>();
-        list.add(user);
-        sut.setUsers(list);
+        when(mockedSessionStore.get(token)).thenReturn(user);
 
         // Act
         boolean result = sut.doesTokenMatchUserId(token, userId);
@@ -144,9 +201,7 @@ class AuthenticationServiceTest {
         when(user.getToken()).thenReturn(token);
         when(user.getUserId()).thenReturn(userId);
         //
-        ArrayList<AuthenticatedUser> list = new ArrayList<>();
-        list.add(user);
-        sut.setUsers(list);
+        when(mockedSessionStore.get(token)).thenReturn(user);
 
         // Act
         boolean result = sut.doesTokenMatchUserId(token, userId + 1);
@@ -156,4 +211,63 @@ class AuthenticationServiceTest {
         assertEquals(false, result);
     }
 
-}
\ No newline at end of file
+    @Test
+    void loggingOutRemovesTheSessionOfTheToken() {
+        // Arrange
+        when(mockedSessionStore.remove("1234")).thenReturn(mock(AuthenticatedUser.class));
+
+        // Act
+        boolean result = sut.logout("1234");
+
+        // Assert
+        verify(mockedSessionStore, times(1)).remove("1234");
+        assertEquals(true, result);
+    }
+
+    @Test
+    void withSignedTokensALoginIssuesASignedTokenWithoutStoringASession() {
+        // Arrange
+        AuthenticationDTO mockedUserLoginDetails = mock(AuthenticationDTO.class);
+        when(mockedUserLoginDetails.getUser()).thenReturn("mark");
+        when(mockedUserLoginDetails.getPassword()).thenReturn("supersafe");
+        when(mockedAuthenticateCredentials.attemptLogin("mark", "supersafe")).thenReturn(1);
+        when(mockedSignedTokenService.isEnabled()).thenReturn(true);
+        when(mockedSignedTokenService.issue(eq(1), anyLong())).thenReturn("key.payload.signature");
+
+        // Act
+        var result = sut.loginRequest(mockedUserLoginDetails);
+
+        // Assert
+        verify(mockedSessionStore, never()).add(any());
+        verify(mockedSessionSweeper, never()).track(any());
+        assertEquals("key.payload.signature", result.getToken());
+    }
+
+    @Test
+    void withSignedTokensTheUserIdIsTakenFromTheVerifiedTokenWithoutALookup() {
+        // Arrange
+        when(mockedSignedTokenService.isEnabled()).thenReturn(true);
+        when(mockedSignedTokenService.verify(eq("key.payload.signature"), anyLong())).thenReturn(new TokenClaims(7, 0, 1));
+
+        // Act
+        var result = sut.getUserIdFromToken("key.payload.signature");
+
+        // Assert
+        verify(mockedSessionStore, never()).get(anyString());
+        assertEquals(7, result);
+    }
+
+    @Test
+    void withSignedTokensLoggingOutRevokesTheToken() {
+        // Arrange
+        when(mockedSignedTokenService.isEnabled()).thenReturn(true);
+
+        // Act
+        sut.logout("key.payload.signature");
+
+        // Assert
+        verify(mockedSignedTokenService, times(1)).revoke(eq("key.payload.signature"), anyLong());
+        verify(mockedSessionStore, never()).remove(anyString());
+    }
+
+}
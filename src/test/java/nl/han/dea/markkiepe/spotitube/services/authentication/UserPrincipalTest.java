@@ -0,0 +1,59 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserPrincipalTest {
+
+    private static final int USER_ID = 123;
+    private static final int OWNED_PLAYLIST_ID = 15;
+    private static final int OTHER_PLAYLIST_ID = 16;
+
+    private UserPrincipal sut;
+    private IntPredicate mockedOwnershipCheck;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        mockedOwnershipCheck = mock(IntPredicate.class);
+        when(mockedOwnershipCheck.test(OWNED_PLAYLIST_ID)).thenReturn(true);
+        when(mockedOwnershipCheck.test(OTHER_PLAYLIST_ID)).thenReturn(false);
+        //
+        sut = new UserPrincipal(USER_ID, mockedOwnershipCheck);
+    }
+
+    @Test
+    void anOwnedPlaylistIsOnlyCheckedOnce() {
+        // Act
+        sut.ownsPlaylist(OWNED_PLAYLIST_ID);
+        var result = sut.ownsPlaylist(OWNED_PLAYLIST_ID);
+
+        // Assert
+        assertTrue(result);
+        verify(mockedOwnershipCheck, times(1)).test(OWNED_PLAYLIST_ID);
+    }
+
+    @Test
+    void aPlaylistOfAnotherUserIsNotOwned() {
+        // Act
+        var result = sut.ownsPlaylist(OTHER_PLAYLIST_ID);
+
+        // Assert
+        assertFalse(result);
+    }
+
+    @Test
+    void theNameOfThePrincipalIsTheUserId() {
+        // Act
+        var result = sut.getName();
+
+        // Assert
+        assertEquals(String.valueOf(USER_ID), result);
+    }
+
+}
@@ -0,0 +1,124 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.passwords;
+
+import nl.han.dea.markkiepe.spotitube.services.exceptions.AuthenticationUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PasswordHashingEngineTest {
+
+    private static final String PASSWORD = "verysecure";
+    private static final String HASHED_PASSWORD = "f616ac1c494f605ff1fa305b263d055e4fdc2446e8efb9637b0a1906bdc3514f1e7ef71ed83e790a10d82d0d79b6abad95566b7834ab2d7949f92fa90dc2e4e2";
+
+    private PasswordHashingEngine sut;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        sut = new PasswordHashingEngine(new Pbkdf2PasswordHasher(1000), 1, 1, 5000);
+    }
+
+    @AfterEach
+    void teardown() {
+        sut.shutdown();
+    }
+
+    @Test
+    void aCorrectLegacyPasswordIsRehashedWithTheCurrentHasher() {
+        // Act
+        var result = sut.verify(PASSWORD, HASHED_PASSWORD);
+
+        // Assert
+        assertTrue(result.isCorrect());
+        assertTrue(sut.getCurrentHasher().verify(PASSWORD, result.getRehash()));
+    }
+
+    @Test
+    void aCorrectPasswordInTheCurrentSha3FormatIsNotRehashed() {
+        // Arrange
+        PasswordHashingEngine engine = new PasswordHashingEngine(new Sha3PasswordHasher(), 1, 1, 5000);
+
+        // Act
+        var result = engine.verify(PASSWORD, HASHED_PASSWORD);
+        engine.shutdown();
+
+        // Assert
+        assertTrue(result.isCorrect());
+        assertNull(result.getRehash());
+    }
+
+    @Test
+    void aWrongPasswordIsNotRehashed() {
+        // Act
+        var result = sut.verify("wrongpassword", HASHED_PASSWORD);
+
+        // Assert
+        assertFalse(result.isCorrect());
+        assertNull(result.getRehash());
+    }
+
+    @Test
+    void checkingAPasswordWithoutAccountVerifiesItWithTheCurrentHasher() {
+        // Arrange
+        Pbkdf2PasswordHasher hasher = spy(new Pbkdf2PasswordHasher(1000));
+        PasswordHashingEngine engine = new PasswordHashingEngine(hasher, 1, 1, 5000);
+
+        // Act
+        engine.verifyWithoutAccount(PASSWORD);
+        engine.shutdown();
+
+        // Assert
+        verify(hasher, times(1)).verify(eq(PASSWORD), argThat(hasher::supports));
+    }
+
+    @Test
+    void aHashInAnUnknownFormatIsNeverCorrect() {
+        // Act
+        var result = sut.verify(PASSWORD, "$unknown$hash");
+
+        // Assert
+        assertFalse(result.isCorrect());
+    }
+
+    @Test
+    void whenTooManyPasswordsAreWaitingTheLoginIsRefused() throws Exception {
+        // Arrange
+        CountDownLatch hashing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordHasher mockedHasher = mock(PasswordHasher.class);
+        when(mockedHasher.hash(any())).thenAnswer(invocation -> {
+            hashing.countDown();
+            release.await();
+            return "hash";
+        });
+        PasswordHashingEngine busyEngine = new PasswordHashingEngine(mockedHasher, 1, 1, 5000);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        callers.execute(() -> busyEngine.hash(PASSWORD));
+        assertTrue(hashing.await(5, TimeUnit.SECONDS));
+        callers.execute(() -> busyEngine.hash(PASSWORD));
+        while (busyEngine.getQueuedPasswords() == 0) {
+            Thread.sleep(1);
+        }
+
+        // Act
+        var result = assertThrows(
+                AuthenticationUnavailableException.class,
+                () -> busyEngine.hash(PASSWORD)
+        );
+
+        // Assert
+        assertEquals(AuthenticationUnavailableException.class, result.getClass());
+        release.countDown();
+        callers.shutdown();
+        busyEngine.shutdown();
+    }
+
+}
@@ -0,0 +1,74 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.passwords;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Pbkdf2PasswordHasherTest {
+
+    private static final String PASSWORD = "verysecure";
+
+    private Pbkdf2PasswordHasher sut;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        sut = new Pbkdf2PasswordHasher(1000);
+    }
+
+    @Test
+    void aHashedPasswordCanBeVerified() {
+        // Act
+        String hash = sut.hash(PASSWORD);
+
+        // Assert
+        assertTrue(hash.startsWith("$pbkdf2-sha256$1000$"));
+        assertTrue(sut.verify(PASSWORD, hash));
+        assertFalse(sut.verify("wrongpassword", hash));
+    }
+
+    @Test
+    void theSamePasswordGetsADifferentSaltEveryTime() {
+        // Act
+        var first = sut.hash(PASSWORD);
+        var second = sut.hash(PASSWORD);
+
+        // Assert
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void aHashWithFewerIterationsIsVerifiedButNeedsARehash() {
+        // Arrange
+        String hash = new Pbkdf2PasswordHasher(500).hash(PASSWORD);
+
+        // Act
+        boolean verified = sut.verify(PASSWORD, hash);
+        boolean result = sut.needsRehash(hash);
+
+        // Assert
+        assertTrue(verified);
+        assertTrue(result);
+        assertFalse(sut.needsRehash(sut.hash(PASSWORD)));
+    }
+
+    @Test
+    void aDamagedHashIsNeverCorrect() {
+        // Act
+        var result = sut.verify(PASSWORD, "$pbkdf2-sha256$1000$not-base64!");
+
+        // Assert
+        assertFalse(result);
+    }
+
+    @Test
+    void calibratingNeverGoesBelowTheMinimumIterations() {
+        // Act
+        var result = Pbkdf2PasswordHasher.calibrate(1, 2000);
+
+        // Assert
+        assertTrue(result.getIterations() >= 2000);
+    }
+
+}
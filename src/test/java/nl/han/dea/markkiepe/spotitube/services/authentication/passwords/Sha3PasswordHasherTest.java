@@ -0,0 +1,49 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.passwords;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Sha3PasswordHasherTest {
+
+    private static final String PASSWORD = "verysecure";
+    private static final String HASHED_PASSWORD = "f616ac1c494f605ff1fa305b263d055e4fdc2446e8efb9637b0a1906bdc3514f1e7ef71ed83e790a10d82d0d79b6abad95566b7834ab2d7949f92fa90dc2e4e2";
+
+    private Sha3PasswordHasher sut;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        sut = new Sha3PasswordHasher();
+    }
+
+    @Test
+    void aLegacyHashIsVerified() {
+        // Act
+        var result = sut.verify(PASSWORD, HASHED_PASSWORD);
+
+        // Assert
+        assertTrue(result);
+        assertFalse(sut.verify("wrongpassword", HASHED_PASSWORD));
+    }
+
+    @Test
+    void aHashIsNotMatchedAsARegularExpression() {
+        // Act
+        var result = sut.verify(PASSWORD, ".".repeat(128));
+
+        // Assert
+        assertFalse(result);
+    }
+
+    @Test
+    void aHashOfThisHasherNeverNeedsARehashOnItsOwn() {
+        // Act
+        var result = sut.needsRehash(HASHED_PASSWORD);
+
+        // Assert
+        assertFalse(result);
+    }
+
+}
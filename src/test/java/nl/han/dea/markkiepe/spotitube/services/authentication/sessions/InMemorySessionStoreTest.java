@@ -0,0 +1,129 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.sessions;
+
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticatedUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemorySessionStoreTest {
+
+    private static final int USER_ID = 1;
+    private static final String USERNAME = "mark";
+    private static final String TOKEN = "1234-1234-1234";
+
+    private InMemorySessionStore sut;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        sut = new InMemorySessionStore();
+    }
+
+    @Test
+    void anAddedSessionCanBeFoundByItsToken() {
+        // Arrange
+        AuthenticatedUser user = new AuthenticatedUser(USER_ID, USERNAME, TOKEN);
+
+        // Act
+        boolean added = sut.add(user);
+        var result = sut.get(TOKEN);
+
+        // Assert
+        assertTrue(added);
+        assertSame(user, result);
+    }
+
+    @Test
+    void aTokenOnlyMatchesExactly() {
+        // Arrange
+        sut.add(new AuthenticatedUser(USER_ID, USERNAME, "1234.1234"));
+
+        // Act
+        var result = sut.get("1234-1234");
+
+        // Assert
+        assertNull(result);
+    }
+
+    @Test
+    void aTokenThatIsAlreadyInUseIsNotAddedAgain() {
+        // Arrange
+        AuthenticatedUser first = new AuthenticatedUser(USER_ID, USERNAME, TOKEN);
+        sut.add(first);
+
+        // Act
+        boolean result = sut.add(new AuthenticatedUser(USER_ID + 1, "other", TOKEN));
+
+        // Assert
+        assertFalse(result);
+        assertSame(first, sut.get(TOKEN));
+        assertEquals(1, sut.size());
+    }
+
+    @Test
+    void theSessionsOfAUserAreIndexedByUserId() {
+        // Arrange
+        sut.add(new AuthenticatedUser(USER_ID, USERNAME, TOKEN));
+        sut.add(new AuthenticatedUser(USER_ID, USERNAME, "other-token"));
+        sut.add(new AuthenticatedUser(USER_ID + 1, "other", "third-token"));
+
+        // Act
+        var result = sut.getSessionsOfUser(USER_ID);
+
+        // Assert
+        assertEquals(2, result.size());
+    }
+
+    @Test
+    void aRemovedSessionIsRemovedFromBothIndexes() {
+        // Arrange
+        AuthenticatedUser user = new AuthenticatedUser(USER_ID, USERNAME, TOKEN);
+        sut.add(user);
+
+        // Act
+        var result = sut.remove(TOKEN);
+
+        // Assert
+        assertSame(user, result);
+        assertNull(sut.get(TOKEN));
+        assertTrue(sut.getSessionsOfUser(USER_ID).isEmpty());
+        assertEquals(0, sut.size());
+    }
+
+    @Test
+    void aSessionThatWasUsedAfterTheGivenMomentIsNotRemoved() {
+        // Arrange
+        AuthenticatedUser user = new AuthenticatedUser(USER_ID, USERNAME, TOKEN, 1000);
+        sut.add(user);
+        sut.touch(TOKEN, 2000);
+
+        // Act
+        boolean kept = sut.removeIfNotUsedSince(TOKEN, 1000);
+        boolean removed = sut.removeIfNotUsedSince(TOKEN, 2000);
+
+        // Assert
+        assertFalse(kept);
+        assertTrue(removed);
+        assertNull(sut.get(TOKEN));
+    }
+
+    @Test
+    void theRemovalListenersAreToldWhichTokenWasRemoved() {
+        // Arrange
+        List<String> removedTokens = new ArrayList<>();
+        sut.addRemovalListener(removedTokens::add);
+        sut.add(new AuthenticatedUser(USER_ID, USERNAME, TOKEN));
+
+        // Act
+        sut.remove(TOKEN);
+        sut.remove(TOKEN);
+
+        // Assert
+        assertEquals(List.of(TOKEN), removedTokens);
+    }
+
+}
@@ -0,0 +1,76 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.sessions;
+
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticatedUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    private SessionSnapshot sut;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        sut = new SessionSnapshot(directory.resolve("sessions.snapshot"));
+    }
+
+    @Test
+    void writtenSessionsAreReadBackTheSame() throws Exception {
+        // Arrange
+        AuthenticatedUser user = new AuthenticatedUser(1, "m\u00e4rk", "1234-1234-1234", 1000);
+        user.setLastUsedAt(2000);
+        AuthenticatedUser withoutUsername = new AuthenticatedUser(2, null, "5678-5678-5678", 3000);
+
+        // Act
+        sut.write(List.of(user, withoutUsername));
+        var result = sut.read();
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(1, result.get(0).getUserId());
+        assertEquals("m\u00e4rk", result.get(0).getUser());
+        assertEquals("1234-1234-1234", result.get(0).getToken());
+        assertEquals(1000, result.get(0).getCreatedAt());
+        assertEquals(2000, result.get(0).getLastUsedAt());
+        assertNull(result.get(1).getUser());
+    }
+
+    @Test
+    void whenThereIsNoSnapshotNoSessionsAreRead() throws Exception {
+        // Act
+        var result = sut.read();
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void aDamagedSnapshotIsNotRead() throws Exception {
+        // Arrange
+        sut.write(List.of(new AuthenticatedUser(1, "mark", "1234-1234-1234", 1000)));
+        byte[] bytes = Files.readAllBytes(sut.getPath());
+        bytes[20] ^= 1;
+        Files.write(sut.getPath(), bytes);
+
+        // Act
+        var result = assertThrows(
+                IOException.class,
+                () -> sut.read()
+        );
+
+        // Assert
+        assertEquals(IOException.class, result.getClass());
+    }
+
+}
@@ -0,0 +1,49 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.sessions;
+
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticationProperties;
+import nl.han.dea.markkiepe.spotitube.services.authentication.sessions.shared.SharedSessionStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SessionStoreProducerTest {
+
+    private SessionStoreProducer sut;
+    private AuthenticationProperties mockedAuthenticationProperties;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        sut = new SessionStoreProducer();
+        mockedAuthenticationProperties = mock(AuthenticationProperties.class);
+        when(mockedAuthenticationProperties.getSessionStoreHost()).thenReturn("localhost");
+        when(mockedAuthenticationProperties.getSessionStorePort()).thenReturn(7480);
+        when(mockedAuthenticationProperties.getSessionStoreTimeout()).thenReturn(100);
+        when(mockedAuthenticationProperties.getSessionNearCacheSize()).thenReturn(10);
+    }
+
+    @Test
+    void byDefaultTheSessionsAreKeptInMemory() {
+        // Act
+        var result = sut.produceSessionStore(mockedAuthenticationProperties);
+
+        // Assert
+        assertEquals(InMemorySessionStore.class, result.getClass());
+    }
+
+    @Test
+    void whenASharedSessionStoreIsConfiguredASharedSessionStoreIsProduced() {
+        // Arrange
+        when(mockedAuthenticationProperties.isSharedSessionStore()).thenReturn(true);
+
+        // Act
+        var result = sut.produceSessionStore(mockedAuthenticationProperties);
+        sut.closeSessionStore(result);
+
+        // Assert
+        assertEquals(SharedSessionStore.class, result.getClass());
+    }
+
+}
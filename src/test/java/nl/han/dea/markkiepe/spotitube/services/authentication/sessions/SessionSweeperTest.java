@@ -0,0 +1,154 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.sessions;
+
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticatedUser;
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticationProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SessionSweeperTest {
+
+    private static final long TIME_TO_LIVE = 60000;
+    private static final long IDLE_TIMEOUT = 10000;
+    private static final long SWEEP_INTERVAL = 1000;
+    private static final int USER_ID = 1;
+
+    private SessionSweeper sut;
+    private InMemorySessionStore sessionStore;
+    private AuthenticationProperties mockedAuthenticationProperties;
+    private long now;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        sessionStore = new InMemorySessionStore();
+        mockedAuthenticationProperties = mock(AuthenticationProperties.class);
+        when(mockedAuthenticationProperties.getSessionTimeToLive()).thenReturn(TIME_TO_LIVE);
+        when(mockedAuthenticationProperties.getSessionIdleTimeout()).thenReturn(IDLE_TIMEOUT);
+        when(mockedAuthenticationProperties.getSessionSweepInterval()).thenReturn(SWEEP_INTERVAL);
+        when(mockedAuthenticationProperties.getMaximumSessionsPerUser()).thenReturn(2);
+        //
+        sut = new SessionSweeper(sessionStore, mockedAuthenticationProperties);
+        now = System.currentTimeMillis();
+    }
+
+    @AfterEach
+    void teardown() {
+        sut.shutdown();
+    }
+
+    @Test
+    void aSessionThatIsNotUsedIsSweptAfterTheIdleTimeout() {
+        // Arrange
+        AuthenticatedUser user = addSession("token", now);
+
+        // Act
+        sut.sweep(now + IDLE_TIMEOUT - SWEEP_INTERVAL);
+        var before = sessionStore.get("token");
+        sut.sweep(now + IDLE_TIMEOUT + SWEEP_INTERVAL);
+
+        // Assert
+        assertSame(user, before);
+        assertNull(sessionStore.get("token"));
+    }
+
+    @Test
+    void usingASessionRenewsItsIdleTimeout() {
+        // Arrange
+        AuthenticatedUser user = addSession("token", now);
+
+        // Act
+        boolean renewed = sut.renew(user, now + IDLE_TIMEOUT - SWEEP_INTERVAL);
+        sut.sweep(now + IDLE_TIMEOUT + SWEEP_INTERVAL);
+
+        // Assert
+        assertTrue(renewed);
+        assertSame(user, sessionStore.get("token"));
+    }
+
+    @Test
+    void aSessionExpiresAfterItsTimeToLiveEvenWhenItIsUsed() {
+        // Arrange
+        AuthenticatedUser user = addSession("token", now);
+        for (long time = now; time < now + TIME_TO_LIVE; time += IDLE_TIMEOUT / 2) {
+            sut.renew(user, time);
+        }
+
+        // Act
+        boolean result = sut.renew(user, now + TIME_TO_LIVE);
+
+        // Assert
+        assertFalse(result);
+        assertNull(sessionStore.get("token"));
+    }
+
+    @Test
+    void anIdleCopyOfASessionThatWasUsedElsewhereIsNotRemoved() {
+        // Arrange
+        addSession("token", now);
+        AuthenticatedUser outdatedCopy = new AuthenticatedUser(USER_ID, "mark", "token", now);
+        sessionStore.touch("token", now + IDLE_TIMEOUT);
+
+        // Act
+        boolean result = sut.renew(outdatedCopy, now + IDLE_TIMEOUT + SWEEP_INTERVAL);
+
+        // Assert
+        assertTrue(result);
+        assertNotNull(sessionStore.get("token"));
+    }
+
+    @Test
+    void whenAUserHasTooManySessionsTheOldestIsRemoved() {
+        // Arrange
+        addSession("first", now);
+        addSession("second", now + 1);
+
+        // Act
+        addSession("third", now + 2);
+
+        // Assert
+        assertNull(sessionStore.get("first"));
+        assertNotNull(sessionStore.get("second"));
+        assertNotNull(sessionStore.get("third"));
+    }
+
+    @Test
+    void theSessionsThatDidNotExpireAreRestoredFromTheSnapshotAfterARestart() {
+        // Arrange
+        when(mockedAuthenticationProperties.getSessionSnapshotFile()).thenReturn(directory.resolve("sessions").toString());
+        sut.shutdown();
+        sut = new SessionSweeper(sessionStore, mockedAuthenticationProperties);
+        addSession("active", now);
+        addSession("expired", now - TIME_TO_LIVE);
+        sut.shutdown();
+        //
+        sessionStore = new InMemorySessionStore();
+
+        // Act
+        sut = new SessionSweeper(sessionStore, mockedAuthenticationProperties);
+
+        // Assert
+        assertNotNull(sessionStore.get("active"));
+        assertNull(sessionStore.get("expired"));
+        assertEquals(1, sessionStore.size());
+    }
+
+    // Private Functions
+
+    private AuthenticatedUser addSession(String token, long createdAt) {
+        AuthenticatedUser user = new AuthenticatedUser(USER_ID, "mark", token, createdAt);
+        sessionStore.add(user);
+        sut.track(user);
+        return user;
+    }
+
+}
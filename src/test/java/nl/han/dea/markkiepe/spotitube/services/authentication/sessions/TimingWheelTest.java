@@ -0,0 +1,85 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.sessions;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private static final long TICK_DURATION = 100;
+    private static final int WHEEL_SIZE = 8;
+    private static final long START = 1000000;
+
+    private TimingWheel<String> sut;
+    private List<String> expiredKeys;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        expiredKeys = new ArrayList<>();
+        sut = new TimingWheel<>(TICK_DURATION, WHEEL_SIZE, (key, now) -> expiredKeys.add(key), START);
+    }
+
+    @Test
+    void aKeyIsOnlyHandedToTheHandlerOnceItsDeadlineHasPassed() {
+        // Arrange
+        sut.schedule("session", START + 250);
+
+        // Act
+        sut.advance(START + 200);
+        var before = new ArrayList<>(expiredKeys);
+        sut.advance(START + 300);
+
+        // Assert
+        assertTrue(before.isEmpty());
+        assertEquals(List.of("session"), expiredKeys);
+        assertEquals(0, sut.size());
+    }
+
+    @Test
+    void aKeyThatIsMoreThanOneRevolutionAwayWaitsForItsOwnRevolution() {
+        // Arrange
+        long oneRevolution = TICK_DURATION * WHEEL_SIZE;
+        sut.schedule("session", START + oneRevolution + 150);
+
+        // Act
+        sut.advance(START + 200);
+        var before = new ArrayList<>(expiredKeys);
+        sut.advance(START + oneRevolution + 200);
+
+        // Assert
+        assertTrue(before.isEmpty());
+        assertEquals(List.of("session"), expiredKeys);
+    }
+
+    @Test
+    void whenTheWheelWasNotAdvancedForLongEveryExpiredKeyIsHandled() {
+        // Arrange
+        sut.schedule("first", START + 100);
+        sut.schedule("second", START + 500);
+
+        // Act
+        sut.advance(START + 100000);
+
+        // Assert
+        assertEquals(2, expiredKeys.size());
+    }
+
+    @Test
+    void aDeadlineThatAlreadyPassedIsHandledOnTheNextAdvance() {
+        // Arrange
+        sut.advance(START + 500);
+        sut.schedule("session", START);
+
+        // Act
+        sut.advance(START + 600);
+
+        // Assert
+        assertEquals(List.of("session"), expiredKeys);
+    }
+
+}
@@ -0,0 +1,138 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.sessions.shared;
+
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticatedUser;
+import nl.han.dea.markkiepe.spotitube.services.exceptions.SessionStoreUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SharedSessionStoreTest {
+
+    private static final String TOKEN = "1234-1234-1234";
+    private static final int NEAR_CACHE_SIZE = 2;
+
+    private SharedSessionStore sut;
+    private SessionStoreBackend mockedBackend;
+    private AuthenticatedUser user;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        mockedBackend = mock(SessionStoreBackend.class);
+        sut = new SharedSessionStore(mockedBackend, NEAR_CACHE_SIZE);
+        user = new AuthenticatedUser(1, "mark", TOKEN);
+    }
+
+    @Test
+    void theStoreSubscribesToTheInvalidationsOfTheBackend() {
+        // Assert
+        verify(mockedBackend).setInvalidationListener(sut);
+    }
+
+    @Test
+    void aSessionThatWasFoundBeforeIsAnsweredFromTheNearCache() {
+        // Arrange
+        when(mockedBackend.get(TOKEN)).thenReturn(user);
+
+        // Act
+        sut.get(TOKEN);
+        var result = sut.get(TOKEN);
+
+        // Assert
+        assertSame(user, result);
+        verify(mockedBackend, times(1)).get(TOKEN);
+    }
+
+    @Test
+    void anInvalidatedSessionIsFetchedFromTheBackendAgain() {
+        // Arrange
+        when(mockedBackend.get(TOKEN)).thenReturn(user).thenReturn(null);
+        sut.get(TOKEN);
+
+        // Act
+        sut.invalidate(TOKEN);
+        var result = sut.get(TOKEN);
+
+        // Assert
+        assertNull(result);
+        verify(mockedBackend, times(2)).get(TOKEN);
+    }
+
+    @Test
+    void aSessionThatIsInvalidatedWhileItIsFetchedIsNotCached() {
+        // Arrange
+        when(mockedBackend.get(TOKEN)).thenAnswer(invocation -> {
+            sut.invalidate(TOKEN);
+            return user;
+        });
+
+        // Act
+        var result = sut.get(TOKEN);
+
+        // Assert
+        assertSame(user, result);
+        assertEquals(0, sut.getNearCacheSize());
+    }
+
+    @Test
+    void theNearCacheDoesNotGrowBeyondItsSize() {
+        // Arrange
+        for (int index = 0; index < NEAR_CACHE_SIZE + 2; index++) {
+            when(mockedBackend.add(any())).thenReturn(true);
+            sut.add(new AuthenticatedUser(1, "mark", "token-" + index));
+        }
+
+        // Act
+        int result = sut.getNearCacheSize();
+
+        // Assert
+        assertEquals(NEAR_CACHE_SIZE, result);
+    }
+
+    @Test
+    void aRemovedSessionIsRemovedFromTheBackendAndTheNearCache() {
+        // Arrange
+        when(mockedBackend.add(user)).thenReturn(true);
+        when(mockedBackend.remove(TOKEN)).thenReturn(user);
+        sut.add(user);
+
+        // Act
+        var result = sut.remove(TOKEN);
+
+        // Assert
+        assertSame(user, result);
+        assertEquals(0, sut.getNearCacheSize());
+    }
+
+    @Test
+    void whenTheBackendRefusesToRemoveAnIdleSessionTheOutdatedCopyIsDropped() {
+        // Arrange
+        when(mockedBackend.add(user)).thenReturn(true);
+        sut.add(user);
+
+        // Act
+        boolean result = sut.removeIfNotUsedSince(TOKEN, 0);
+
+        // Assert
+        assertFalse(result);
+        assertEquals(0, sut.getNearCacheSize());
+    }
+
+    @Test
+    void whenTheBackendIsUnavailableTheExceptionIsPassedOn() {
+        // Arrange
+        when(mockedBackend.get(TOKEN)).thenThrow(SessionStoreUnavailableException.class);
+
+        // Act
+        var result = assertThrows(
+                SessionStoreUnavailableException.class,
+                () -> sut.get(TOKEN)
+        );
+
+        // Assert
+        assertEquals(SessionStoreUnavailableException.class, result.getClass());
+    }
+
+}
@@ -0,0 +1,215 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.sessions.shared;
+
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticatedUser;
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticationProperties;
+import nl.han.dea.markkiepe.spotitube.services.exceptions.SessionStoreUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SocketSessionStoreBackendTest {
+
+    private static final String TOKEN = "1234 1234%1234";
+    private static final String SECRET = "session store secret";
+
+    private SocketSessionStoreBackend sut;
+    private SocketSessionStoreServer server;
+    private AuthenticationProperties mockedAuthenticationProperties;
+
+    @BeforeEach
+    void setup() throws Exception {
+        // Arrange
+        mockedAuthenticationProperties = mock(AuthenticationProperties.class);
+        when(mockedAuthenticationProperties.getSessionTimeToLive()).thenReturn(60000L);
+        when(mockedAuthenticationProperties.getSessionIdleTimeout()).thenReturn(60000L);
+        when(mockedAuthenticationProperties.getSessionSweepInterval()).thenReturn(1000L);
+        when(mockedAuthenticationProperties.getSessionStoreSecret()).thenReturn(SECRET);
+        //
+        server = new SocketSessionStoreServer(0, mockedAuthenticationProperties);
+        sut = new SocketSessionStoreBackend("localhost", server.getPort(), 1000, SECRET);
+    }
+
+    @AfterEach
+    void teardown() {
+        sut.close();
+        server.close();
+    }
+
+    @Test
+    void anAddedSessionCanBeFoundThroughTheServer() {
+        // Arrange
+        AuthenticatedUser user = new AuthenticatedUser(1, "mark kiepe", TOKEN, 1000);
+
+        // Act
+        boolean added = sut.add(user);
+        var result = sut.get(TOKEN);
+
+        // Assert
+        assertTrue(added);
+        assertEquals(1, result.getUserId());
+        assertEquals("mark kiepe", result.getUser());
+        assertEquals(TOKEN, result.getToken());
+        assertEquals(1000, result.getCreatedAt());
+        assertEquals(1, sut.getSessionsOfUser(1).size());
+        assertEquals(1, sut.size());
+    }
+
+    @Test
+    void aSessionWithoutUsernameKeepsItsEmptyUsername() {
+        // Act
+        sut.add(new AuthenticatedUser(1, null, TOKEN));
+        var result = sut.get(TOKEN);
+
+        // Assert
+        assertNull(result.getUser());
+    }
+
+    @Test
+    void removingASessionIsPushedToTheSubscribers() throws Exception {
+        // Arrange
+        CountDownLatch subscribed = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        sut.setInvalidationListener(new InvalidationListener() {
+            @Override
+            public void invalidate(String token) {
+                if (TOKEN.equals(token)) {
+                    invalidated.countDown();
+                }
+            }
+
+            @Override
+            public void invalidateAll() {
+                subscribed.countDown();
+            }
+        });
+        sut.add(new AuthenticatedUser(1, "mark", TOKEN));
+        assertTrue(subscribed.await(5, TimeUnit.SECONDS));
+
+        // Act
+        var result = sut.remove(TOKEN);
+
+        // Assert
+        assertNotNull(result);
+        assertTrue(invalidated.await(5, TimeUnit.SECONDS));
+        assertNull(sut.get(TOKEN));
+    }
+
+    @Test
+    void aSubscriptionIsAnsweredWithOkBeforeAnyInvalidation() throws Exception {
+        // Arrange
+        AtomicBoolean removing = new AtomicBoolean(true);
+        Thread remover = new Thread(() -> {
+            while (removing.get()) {
+                sut.add(new AuthenticatedUser(1, "mark", TOKEN));
+                sut.remove(TOKEN);
+            }
+        });
+        remover.start();
+
+        try {
+            for (int attempt = 0; attempt < 20; attempt++) {
+                try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+                     BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                     Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)
+                ) {
+                    socket.setSoTimeout(5000);
+                    writer.write("AUTH " + SessionProtocol.encode(SECRET) + "\n");
+                    writer.flush();
+                    assertEquals("OK", reader.readLine());
+
+                    // Act
+                    writer.write("SUBSCRIBE\n");
+                    writer.flush();
+                    String response = reader.readLine();
+
+                    // Assert
+                    assertEquals("OK", response);
+                }
+            }
+        } finally {
+            removing.set(false);
+            remover.join();
+        }
+    }
+
+    @Test
+    void aBackendWithTheWrongSecretIsRefused() {
+        // Arrange
+        SocketSessionStoreBackend wrongSecret = new SocketSessionStoreBackend("localhost", server.getPort(), 1000, "wrong");
+
+        // Act
+        var result = assertThrows(
+                SessionStoreUnavailableException.class,
+                () -> wrongSecret.add(new AuthenticatedUser(1, "mark", TOKEN))
+        );
+        wrongSecret.close();
+
+        // Assert
+        assertEquals(SessionStoreUnavailableException.class, result.getClass());
+        assertEquals(0, sut.size());
+    }
+
+    @Test
+    void aRequestWithoutTheSecretIsRefusedAndTheConnectionClosed() throws Exception {
+        // Arrange
+        sut.add(new AuthenticatedUser(1, "mark", TOKEN));
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)
+        ) {
+            socket.setSoTimeout(5000);
+
+            // Act
+            writer.write("USER 1\n");
+            writer.flush();
+            String response = reader.readLine();
+
+            // Assert
+            assertEquals("ERROR", response);
+            assertNull(reader.readLine());
+        }
+    }
+
+    @Test
+    void theServerDoesNotStartWithoutASecret() {
+        // Arrange
+        when(mockedAuthenticationProperties.getSessionStoreSecret()).thenReturn(null);
+
+        // Act & Assert
+        assertThrows(
+                IllegalStateException.class,
+                () -> new SocketSessionStoreServer(0, mockedAuthenticationProperties)
+        );
+    }
+
+    @Test
+    void whenTheServerCannotBeReachedTheSessionStoreIsUnavailable() {
+        // Arrange
+        server.close();
+
+        // Act
+        var result = assertThrows(
+                SessionStoreUnavailableException.class,
+                () -> sut.get(TOKEN)
+        );
+
+        // Assert
+        assertEquals(SessionStoreUnavailableException.class, result.getClass());
+    }
+
+}
@@ -0,0 +1,188 @@
+package nl.han.dea.markkiepe.spotitube.services.authentication.tokens;
+
+import nl.han.dea.markkiepe.spotitube.services.authentication.AuthenticationProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SignedTokenServiceTest {
+
+    private static final long TIME_TO_LIVE = 60000;
+    private static final long NOW = 1000000;
+    private static final int USER_ID = 42;
+
+    private SignedTokenService sut;
+    private SigningKey oldKey;
+    private SigningKey newKey;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        oldKey = new SigningKey("old", secret(1));
+        newKey = new SigningKey("new", secret(2));
+        sut = new SignedTokenService(true, TIME_TO_LIVE, List.of(newKey, oldKey));
+    }
+
+    @Test
+    void anIssuedTokenIsVerifiedWithItsClaims() {
+        // Arrange
+        String token = sut.issue(USER_ID, NOW);
+
+        // Act
+        var result = sut.verify(token, NOW + 1);
+
+        // Assert
+        assertTrue(token.startsWith("new."));
+        assertEquals(USER_ID, result.getUserId());
+        assertEquals(NOW, result.getIssuedAt());
+        assertEquals(NOW + TIME_TO_LIVE, result.getExpiresAt());
+    }
+
+    @Test
+    void aTokenWithAChangedPayloadIsRejected() {
+        // Arrange
+        String token = sut.issue(USER_ID, NOW);
+        String[] parts = token.split("\\.");
+        byte[] payload = Base64.getUrlDecoder().decode(parts[1]);
+        payload[3]++;
+        String forged = parts[0] + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(payload) + "." + parts[2];
+
+        // Act
+        var result = sut.verify(forged, NOW + 1);
+
+        // Assert
+        assertNull(result);
+    }
+
+    @Test
+    void anExpiredTokenIsRejected() {
+        // Arrange
+        String token = sut.issue(USER_ID, NOW);
+
+        // Act
+        var result = sut.verify(token, NOW + TIME_TO_LIVE);
+
+        // Assert
+        assertNull(result);
+    }
+
+    @Test
+    void tokensSignedWithAnOlderKeyStayValidAfterARotation() {
+        // Arrange
+        String token = new SignedTokenService(true, TIME_TO_LIVE, List.of(oldKey)).issue(USER_ID, NOW);
+
+        // Act
+        var result = sut.verify(token, NOW + 1);
+
+        // Assert
+        assertEquals(USER_ID, result.getUserId());
+    }
+
+    @Test
+    void tokensSignedWithARemovedKeyAreRejected() {
+        // Arrange
+        String token = sut.issue(USER_ID, NOW);
+        SignedTokenService rotated = new SignedTokenService(true, TIME_TO_LIVE, List.of(oldKey));
+
+        // Act
+        var result = rotated.verify(token, NOW + 1);
+
+        // Assert
+        assertNull(result);
+    }
+
+    @Test
+    void aRevokedTokenIsRejected() {
+        // Arrange
+        String token = sut.issue(USER_ID, NOW);
+        String otherToken = sut.issue(USER_ID, NOW);
+
+        // Act
+        boolean revoked = sut.revoke(token, NOW + 1);
+
+        // Assert
+        assertTrue(revoked);
+        assertNull(sut.verify(token, NOW + 2));
+        assertNotNull(sut.verify(otherToken, NOW + 2));
+    }
+
+    @Test
+    void aRevokedTokenThatIsEncodedDifferentlyIsRejected() {
+        // Arrange
+        String token = sut.issue(USER_ID, NOW);
+        String reencodedToken = changeUnusedBitsOfLastCharacter(token);
+        sut.revoke(token, NOW + 1);
+
+        // Act
+        var result = sut.verify(reencodedToken, NOW + 2);
+
+        // Assert
+        assertNotEquals(token, reencodedToken);
+        assertArrayEquals(
+                Base64.getUrlDecoder().decode(token.substring(token.lastIndexOf('.') + 1)),
+                Base64.getUrlDecoder().decode(reencodedToken.substring(reencodedToken.lastIndexOf('.') + 1))
+        );
+        assertNull(result);
+    }
+
+    @Test
+    void aTokenThatIsNotEncodedCanonicallyIsRejected() {
+        // Arrange
+        String token = sut.issue(USER_ID, NOW);
+
+        // Act
+        var result = sut.verify(changeUnusedBitsOfLastCharacter(token), NOW + 1);
+
+        // Assert
+        assertNotNull(sut.verify(token, NOW + 1));
+        assertNull(result);
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        // Assert
+        assertNull(sut.verify(null, NOW));
+        assertNull(sut.verify("1234-1234-1234", NOW));
+        assertNull(sut.verify("new.!!!.!!!", NOW));
+        assertNull(sut.verify("new..", NOW));
+    }
+
+    @Test
+    void enablingSignedTokensWithoutAKeyThrowsAnIllegalStateException() {
+        // Arrange
+        AuthenticationProperties mockedAuthenticationProperties = mock(AuthenticationProperties.class);
+        when(mockedAuthenticationProperties.isSignedTokenMode()).thenReturn(true);
+        when(mockedAuthenticationProperties.getTokenSigningKeys()).thenReturn(List.of());
+
+        // Act
+        var result = assertThrows(
+                IllegalStateException.class,
+                () -> new SignedTokenService(mockedAuthenticationProperties)
+        );
+
+        // Assert
+        assertEquals(IllegalStateException.class, result.getClass());
+    }
+
+    // Private Functions
+
+    private String changeUnusedBitsOfLastCharacter(String token) {
+        // A 32 byte signature is 43 characters, whose last character has 2 bits that are not used
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        int lastCharacter = alphabet.indexOf(token.charAt(token.length() - 1));
+        return token.substring(0, token.length() - 1) + alphabet.charAt(lastCharacter ^ 1);
+    }
+
+    private byte[] secret(int value) {
+        byte[] secret = new byte[32];
+        Arrays.fill(secret, (byte) value);
+        return secret;
+    }
+
+}
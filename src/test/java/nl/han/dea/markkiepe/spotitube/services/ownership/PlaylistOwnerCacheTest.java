@@ -0,0 +1,200 @@
+package nl.han.dea.markkiepe.spotitube.services.ownership;
+
+import nl.han.dea.markkiepe.spotitube.datasource.exceptions.DatabaseErrorException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlaylistOwnerCacheTest {
+
+    private static final int PLAYLIST_ID = 15;
+    private static final int OWNER_ID = 123;
+
+    private PlaylistOwnerCache sut;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        sut = new PlaylistOwnerCache(16, 60000);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void aLoadedOwnerIsRememberedSoTheSecondLookupDoesNotLoadIt() {
+        // Act
+        sut.getOwnerId(PLAYLIST_ID, this::load);
+        var result = sut.getOwnerId(PLAYLIST_ID, this::load);
+
+        // Assert
+        assertEquals(OWNER_ID, result);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void aPlaylistThatDoesNotExistIsNotRemembered() {
+        // Act
+        sut.getOwnerId(PLAYLIST_ID, playlistId -> 0);
+
+        // Assert
+        assertEquals(0, sut.get(PLAYLIST_ID));
+    }
+
+    @Test
+    void anInvalidatedPlaylistIsLoadedAgain() {
+        // Arrange
+        sut.put(PLAYLIST_ID, OWNER_ID);
+
+        // Act
+        sut.invalidate(PLAYLIST_ID);
+        sut.getOwnerId(PLAYLIST_ID, this::load);
+
+        // Assert
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void anExpiredOwnerIsNotReturned() {
+        // Arrange
+        sut = new PlaylistOwnerCache(16, 0);
+
+        // Act
+        sut.put(PLAYLIST_ID, OWNER_ID);
+
+        // Assert
+        assertEquals(0, sut.get(PLAYLIST_ID));
+    }
+
+    @Test
+    void theCacheNeverHoldsMorePlaylistsThanItsSize() {
+        // Arrange
+        sut = new PlaylistOwnerCache(4, 60000);
+
+        // Act
+        for (int playlistId = 1; playlistId <= 100; playlistId++) {
+            sut.put(playlistId, OWNER_ID);
+        }
+        int cached = 0;
+        for (int playlistId = 1; playlistId <= 100; playlistId++) {
+            if (sut.get(playlistId) > 0) {
+                cached++;
+            }
+        }
+
+        // Assert
+        assertTrue(cached <= 4);
+        assertEquals(OWNER_ID, sut.get(100));
+    }
+
+    @Test
+    void aPlaylistThatIsInvalidatedWhileItIsLoadedIsNotRemembered() {
+        // Act
+        sut.getOwnerId(PLAYLIST_ID, playlistId -> {
+            sut.invalidate(PLAYLIST_ID);
+            return OWNER_ID;
+        });
+
+        // Assert
+        assertEquals(0, sut.get(PLAYLIST_ID));
+    }
+
+    @Test
+    void concurrentMissesOfTheSamePlaylistAreLoadedOnce() throws Exception {
+        // Arrange
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // Act
+        Future<Integer> first = executor.submit(() -> sut.getOwnerId(PLAYLIST_ID, playlistId -> {
+            loaderStarted.countDown();
+            try {
+                releaseLoader.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return load(playlistId);
+        }));
+        loaderStarted.await();
+        Future<Integer> second = executor.submit(() -> sut.getOwnerId(PLAYLIST_ID, this::load));
+        Thread.sleep(50);
+        releaseLoader.countDown();
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(OWNER_ID, first.get());
+        assertEquals(OWNER_ID, second.get());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void whenTheLoaderThrowsAnErrorTheWaitingRequestGetsItInsteadOfWaitingForever() throws Exception {
+        // Arrange
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // Act
+        Future<Integer> first = executor.submit(() -> sut.getOwnerId(PLAYLIST_ID, playlistId -> {
+            loaderStarted.countDown();
+            try {
+                releaseLoader.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new AssertionError();
+        }));
+        loaderStarted.await();
+        Future<Integer> second = executor.submit(() -> sut.getOwnerId(PLAYLIST_ID, this::load));
+        Thread.sleep(50);
+        releaseLoader.countDown();
+        executor.shutdown();
+
+        // Assert
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(AssertionError.class, assertThrows(ExecutionException.class, first::get).getCause().getClass());
+        assertEquals(AssertionError.class, assertThrows(ExecutionException.class, second::get).getCause().getClass());
+    }
+
+    @Test
+    void whenTheLoaderFailsTheExceptionIsThrown() {
+        // Act & Assert
+        assertThrows(
+                DatabaseErrorException.class,
+                () -> sut.getOwnerId(PLAYLIST_ID, playlistId -> {
+                    throw new DatabaseErrorException();
+                })
+        );
+    }
+
+    @Test
+    void aCacheWithoutSizeAlwaysLoads() {
+        // Arrange
+        sut = new PlaylistOwnerCache(0, 60000);
+
+        // Act
+        sut.getOwnerId(PLAYLIST_ID, this::load);
+        sut.getOwnerId(PLAYLIST_ID, this::load);
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    // Private Functions
+
+    private int load(int playlistId) {
+        loads.incrementAndGet();
+        return OWNER_ID;
+    }
+
+}
@@ -0,0 +1,242 @@
+package nl.han.dea.markkiepe.spotitube.services.playlists;
+
+import nl.han.dea.markkiepe.spotitube.datasource.dao.playlists.PlaylistDao;
+import nl.han.dea.markkiepe.spotitube.datasource.exceptions.DatabaseErrorException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlaylistOverviewCacheTest {
+
+    private static final int USER_ID = 123;
+    private static final int PLAYLIST_ID = 15;
+    private static final String PLAYLIST_NAME = "nicePlaylist";
+    private static final int PLAYLIST_LENGTH = 300;
+
+    private PlaylistOverviewCache sut;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        sut = new PlaylistOverviewCache(16, 60000);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void aLoadedOverviewIsRememberedSoTheSecondRequestDoesNotLoadIt() {
+        // Act
+        sut.get(USER_ID, this::load);
+        var result = sut.get(USER_ID, this::load);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(PLAYLIST_ID, result.get(0).getId());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void anExpiredOverviewIsLoadedAgain() {
+        // Arrange
+        sut = new PlaylistOverviewCache(16, 0);
+
+        // Act
+        sut.get(USER_ID, this::load);
+        sut.get(USER_ID, this::load);
+
+        // Assert
+        assertEquals(2, loads.get());
+        assertEquals(0, sut.size());
+    }
+
+    @Test
+    void theCacheNeverHoldsMoreUsersThanItsSize() {
+        // Arrange
+        sut = new PlaylistOverviewCache(2, 60000);
+
+        // Act
+        sut.get(1, this::load);
+        sut.get(2, this::load);
+        sut.get(1, this::load);
+        sut.get(3, this::load);
+        sut.get(1, this::load);
+
+        // Assert
+        assertEquals(2, sut.size());
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void updatingAnOverviewPatchesTheCachedPlaylists() {
+        // Arrange
+        sut.get(USER_ID, this::load);
+
+        // Act
+        sut.update(USER_ID, playlists -> List.of(new PlaylistDao(PLAYLIST_ID, "otherName", PLAYLIST_LENGTH)));
+        var result = sut.get(USER_ID, this::load);
+
+        // Assert
+        assertEquals("otherName", result.get(0).getName());
+        assertEquals(PLAYLIST_LENGTH, result.get(0).getLength());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void updatingAnOverviewThatIsNotCachedDoesNothing() {
+        // Act
+        sut.update(USER_ID, playlists -> {
+            throw new IllegalStateException();
+        });
+
+        // Assert
+        assertEquals(0, sut.size());
+    }
+
+    @Test
+    void anInvalidatedOverviewIsLoadedAgain() {
+        // Arrange
+        sut.get(USER_ID, this::load);
+
+        // Act
+        sut.invalidate(USER_ID);
+        sut.get(USER_ID, this::load);
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void anOverviewThatChangedWhileItWasLoadedIsNotCached() {
+        // Act
+        sut.get(USER_ID, userId -> {
+            sut.invalidate(userId);
+            return load(userId);
+        });
+
+        // Assert
+        assertEquals(0, sut.size());
+    }
+
+    @Test
+    void anOverviewIsCachedWhenTheOverviewOfAnotherUserChangedWhileItWasLoaded() {
+        // Act
+        sut.get(USER_ID, userId -> {
+            sut.invalidate(userId + 1);
+            sut.update(userId + 2, playlists -> playlists);
+            return load(userId);
+        });
+        sut.get(USER_ID, this::load);
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals(1, sut.size());
+    }
+
+    @Test
+    void theCachedOverviewCannotBeModified() {
+        // Act
+        var result = sut.get(USER_ID, this::load);
+
+        // Assert
+        assertThrows(UnsupportedOperationException.class, () -> result.add(new PlaylistDao(1, PLAYLIST_NAME, 0)));
+    }
+
+    @Test
+    void concurrentMissesForTheSameUserOnlyLoadTheOverviewOnce() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            // Act
+            Future<List<PlaylistDao>> first = executor.submit(() -> sut.get(USER_ID, userId -> {
+                loading.countDown();
+                await(release);
+                return load(userId);
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<List<PlaylistDao>> second = executor.submit(() -> sut.get(USER_ID, this::load));
+            Thread.sleep(50);
+            release.countDown();
+
+            // Assert
+            assertEquals(PLAYLIST_ID, first.get(5, TimeUnit.SECONDS).get(0).getId());
+            assertEquals(PLAYLIST_ID, second.get(5, TimeUnit.SECONDS).get(0).getId());
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void whenTheLoaderThrowsAnErrorTheWaitingRequestGetsItInsteadOfWaitingForever() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            // Act
+            Future<List<PlaylistDao>> first = executor.submit(() -> sut.get(USER_ID, userId -> {
+                loading.countDown();
+                await(release);
+                throw new AssertionError();
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<List<PlaylistDao>> second = executor.submit(() -> sut.get(USER_ID, this::load));
+            Thread.sleep(50);
+            release.countDown();
+
+            // Assert
+            var firstResult = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            var secondResult = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+            assertEquals(AssertionError.class, firstResult.getCause().getClass());
+            assertEquals(AssertionError.class, secondResult.getCause().getClass());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void aFailedLoadIsNotCached() {
+        // Act
+        assertThrows(DatabaseErrorException.class, () -> sut.get(USER_ID, userId -> {
+            throw new DatabaseErrorException();
+        }));
+        sut.get(USER_ID, this::load);
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals(1, sut.size());
+    }
+
+    // Private Functions
+
+    private List<PlaylistDao> load(int userId) {
+        loads.incrementAndGet();
+        List<PlaylistDao> playlists = new ArrayList<>();
+        playlists.add(new PlaylistDao(PLAYLIST_ID, PLAYLIST_NAME, PLAYLIST_LENGTH));
+        return playlists;
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -5,23 +5,25 @@ import nl.han.dea.markkiepe.spotitube.datasource.dao.playlists.PlaylistDao;
 import nl.han.dea.markkiepe.spotitube.datasource.dao.playlists.PlaylistsDao;
 import nl.han.dea.markkiepe.spotitube.resources.dto.playlists.PlaylistDTO;
 import nl.han.dea.markkiepe.spotitube.services.AuthenticationManager;
+import nl.han.dea.markkiepe.spotitube.services.authentication.UserPrincipal;
 import nl.han.dea.markkiepe.spotitube.services.exceptions.UnauthorizedException;
-import nl.han.dea.markkiepe.spotitube.services.exceptions.UserNotFoundException;
 import nl.han.dea.markkiepe.spotitube.services.tracks.TrackService;
+import nl.han.dea.markkiepe.spotitube.services.versioning.ResourceVersions;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 class PlaylistServiceTest {
 
-    private static final String EXISTING_TOKEN = "9213-1245-1239";
-    private static final String UNAUTHORIZED_TOKEN = "1241-1242-3124";
-    private static final String NOT_EXISTING_TOKEN = "125091927491274";
     private static final int EXISTING_USERID = 124;
     private static final int UNAUTHORIZED_USERID = 142;
     private static final String PLAYLIST_NAME = "nicePlaylist";
@@ -30,6 +32,8 @@ class PlaylistServiceTest {
     private PlaylistService sut;
     private PlaylistMapper mockedPlaylistMapper;
     private AuthenticationManager mockedAuthenticationManager;
+    private UserPrincipal existingUser;
+    private UserPrincipal unauthorizedUser;
     private TrackService mockedTrackService;
     private PlaylistDTO mockedPlaylistDTO;
     private PlaylistsDao mockedPlaylistsDao;
@@ -41,6 +45,14 @@ class PlaylistServiceTest {
         mockedTrackService = mock(TrackService.class);
         mockedPlaylistMapper = mock(PlaylistMapper.class);
         mockedAuthenticationManager = mock(AuthenticationManager.class);
+        existingUser = new UserPrincipal(
+                EXISTING_USERID,
+                playlistId -> mockedAuthenticationManager.userHasPlaylistOwnership(EXISTING_USERID, playlistId)
+        );
+        unauthorizedUser = new UserPrincipal(
+                UNAUTHORIZED_USERID,
+                playlistId -> mockedAuthenticationManager.userHasPlaylistOwnership(UNAUTHORIZED_USERID, playlistId)
+        );
         mockedPlaylistDTO = mock(PlaylistDTO.class);
         mockedPlaylistsDao = mock(PlaylistsDao.class);
         //
@@ -48,75 +60,70 @@ class PlaylistServiceTest {
         sut.setTrackService(mockedTrackService);
         sut.setPlaylistAuthentication(mockedAuthenticationManager);
         //
-        when(mockedAuthenticationManager.getUserIdFromToken(EXISTING_TOKEN)).thenReturn(EXISTING_USERID);
-        when(mockedAuthenticationManager.getUserIdFromToken(UNAUTHORIZED_TOKEN)).thenReturn(UNAUTHORIZED_USERID);
-        when(mockedAuthenticationManager.getUserIdFromToken(NOT_EXISTING_TOKEN)).thenReturn(0);
         when(mockedAuthenticationManager.userHasPlaylistOwnership(EXISTING_USERID, PLAYLIST_ID)).thenReturn(true);
         when(mockedAuthenticationManager.userHasPlaylistOwnership(UNAUTHORIZED_USERID, PLAYLIST_ID)).thenReturn(false);
         when(mockedPlaylistDTO.getName()).thenReturn(PLAYLIST_NAME);
         when(mockedPlaylistDTO.getId()).thenReturn(PLAYLIST_ID);
         when(mockedPlaylistMapper.getPlaylistsFromUserId(EXISTING_USERID)).thenReturn(mockedPlaylistsDao);
+        when(mockedPlaylistMapper.deletePlaylist(EXISTING_USERID, PLAYLIST_ID)).thenReturn(true);
+        when(mockedPlaylistMapper.createPlaylist(EXISTING_USERID, PLAYLIST_NAME)).thenReturn(PLAYLIST_ID);
+        when(mockedPlaylistMapper.modifyPlaylist(PLAYLIST_ID, PLAYLIST_NAME)).thenReturn(true);
     }
 
-    @Test
-    void gettingUsersWithAnInvalidTokenReturnsAUserNotFoundException() {
-        // Act
-        var result = assertThrows(
-                UserNotFoundException.class,
-                () -> sut.getPlaylists(NOT_EXISTING_TOKEN)
-        );
-
-        // Assert
-        verify(mockedAuthenticationManager, times(1)).getUserIdFromToken(NOT_EXISTING_TOKEN);
-        assertEquals(UserNotFoundException.class, result.getClass());
+    @AfterEach
+    void teardown() {
+        sut.setPlaylistOverviewCache(null);
+        sut.setResourceVersions(null);
     }
 
     @Test
     void gettingUsersPlaylistsUsesPlaylistMapperAndReturnsAPlaylistsObject() {
         // Act
-        var result = sut.getPlaylists(EXISTING_TOKEN);
+        var result = sut.getPlaylists(existingUser);
 
         // Assert
-        verify(mockedAuthenticationManager, times(1)).getUserIdFromToken(EXISTING_TOKEN);
         verify(mockedPlaylistMapper, times(1)).getPlaylistsFromUserId(EXISTING_USERID);
         assertEquals(Playlists.class, result.getClass());
     }
 
     @Test
-    void creatingPlaylistWithAnInvalidTokenReturnsAUserNotFoundException() {
+    void whenAPageOfPlaylistsIsFullTheIdOfTheLastPlaylistIsTheNextCursor() {
+        // Arrange
+        PlaylistsDao playlistsDao = new PlaylistsDao();
+        playlistsDao.addPlaylistDao(new PlaylistDao(PLAYLIST_ID, PLAYLIST_NAME, 10));
+        playlistsDao.addPlaylistDao(new PlaylistDao(PLAYLIST_ID + 1, PLAYLIST_NAME, 20));
+        when(mockedPlaylistMapper.getPlaylistsFromUserId(EXISTING_USERID, PLAYLIST_ID - 1, 2)).thenReturn(playlistsDao);
+        when(mockedPlaylistMapper.getPlaylistsLength(EXISTING_USERID)).thenReturn(500);
+
         // Act
-        var result = assertThrows(
-                UserNotFoundException.class,
-                () -> sut.createPlaylist(NOT_EXISTING_TOKEN, mockedPlaylistDTO)
-        );
+        var result = sut.getPlaylists(existingUser, PLAYLIST_ID - 1, 2);
 
         // Assert
-        verify(mockedAuthenticationManager, times(1)).getUserIdFromToken(NOT_EXISTING_TOKEN);
-        assertEquals(UserNotFoundException.class, result.getClass());
+        assertEquals(2, result.getPlaylists().size());
+        assertEquals(PLAYLIST_ID + 1, result.getNextCursor());
+        assertEquals(500, result.getLength());
+        verify(mockedPlaylistMapper, never()).getPlaylistsFromUserId(EXISTING_USERID);
     }
 
     @Test
-    void creatingPlaylistUsesPlaylistMapperAndReturnsAPlaylistsObject() {
+    void whenAPageOfPlaylistsIsNotFullThereIsNoNextCursor() {
         // Act
-        var result = sut.createPlaylist(EXISTING_TOKEN, mockedPlaylistDTO);
+        var result = sut.getPlaylists(existingUser, -5, 1000);
 
         // Assert
-        verify(mockedAuthenticationManager, times(1)).getUserIdFromToken(EXISTING_TOKEN);
-        verify(mockedPlaylistMapper, times(1)).createPlaylist(EXISTING_USERID, PLAYLIST_NAME);
-        assertEquals(Playlists.class, result.getClass());
+        verify(mockedPlaylistMapper, times(1)).getPlaylistsFromUserId(EXISTING_USERID, 0, 100);
+        assertNull(result.getNextCursor());
     }
 
     @Test
-    void deletingPlaylistWithInvalidTokenThrowsUserNotFoundException() {
+    void creatingPlaylistUsesPlaylistMapperAndReturnsAPlaylistsObject() {
         // Act
-        var result = assertThrows(
-                UserNotFoundException.class,
-                () -> sut.deletePlaylist(NOT_EXISTING_TOKEN, PLAYLIST_ID)
-        );
+        var result = sut.createPlaylist(existingUser, mockedPlaylistDTO);
 
         // Assert
-        verify(mockedAuthenticationManager, times(1)).getUserIdFromToken(NOT_EXISTING_TOKEN);
-        assertEquals(UserNotFoundException.class, result.getClass());
+        verify(mockedPlaylistMapper, times(1)).createPlaylist(EXISTING_USERID, PLAYLIST_NAME);
+        verify(mockedAuthenticationManager, times(1)).playlistCreated(PLAYLIST_ID, EXISTING_USERID);
+        assertEquals(Playlists.class, result.getClass());
     }
 
     @Test
@@ -124,11 +131,10 @@ class PlaylistServiceTest {
         // Act
         var result = assertThrows(
                 UnauthorizedException.class,
-                () -> sut.deletePlaylist(UNAUTHORIZED_TOKEN, PLAYLIST_ID)
+                () -> sut.deletePlaylist(unauthorizedUser, PLAYLIST_ID)
         );
 
         // Assert
-        verify(mockedAuthenticationManager, times(1)).getUserIdFromToken(UNAUTHORIZED_TOKEN);
         verify(mockedAuthenticationManager, times(1)).userHasPlaylistOwnership(UNAUTHORIZED_USERID, PLAYLIST_ID);
         assertEquals(UnauthorizedException.class, result.getClass());
     }
@@ -136,26 +142,29 @@ class PlaylistServiceTest {
     @Test
     void deletingPlaylistUsesPlaylistMapperAndReturnsPlaylistObject() {
         // Act
-        var result = sut.deletePlaylist(EXISTING_TOKEN, PLAYLIST_ID);
+        var result = sut.deletePlaylist(existingUser, PLAYLIST_ID);
 
         // Assert
-        verify(mockedAuthenticationManager, times(1)).getUserIdFromToken(EXISTING_TOKEN);
         verify(mockedAuthenticationManager, times(1)).userHasPlaylistOwnership(EXISTING_USERID, PLAYLIST_ID);
-        verify(mockedPlaylistMapper, times(1)).deletePlaylist(PLAYLIST_ID);
+        verify(mockedPlaylistMapper, times(1)).deletePlaylist(EXISTING_USERID, PLAYLIST_ID);
+        verify(mockedAuthenticationManager, times(1)).playlistDeleted(PLAYLIST_ID);
         assertEquals(result.getClass(), Playlists.class);
     }
 
     @Test
-    void editingPlaylistWithInvalidTokenThrowsUserNotFoundException() {
+    void deletingPlaylistThatIsNoLongerOwnedInTheTransactionThrowsUnauthorizedException() {
+        // Arrange
+        when(mockedPlaylistMapper.deletePlaylist(EXISTING_USERID, PLAYLIST_ID)).thenReturn(false);
+
         // Act
         var result = assertThrows(
-                UserNotFoundException.class,
-                () -> sut.editPlaylist(NOT_EXISTING_TOKEN, PLAYLIST_ID, mockedPlaylistDTO)
+                UnauthorizedException.class,
+                () -> sut.deletePlaylist(existingUser, PLAYLIST_ID)
         );
 
         // Assert
-        verify(mockedAuthenticationManager, times(1)).getUserIdFromToken(NOT_EXISTING_TOKEN);
-        assertEquals(UserNotFoundException.class, result.getClass());
+        verify(mockedPlaylistMapper, never()).getPlaylistsFromUserId(EXISTING_USERID);
+        assertEquals(UnauthorizedException.class, result.getClass());
     }
 
     @Test
@@ -163,11 +172,10 @@ class PlaylistServiceTest {
         // Act
         var result = assertThrows(
                 UnauthorizedException.class,
-                () -> sut.editPlaylist(UNAUTHORIZED_TOKEN, PLAYLIST_ID, mockedPlaylistDTO)
+                () -> sut.editPlaylist(unauthorizedUser, PLAYLIST_ID, mockedPlaylistDTO)
         );
 
         // Assert
-        verify(mockedAuthenticationManager, times(1)).getUserIdFromToken(UNAUTHORIZED_TOKEN);
         verify(mockedAuthenticationManager, times(1)).userHasPlaylistOwnership(UNAUTHORIZED_USERID, PLAYLIST_ID);
         assertEquals(UnauthorizedException.class, result.getClass());
     }
@@ -175,12 +183,153 @@ class PlaylistServiceTest {
     @Test
     void editingPlaylistUsesPlaylistMapperAndReturnsPlaylistObject() {
         // Act
-        var result = sut.editPlaylist(EXISTING_TOKEN, PLAYLIST_ID, mockedPlaylistDTO);
+        var result = sut.editPlaylist(existingUser, PLAYLIST_ID, mockedPlaylistDTO);
 
         // Assert
-        verify(mockedAuthenticationManager, times(1)).getUserIdFromToken(EXISTING_TOKEN);
         verify(mockedAuthenticationManager, times(1)).userHasPlaylistOwnership(EXISTING_USERID, PLAYLIST_ID);
         verify(mockedPlaylistMapper, times(1)).modifyPlaylist(PLAYLIST_ID, PLAYLIST_NAME);
         assertEquals(result.getClass(), Playlists.class);
     }
+
+    @Test
+    void editingPlaylistThatNoLongerExistsThrowsUnauthorizedException() {
+        // Arrange
+        when(mockedPlaylistMapper.modifyPlaylist(PLAYLIST_ID, PLAYLIST_NAME)).thenReturn(false);
+
+        // Act
+        var result = assertThrows(
+                UnauthorizedException.class,
+                () -> sut.editPlaylist(existingUser, PLAYLIST_ID, mockedPlaylistDTO)
+        );
+
+        // Assert
+        verify(mockedPlaylistMapper, never()).getPlaylistsFromUserId(EXISTING_USERID);
+        assertEquals(UnauthorizedException.class, result.getClass());
+    }
+
+    @Test
+    void gettingUsersPlaylistsTwiceWithACacheOnlyQueriesTheDatabaseOnce() {
+        // Arrange
+        sut.setPlaylistOverviewCache(new PlaylistOverviewCache(16, 60000));
+        when(mockedPlaylistsDao.getPlaylists()).thenReturn(playlistDaos(new PlaylistDao(PLAYLIST_ID, PLAYLIST_NAME, 100)));
+
+        // Act
+        sut.getPlaylists(existingUser);
+        var result = sut.getPlaylists(existingUser);
+
+        // Assert
+        verify(mockedPlaylistMapper, times(1)).getPlaylistsFromUserId(EXISTING_USERID);
+        assertEquals(1, result.getPlaylists().size());
+        assertEquals(100, result.getLength());
+    }
+
+    @Test
+    void creatingPlaylistWithACacheAddsItToTheCachedOverview() {
+        // Arrange
+        PlaylistOverviewCache cache = new PlaylistOverviewCache(16, 60000);
+        sut.setPlaylistOverviewCache(cache);
+        sut.getPlaylists(existingUser);
+
+        // Act
+        sut.createPlaylist(existingUser, mockedPlaylistDTO);
+        List<PlaylistDao> result = cache.get(EXISTING_USERID, userId -> List.of());
+
+        // Assert
+        verify(mockedPlaylistMapper, times(1)).getPlaylistsFromUserId(EXISTING_USERID);
+        assertEquals(1, result.size());
+        assertEquals(PLAYLIST_ID, result.get(0).getId());
+        assertEquals(PLAYLIST_NAME, result.get(0).getName());
+    }
+
+    @Test
+    void editingPlaylistWithACacheRenamesItInTheCachedOverview() {
+        // Arrange
+        PlaylistOverviewCache cache = new PlaylistOverviewCache(16, 60000);
+        sut.setPlaylistOverviewCache(cache);
+        when(mockedPlaylistsDao.getPlaylists()).thenReturn(playlistDaos(new PlaylistDao(PLAYLIST_ID, "oldName", 100)));
+        sut.getPlaylists(existingUser);
+
+        // Act
+        sut.editPlaylist(existingUser, PLAYLIST_ID, mockedPlaylistDTO);
+        List<PlaylistDao> result = cache.get(EXISTING_USERID, userId -> List.of());
+
+        // Assert
+        verify(mockedPlaylistMapper, times(1)).getPlaylistsFromUserId(EXISTING_USERID);
+        assertEquals(PLAYLIST_NAME, result.get(0).getName());
+        assertEquals(100, result.get(0).getLength());
+    }
+
+    @Test
+    void deletingPlaylistWithACacheRemovesItFromTheCachedOverview() {
+        // Arrange
+        PlaylistOverviewCache cache = new PlaylistOverviewCache(16, 60000);
+        sut.setPlaylistOverviewCache(cache);
+        when(mockedPlaylistsDao.getPlaylists()).thenReturn(playlistDaos(new PlaylistDao(PLAYLIST_ID, PLAYLIST_NAME, 100)));
+        sut.getPlaylists(existingUser);
+
+        // Act
+        var result = sut.deletePlaylist(existingUser, PLAYLIST_ID);
+
+        // Assert
+        verify(mockedPlaylistMapper, times(1)).getPlaylistsFromUserId(EXISTING_USERID);
+        assertEquals(0, result.getPlaylists().size());
+        assertEquals(0, result.getLength());
+    }
+
+    @Test
+    void gettingThePlaylistsVersionWithoutVersionsReturnsNull() {
+        // Act
+        var result = sut.getPlaylistsVersion(existingUser);
+
+        // Assert
+        assertEquals(null, result);
+    }
+
+    @Test
+    void creatingPlaylistChangesTheVersionOfTheUsersPlaylists() {
+        // Arrange
+        ResourceVersions resourceVersions = new ResourceVersions(16, 0);
+        sut.setResourceVersions(resourceVersions);
+        String before = sut.getPlaylistsVersion(existingUser);
+
+        // Act
+        sut.createPlaylist(existingUser, mockedPlaylistDTO);
+        String result = sut.getPlaylistsVersion(existingUser);
+
+        // Assert
+        assertNotEquals(before, result);
+    }
+
+    @Test
+    void deletingPlaylistChangesTheVersionOfTheUsersPlaylistsAndOfItsTracks() {
+        // Arrange
+        ResourceVersions mockedResourceVersions = mock(ResourceVersions.class);
+        sut.setResourceVersions(mockedResourceVersions);
+
+        // Act
+        sut.deletePlaylist(existingUser, PLAYLIST_ID);
+
+        // Assert
+        verify(mockedResourceVersions, times(1)).userChanged(EXISTING_USERID);
+        verify(mockedResourceVersions, times(1)).playlistChanged(PLAYLIST_ID);
+    }
+
+    @Test
+    void failingToEditPlaylistDoesNotChangeAnyVersion() {
+        // Arrange
+        ResourceVersions mockedResourceVersions = mock(ResourceVersions.class);
+        sut.setResourceVersions(mockedResourceVersions);
+
+        // Act
+        assertThrows(UnauthorizedException.class, () -> sut.editPlaylist(unauthorizedUser, PLAYLIST_ID, mockedPlaylistDTO));
+
+        // Assert
+        verifyNoInteractions(mockedResourceVersions);
+    }
+
+    // Private Functions
+
+    private ArrayList<PlaylistDao> playlistDaos(PlaylistDao... playlists) {
+        return new ArrayList<>(List.of(playlists));
+    }
 }
\ No newline at end of file
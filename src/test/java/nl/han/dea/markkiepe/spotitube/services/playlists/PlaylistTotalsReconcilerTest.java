@@ -0,0 +1,94 @@
+package nl.han.dea.markkiepe.spotitube.services.playlists;
+
+import nl.han.dea.markkiepe.spotitube.datasource.PlaylistMapper;
+import nl.han.dea.markkiepe.spotitube.datasource.exceptions.DatabaseErrorException;
+import nl.han.dea.markkiepe.spotitube.datasource.util.DatabaseProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PlaylistTotalsReconcilerTest {
+
+    private PlaylistTotalsReconciler sut;
+    private PlaylistMapper mockedPlaylistMapper;
+    private DatabaseProperties mockedDatabaseProperties;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        mockedPlaylistMapper = mock(PlaylistMapper.class);
+        mockedDatabaseProperties = mock(DatabaseProperties.class);
+        when(mockedDatabaseProperties.getPlaylistTotalsReconciliationInterval()).thenReturn(0L);
+        //
+        sut = new PlaylistTotalsReconciler(mockedPlaylistMapper, mockedDatabaseProperties);
+    }
+
+    @AfterEach
+    void teardown() {
+        sut.shutdown();
+    }
+
+    @Test
+    void reconcilingReturnsTheAmountOfRepairedPlaylists() {
+        // Arrange
+        when(mockedPlaylistMapper.reconcilePlaylistTotals()).thenReturn(3);
+
+        // Act
+        var result = sut.reconcile();
+
+        // Assert
+        verify(mockedPlaylistMapper, times(1)).reconcilePlaylistTotals();
+        assertEquals(3, result);
+    }
+
+    @Test
+    void aFailedReconciliationDoesNotThrow() {
+        // Arrange
+        when(mockedPlaylistMapper.reconcilePlaylistTotals()).thenThrow(DatabaseErrorException.class);
+
+        // Act
+        var result = sut.reconcile();
+
+        // Assert
+        assertEquals(0, result);
+    }
+
+    @Test
+    void theReconciliationRunsInTheBackgroundAfterTheInterval() {
+        // Arrange
+        sut.shutdown();
+        when(mockedDatabaseProperties.getPlaylistTotalsReconciliationInterval()).thenReturn(10L);
+
+        // Act
+        sut = new PlaylistTotalsReconciler(mockedPlaylistMapper, mockedDatabaseProperties);
+
+        // Assert
+        verify(mockedPlaylistMapper, timeout(5000).atLeastOnce()).reconcilePlaylistTotals();
+    }
+
+    @Test
+    void theFirstReconciliationRunsRightAwayOnStartup() {
+        // Arrange
+        sut.shutdown();
+        when(mockedDatabaseProperties.getPlaylistTotalsReconciliationInterval()).thenReturn(3600000L);
+
+        // Act
+        sut = new PlaylistTotalsReconciler(mockedPlaylistMapper, mockedDatabaseProperties);
+
+        // Assert
+        verify(mockedPlaylistMapper, timeout(5000).times(1)).reconcilePlaylistTotals();
+    }
+
+    @Test
+    void aDisabledReconciliationNeverRuns() throws Exception {
+        // Act
+        Thread.sleep(50);
+
+        // Assert
+        verify(mockedPlaylistMapper, never()).reconcilePlaylistTotals();
+    }
+
+}
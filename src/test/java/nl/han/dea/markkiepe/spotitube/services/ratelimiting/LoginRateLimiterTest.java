@@ -0,0 +1,65 @@
+package nl.han.dea.markkiepe.spotitube.services.ratelimiting;
+
+import nl.han.dea.markkiepe.spotitube.services.exceptions.TooManyRequestsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimiterTest {
+
+    private static final long REFILL_INTERVAL = 12000;
+
+    private LoginRateLimiter sut;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        sut = new LoginRateLimiter(
+                new RateLimiter(2, REFILL_INTERVAL, 100),
+                new RateLimiter(1, REFILL_INTERVAL, 100)
+        );
+    }
+
+    @Test
+    void whenAUsernameMadeTooManyAttemptsTheSecondsUntilTheNextAttemptAreThrown() {
+        // Arrange
+        sut.acquireForUsername("mark");
+
+        // Act
+        var result = assertThrows(
+                TooManyRequestsException.class,
+                () -> sut.acquireForUsername("mark")
+        );
+
+        // Assert
+        assertEquals(REFILL_INTERVAL / 1000, result.getRetryAfterSeconds());
+    }
+
+    @Test
+    void usernamesAreLimitedWithoutRegardToCase() {
+        // Arrange
+        sut.acquireForUsername("mark");
+
+        // Act & Assert
+        assertThrows(
+                TooManyRequestsException.class,
+                () -> sut.acquireForUsername("MARK ")
+        );
+    }
+
+    @Test
+    void addressesAreLimitedSeparatelyFromUsernames() {
+        // Arrange
+        sut.acquireForUsername("mark");
+
+        // Act & Assert
+        assertDoesNotThrow(() -> sut.acquireForAddress("mark"));
+        assertDoesNotThrow(() -> sut.acquireForAddress("mark"));
+        assertThrows(
+                TooManyRequestsException.class,
+                () -> sut.acquireForAddress("mark")
+        );
+    }
+
+}
@@ -0,0 +1,180 @@
+package nl.han.dea.markkiepe.spotitube.services.ratelimiting;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private static final int CAPACITY = 3;
+    private static final long REFILL_INTERVAL = 1000;
+    private static final int MAXIMUM_BUCKETS = 10;
+    private static final long NOW = 1_000_000;
+
+    private RateLimiter sut;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        sut = new RateLimiter(CAPACITY, REFILL_INTERVAL, MAXIMUM_BUCKETS);
+    }
+
+    @Test
+    void aFullBucketAllowsItsCapacityAndThenRefusesWithTheWaitForTheNextToken() {
+        // Act
+        for (int i = 0; i < CAPACITY; i++) {
+            assertEquals(0, sut.tryAcquire("user", NOW));
+        }
+        long result = sut.tryAcquire("user", NOW);
+
+        // Assert
+        assertEquals(REFILL_INTERVAL, result);
+    }
+
+    @Test
+    void aBucketIsRefilledWithOneTokenPerRefillInterval() {
+        // Arrange
+        for (int i = 0; i < CAPACITY; i++) {
+            sut.tryAcquire("user", NOW);
+        }
+
+        // Act
+        long first = sut.tryAcquire("user", NOW + REFILL_INTERVAL);
+        long second = sut.tryAcquire("user", NOW + REFILL_INTERVAL);
+
+        // Assert
+        assertEquals(0, first);
+        assertTrue(second > 0);
+    }
+
+    @Test
+    void keysHaveTheirOwnBucket() {
+        // Arrange
+        for (int i = 0; i < CAPACITY; i++) {
+            sut.tryAcquire("user", NOW);
+        }
+
+        // Act
+        long result = sut.tryAcquire("other", NOW);
+
+        // Assert
+        assertEquals(0, result);
+    }
+
+    @Test
+    void aCapacityOfZeroAllowsEveryAttemptWithoutKeepingBuckets() {
+        // Arrange
+        sut = new RateLimiter(0, REFILL_INTERVAL, MAXIMUM_BUCKETS);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, sut.tryAcquire("user", NOW));
+        }
+
+        // Assert
+        assertEquals(0, sut.size());
+    }
+
+    @Test
+    void bucketsThatAreFullAgainAreRemovedBySweeping() {
+        // Arrange
+        sut.tryAcquire("idle", NOW);
+        for (int i = 0; i < CAPACITY; i++) {
+            sut.tryAcquire("busy", NOW + REFILL_INTERVAL);
+        }
+
+        // Act
+        sut.sweep(NOW + REFILL_INTERVAL);
+
+        // Assert
+        assertEquals(1, sut.size());
+    }
+
+    @Test
+    void theAmountOfBucketsStaysBoundedWhenEveryAttemptUsesANewKey() {
+        // Act
+        for (int i = 0; i < MAXIMUM_BUCKETS * 10; i++) {
+            sut.tryAcquire("user" + i, NOW);
+        }
+
+        // Assert
+        assertTrue(sut.size() <= MAXIMUM_BUCKETS);
+    }
+
+    @Test
+    void aLimitingBucketIsNotRemovedWhenManyNewKeysAreUsed() {
+        // Arrange
+        for (int i = 0; i < CAPACITY; i++) {
+            sut.tryAcquire("victim", NOW);
+        }
+
+        // Act
+        for (int i = 0; i < MAXIMUM_BUCKETS * 10; i++) {
+            sut.tryAcquire("attacker" + i, NOW + i);
+        }
+        long result = sut.tryAcquire("victim", NOW + 100);
+
+        // Assert
+        assertTrue(result > 0);
+    }
+
+    @Test
+    void aNewKeyIsRefusedUntilTheNextSweepWhenNoBucketIsFullAgain() {
+        // Arrange
+        for (int i = 0; i < MAXIMUM_BUCKETS; i++) {
+            sut.tryAcquire("user" + i, NOW);
+        }
+
+        // Act
+        long result = sut.tryAcquire("other", NOW + 500);
+
+        // Assert
+        assertEquals(500, result);
+        assertEquals(MAXIMUM_BUCKETS, sut.size());
+    }
+
+    @Test
+    void aNewKeyIsAllowedOnceTheNextSweepRemovedTheBucketsThatAreFullAgain() {
+        // Arrange
+        for (int i = 0; i < MAXIMUM_BUCKETS; i++) {
+            sut.tryAcquire("user" + i, NOW);
+        }
+        sut.tryAcquire("other", NOW + 500);
+
+        // Act
+        long result = sut.tryAcquire("other", NOW + REFILL_INTERVAL);
+
+        // Assert
+        assertEquals(0, result);
+        assertEquals(1, sut.size());
+    }
+
+    @Test
+    void concurrentAttemptsNeverTakeMoreTokensThanTheCapacity() throws Exception {
+        // Arrange
+        sut = new RateLimiter(50, 60000, MAXIMUM_BUCKETS);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger allowed = new AtomicInteger();
+
+        // Act
+        for (int i = 0; i < 500; i++) {
+            executor.execute(() -> {
+                if (sut.tryAcquire("user", NOW) == 0) {
+                    allowed.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(50, allowed.get());
+    }
+
+}
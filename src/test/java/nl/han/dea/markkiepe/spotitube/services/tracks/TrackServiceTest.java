@@ -1,24 +1,27 @@
 package nl.han.dea.markkiepe.spotitube.services.tracks;
 
 import nl.han.dea.markkiepe.spotitube.datasource.TracksMapper;
+import nl.han.dea.markkiepe.spotitube.datasource.dao.playlists.PlaylistDao;
 import nl.han.dea.markkiepe.spotitube.datasource.dao.tracks.TrackDao;
 import nl.han.dea.markkiepe.spotitube.datasource.dao.tracks.TracksDao;
 import nl.han.dea.markkiepe.spotitube.services.AuthenticationManager;
+import nl.han.dea.markkiepe.spotitube.services.authentication.UserPrincipal;
 import nl.han.dea.markkiepe.spotitube.services.exceptions.UnauthorizedException;
-import nl.han.dea.markkiepe.spotitube.services.exceptions.UserNotFoundException;
+import nl.han.dea.markkiepe.spotitube.services.playlists.PlaylistOverviewCache;
+import nl.han.dea.markkiepe.spotitube.services.versioning.ResourceVersions;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class TrackServiceTest {
 
-    private static final String EXISTING_TOKEN = "9213-1245-1239";
-    private static final String UNAUTHORIZED_TOKEN = "1241-1242-3124";
-    private static final String NOT_EXISTING_TOKEN = "125091927491274";
     private static final int EXISTING_USERID = 124;
     private static final int UNAUTHORIZED_USERID = 142;
     private static final int PLAYLIST_ID = 456;
@@ -26,6 +29,8 @@ class TrackServiceTest {
 
     private TrackService sut;
     private AuthenticationManager mockedAuthenticationManager;
+    private UserPrincipal existingUser;
+    private UserPrincipal unauthorizedUser;
     private TracksMapper mockedTracksMapper;
     private Track mockedTrack;
     private TracksDao mockedTracksDao;
@@ -36,48 +41,47 @@ class TrackServiceTest {
         // Arrange
         sut = new TrackService();
         mockedAuthenticationManager = mock(AuthenticationManager.class);
+        existingUser = new UserPrincipal(
+                EXISTING_USERID,
+                playlistId -> mockedAuthenticationManager.userHasPlaylistOwnership(EXISTING_USERID, playlistId)
+        );
+        unauthorizedUser = new UserPrincipal(
+                UNAUTHORIZED_USERID,
+                playlistId -> mockedAuthenticationManager.userHasPlaylistOwnership(UNAUTHORIZED_USERID, playlistId)
+        );
         mockedTracksMapper = mock(TracksMapper.class);
         mockedTrack = mock(Track.class);
         mockedTracksDao = mock(TracksDao.class);
         mockedArrayList = mock(ArrayList.class);
         //
-        sut.setAuthenticationManager(mockedAuthenticationManager);
         sut.setTracksMapper(mockedTracksMapper);
         //
-        when(mockedAuthenticationManager.getUserIdFromToken(EXISTING_TOKEN)).thenReturn(EXISTING_USERID);
-        when(mockedAuthenticationManager.getUserIdFromToken(UNAUTHORIZED_TOKEN)).thenReturn(UNAUTHORIZED_USERID);
-        when(mockedAuthenticationManager.getUserIdFromToken(NOT_EXISTING_TOKEN)).thenReturn(0);
         when(mockedAuthenticationManager.userHasPlaylistOwnership(EXISTING_USERID, PLAYLIST_ID)).thenReturn(true);
         when(mockedAuthenticationManager.userHasPlaylistOwnership(UNAUTHORIZED_USERID, PLAYLIST_ID)).thenReturn(false);
         when(mockedTrack.getId()).thenReturn(TRACK_ID);
         when(mockedTracksMapper.getTracksInPlaylist(PLAYLIST_ID)).thenReturn(mockedTracksDao);
-        when(mockedTracksMapper.getTracksNotInPlaylist(PLAYLIST_ID)).thenReturn(mockedTracksDao);
+        when(mockedTracksMapper.getTracksNotInPlaylist(eq(PLAYLIST_ID), anyInt(), anyInt())).thenReturn(mockedTracksDao);
         when(mockedTracksDao.getTracks()).thenReturn(mockedArrayList);
+        when(mockedTracksMapper.addTrackToPlaylist(EXISTING_USERID, PLAYLIST_ID, TRACK_ID)).thenReturn(new TracksDao());
+        when(mockedTracksMapper.deleteTrackFromPlaylist(EXISTING_USERID, PLAYLIST_ID, TRACK_ID)).thenReturn(true);
     }
 
-    @Test
-    void gettingTracksInPlaylistWithAnNotExistingTokenThrowsUserNotFoundException() {
-        // Act
-        var result = assertThrows(
-                UserNotFoundException.class,
-                () -> sut.getTracksInPlaylist(NOT_EXISTING_TOKEN, PLAYLIST_ID)
-        );
-
-        // Assert
-        verify(mockedAuthenticationManager, times(1)).getUserIdFromToken(NOT_EXISTING_TOKEN);
-        assertEquals(UserNotFoundException.class, result.getClass());
+    @AfterEach
+    void teardown() {
+        sut.setPlaylistOverviewCache(null);
+        sut.setPlaylistTracksCache(null);
+        sut.setResourceVersions(null);
     }
 
     @Test
-    void gettingTracksInPlaylistWithAnNotAuthorizedTokenThrowsUnauthorizedException() {
+    void gettingTracksInPlaylistWithAnUnauthorizedUserThrowsUnauthorizedException() {
         // Act
         var result = assertThrows(
                 UnauthorizedException.class,
-                () -> sut.getTracksInPlaylist(UNAUTHORIZED_TOKEN, PLAYLIST_ID)
+                () -> sut.getTracksInPlaylist(unauthorizedUser, PLAYLIST_ID)
         );
 
         // Assert
-        verify(mockedAuthenticationManager, times(1)).getUserIdFromToken(UNAUTHORIZED_TOKEN);
         verify(mockedAuthenticationManager, times(1)).userHasPlaylistOwnership(UNAUTHORIZED_USERID, PLAYLIST_ID);
         assertEquals(UnauthorizedException.class, result.getClass());
     }
@@ -85,38 +89,68 @@ class TrackServiceTest {
     @Test
     void gettingTracksInPlaylistReturnsTracksObjectAndInvokesTrackMapper() {
         // Act
-        var result = sut.getTracksInPlaylist(EXISTING_TOKEN, PLAYLIST_ID);
+        var result = sut.getTracksInPlaylist(existingUser, PLAYLIST_ID);
 
         // Assert
-        verify(mockedAuthenticationManager, times(1)).getUserIdFromToken(EXISTING_TOKEN);
         verify(mockedAuthenticationManager, atLeastOnce()).userHasPlaylistOwnership(EXISTING_USERID, PLAYLIST_ID);
         verify(mockedTracksMapper, times(1)).getTracksInPlaylist(PLAYLIST_ID);
         assertEquals(Tracks.class, result.getClass());
     }
 
     @Test
-    void gettingTracksNotInPlaylistWithAnNotExistingTokenThrowsUserNotFoundException() {
+    void gettingAPageOfTracksInPlaylistWithAnUnauthorizedUserThrowsUnauthorizedException() {
         // Act
         var result = assertThrows(
-                UserNotFoundException.class,
-                () -> sut.getTracksNotInPlaylist(NOT_EXISTING_TOKEN, PLAYLIST_ID)
+                UnauthorizedException.class,
+                () -> sut.getTracksInPlaylist(unauthorizedUser, PLAYLIST_ID, 0, 10)
         );
 
         // Assert
-        verify(mockedAuthenticationManager, times(1)).getUserIdFromToken(NOT_EXISTING_TOKEN);
-        assertEquals(UserNotFoundException.class, result.getClass());
+        verify(mockedTracksMapper, never()).getTracksInPlaylist(anyInt(), anyInt(), anyInt());
+        assertEquals(UnauthorizedException.class, result.getClass());
     }
 
     @Test
-    void gettingTracksNotInPlaylistWithAnNotAuthorizedTokenThrowsUnauthorizedException() {
+    void whenAPageOfTracksInPlaylistIsFullTheIdOfTheLastTrackIsTheNextCursor() {
+        // Arrange
+        TracksDao tracksDao = new TracksDao();
+        tracksDao.addTrack(createTrackDao(TRACK_ID));
+        tracksDao.addTrack(createTrackDao(TRACK_ID + 1));
+        when(mockedTracksMapper.getTracksInPlaylist(PLAYLIST_ID, TRACK_ID - 1, 2)).thenReturn(tracksDao);
+
+        // Act
+        var result = sut.getTracksInPlaylist(existingUser, PLAYLIST_ID, TRACK_ID - 1, 2);
+
+        // Assert
+        assertEquals(2, result.getTracks().size());
+        assertEquals(TRACK_ID + 1, result.getNextCursor());
+        verify(mockedTracksMapper, never()).getTracksInPlaylist(PLAYLIST_ID);
+    }
+
+    @Test
+    void whenAPageOfTracksInPlaylistIsNotFullThereIsNoNextCursor() {
+        // Arrange
+        TracksDao tracksDao = new TracksDao();
+        tracksDao.addTrack(createTrackDao(TRACK_ID));
+        when(mockedTracksMapper.getTracksInPlaylist(PLAYLIST_ID, 0, 100)).thenReturn(tracksDao);
+
+        // Act
+        var result = sut.getTracksInPlaylist(existingUser, PLAYLIST_ID, -5, 1000);
+
+        // Assert
+        assertEquals(1, result.getTracks().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void gettingTracksNotInPlaylistWithAnUnauthorizedUserThrowsUnauthorizedException() {
         // Act
         var result = assertThrows(
                 UnauthorizedException.class,
-                () -> sut.getTracksNotInPlaylist(UNAUTHORIZED_TOKEN, PLAYLIST_ID)
+                () -> sut.getTracksNotInPlaylist(unauthorizedUser, PLAYLIST_ID)
         );
 
         // Assert
-        verify(mockedAuthenticationManager, times(1)).getUserIdFromToken(UNAUTHORIZED_TOKEN);
         verify(mockedAuthenticationManager, times(1)).userHasPlaylistOwnership(UNAUTHORIZED_USERID, PLAYLIST_ID);
         assertEquals(UnauthorizedException.class, result.getClass());
     }
@@ -124,38 +158,82 @@ class TrackServiceTest {
     @Test
     void gettingTracksNotInPlaylistReturnsTracksObjectAndInvokesTrackMapper() {
         // Act
-        var result = sut.getTracksNotInPlaylist(EXISTING_TOKEN, PLAYLIST_ID);
+        var result = sut.getTracksNotInPlaylist(existingUser, PLAYLIST_ID);
 
         // Assert
-        verify(mockedAuthenticationManager, times(1)).getUserIdFromToken(EXISTING_TOKEN);
         verify(mockedAuthenticationManager, atLeastOnce()).userHasPlaylistOwnership(EXISTING_USERID, PLAYLIST_ID);
-        verify(mockedTracksMapper, times(1)).getTracksNotInPlaylist(PLAYLIST_ID);
+        verify(mockedTracksMapper, times(1)).getTracksNotInPlaylist(PLAYLIST_ID, 0, 10);
         assertEquals(Tracks.class, result.getClass());
     }
 
     @Test
-    void addingTrackToPlaylistWithAnNotExistingTokenThrowsUserNotFoundException() {
+    void whenAPageOfTracksNotInPlaylistIsFullTheIdOfTheLastTrackIsTheNextCursor() {
+        // Arrange
+        TracksDao tracksDao = new TracksDao();
+        tracksDao.addTrack(new TrackDao(TRACK_ID, null, null, 0, null, 0, null, null, false));
+        tracksDao.addTrack(new TrackDao(TRACK_ID + 1, null, null, 0, null, 0, null, null, false));
+        when(mockedTracksMapper.getTracksNotInPlaylist(PLAYLIST_ID, TRACK_ID - 1, 2)).thenReturn(tracksDao);
+
+        // Act
+        var result = sut.getTracksNotInPlaylist(existingUser, PLAYLIST_ID, TRACK_ID - 1, 2);
+
+        // Assert
+        assertEquals(2, result.getTracks().size());
+        assertEquals(TRACK_ID + 1, result.getNextCursor());
+    }
+
+    @Test
+    void whenAPageOfTracksNotInPlaylistIsNotFullThereIsNoNextCursor() {
+        // Act
+        var result = sut.getTracksNotInPlaylist(existingUser, PLAYLIST_ID, 0, 1000);
+
+        // Assert
+        verify(mockedTracksMapper, times(1)).getTracksNotInPlaylist(PLAYLIST_ID, 0, 100);
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void streamingTracksNotInPlaylistWithAnUnauthorizedUserThrowsUnauthorizedExceptionBeforeQuerying() {
         // Act
         var result = assertThrows(
-                UserNotFoundException.class,
-                () -> sut.addTrackInPlaylist(NOT_EXISTING_TOKEN, PLAYLIST_ID, mockedTrack)
+                UnauthorizedException.class,
+                () -> sut.streamTracksNotInPlaylist(unauthorizedUser, PLAYLIST_ID, 0)
         );
 
         // Assert
-        verify(mockedAuthenticationManager, times(1)).getUserIdFromToken(NOT_EXISTING_TOKEN);
-        assertEquals(UserNotFoundException.class, result.getClass());
+        verify(mockedTracksMapper, never()).streamTracksNotInPlaylist(anyInt(), anyInt(), any());
+        assertEquals(UnauthorizedException.class, result.getClass());
+    }
+
+    @Test
+    void streamingTracksNotInPlaylistOnlyQueriesTheDatabaseWhenTheStreamIsConsumed() {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<TrackDao> consumer = invocation.getArgument(2);
+            consumer.accept(new TrackDao(TRACK_ID, null, null, 0, null, 0, null, null, false));
+            return null;
+        }).when(mockedTracksMapper).streamTracksNotInPlaylist(eq(PLAYLIST_ID), eq(0), any());
+        List<Track> tracks = new ArrayList<>();
+
+        // Act
+        TrackStream result = sut.streamTracksNotInPlaylist(existingUser, PLAYLIST_ID, 0);
+        verify(mockedTracksMapper, never()).streamTracksNotInPlaylist(anyInt(), anyInt(), any());
+        result.forEach(tracks::add);
+
+        // Assert
+        assertEquals(1, tracks.size());
+        assertEquals(TRACK_ID, tracks.get(0).getId());
     }
 
     @Test
-    void addingTrackToPlaylistWithAnNotAuthorizedTokenThrowsUnauthorizedException() {
+    void addingTrackToPlaylistWithAnUnauthorizedUserThrowsUnauthorizedException() {
         // Act
         var result = assertThrows(
                 UnauthorizedException.class,
-                () -> sut.addTrackInPlaylist(UNAUTHORIZED_TOKEN, PLAYLIST_ID, mockedTrack)
+                () -> sut.addTrackInPlaylist(unauthorizedUser, PLAYLIST_ID, mockedTrack)
         );
 
         // Assert
-        verify(mockedAuthenticationManager, times(1)).getUserIdFromToken(UNAUTHORIZED_TOKEN);
         verify(mockedAuthenticationManager, times(1)).userHasPlaylistOwnership(UNAUTHORIZED_USERID, PLAYLIST_ID);
         assertEquals(UnauthorizedException.class, result.getClass());
     }
@@ -163,10 +241,9 @@ class TrackServiceTest {
     @Test
     void addingTrackToPlaylistReturnsTracksObjectAndInvokesTrackMapper() {
         // Act
-        var result = sut.addTrackInPlaylist(EXISTING_TOKEN, PLAYLIST_ID, mockedTrack);
+        var result = sut.addTrackInPlaylist(existingUser, PLAYLIST_ID, mockedTrack);
 
         // Assert
-        verify(mockedAuthenticationManager, times(1)).getUserIdFromToken(EXISTING_TOKEN);
         verify(mockedAuthenticationManager, atLeastOnce()).userHasPlaylistOwnership(EXISTING_USERID, PLAYLIST_ID);
         verify(mockedTrack, times(1)).getId();
         verify(mockedTracksMapper, times(1)).addTrackToPlaylist(EXISTING_USERID, PLAYLIST_ID, TRACK_ID);
@@ -174,28 +251,39 @@ class TrackServiceTest {
     }
 
     @Test
-    void deletingTrackFromPlaylistWithAnNotExistingTokenThrowsUserNotFoundException() {
+    void addingTracksToPlaylistWithAnUnauthorizedUserThrowsUnauthorizedException() {
         // Act
         var result = assertThrows(
-                UserNotFoundException.class,
-                () -> sut.deleteTrackInPlaylist(NOT_EXISTING_TOKEN, PLAYLIST_ID, TRACK_ID)
+                UnauthorizedException.class,
+                () -> sut.addTracksInPlaylist(unauthorizedUser, PLAYLIST_ID, List.of(TRACK_ID))
         );
 
         // Assert
-        verify(mockedAuthenticationManager, times(1)).getUserIdFromToken(NOT_EXISTING_TOKEN);
-        assertEquals(UserNotFoundException.class, result.getClass());
+        verify(mockedTracksMapper, never()).addTracksToPlaylist(anyInt(), anyInt(), any());
+        assertEquals(UnauthorizedException.class, result.getClass());
+    }
+
+    @Test
+    void addingTracksToPlaylistAddsEveryTrackOnceInASingleBatch() {
+        // Act
+        var result = sut.addTracksInPlaylist(existingUser, PLAYLIST_ID, List.of(TRACK_ID, TRACK_ID + 1, TRACK_ID));
+
+        // Assert
+        verify(mockedAuthenticationManager, times(1)).userHasPlaylistOwnership(EXISTING_USERID, PLAYLIST_ID);
+        verify(mockedTracksMapper, times(1)).addTracksToPlaylist(EXISTING_USERID, PLAYLIST_ID, new int[] { TRACK_ID, TRACK_ID + 1 });
+        verify(mockedTracksMapper, times(1)).getTracksInPlaylist(PLAYLIST_ID);
+        assertEquals(Tracks.class, result.getClass());
     }
 
     @Test
-    void deletingTrackFromPlaylistWithAnNotAuthorizedTokenThrowsUnauthorizedException() {
+    void deletingTrackFromPlaylistWithAnUnauthorizedUserThrowsUnauthorizedException() {
         // Act
         var result = assertThrows(
                 UnauthorizedException.class,
-                () -> sut.deleteTrackInPlaylist(UNAUTHORIZED_TOKEN, PLAYLIST_ID, TRACK_ID)
+                () -> sut.deleteTrackInPlaylist(unauthorizedUser, PLAYLIST_ID, TRACK_ID)
         );
 
         // Assert
-        verify(mockedAuthenticationManager, times(1)).getUserIdFromToken(UNAUTHORIZED_TOKEN);
         verify(mockedAuthenticationManager, times(1)).userHasPlaylistOwnership(UNAUTHORIZED_USERID, PLAYLIST_ID);
         assertEquals(UnauthorizedException.class, result.getClass());
     }
@@ -203,13 +291,199 @@ class TrackServiceTest {
     @Test
     void deletingTrackFromPlaylistReturnsTracksObjectAndInvokesTrackMapper() {
         // Act
-        var result = sut.deleteTrackInPlaylist(EXISTING_TOKEN, PLAYLIST_ID, TRACK_ID);
+        var result = sut.deleteTrackInPlaylist(existingUser, PLAYLIST_ID, TRACK_ID);
 
         // Assert
-        verify(mockedAuthenticationManager, times(1)).getUserIdFromToken(EXISTING_TOKEN);
         verify(mockedAuthenticationManager, atLeastOnce()).userHasPlaylistOwnership(EXISTING_USERID, PLAYLIST_ID);
-        verify(mockedTracksMapper, times(1)).deleteTrackFromPlaylist(PLAYLIST_ID, TRACK_ID);
+        verify(mockedTracksMapper, times(1)).deleteTrackFromPlaylist(EXISTING_USERID, PLAYLIST_ID, TRACK_ID);
         assertEquals(Tracks.class, result.getClass());
     }
 
-}
\ No newline at end of file
+    @Test
+    void deletingTrackFromPlaylistThatIsNoLongerOwnedInTheTransactionThrowsUnauthorizedException() {
+        // Arrange
+        when(mockedTracksMapper.deleteTrackFromPlaylist(EXISTING_USERID, PLAYLIST_ID, TRACK_ID)).thenReturn(false);
+
+        // Act
+        var result = assertThrows(
+                UnauthorizedException.class,
+                () -> sut.deleteTrackInPlaylist(existingUser, PLAYLIST_ID, TRACK_ID)
+        );
+
+        // Assert
+        verify(mockedTracksMapper, never()).getTracksInPlaylist(PLAYLIST_ID);
+        assertEquals(UnauthorizedException.class, result.getClass());
+    }
+
+    @Test
+    void addingTrackToPlaylistPatchesTheLengthOfThePlaylistInTheCachedOverview() {
+        // Arrange
+        PlaylistOverviewCache cache = new PlaylistOverviewCache(16, 60000);
+        sut.setPlaylistOverviewCache(cache);
+        cache.get(EXISTING_USERID, userId -> List.of(
+                new PlaylistDao(PLAYLIST_ID, "playlist", 100),
+                new PlaylistDao(PLAYLIST_ID + 1, "other", 50)
+        ));
+        TracksDao existingTracks = new TracksDao();
+        existingTracks.addTrack(createTrackDao(1));
+        existingTracks.addTrack(createTrackDao(TRACK_ID));
+        when(mockedTracksMapper.getTracksInPlaylist(PLAYLIST_ID)).thenReturn(existingTracks);
+
+        // Act
+        sut.addTrackInPlaylist(existingUser, PLAYLIST_ID, mockedTrack);
+        var result = cache.get(EXISTING_USERID, userId -> fail("The overview should still be cached"));
+
+        // Assert
+        assertEquals(200, result.get(0).getLength());
+        assertEquals(50, result.get(1).getLength());
+    }
+
+    @Test
+    void deletingTrackFromPlaylistPatchesTheLengthOfThePlaylistInTheCachedOverview() {
+        // Arrange
+        PlaylistOverviewCache cache = new PlaylistOverviewCache(16, 60000);
+        sut.setPlaylistOverviewCache(cache);
+        cache.get(EXISTING_USERID, userId -> List.of(new PlaylistDao(PLAYLIST_ID, "playlist", 200)));
+        TracksDao remainingTracks = new TracksDao();
+        remainingTracks.addTrack(createTrackDao(1));
+        when(mockedTracksMapper.getTracksInPlaylist(PLAYLIST_ID)).thenReturn(remainingTracks);
+
+        // Act
+        sut.deleteTrackInPlaylist(existingUser, PLAYLIST_ID, TRACK_ID);
+        var result = cache.get(EXISTING_USERID, userId -> fail("The overview should still be cached"));
+
+        // Assert
+        assertEquals(100, result.get(0).getLength());
+    }
+
+    @Test
+    void anUnauthorizedTrackChangeDoesNotChangeTheCachedPlaylistOverview() {
+        // Arrange
+        PlaylistOverviewCache mockedCache = mock(PlaylistOverviewCache.class);
+        sut.setPlaylistOverviewCache(mockedCache);
+
+        // Act
+        assertThrows(UnauthorizedException.class, () -> sut.addTrackInPlaylist(unauthorizedUser, PLAYLIST_ID, mockedTrack));
+
+        // Assert
+        verify(mockedCache, never()).update(anyInt(), any());
+        verify(mockedCache, never()).invalidate(anyInt());
+    }
+
+    @Test
+    void addingTrackToPlaylistWithCachedTracksBuildsTheResponseWithoutReadingThePlaylistAgain() {
+        // Arrange
+        sut.setPlaylistTracksCache(new PlaylistTracksCache(16, 60000));
+        TracksDao existingTracks = new TracksDao();
+        existingTracks.addTrack(createTrackDao(1));
+        TracksDao addedTracks = new TracksDao();
+        addedTracks.addTrack(createTrackDao(TRACK_ID));
+        when(mockedTracksMapper.getTracksInPlaylist(PLAYLIST_ID)).thenReturn(existingTracks);
+        when(mockedTracksMapper.addTrackToPlaylist(EXISTING_USERID, PLAYLIST_ID, TRACK_ID)).thenReturn(addedTracks);
+        sut.getTracksInPlaylist(existingUser, PLAYLIST_ID);
+
+        // Act
+        var result = sut.addTrackInPlaylist(existingUser, PLAYLIST_ID, mockedTrack);
+
+        // Assert
+        verify(mockedTracksMapper, times(1)).getTracksInPlaylist(PLAYLIST_ID);
+        assertEquals(2, result.getTracks().size());
+        assertEquals(TRACK_ID, result.getTracks().get(1).getId());
+    }
+
+    @Test
+    void addingTrackToPlaylistWithoutCachedTracksReadsThePlaylist() {
+        // Arrange
+        sut.setPlaylistTracksCache(new PlaylistTracksCache(16, 60000));
+        when(mockedTracksMapper.getTracksInPlaylist(PLAYLIST_ID)).thenReturn(new TracksDao());
+
+        // Act
+        sut.addTrackInPlaylist(existingUser, PLAYLIST_ID, mockedTrack);
+
+        // Assert
+        verify(mockedTracksMapper, times(1)).getTracksInPlaylist(PLAYLIST_ID);
+    }
+
+    @Test
+    void deletingTrackFromPlaylistWithCachedTracksBuildsTheResponseWithoutReadingThePlaylistAgain() {
+        // Arrange
+        sut.setPlaylistTracksCache(new PlaylistTracksCache(16, 60000));
+        TracksDao existingTracks = new TracksDao();
+        existingTracks.addTrack(createTrackDao(1));
+        existingTracks.addTrack(createTrackDao(TRACK_ID));
+        when(mockedTracksMapper.getTracksInPlaylist(PLAYLIST_ID)).thenReturn(existingTracks);
+        sut.getTracksInPlaylist(existingUser, PLAYLIST_ID);
+
+        // Act
+        var result = sut.deleteTrackInPlaylist(existingUser, PLAYLIST_ID, TRACK_ID);
+
+        // Assert
+        verify(mockedTracksMapper, times(1)).getTracksInPlaylist(PLAYLIST_ID);
+        assertEquals(1, result.getTracks().size());
+        assertEquals(1, result.getTracks().get(0).getId());
+    }
+
+    @Test
+    void addingTracksToPlaylistInABatchReadsThePlaylistAgain() {
+        // Arrange
+        sut.setPlaylistTracksCache(new PlaylistTracksCache(16, 60000));
+        when(mockedTracksMapper.getTracksInPlaylist(PLAYLIST_ID)).thenReturn(new TracksDao());
+        sut.getTracksInPlaylist(existingUser, PLAYLIST_ID);
+
+        // Act
+        sut.addTracksInPlaylist(existingUser, PLAYLIST_ID, List.of(TRACK_ID));
+
+        // Assert
+        verify(mockedTracksMapper, times(2)).getTracksInPlaylist(PLAYLIST_ID);
+    }
+
+    @Test
+    void gettingTheVersionOfTracksInPlaylistWithAnUnauthorizedUserThrowsUnauthorizedException() {
+        // Arrange
+        sut.setResourceVersions(new ResourceVersions(16, 0));
+
+        // Act
+        var result = assertThrows(
+                UnauthorizedException.class,
+                () -> sut.getTracksInPlaylistVersion(unauthorizedUser, PLAYLIST_ID)
+        );
+
+        // Assert
+        assertEquals(UnauthorizedException.class, result.getClass());
+    }
+
+    @Test
+    void addingTrackToPlaylistChangesTheVersionOfItsTracksAndOfTheUsersPlaylists() {
+        // Arrange
+        ResourceVersions mockedResourceVersions = mock(ResourceVersions.class);
+        sut.setResourceVersions(mockedResourceVersions);
+
+        // Act
+        sut.addTrackInPlaylist(existingUser, PLAYLIST_ID, mockedTrack);
+
+        // Assert
+        verify(mockedResourceVersions, times(1)).playlistChanged(PLAYLIST_ID);
+        verify(mockedResourceVersions, times(1)).userChanged(EXISTING_USERID);
+    }
+
+    @Test
+    void deletingTrackFromPlaylistChangesTheVersionOfItsTracks() {
+        // Arrange
+        ResourceVersions resourceVersions = new ResourceVersions(16, 0);
+        sut.setResourceVersions(resourceVersions);
+        String before = sut.getTracksInPlaylistVersion(existingUser, PLAYLIST_ID);
+
+        // Act
+        sut.deleteTrackInPlaylist(existingUser, PLAYLIST_ID, TRACK_ID);
+        String result = sut.getTracksInPlaylistVersion(existingUser, PLAYLIST_ID);
+
+        // Assert
+        assertNotEquals(before, result);
+    }
+
+    // Private Functions
+
+    private TrackDao createTrackDao(int trackId) {
+        return new TrackDao(trackId, "title", "performer", 100, "album", 0, null, "description", false);
+    }
+}
@@ -0,0 +1,107 @@
+package nl.han.dea.markkiepe.spotitube.services.versioning;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceVersionsTest {
+
+    private static final int USER_ID = 12;
+    private static final int OTHER_USER_ID = 13;
+    private static final int PLAYLIST_ID = 456;
+    private static final long TIME_TO_LIVE = 30000;
+    private static final long NOW = 1000000;
+
+    private ResourceVersions sut;
+
+    @BeforeEach
+    void setup() {
+        // Arrange
+        sut = new ResourceVersions(1024, TIME_TO_LIVE);
+    }
+
+    @Test
+    void theVersionOfAUserStaysTheSameWithoutAChange() {
+        // Act
+        var first = sut.getUserVersion(USER_ID, NOW);
+        var second = sut.getUserVersion(USER_ID, NOW + 1);
+
+        // Assert
+        assertEquals(first, second);
+    }
+
+    @Test
+    void theVersionOfAUserChangesAfterAChange() {
+        // Arrange
+        var before = sut.getUserVersion(USER_ID, NOW);
+
+        // Act
+        sut.userChanged(USER_ID);
+        var result = sut.getUserVersion(USER_ID, NOW);
+
+        // Assert
+        assertNotEquals(before, result);
+    }
+
+    @Test
+    void aChangeToAPlaylistDoesNotChangeTheVersionOfAUser() {
+        // Arrange
+        var before = sut.getUserVersion(USER_ID, NOW);
+
+        // Act
+        sut.playlistChanged(USER_ID);
+        var result = sut.getUserVersion(USER_ID, NOW);
+
+        // Assert
+        assertEquals(before, result);
+    }
+
+    @Test
+    void theVersionOfAPlaylistChangesAfterAChange() {
+        // Arrange
+        var before = sut.getPlaylistVersion(PLAYLIST_ID, NOW);
+
+        // Act
+        sut.playlistChanged(PLAYLIST_ID);
+        var result = sut.getPlaylistVersion(PLAYLIST_ID, NOW);
+
+        // Assert
+        assertNotEquals(before, result);
+    }
+
+    @Test
+    void usersThatShareASlotNeverHaveTheSameVersion() {
+        // Arrange
+        sut = new ResourceVersions(1, TIME_TO_LIVE);
+
+        // Act
+        var user = sut.getUserVersion(USER_ID, NOW);
+        var otherUser = sut.getUserVersion(OTHER_USER_ID, NOW);
+
+        // Assert
+        assertNotEquals(user, otherUser);
+    }
+
+    @Test
+    void everyVersionChangesAfterTheTimeToLive() {
+        // Arrange
+        var before = sut.getUserVersion(USER_ID, NOW);
+
+        // Act
+        var result = sut.getUserVersion(USER_ID, NOW + TIME_TO_LIVE);
+
+        // Assert
+        assertNotEquals(before, result);
+    }
+
+    @Test
+    void versionsOfAnotherInstanceNeverMatch() {
+        // Act
+        var result = new ResourceVersions(1024, TIME_TO_LIVE).getUserVersion(USER_ID, NOW);
+
+        // Assert
+        assertNotEquals(sut.getUserVersion(USER_ID, NOW), result);
+    }
+
+}